@@ -0,0 +1,95 @@
+package benchmark;
+import model.Funcionario;
+import org.openjdk.jmh.annotations.*;
+import repository.RepositorioFuncionarios;
+import service.FuncionarioServiceConcorrente;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do {@link FuncionarioServiceConcorrente} com leituras e escritas
+ * misturadas.  O número de threads é escolhido na linha de comando:
+ *
+ * <pre>
+ * for t in 1 4 16 64; do java -jar target/benchmarks.jar ConcorrenteBenchmark -t $t; done
+ * </pre>
+ *
+ * <p>As escritas removem um funcionário e o inserem de novo, para que o
+ * tamanho do repositório permaneça estável; uma em cada cem escritas é
+ * um reajuste da função "Diretor".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConcorrenteBenchmark {
+
+    private static final Map<String, BigDecimal> REAJUSTE = Map.of("Diretor", new BigDecimal("0.1"));
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 1, 1);
+
+    @State(Scope.Benchmark)
+    public static class Repositorio {
+
+        @Param({"100000"})
+        int tamanho;
+
+        /** Porcentagem das operações que são leituras. */
+        @Param({"90", "50"})
+        int leituras;
+
+        FuncionarioServiceConcorrente service;
+        String[] nomes;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            List<Funcionario> funcionarios = DadosSinteticos.gerar(tamanho, 42);
+            service = new FuncionarioServiceConcorrente(RepositorioFuncionarios.de(funcionarios));
+            SplittableRandom random = new SplittableRandom(7);
+            nomes = new String[1024];
+            for (int i = 0; i < nomes.length; i++) {
+                nomes[i] = DadosSinteticos.nomeExistente(funcionarios, random);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sorteio {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            random = new SplittableRandom(Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    public Object misto(Repositorio estado, Sorteio sorteio) {
+        FuncionarioServiceConcorrente service = estado.service;
+        SplittableRandom random = sorteio.random;
+        String nome = estado.nomes[random.nextInt(estado.nomes.length)];
+        if (random.nextInt(100) < estado.leituras) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    return service.buscarPorNome(nome);
+                case 1:
+                    return service.somarSalarios();
+                case 2:
+                    return service.funcionariosMaisVelhos(10);
+                default:
+                    return service.contarPorFaixaEtaria(REFERENCIA, 30, 40, 50);
+            }
+        }
+        if (random.nextInt(100) == 0) {
+            service.aplicarAumentoPorFuncao(REAJUSTE);
+            return REAJUSTE;
+        }
+        service.removerPorNome(nome).ifPresent(service::adicionar);
+        return nome;
+    }
+}
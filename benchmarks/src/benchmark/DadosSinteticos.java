@@ -0,0 +1,126 @@
+package benchmark;
+import model.Funcionario;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador de funcionários sintéticos para os benchmarks.  Os nomes
+ * seguem uma distribuição de Zipf sobre prenomes e sobrenomes comuns no
+ * Brasil (com acentos, para exercitar a colação pt-BR), as funções têm
+ * pesos parecidos com os de uma empresa real (muitos operadores, poucos
+ * diretores) e o salário depende da função.  A geração é determinística
+ * para uma mesma semente.
+ */
+public final class DadosSinteticos {
+
+    private static final String[] PRENOMES = {
+            "Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos", "Paulo", "Pedro", "Lucas",
+            "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Francisca", "Daniel", "Marcelo", "Bruno", "Eduardo",
+            "Juliana", "Adriana", "Márcia", "Fernanda", "Patrícia", "Aline", "Sandra", "Camila", "Amanda", "Bruna",
+            "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa", "Mariana", "Heloísa", "Laura", "Caio", "Ângela",
+            "Otávio", "Vitória", "Sérgio", "Cláudia", "Fábio", "Débora", "Alice", "Miguel", "Arthur", "Helena"
+    };
+
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+            "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas",
+            "Araújo", "Conceição", "Brandão", "Gonçalves", "Simões", "Magalhães", "Galvão", "Assunção", "Müller", "D'Ávila"
+    };
+
+    private static final String[] FUNCOES = {
+            "Operador", "Recepcionista", "Eletricista", "Contador", "Coordenador", "Gerente", "Diretor"
+    };
+
+    /** Participação de cada função, em milésimos. */
+    private static final int[] PESOS_FUNCOES = {550, 150, 120, 80, 60, 30, 10};
+
+    /** Salário base de cada função, em centavos. */
+    private static final long[] SALARIOS_BASE = {
+            2_000_00L, 2_100_00L, 3_000_00L, 5_500_00L, 7_000_00L, 12_000_00L, 25_000_00L
+    };
+
+    private static final double[] ACUMULADO_PRENOMES = acumuladoZipf(PRENOMES.length, 1.0);
+    private static final double[] ACUMULADO_SOBRENOMES = acumuladoZipf(SOBRENOMES.length, 0.8);
+
+    private static final int INICIO_NASCIMENTOS = (int) LocalDate.of(1955, 1, 1).toEpochDay();
+    private static final int FIM_NASCIMENTOS = (int) LocalDate.of(2006, 12, 31).toEpochDay();
+
+    private DadosSinteticos() {
+    }
+
+    /**
+     * Gera uma lista mutável de funcionários sintéticos.
+     *
+     * @param quantidade quantidade de funcionários
+     * @param semente    semente do gerador pseudoaleatório
+     * @return a lista de funcionários
+     */
+    public static List<Funcionario> gerar(int quantidade, long semente) {
+        SplittableRandom random = new SplittableRandom(semente);
+        List<Funcionario> funcionarios = new ArrayList<>(quantidade);
+        StringBuilder nome = new StringBuilder(48);
+        for (int i = 0; i < quantidade; i++) {
+            nome.setLength(0);
+            nome.append(PRENOMES[sortear(ACUMULADO_PRENOMES, random)]).append(' ')
+                    .append(SOBRENOMES[sortear(ACUMULADO_SOBRENOMES, random)]);
+            if (random.nextInt(3) == 0) {
+                nome.append(' ').append(SOBRENOMES[sortear(ACUMULADO_SOBRENOMES, random)]);
+            }
+            int funcao = sortearFuncao(random);
+            // variação de -20% a +60% sobre o salário base da função
+            long centavos = SALARIOS_BASE[funcao] * (80 + random.nextInt(81)) / 100;
+            funcionarios.add(new Funcionario(
+                    nome.toString(),
+                    LocalDate.ofEpochDay(random.nextInt(INICIO_NASCIMENTOS, FIM_NASCIMENTOS + 1)),
+                    BigDecimal.valueOf(centavos, 2),
+                    FUNCOES[funcao]));
+        }
+        return funcionarios;
+    }
+
+    /**
+     * Sorteia um nome que certamente aparece na lista informada.
+     *
+     * @param funcionarios os funcionários gerados
+     * @param random       gerador pseudoaleatório
+     * @return o nome de um funcionário da lista
+     */
+    public static String nomeExistente(List<Funcionario> funcionarios, SplittableRandom random) {
+        return funcionarios.get(random.nextInt(funcionarios.size())).getNome();
+    }
+
+    private static int sortearFuncao(SplittableRandom random) {
+        int sorteio = random.nextInt(1000);
+        for (int i = 0; i < PESOS_FUNCOES.length; i++) {
+            sorteio -= PESOS_FUNCOES[i];
+            if (sorteio < 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static int sortear(double[] acumulado, SplittableRandom random) {
+        int indice = Arrays.binarySearch(acumulado, random.nextDouble());
+        return indice >= 0 ? indice : Math.min(-indice - 1, acumulado.length - 1);
+    }
+
+    private static double[] acumuladoZipf(int tamanho, double expoente) {
+        double[] acumulado = new double[tamanho];
+        double soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            soma += 1 / Math.pow(i + 1, expoente);
+            acumulado[i] = soma;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            acumulado[i] /= soma;
+        }
+        return acumulado;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+import app.ExecutorLote;
+import app.ResultadoLote;
+import model.Funcionario;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Mede a vazão do {@link ExecutorLote} conforme o número de threads.
+ * Gera um CSV de {@link DadosSinteticos} por empresa em um diretório
+ * temporário e processa o lote inteiro com 1, 2, 4... threads até o
+ * máximo informado, guardando a melhor de algumas repetições.  O
+ * limite de E/S acompanha o número de threads, para que só a CPU
+ * limite a escala.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar benchmark.EscalaLote 64 20000 16
+ * </pre>
+ */
+public final class EscalaLote {
+
+    private static final int REPETICOES = 3;
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private EscalaLote() {
+    }
+
+    /**
+     * Executa a medição.
+     *
+     * @param args a quantidade de empresas (padrão: 64), de funcionários
+     *             por empresa (padrão: 20 mil) e o máximo de threads
+     *             (padrão: processadores disponíveis)
+     * @throws IOException se os arquivos temporários não puderem ser
+     *     gravados
+     */
+    public static void main(String[] args) throws IOException {
+        int empresas = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int funcionarios = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int maximo = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path pasta = Files.createTempDirectory("escala-lote");
+        try {
+            Path entrada = Files.createDirectories(pasta.resolve("entrada"));
+            for (int i = 0; i < empresas; i++) {
+                gravarEmpresa(entrada.resolve(String.format("empresa%04d.csv", i)), funcionarios, i);
+            }
+            System.out.printf("%d empresas x %,d funcionários, %d processadores%n",
+                    empresas, funcionarios, Runtime.getRuntime().availableProcessors());
+            medir(entrada, pasta.resolve("aquecimento"), maximo);
+            double base = 0;
+            for (int threads : threads(maximo)) {
+                double vazao = medir(entrada, pasta.resolve("saida" + threads), threads);
+                base = base == 0 ? vazao : base;
+                System.out.printf(Locale.ROOT, "%3d threads  %8.1f empresas/s  %5.2fx%n", threads, vazao, vazao / base);
+            }
+        } finally {
+            apagar(pasta);
+        }
+    }
+
+    private static List<Integer> threads(int maximo) {
+        List<Integer> threads = new ArrayList<>();
+        for (int quantidade = 1; quantidade < maximo; quantidade *= 2) {
+            threads.add(quantidade);
+        }
+        threads.add(maximo);
+        return threads;
+    }
+
+    private static double medir(Path entrada, Path saida, int threads) {
+        double melhor = 0;
+        for (int repeticao = 0; repeticao < REPETICOES; repeticao++) {
+            ResultadoLote resultado = new ExecutorLote(saida)
+                    .comParalelismo(threads)
+                    .comLimiteEntradaSaida(Math.max(4, threads))
+                    .executarDiretorio(entrada);
+            if (resultado.getFalhas() > 0) {
+                throw new IllegalStateException(resultado.resumo());
+            }
+            melhor = Math.max(melhor, resultado.getEmpresasPorSegundo());
+        }
+        return melhor;
+    }
+
+    private static void gravarEmpresa(Path arquivo, int quantidade, long semente) throws IOException {
+        StringBuilder csv = new StringBuilder(quantidade * 48);
+        for (Funcionario f : DadosSinteticos.gerar(quantidade, semente)) {
+            csv.append(f.getNome()).append(';')
+                    .append(DATA.format(f.getDataNascimento())).append(';')
+                    .append(f.getFuncao()).append(';')
+                    .append(f.getSalario().toPlainString().replace('.', ',')).append('\n');
+        }
+        Files.writeString(arquivo, csv, StandardCharsets.UTF_8);
+    }
+
+    private static void apagar(Path pasta) throws IOException {
+        try (Stream<Path> conteudo = Files.walk(pasta)) {
+            conteudo.sorted(Comparator.reverseOrder()).forEach(caminho -> {
+                try {
+                    Files.delete(caminho);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
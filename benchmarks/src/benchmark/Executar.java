@@ -0,0 +1,48 @@
+package benchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do {@code benchmarks.jar}.  Aceita as mesmas opções
+ * de linha de comando do JMH e, quando não informadas, ativa o
+ * profiler de GC/alocação ({@code -prof gc}) e grava os resultados em
+ * JSON em {@code target/jmh-resultados.json}, para comparação entre
+ * versões.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ListaBenchmark -p tamanho=1000,100000
+ * </pre>
+ */
+public final class Executar {
+
+    private Executar() {
+    }
+
+    /**
+     * Executa os benchmarks selecionados.
+     *
+     * @param args opções do JMH
+     * @throws RunnerException            se a execução falhar
+     * @throws CommandLineOptionException se as opções forem inválidas
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        if (linhaDeComando.getProfilers().isEmpty()) {
+            opcoes.addProfiler(GCProfiler.class);
+        }
+        if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linhaDeComando.getResult().hasValue()) {
+            opcoes.result("target/jmh-resultados.json");
+        }
+        new Runner(opcoes.build()).run();
+    }
+}
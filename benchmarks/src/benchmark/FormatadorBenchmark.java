@@ -0,0 +1,96 @@
+package benchmark;
+import org.openjdk.jmh.annotations.*;
+import util.FormatadorBrasileiro;
+import util.FormatadorUtil;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de {@link FormatadorUtil} e {@link FormatadorBrasileiro},
+ * comparados com o uso direto de {@link NumberFormat} e
+ * {@link DateTimeFormatter} de pt-BR.  Rode com várias threads
+ * ({@code -t}) para medir também a contenção.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatadorBenchmark {
+
+    private static final int QUANTIDADE = 1024;
+
+    BigDecimal[] valores;
+    long[] centavos;
+    LocalDate[] datas;
+    int[] diasEpoch;
+    int proximo;
+    StringBuilder texto;
+    NumberFormat numberFormat;
+    DateTimeFormatter dateTimeFormatter;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(3);
+        valores = new BigDecimal[QUANTIDADE];
+        centavos = new long[QUANTIDADE];
+        datas = new LocalDate[QUANTIDADE];
+        diasEpoch = new int[QUANTIDADE];
+        for (int i = 0; i < QUANTIDADE; i++) {
+            centavos[i] = random.nextLong(100_000_000L);
+            valores[i] = BigDecimal.valueOf(centavos[i], 2);
+            diasEpoch[i] = random.nextInt(-10_000, 20_000);
+            datas[i] = LocalDate.ofEpochDay(diasEpoch[i]);
+        }
+        texto = new StringBuilder(64);
+        numberFormat = NumberFormat.getInstance(new Locale("pt", "BR"));
+        numberFormat.setMinimumFractionDigits(2);
+        numberFormat.setMaximumFractionDigits(2);
+        dateTimeFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    }
+
+    private int proximo() {
+        return proximo++ & (QUANTIDADE - 1);
+    }
+
+    @Benchmark
+    public String formatarValor() {
+        return FormatadorUtil.formatarValor(valores[proximo()]);
+    }
+
+    @Benchmark
+    public String formatarValorNumberFormat() {
+        return numberFormat.format(valores[proximo()]);
+    }
+
+    @Benchmark
+    public StringBuilder anexarValor() {
+        texto.setLength(0);
+        FormatadorBrasileiro.anexarValor(texto, centavos[proximo()]);
+        return texto;
+    }
+
+    @Benchmark
+    public String formatarData() {
+        return FormatadorUtil.formatarData(datas[proximo()]);
+    }
+
+    @Benchmark
+    public String formatarDataDateTimeFormatter() {
+        return dateTimeFormatter.format(datas[proximo()]);
+    }
+
+    @Benchmark
+    public StringBuilder anexarData() {
+        texto.setLength(0);
+        FormatadorBrasileiro.anexarData(texto, diasEpoch[proximo()]);
+        return texto;
+    }
+}
@@ -0,0 +1,159 @@
+package benchmark;
+import model.Funcionario;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.FuncionarioService;
+import service.SalariosMinimosEmLote;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos métodos de {@link FuncionarioService} que operam sobre
+ * listas de {@link Funcionario}, com 1 mil a 10 milhões de funcionários
+ * gerados por {@link DadosSinteticos}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ListaBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int tamanho;
+
+    FuncionarioService service;
+    List<Funcionario> funcionarios;
+    String[] nomes;
+    int proximoNome;
+
+    private static final Set<Integer> MESES = Set.of(10, 12);
+    private static final BigDecimal PERCENTUAL = new BigDecimal("10");
+    private static final BigDecimal SALARIO_MINIMO = new BigDecimal("1212.00");
+    private static final BigDecimal[] SALARIOS_MINIMOS_HISTORICOS = {
+            new BigDecimal("998.00"), new BigDecimal("1045.00"), new BigDecimal("1100.00"),
+            new BigDecimal("1212.00"), new BigDecimal("1320.00")
+    };
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 2, 28);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new FuncionarioService();
+        funcionarios = DadosSinteticos.gerar(tamanho, 42);
+        SplittableRandom random = new SplittableRandom(7);
+        nomes = new String[1024];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = DadosSinteticos.nomeExistente(funcionarios, random);
+        }
+    }
+
+    /**
+     * Restaura os salários antes de cada reajuste, para que os valores
+     * não cresçam de uma invocação para outra.
+     */
+    @State(Scope.Benchmark)
+    public static class SalariosOriginais {
+        BigDecimal[] salarios;
+
+        @Setup(Level.Invocation)
+        public void restaurar(ListaBenchmark estado) {
+            List<Funcionario> funcionarios = estado.funcionarios;
+            if (salarios == null) {
+                salarios = new BigDecimal[funcionarios.size()];
+                for (int i = 0; i < salarios.length; i++) {
+                    salarios[i] = funcionarios.get(i).getSalario();
+                }
+            }
+            for (int i = 0; i < salarios.length; i++) {
+                funcionarios.get(i).setSalario(salarios[i]);
+            }
+        }
+    }
+
+    /**
+     * Remove um funcionário existente e o devolve ao fim da lista, de modo
+     * que o tamanho da lista permaneça constante.
+     */
+    @Benchmark
+    public Optional<Funcionario> removerPorNome() {
+        String nome = nomes[proximoNome++ & (nomes.length - 1)];
+        Optional<Funcionario> removido = service.removerPorNome(funcionarios, nome);
+        removido.ifPresent(funcionarios::add);
+        return removido;
+    }
+
+    @Benchmark
+    public Optional<Funcionario> removerPorNomeAusente() {
+        return service.removerPorNome(funcionarios, "Nome Inexistente");
+    }
+
+    @Benchmark
+    public List<Funcionario> aplicarAumentoPercentual(SalariosOriginais salarios) {
+        service.aplicarAumentoPercentual(funcionarios, PERCENTUAL);
+        return funcionarios;
+    }
+
+    @Benchmark
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        return service.agruparPorFuncao(funcionarios);
+    }
+
+    @Benchmark
+    public List<Funcionario> aniversariantesNosMeses() {
+        return service.aniversariantesNosMeses(funcionarios, MESES);
+    }
+
+    @Benchmark
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        return service.funcionarioMaisVelho(funcionarios);
+    }
+
+    @Benchmark
+    public List<Funcionario> ordenarPorNome() {
+        return service.ordenarPorNome(funcionarios);
+    }
+
+    /**
+     * Referência para {@code TabelaBenchmark.calcularIdades}: uma idade
+     * por funcionário com {@link Period#between}.
+     */
+    @Benchmark
+    public int[] idadesComPeriod() {
+        int[] idades = new int[funcionarios.size()];
+        for (int i = 0; i < idades.length; i++) {
+            idades[i] = Period.between(funcionarios.get(i).getDataNascimento(), REFERENCIA).getYears();
+        }
+        return idades;
+    }
+
+    @Benchmark
+    public BigDecimal somarSalarios() {
+        return service.somarSalarios(funcionarios);
+    }
+
+    @Benchmark
+    public void salariosMinimosQueRecebe(Blackhole blackhole) {
+        for (Funcionario f : funcionarios) {
+            blackhole.consume(service.salariosMinimosQueRecebe(f, SALARIO_MINIMO));
+        }
+    }
+
+    @Benchmark
+    public long[] salariosMinimosEmLote() {
+        return service.salariosMinimosQueRecebem(funcionarios, SALARIO_MINIMO).centesimos(0);
+    }
+
+    @Benchmark
+    public SalariosMinimosEmLote salariosMinimosHistoricos() {
+        return service.salariosMinimosQueRecebem(funcionarios, SALARIOS_MINIMOS_HISTORICOS);
+    }
+}
@@ -0,0 +1,132 @@
+package benchmark;
+import model.Funcionario;
+import model.FuncionarioCompacto;
+import repository.ListaFuncionariosForaDoHeap;
+import service.FuncionarioService;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compara a memória por funcionário e as pausas do coletor de lixo de
+ * uma lista comum de {@link Funcionario}, de uma lista de
+ * {@link FuncionarioCompacto} e da {@link ListaFuncionariosForaDoHeap}
+ * com os mesmos dados.  Para cada
+ * forma de armazenamento, mede o heap ocupado após uma coleta
+ * completa, a memória direta reservada, a duração de uma coleta
+ * completa com os funcionários vivos e o tempo total de coleta durante
+ * algumas rodadas de operações do {@link FuncionarioService}.
+ *
+ * <pre>
+ * java -Xms8g -Xmx8g -cp target/benchmarks.jar benchmark.MemoriaForaDoHeap 10000000
+ * </pre>
+ */
+public final class MemoriaForaDoHeap {
+
+    private static final int RODADAS = 5;
+
+    private MemoriaForaDoHeap() {
+    }
+
+    /**
+     * Executa a comparação.
+     *
+     * @param args a quantidade de funcionários (padrão: 1 milhão)
+     */
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%,d funcionários, coletor %s%n", quantidade, coletores());
+        medir("heap", quantidade, UnaryOperator.identity());
+        medir("heap, funcionários compactos", quantidade, MemoriaForaDoHeap::compactar);
+        medir("fora do heap", quantidade, ListaFuncionariosForaDoHeap::de);
+    }
+
+    private static List<Funcionario> compactar(List<Funcionario> funcionarios) {
+        List<Funcionario> compactos = new ArrayList<>(funcionarios.size());
+        for (Funcionario funcionario : funcionarios) {
+            compactos.add(FuncionarioCompacto.de(funcionario));
+        }
+        return compactos;
+    }
+
+    private static void medir(String armazenamento, int quantidade, UnaryOperator<List<Funcionario>> converter) {
+        long heapAntes = heapAposColeta();
+        long diretaAntes = memoriaDireta();
+        List<Funcionario> funcionarios = converter.apply(DadosSinteticos.gerar(quantidade, 42));
+        long heap = heapAposColeta() - heapAntes;
+        long direta = memoriaDireta() - diretaAntes;
+
+        long inicio = System.nanoTime();
+        System.gc();
+        double coletaCompleta = (System.nanoTime() - inicio) / 1e6;
+
+        FuncionarioService service = new FuncionarioService();
+        long coletasAntes = totalColetas();
+        long tempoColetaAntes = tempoColetas();
+        long inicioRodadas = System.nanoTime();
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            service.aplicarAumentoPercentual(funcionarios, BigDecimal.ONE);
+            service.agruparPorFuncao(funcionarios);
+            service.aniversariantesNosMeses(funcionarios, Set.of(10, 12));
+            service.somarSalarios(funcionarios);
+        }
+        double rodadas = (System.nanoTime() - inicioRodadas) / 1e6;
+
+        System.out.printf("%n%s%n", armazenamento);
+        System.out.printf("  heap:             %,d bytes (%.1f por funcionário)%n", heap, (double) heap / quantidade);
+        System.out.printf("  memória direta:   %,d bytes (%.1f por funcionário)%n", direta, (double) direta / quantidade);
+        System.out.printf("  coleta completa:  %.1f ms%n", coletaCompleta);
+        System.out.printf("  %d rodadas:        %.1f ms, %d coletas, %d ms coletando%n", RODADAS, rodadas,
+                totalColetas() - coletasAntes, tempoColetas() - tempoColetaAntes);
+        // mantém a lista viva até o fim das medições
+        if (funcionarios.isEmpty()) {
+            System.out.println();
+        }
+    }
+
+    private static long heapAposColeta() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long memoriaDireta() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static long totalColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += coletor.getCollectionCount();
+        }
+        return total;
+    }
+
+    private static long tempoColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += coletor.getCollectionTime();
+        }
+        return total;
+    }
+
+    private static String coletores() {
+        StringBuilder nomes = new StringBuilder();
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            nomes.append(nomes.length() == 0 ? "" : ", ").append(coletor.getName());
+        }
+        return nomes.toString();
+    }
+}
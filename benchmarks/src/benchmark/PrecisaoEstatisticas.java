@@ -0,0 +1,83 @@
+package benchmark;
+import service.DistribuicaoSalarial;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Verifica o erro dos quantis de {@link DistribuicaoSalarial} em um
+ * volume grande de salários sintéticos com cauda longa.  Os salários
+ * são acumulados em fatias paralelas, combinadas no final como em um
+ * cálculo distribuído, e cada quantil aproximado é comparado com o
+ * exato, obtido ordenando todos os salários.  Também informa o tempo
+ * da passagem única e o da ordenação.
+ *
+ * <pre>
+ * java -Xmx2g -cp target/benchmarks.jar benchmark.PrecisaoEstatisticas 100000000
+ * </pre>
+ */
+public final class PrecisaoEstatisticas {
+
+    private static final double[] QUANTIS = {0.0001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 0.9999};
+
+    private PrecisaoEstatisticas() {
+    }
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args a quantidade de salários (padrão: 100 milhões) e o
+     *     erro relativo pedido (padrão:
+     *     {@link DistribuicaoSalarial#ERRO_RELATIVO_PADRAO})
+     */
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000_000;
+        double erro = args.length > 1 ? Double.parseDouble(args[1]) : DistribuicaoSalarial.ERRO_RELATIVO_PADRAO;
+        long[] salarios = new long[quantidade];
+        SplittableRandom random = new SplittableRandom(24);
+        for (int i = 0; i < quantidade; i++) {
+            // log-normal em torno de R$ 3.000, com alguns valores de centavos
+            salarios[i] = i % 1000 == 0 ? random.nextInt(100)
+                    : (long) (300_000 * Math.exp(0.8 * random.nextGaussian()));
+        }
+
+        int fatias = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = (quantidade + fatias - 1) / fatias;
+        long inicio = System.nanoTime();
+        DistribuicaoSalarial[] parciais = new DistribuicaoSalarial[fatias];
+        IntStream.range(0, fatias).parallel().forEach(fatia -> {
+            DistribuicaoSalarial parcial = new DistribuicaoSalarial(erro);
+            int fim = Math.min(quantidade, (fatia + 1) * tamanhoFatia);
+            for (int i = fatia * tamanhoFatia; i < fim; i++) {
+                parcial.registrar(salarios[i]);
+            }
+            parciais[fatia] = parcial;
+        });
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(erro);
+        for (DistribuicaoSalarial parcial : parciais) {
+            distribuicao.combinar(parcial);
+        }
+        double passagem = (System.nanoTime() - inicio) / 1e6;
+
+        inicio = System.nanoTime();
+        Arrays.parallelSort(salarios);
+        double ordenacao = (System.nanoTime() - inicio) / 1e6;
+
+        System.out.printf("%,d salários, %d fatias: passagem única %.0f ms, ordenação %.0f ms%n",
+                quantidade, fatias, passagem, ordenacao);
+        System.out.printf("erro relativo garantido: %.4f%%%n", 100 * distribuicao.erroRelativo());
+        double maiorErro = 0;
+        for (double q : QUANTIS) {
+            long exato = salarios[(int) Math.ceil(q * quantidade) - 1];
+            long aproximado = distribuicao.quantil(q).orElseThrow().movePointRight(2).longValueExact();
+            double erroObservado = exato == 0 ? 0 : Math.abs(aproximado - exato) / (double) exato;
+            maiorErro = Math.max(maiorErro, erroObservado);
+            System.out.printf("  q=%-7s exato %,15d  aproximado %,15d  erro %.4f%%%n",
+                    q, exato, aproximado, 100 * erroObservado);
+        }
+        System.out.printf("maior erro observado: %.4f%% (%s)%n", 100 * maiorErro,
+                maiorErro <= distribuicao.erroRelativo() ? "dentro do limite" : "FORA DO LIMITE");
+    }
+}
@@ -0,0 +1,229 @@
+package benchmark;
+import consulta.ConsultaFuncionarios;
+import metricas.RegistroMetricas;
+import model.Funcionario;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import repository.TabelaFuncionarios;
+import service.CacheResultados;
+import service.EstatisticasSalariais;
+import service.FuncionarioService;
+import service.SalariosMinimosEmLote;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos métodos de {@link FuncionarioService} que operam sobre
+ * a {@link TabelaFuncionarios} colunar, com os mesmos dados de
+ * {@link ListaBenchmark}.  Os índices e agregados são criados na
+ * primeira chamada e, portanto, durante o aquecimento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TabelaBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int tamanho;
+
+    FuncionarioService service;
+    FuncionarioService serviceComCache;
+    TabelaFuncionarios tabela;
+    String[] nomes;
+    int proximoNome;
+
+    private static final Set<Integer> MESES = Set.of(10, 12);
+    private static final BigDecimal PERCENTUAL = new BigDecimal("10");
+    private static final BigDecimal SALARIO_MINIMO = new BigDecimal("1212.00");
+    private static final BigDecimal[] SALARIOS_MINIMOS_HISTORICOS = {
+            new BigDecimal("998.00"), new BigDecimal("1045.00"), new BigDecimal("1100.00"),
+            new BigDecimal("1212.00"), new BigDecimal("1320.00")
+    };
+    private static final BigDecimal[] FAIXAS_SALARIAIS = {
+            new BigDecimal("2000"), new BigDecimal("5000"), new BigDecimal("10000"), new BigDecimal("20000")};
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 2, 28);
+    private static final int[] FAIXAS = {18, 30, 45, 60, 65};
+    private static final BigDecimal SALARIO_CONSULTA = new BigDecimal("3000");
+    private static final ConsultaFuncionarios GERENTES_DE_OUTUBRO = new ConsultaFuncionarios()
+            .comFuncoes("Gerente")
+            .comAniversarioNosMeses(10)
+            .comSalarioAcimaDe(SALARIO_CONSULTA);
+    private static final ConsultaFuncionarios FAIXA_SALARIAL = new ConsultaFuncionarios()
+            .comSalarioEntre(new BigDecimal("5000"), new BigDecimal("5100"));
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new FuncionarioService();
+        serviceComCache = new FuncionarioService(RegistroMetricas.global(), new CacheResultados(64, Long.MAX_VALUE));
+        List<Funcionario> funcionarios = DadosSinteticos.gerar(tamanho, 42);
+        tabela = TabelaFuncionarios.de(funcionarios);
+        SplittableRandom random = new SplittableRandom(7);
+        nomes = new String[1024];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = DadosSinteticos.nomeExistente(funcionarios, random);
+        }
+    }
+
+    /**
+     * Restaura os salários antes de cada reajuste, para que os valores
+     * não cresçam de uma invocação para outra.
+     */
+    @State(Scope.Benchmark)
+    public static class SalariosOriginais {
+        long[] centavos;
+
+        @Setup(Level.Invocation)
+        public void restaurar(TabelaBenchmark estado) {
+            TabelaFuncionarios tabela = estado.tabela;
+            if (centavos == null) {
+                centavos = new long[tabela.limite()];
+                for (int linha = 0; linha < centavos.length; linha++) {
+                    centavos[linha] = tabela.salarioCentavos(linha);
+                }
+            }
+            tabela.alterarSalariosEmLote(() -> {
+                for (int linha = 0; linha < centavos.length; linha++) {
+                    tabela.definirSalarioCentavos(linha, centavos[linha]);
+                }
+            });
+        }
+    }
+
+    /**
+     * Remove um funcionário existente e o insere de novo ao fim da
+     * tabela, compactando-a quando metade das linhas vira lápide, como
+     * faria uma carga com rotatividade constante.
+     */
+    @Benchmark
+    public Optional<Funcionario> removerPorNome() {
+        String nome = nomes[proximoNome++ & (nomes.length - 1)];
+        Optional<Funcionario> removido = service.removerPorNome(tabela, nome);
+        removido.ifPresent(tabela::adicionar);
+        if (tabela.quantidadeRemovidas() > tabela.tamanho()) {
+            tabela.compactar();
+        }
+        return removido;
+    }
+
+    @Benchmark
+    public Optional<Funcionario> removerPorNomeAusente() {
+        return service.removerPorNome(tabela, "Nome Inexistente");
+    }
+
+    @Benchmark
+    public TabelaFuncionarios aplicarAumentoPercentual(SalariosOriginais salarios) {
+        service.aplicarAumentoPercentual(tabela, PERCENTUAL);
+        return tabela;
+    }
+
+    @Benchmark
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        return service.agruparPorFuncao(tabela);
+    }
+
+    @Benchmark
+    public List<Funcionario> aniversariantesNosMeses() {
+        return service.aniversariantesNosMeses(tabela, MESES);
+    }
+
+    @Benchmark
+    public Map<String, List<Funcionario>> agruparPorFuncaoEmCache() {
+        return serviceComCache.agruparPorFuncao(tabela);
+    }
+
+    @Benchmark
+    public List<Funcionario> aniversariantesNosMesesEmCache() {
+        return serviceComCache.aniversariantesNosMeses(tabela, MESES);
+    }
+
+    @Benchmark
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        return service.funcionarioMaisVelho(tabela);
+    }
+
+    @Benchmark
+    public List<Funcionario> ordenarPorNome() {
+        return service.ordenarPorNome(tabela);
+    }
+
+    @Benchmark
+    public BigDecimal somarSalarios() {
+        return service.somarSalarios(tabela);
+    }
+
+    @Benchmark
+    public EstatisticasSalariais estatisticasSalariais() {
+        return service.estatisticasSalariais(tabela, FAIXAS_SALARIAIS);
+    }
+
+    @Benchmark
+    public int[] calcularIdades() {
+        return service.calcularIdades(tabela, REFERENCIA).idades();
+    }
+
+    @Benchmark
+    public Map<String, int[]> idadesPorFuncaoEFaixa() {
+        return service.calcularIdades(tabela, REFERENCIA).contarPorFuncaoEFaixa(FAIXAS);
+    }
+
+    @Benchmark
+    public void salariosMinimosQueRecebe(Blackhole blackhole) {
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (tabela.removida(linha)) {
+                continue;
+            }
+            blackhole.consume(service.salariosMinimosQueRecebe(tabela.funcionario(linha), SALARIO_MINIMO));
+        }
+    }
+
+    @Benchmark
+    public long[] salariosMinimosEmLote() {
+        return service.salariosMinimosQueRecebem(tabela, SALARIO_MINIMO).centesimos(0);
+    }
+
+    @Benchmark
+    public SalariosMinimosEmLote salariosMinimosHistoricos() {
+        return service.salariosMinimosQueRecebem(tabela, SALARIOS_MINIMOS_HISTORICOS);
+    }
+
+    /**
+     * Referência para {@link #consultaCombinada()}: aniversariantes do
+     * mês pelo índice e os demais filtros aplicados à lista resultante.
+     */
+    @Benchmark
+    public List<Funcionario> consultaEncadeada() {
+        List<Funcionario> resultado = new ArrayList<>();
+        for (Funcionario f : service.aniversariantesNosMeses(tabela, Set.of(10))) {
+            if (f.getFuncao().equals("Gerente") && f.getSalario().compareTo(SALARIO_CONSULTA) > 0) {
+                resultado.add(f);
+            }
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public List<Funcionario> consultaCombinada() {
+        return service.consultar(tabela, GERENTES_DE_OUTUBRO).proximaPagina(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Funcionario> consultaVarreduraPrimeiraPagina() {
+        return service.consultar(tabela, FAIXA_SALARIAL).proximaPagina(50);
+    }
+
+    @Benchmark
+    public int consultaVarreduraContagem() {
+        return FAIXA_SALARIAL.contar(tabela);
+    }
+}
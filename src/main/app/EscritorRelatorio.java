@@ -0,0 +1,224 @@
+package app;
+import model.Funcionario;
+import util.FormatadorBrasileiro;
+import util.FormatadorUtil;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Escritor de relatórios em blocos.  O relatório é descrito como uma
+ * sequência de partes (títulos, trechos de listagens, totais), cada uma
+ * capaz de se desenhar em um {@link StringBuilder}.  Ao chamar
+ * {@link #escrever()}, as partes são desenhadas em paralelo e gravadas
+ * no canal de saída na ordem em que foram adicionadas, em blocos
+ * grandes, em vez de uma chamada a {@code System.out.printf} por
+ * linha.
+ *
+ * <p>Listagens são divididas em partes de {@link #FUNCIONARIOS_POR_PARTE}
+ * funcionários, e apenas uma janela limitada de partes é desenhada à
+ * frente da gravação, de modo que a memória usada não cresce com o
+ * tamanho do relatório.  Os {@link StringBuilder} e o buffer de bytes
+ * são reaproveitados entre partes e entre chamadas.
+ *
+ * <p>As partes são desenhadas quando {@link #escrever()} é chamado; os
+ * dados lidos por elas não devem ser alterados antes disso.
+ */
+public class EscritorRelatorio {
+
+    /** Quantidade de funcionários desenhados por parte de uma listagem. */
+    public static final int FUNCIONARIOS_POR_PARTE = 16 * 1024;
+
+    /** Tamanho do buffer de bytes gravado de uma só vez no canal. */
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+
+    private static final String QUEBRA_DE_LINHA = System.lineSeparator();
+
+    private final WritableByteChannel canal;
+    private final CharsetEncoder codificador;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private final boolean saidaPadrao;
+    private final int janela = ForkJoinPool.getCommonPoolParallelism() * 2;
+    private final List<Consumer<StringBuilder>> partes = new ArrayList<>();
+    private final ConcurrentLinkedQueue<StringBuilder> textosLivres = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Cria um escritor que grava no canal informado, por exemplo um
+     * {@link java.nio.channels.FileChannel}.
+     *
+     * @param canal   o canal de saída
+     * @param charset a codificação do texto
+     */
+    public EscritorRelatorio(WritableByteChannel canal, Charset charset) {
+        this(canal, charset, false);
+    }
+
+    private EscritorRelatorio(WritableByteChannel canal, Charset charset, boolean saidaPadrao) {
+        this.canal = canal;
+        this.codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.saidaPadrao = saidaPadrao;
+    }
+
+    /**
+     * Cria um escritor que grava na saída padrão, com a mesma
+     * codificação usada por {@link System#out}.
+     *
+     * @return o escritor
+     */
+    public static EscritorRelatorio paraSaidaPadrao() {
+        String codificacao = System.getProperty("sun.stdout.encoding");
+        Charset charset = codificacao != null && Charset.isSupported(codificacao)
+                ? Charset.forName(codificacao)
+                : Charset.defaultCharset();
+        return new EscritorRelatorio(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), charset, true);
+    }
+
+    /**
+     * Acrescenta uma parte ao relatório.
+     *
+     * @param parte função que desenha a parte no texto recebido
+     */
+    public void adicionar(Consumer<StringBuilder> parte) {
+        partes.add(parte);
+    }
+
+    /**
+     * Acrescenta uma linha de texto fixo ao relatório.
+     *
+     * @param linha o texto da linha, sem a quebra de linha
+     */
+    public void adicionarLinha(String linha) {
+        partes.add(texto -> texto.append(linha).append(QUEBRA_DE_LINHA));
+    }
+
+    /**
+     * Acrescenta a listagem dos funcionários, um por linha, no formato
+     * {@code  - nome | Nascimento: dd/MM/yyyy | Função: f | Salário: 1.234,56}.
+     * A listagem é dividida em partes desenhadas em paralelo.
+     *
+     * @param funcionarios os funcionários a listar
+     */
+    public void adicionarLista(List<Funcionario> funcionarios) {
+        for (int inicio = 0; inicio < funcionarios.size(); inicio += FUNCIONARIOS_POR_PARTE) {
+            List<Funcionario> trecho = funcionarios.subList(inicio,
+                    Math.min(funcionarios.size(), inicio + FUNCIONARIOS_POR_PARTE));
+            partes.add(texto -> {
+                for (Funcionario f : trecho) {
+                    anexarFuncionario(texto, f);
+                }
+            });
+        }
+    }
+
+    /**
+     * Acrescenta ao texto a linha de um funcionário, no formato usado
+     * pelas listagens do relatório.
+     *
+     * @param texto o destino do texto
+     * @param f     o funcionário
+     */
+    public static void anexarFuncionario(StringBuilder texto, Funcionario f) {
+        texto.append(" - ").append(f.getNome()).append(" | Nascimento: ");
+        FormatadorBrasileiro.anexarData(texto, Math.toIntExact(f.getDataNascimento().toEpochDay()));
+        texto.append(" | Função: ").append(f.getFuncao()).append(" | Salário: ");
+        anexarValor(texto, f.getSalario());
+        texto.append(QUEBRA_DE_LINHA);
+    }
+
+    /**
+     * Acrescenta ao texto um valor formatado como em
+     * {@link FormatadorUtil#formatarValor(BigDecimal)}.
+     *
+     * @param texto o destino do texto
+     * @param valor o valor
+     */
+    public static void anexarValor(StringBuilder texto, BigDecimal valor) {
+        if (valor.scale() == 2 && valor.precision() <= 18) {
+            FormatadorBrasileiro.anexarValor(texto, valor.unscaledValue().longValue());
+        } else {
+            texto.append(FormatadorUtil.formatarValor(valor));
+        }
+    }
+
+    /**
+     * Desenha as partes pendentes em paralelo e as grava, em ordem, no
+     * canal de saída.  Ao final, as partes pendentes são descartadas.
+     */
+    public void escrever() {
+        if (saidaPadrao) {
+            System.out.flush();
+        }
+        Deque<CompletableFuture<StringBuilder>> emAndamento = new ArrayDeque<>();
+        int proxima = 0;
+        try {
+            while (proxima < partes.size() || !emAndamento.isEmpty()) {
+                while (proxima < partes.size() && emAndamento.size() < janela) {
+                    Consumer<StringBuilder> parte = partes.get(proxima++);
+                    emAndamento.addLast(CompletableFuture.supplyAsync(() -> {
+                        StringBuilder texto = obterTexto();
+                        parte.accept(texto);
+                        return texto;
+                    }));
+                }
+                StringBuilder texto = emAndamento.removeFirst().join();
+                gravar(texto);
+                texto.setLength(0);
+                textosLivres.offer(texto);
+            }
+            descarregar();
+        } finally {
+            partes.clear();
+        }
+    }
+
+    private StringBuilder obterTexto() {
+        StringBuilder texto = textosLivres.poll();
+        return texto != null ? texto : new StringBuilder(FUNCIONARIOS_POR_PARTE * 96);
+    }
+
+    private void gravar(StringBuilder texto) {
+        CharBuffer caracteres = CharBuffer.wrap(texto);
+        while (true) {
+            CoderResult resultado = codificador.encode(caracteres, buffer, false);
+            if (resultado.isOverflow()) {
+                descarregar();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void descarregar() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o relatório", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package app;
+import model.Funcionario;
+import repository.CarregadorFuncionarios;
+import repository.ResultadoCarga;
+import service.FuncionarioService;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Processa em lote os funcionários de muitas empresas: para cada
+ * arquivo CSV de entrada, carrega os funcionários com
+ * {@link CarregadorFuncionarios}, executa as etapas do desafio (as
+ * mesmas de {@link Principal}) e grava o relatório da empresa em
+ * {@code <saida>/<empresa>.txt}.
+ *
+ * <p>Cada empresa é processada por uma tarefa própria, com no máximo
+ * {@link #comParalelismo(int) paralelismo} empresas em andamento; a
+ * submissão espera quando esse limite é atingido, de modo que o lote
+ * não acumula tarefas nem memória.  Cargas e escritas em disco dividem
+ * um segundo limite, {@link #comLimiteEntradaSaida(int)}, que aplica
+ * contrapressão quando o disco satura sem bloquear as etapas de CPU.
+ *
+ * <p>A falha de uma empresa (arquivo ausente, erro de E/S, dado
+ * inesperado) fica registrada em seu {@link ResultadoEmpresa} e não
+ * interrompe as demais.  O relatório é gravado em um arquivo temporário
+ * e só é renomeado ao final, então uma falha não deixa relatório
+ * parcial.
+ *
+ * <p>Por padrão as tarefas rodam em threads de plataforma de um
+ * executor próprio.  Em versões do Java com threads virtuais, basta
+ * informar {@code Executors.newVirtualThreadPerTaskExecutor()} em
+ * {@link #comExecutor(ExecutorService)}: os limites continuam valendo.
+ */
+public class ExecutorLote {
+
+    /** Extensão dos arquivos de entrada. */
+    public static final String EXTENSAO_ENTRADA = ".csv";
+
+    private final Path saida;
+    private int paralelismo = Runtime.getRuntime().availableProcessors();
+    private int limiteEntradaSaida = 4;
+    private CarregadorFuncionarios carregador = new CarregadorFuncionarios();
+    private FuncionarioService service = new FuncionarioService();
+    private ExecutorService executor;
+
+    /**
+     * Cria o executor gravando os relatórios no diretório informado.
+     *
+     * @param saida o diretório dos relatórios, criado se não existir
+     */
+    public ExecutorLote(Path saida) {
+        if (saida == null) {
+            throw new IllegalArgumentException("Diretório de saída não pode ser nulo");
+        }
+        this.saida = saida;
+    }
+
+    /**
+     * Define quantas empresas podem estar em processamento ao mesmo
+     * tempo.  O padrão é a quantidade de processadores.
+     *
+     * @param paralelismo o limite de empresas simultâneas
+     * @return este executor, para encadeamento
+     */
+    public ExecutorLote comParalelismo(int paralelismo) {
+        if (paralelismo < 1) {
+            throw new IllegalArgumentException("Paralelismo deve ser positivo");
+        }
+        this.paralelismo = paralelismo;
+        return this;
+    }
+
+    /**
+     * Define quantas cargas ou escritas em disco podem ocorrer ao mesmo
+     * tempo.  O padrão é 4.
+     *
+     * @param limite o limite de operações de E/S simultâneas
+     * @return este executor, para encadeamento
+     */
+    public ExecutorLote comLimiteEntradaSaida(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite de E/S deve ser positivo");
+        }
+        this.limiteEntradaSaida = limite;
+        return this;
+    }
+
+    /**
+     * Define o carregador usado para ler os arquivos de entrada.
+     *
+     * @param carregador o carregador
+     * @return este executor, para encadeamento
+     */
+    public ExecutorLote comCarregador(CarregadorFuncionarios carregador) {
+        this.carregador = carregador;
+        return this;
+    }
+
+    /**
+     * Define o serviço usado nas etapas de cada empresa.
+     *
+     * @param service o serviço de funcionários
+     * @return este executor, para encadeamento
+     */
+    public ExecutorLote comService(FuncionarioService service) {
+        this.service = service;
+        return this;
+    }
+
+    /**
+     * Define o executor das tarefas, por exemplo um executor de threads
+     * virtuais.  O executor informado não é encerrado ao final do lote.
+     *
+     * @param executor o executor das tarefas
+     * @return este executor, para encadeamento
+     */
+    public ExecutorLote comExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Processa todos os arquivos {@value #EXTENSAO_ENTRADA} do diretório
+     * informado, em ordem alfabética.
+     *
+     * @param entrada o diretório de entrada
+     * @return o resultado do lote
+     */
+    public ResultadoLote executarDiretorio(Path entrada) {
+        List<Path> arquivos;
+        try (Stream<Path> conteudo = Files.list(entrada)) {
+            arquivos = conteudo
+                    .filter(arquivo -> arquivo.getFileName().toString().endsWith(EXTENSAO_ENTRADA))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao listar " + entrada, e);
+        }
+        return executar(arquivos);
+    }
+
+    /**
+     * Processa os arquivos informados, um relatório por arquivo.
+     *
+     * @param arquivos os arquivos CSV de entrada
+     * @return o resultado do lote, com as empresas na ordem dos arquivos
+     */
+    public ResultadoLote executar(List<Path> arquivos) {
+        long inicio = System.nanoTime();
+        try {
+            Files.createDirectories(saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar " + saida, e);
+        }
+        ExecutorService tarefas = executor != null ? executor : Executors.newFixedThreadPool(paralelismo, threads());
+        Semaphore emAndamento = new Semaphore(paralelismo);
+        Semaphore entradaSaida = new Semaphore(limiteEntradaSaida);
+        List<Future<ResultadoEmpresa>> futuros = new ArrayList<>(arquivos.size());
+        try {
+            for (Path arquivo : arquivos) {
+                emAndamento.acquireUninterruptibly();
+                try {
+                    futuros.add(tarefas.submit(() -> {
+                        try {
+                            return processar(arquivo, entradaSaida);
+                        } finally {
+                            emAndamento.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    emAndamento.release();
+                    throw e;
+                }
+            }
+            List<ResultadoEmpresa> resultados = new ArrayList<>(futuros.size());
+            for (int i = 0; i < futuros.size(); i++) {
+                resultados.add(aguardar(futuros.get(i), arquivos.get(i)));
+            }
+            return new ResultadoLote(resultados, System.nanoTime() - inicio);
+        } finally {
+            if (executor == null) {
+                tarefas.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Processa uma empresa.  Nenhuma exceção escapa: falhas são
+     * devolvidas no resultado.
+     *
+     * @param arquivo      o arquivo CSV da empresa
+     * @param entradaSaida as permissões de E/S compartilhadas pelo lote
+     * @return o resultado da empresa
+     */
+    private ResultadoEmpresa processar(Path arquivo, Semaphore entradaSaida) {
+        String empresa = empresa(arquivo);
+        long inicio = System.nanoTime();
+        Path destino = saida.resolve(empresa + ".txt");
+        Path temporario = saida.resolve(empresa + ".txt.parcial");
+        try {
+            List<Funcionario> funcionarios = new ArrayList<>();
+            ResultadoCarga carga;
+            entradaSaida.acquire();
+            try {
+                carga = carregador.carregar(arquivo, funcionarios);
+            } finally {
+                entradaSaida.release();
+            }
+            long fimCarga = System.nanoTime();
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                EscritorRelatorio relatorio =
+                        new EscritorRelatorio(new CanalLimitado(canal, entradaSaida), StandardCharsets.UTF_8);
+                Principal.gerarRelatorio(service, funcionarios, relatorio);
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return ResultadoEmpresa.sucesso(empresa, carga.getLinhasCarregadas(), carga.getLinhasInvalidas(),
+                    fimCarga - inicio, System.nanoTime() - fimCarga);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            apagar(temporario);
+            return ResultadoEmpresa.falha(empresa, e, System.nanoTime() - inicio);
+        } catch (Exception e) {
+            apagar(temporario);
+            return ResultadoEmpresa.falha(empresa, e, System.nanoTime() - inicio);
+        }
+    }
+
+    private static ResultadoEmpresa aguardar(Future<ResultadoEmpresa> futuro, Path arquivo) {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            return ResultadoEmpresa.falha(empresa(arquivo), e.getCause(), 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+            return ResultadoEmpresa.falha(empresa(arquivo), e, 0);
+        }
+    }
+
+    private static String empresa(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return nome.endsWith(EXTENSAO_ENTRADA) ? nome.substring(0, nome.length() - EXTENSAO_ENTRADA.length()) : nome;
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            // o arquivo parcial não impede o restante do lote
+        }
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "lote-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Canal que obtém uma permissão de E/S do lote a cada escrita, para
+     * que a gravação dos relatórios respeite o mesmo limite das cargas.
+     */
+    private static final class CanalLimitado implements WritableByteChannel {
+
+        private final WritableByteChannel canal;
+        private final Semaphore permissoes;
+
+        CanalLimitado(WritableByteChannel canal, Semaphore permissoes) {
+            this.canal = canal;
+            this.permissoes = permissoes;
+        }
+
+        @Override
+        public int write(ByteBuffer origem) throws IOException {
+            try {
+                permissoes.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Escrita interrompida");
+            }
+            try {
+                return canal.write(origem);
+            } finally {
+                permissoes.release();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return canal.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
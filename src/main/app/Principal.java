@@ -1,111 +1,209 @@
 package app;
+import metricas.RegistroMetricas;
 import model.Funcionario;
+import repository.CarregadorFuncionarios;
+import repository.FuncionariosVersionados;
+import repository.ResultadoCarga;
+import repository.VersaoFuncionarios;
 import service.FuncionarioService;
+import service.SalariosMinimosEmLote;
+import util.FormatadorBrasileiro;
 import util.FormatadorUtil;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
 
 /**
  * Classe principal que demonstra o uso das regras de negócio
  * implementadas em {@link FuncionarioService}.  A saída no console
- * segue os passos enumerados no enunciado do desafio.
+ * segue os passos enumerados no enunciado do desafio e é gravada em
+ * blocos por {@link EscritorRelatorio}.
  */
 public class Principal {
 
     /**
-     * Imprime cada funcionário da lista no formato solicitado,
-     * delegando a formatação de data e valor para {@link
-     * FormatadorUtil}.
+     * Acrescenta ao relatório, em partes desenhadas em paralelo, a
+     * quantidade de salários mínimos recebida por cada funcionário.
      *
-     * @param funcionarios a lista de funcionários a imprimir
+     * @param relatorio     o relatório
+     * @param service       o serviço de funcionários
+     * @param funcionarios  os funcionários
+     * @param salarioMinimo o valor do salário mínimo
      */
-    private static void imprimirLista(List<Funcionario> funcionarios) {
-        funcionarios.forEach(f -> System.out.printf(
-                " - %s | Nascimento: %s | Função: %s | Salário: %s%n",
-                f.getNome(),
-                FormatadorUtil.formatarData(f.getDataNascimento()),
-                f.getFuncao(),
-                FormatadorUtil.formatarValor(f.getSalario())
-        ));
+    private static void adicionarSalariosMinimos(EscritorRelatorio relatorio, FuncionarioService service,
+                                                 List<Funcionario> funcionarios, BigDecimal salarioMinimo) {
+        SalariosMinimosEmLote quantidades = service.salariosMinimosQueRecebem(funcionarios, salarioMinimo);
+        for (int inicio = 0; inicio < funcionarios.size(); inicio += EscritorRelatorio.FUNCIONARIOS_POR_PARTE) {
+            int primeiro = inicio;
+            List<Funcionario> trecho = funcionarios.subList(inicio,
+                    Math.min(funcionarios.size(), inicio + EscritorRelatorio.FUNCIONARIOS_POR_PARTE));
+            relatorio.adicionar(texto -> {
+                for (int i = 0; i < trecho.size(); i++) {
+                    texto.append(" - ").append(trecho.get(i).getNome()).append(": ");
+                    FormatadorBrasileiro.anexarValor(texto, quantidades.centesimos(0, primeiro + i));
+                    texto.append(" salários mínimos").append(System.lineSeparator());
+                }
+            });
+        }
     }
 
     /**
-     * Ponto de entrada da aplicação.  Executa todas as etapas
-     * solicitadas pelo desafio e imprime os resultados no console.
+     * Obtém a lista de funcionários a processar.  Se um arquivo CSV for
+     * informado, os funcionários são carregados dele por
+     * {@link CarregadorFuncionarios}; caso contrário, é usada a lista
+     * inicial do enunciado.
      *
-     * @param args argumentos de linha de comando (não utilizados)
+     * @param service o serviço de funcionários
+     * @param args    argumentos de linha de comando
+     * @return uma lista mutável de funcionários
      */
-    public static void main(String[] args) {
-        var service = new FuncionarioService();
-        var funcionarios = service.criarFuncionariosIniciais();
-
-        System.out.println("===== 3.1 Funcionários inseridos =====");
-        imprimirLista(funcionarios);
-
+    private static List<Funcionario> obterFuncionarios(FuncionarioService service, String[] args) {
+        if (args.length == 0) {
+            return service.criarFuncionariosIniciais();
+        }
+        List<Funcionario> funcionarios = new ArrayList<>();
+        ResultadoCarga resultado = new CarregadorFuncionarios()
+                .comFuncionariosCompactos()
+                .carregar(Path.of(args[0]), funcionarios);
+        System.out.printf("Carregados %d funcionários de %s (%d linhas inválidas, %.0f linhas/s)%n",
+                resultado.getLinhasCarregadas(),
+                args[0],
+                resultado.getLinhasInvalidas(),
+                resultado.getLinhasPorSegundo());
+        if (!resultado.getExemplosInvalidos().isEmpty()) {
+            System.out.println("Linhas inválidas: " + resultado.getExemplosInvalidos());
+        }
         System.out.println();
-        System.out.println("===== 3.2 Remover \"João\" =====");
-        service.removerPorNome(funcionarios, "João").ifPresentOrElse(
-                f -> System.out.println("Removido: " + f.getNome()),
-                () -> System.out.println("João não encontrado")
-        );
+        return funcionarios;
+    }
 
-        System.out.println();
-        System.out.println("===== 3.3 Funcionários (formatados) =====");
-        imprimirLista(funcionarios);
+    /**
+     * Executa as etapas do desafio sobre a lista de funcionários,
+     * acrescentando cada seção ao relatório.  Ao final, todas as seções
+     * terão sido gravadas.  A remoção e o reajuste são feitos sobre uma
+     * cópia versionada ({@link FuncionariosVersionados}) e cada seção
+     * lista a versão da sua etapa, de modo que as partes podem ser
+     * desenhadas todas juntas, no fim, sem ver alterações posteriores.
+     * A lista recebida não é modificada.
+     *
+     * @param service      o serviço de funcionários
+     * @param funcionarios a lista de funcionários
+     * @param relatorio    o relatório de destino
+     */
+    static void gerarRelatorio(FuncionarioService service, List<Funcionario> funcionarios,
+                               EscritorRelatorio relatorio) {
+        FuncionariosVersionados versionados = FuncionariosVersionados.de(funcionarios);
+        relatorio.adicionarLinha("===== 3.1 Funcionários inseridos =====");
+        relatorio.adicionarLista(versionados.versaoAtual());
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.2 Remover \"João\" =====");
+        relatorio.adicionarLinha(service.removerPorNome(versionados, "João")
+                .map(f -> "Removido: " + f.getNome())
+                .orElse("João não encontrado"));
 
-        System.out.println();
-        System.out.println("===== 3.4 Aumento de 10% =====");
-        service.aplicarAumentoPercentual(funcionarios, new BigDecimal("10"));
-        imprimirLista(funcionarios);
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.3 Funcionários (formatados) =====");
+        relatorio.adicionarLista(versionados.versaoAtual());
 
-        System.out.println();
-        System.out.println("===== 3.5 / 3.6 Agrupar e imprimir por função =====");
-        Map<String, List<Funcionario>> porFuncao = service.agruparPorFuncao(funcionarios);
-        porFuncao.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    System.out.println("Função: " + entry.getKey());
-                    imprimirLista(entry.getValue());
-                });
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.4 Aumento de 10% =====");
+        service.aplicarAumentoPercentual(versionados, new BigDecimal("10"));
+        VersaoFuncionarios reajustados = versionados.versaoAtual();
+        relatorio.adicionarLista(reajustados);
 
-        System.out.println();
-        System.out.println("===== 3.8 Aniversariantes (Outubro e Dezembro) =====");
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.5 / 3.6 Agrupar e imprimir por função =====");
+        Map<String, List<Funcionario>> porFuncao = new TreeMap<>(service.agruparPorFuncao(reajustados));
+        porFuncao.forEach((funcao, grupo) -> {
+            relatorio.adicionarLinha("Função: " + funcao);
+            relatorio.adicionarLista(grupo);
+        });
+
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.8 Aniversariantes (Outubro e Dezembro) =====");
         var meses = new HashSet<>(Arrays.asList(10, 12));
-        var aniversariantes = service.aniversariantesNosMeses(funcionarios, meses);
+        var aniversariantes = service.aniversariantesNosMeses(reajustados, meses);
         if (aniversariantes.isEmpty()) {
-            System.out.println("Nenhum aniversariante em outubro/dezembro.");
+            relatorio.adicionarLinha("Nenhum aniversariante em outubro/dezembro.");
         } else {
-            imprimirLista(aniversariantes);
+            relatorio.adicionarLista(aniversariantes);
         }
 
-        System.out.println();
-        System.out.println("===== 3.9 Funcionário mais velho =====");
-        service.funcionarioMaisVelho(funcionarios).ifPresent(maisVelho -> {
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.9 Funcionário mais velho =====");
+        service.funcionarioMaisVelho(reajustados).ifPresent(maisVelho -> {
             int idade = service.idadeEmAnos(maisVelho.getDataNascimento(), LocalDate.now());
-            System.out.printf("Nome: %s | Idade: %d%n", maisVelho.getNome(), idade);
+            relatorio.adicionarLinha("Nome: " + maisVelho.getNome() + " | Idade: " + idade);
         });
 
-        System.out.println();
-        System.out.println("===== 3.10 Lista por ordem alfabética =====");
-        var ordenados = service.ordenarPorNome(funcionarios);
-        imprimirLista(ordenados);
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.10 Lista por ordem alfabética =====");
+        var ordenados = service.ordenarPorNome(reajustados);
+        relatorio.adicionarLista(ordenados);
 
-        System.out.println();
-        System.out.println("===== 3.11 Total dos salários (após +10%%) =====");
-        var total = service.somarSalarios(funcionarios);
-        System.out.println("Total: " + FormatadorUtil.formatarValor(total));
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.11 Total dos salários (após +10%%) =====");
+        var total = service.somarSalarios(reajustados);
+        relatorio.adicionarLinha("Total: " + FormatadorUtil.formatarValor(total));
 
-        System.out.println();
-        System.out.println("===== 3.12 Salários mínimos (R$ 1.212,00) por funcionário =====");
-        var salarioMinimo = new BigDecimal("1212.00");
-        funcionarios.forEach(f -> {
-            var qtde = service.salariosMinimosQueRecebe(f, salarioMinimo);
-            System.out.printf(" - %s: %s salários mínimos%n",
-                    f.getNome(),
-                    FormatadorUtil.formatarValor(qtde)
-            );
-        });
+        relatorio.adicionarLinha("");
+        relatorio.adicionarLinha("===== 3.12 Salários mínimos (R$ 1.212,00) por funcionário =====");
+        adicionarSalariosMinimos(relatorio, service, reajustados, new BigDecimal("1212.00"));
+        relatorio.escrever();
+    }
+
+    /**
+     * Processa em lote os arquivos CSV de um diretório, um relatório por
+     * empresa, e imprime o tempo de cada uma.
+     *
+     * @param args {@code --lote entrada saida [paralelismo]}
+     */
+    private static void executarLote(String[] args) {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Uso: --lote <entrada> <saida> [paralelismo]");
+        }
+        ExecutorLote executor = new ExecutorLote(Path.of(args[2]));
+        if (args.length > 3) {
+            executor.comParalelismo(Integer.parseInt(args[3]));
+        }
+        ResultadoLote resultado = executor.executarDiretorio(Path.of(args[1]));
+        System.out.print(resultado.resumo());
+    }
+
+    /**
+     * Ponto de entrada da aplicação.  Executa todas as etapas
+     * solicitadas pelo desafio e imprime os resultados no console.
+     *
+     * @param args opcionalmente, o caminho de um arquivo CSV de
+     *     funcionários no formato de {@link CarregadorFuncionarios}, ou
+     *     {@code --lote entrada saida [paralelismo]} para processar
+     *     todas as empresas de um diretório (veja {@link ExecutorLote}).
+     *     Com {@code -Dprojedata.metricas=true}, um resumo das métricas
+     *     de cada operação é impresso ao final.  O registro de métricas
+     *     é sempre exposto via JMX, onde pode ser ativado durante a
+     *     execução.
+     */
+    public static void main(String[] args) {
+        // registrado mesmo desativado, para que as métricas possam ser ligadas pelo JMX
+        var metricas = RegistroMetricas.global();
+        metricas.registrarNoJmx();
+        if (args.length > 0 && args[0].equals("--lote")) {
+            executarLote(args);
+            return;
+        }
+        var service = new FuncionarioService();
+        var funcionarios = obterFuncionarios(service, args);
+        var relatorio = EscritorRelatorio.paraSaidaPadrao();
+        gerarRelatorio(service, funcionarios, relatorio);
+
+        // o resumo só é montado depois que todas as partes foram desenhadas
+        if (metricas.isAtivo()) {
+            relatorio.adicionarLinha("");
+            relatorio.adicionarLinha("===== Métricas das operações =====");
+            relatorio.adicionar(texto -> texto.append(metricas.resumo()));
+            relatorio.escrever();
+        }
     }
-}
\ No newline at end of file
+}
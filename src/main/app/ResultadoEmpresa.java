@@ -0,0 +1,126 @@
+package app;
+/**
+ * Resultado do processamento de uma empresa por {@link ExecutorLote}:
+ * sucesso ou falha, quantidade de funcionários e tempo de cada etapa.
+ */
+public class ResultadoEmpresa {
+
+    private final String empresa;
+    private final String erro;
+    private final long funcionarios;
+    private final long linhasInvalidas;
+    private final long nanosCarga;
+    private final long nanosProcessamento;
+
+    private ResultadoEmpresa(String empresa, String erro, long funcionarios, long linhasInvalidas,
+                             long nanosCarga, long nanosProcessamento) {
+        this.empresa = empresa;
+        this.erro = erro;
+        this.funcionarios = funcionarios;
+        this.linhasInvalidas = linhasInvalidas;
+        this.nanosCarga = nanosCarga;
+        this.nanosProcessamento = nanosProcessamento;
+    }
+
+    /**
+     * Cria o resultado de uma empresa processada com sucesso.
+     *
+     * @param empresa            o identificador da empresa
+     * @param funcionarios       a quantidade de funcionários carregados
+     * @param linhasInvalidas    a quantidade de linhas rejeitadas na carga
+     * @param nanosCarga         a duração da carga
+     * @param nanosProcessamento a duração das etapas e da escrita do relatório
+     * @return o resultado
+     */
+    static ResultadoEmpresa sucesso(String empresa, long funcionarios, long linhasInvalidas,
+                                    long nanosCarga, long nanosProcessamento) {
+        return new ResultadoEmpresa(empresa, null, funcionarios, linhasInvalidas, nanosCarga, nanosProcessamento);
+    }
+
+    /**
+     * Cria o resultado de uma empresa cujo processamento falhou.
+     *
+     * @param empresa o identificador da empresa
+     * @param falha   a exceção que interrompeu o processamento
+     * @param nanos   o tempo decorrido até a falha
+     * @return o resultado
+     */
+    static ResultadoEmpresa falha(String empresa, Throwable falha, long nanos) {
+        String erro = falha.getClass().getSimpleName() + (falha.getMessage() == null ? "" : ": " + falha.getMessage());
+        return new ResultadoEmpresa(empresa, erro, 0, 0, 0, nanos);
+    }
+
+    /**
+     * Obtém o identificador da empresa (o nome do arquivo, sem extensão).
+     *
+     * @return a empresa
+     */
+    public String getEmpresa() {
+        return empresa;
+    }
+
+    /**
+     * Informa se o relatório da empresa foi gerado.
+     *
+     * @return {@code true} em caso de sucesso
+     */
+    public boolean isSucesso() {
+        return erro == null;
+    }
+
+    /**
+     * Obtém a descrição da falha.
+     *
+     * @return o tipo e a mensagem da exceção, ou {@code null} em caso de
+     *     sucesso
+     */
+    public String getErro() {
+        return erro;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários carregados.
+     *
+     * @return os funcionários
+     */
+    public long getFuncionarios() {
+        return funcionarios;
+    }
+
+    /**
+     * Obtém a quantidade de linhas rejeitadas na carga.
+     *
+     * @return as linhas inválidas
+     */
+    public long getLinhasInvalidas() {
+        return linhasInvalidas;
+    }
+
+    /**
+     * Obtém a duração da carga do arquivo.
+     *
+     * @return a duração, em nanossegundos
+     */
+    public long getNanosCarga() {
+        return nanosCarga;
+    }
+
+    /**
+     * Obtém a duração das etapas do desafio e da escrita do relatório,
+     * ou o tempo até a falha.
+     *
+     * @return a duração, em nanossegundos
+     */
+    public long getNanosProcessamento() {
+        return nanosProcessamento;
+    }
+
+    /**
+     * Obtém a duração total do processamento da empresa.
+     *
+     * @return a duração, em nanossegundos
+     */
+    public long getNanosTotal() {
+        return nanosCarga + nanosProcessamento;
+    }
+}
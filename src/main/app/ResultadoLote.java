@@ -0,0 +1,91 @@
+package app;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resumo de uma execução de {@link ExecutorLote}: o resultado de cada
+ * empresa, na ordem dos arquivos de entrada, e a duração total.
+ */
+public class ResultadoLote {
+
+    private final List<ResultadoEmpresa> empresas;
+    private final long duracaoNanos;
+
+    /**
+     * Constrói o resumo de um lote.
+     *
+     * @param empresas     os resultados por empresa
+     * @param duracaoNanos a duração total do lote
+     */
+    public ResultadoLote(List<ResultadoEmpresa> empresas, long duracaoNanos) {
+        this.empresas = List.copyOf(empresas);
+        this.duracaoNanos = duracaoNanos;
+    }
+
+    /**
+     * Obtém o resultado de cada empresa.
+     *
+     * @return os resultados, na ordem dos arquivos de entrada
+     */
+    public List<ResultadoEmpresa> getEmpresas() {
+        return empresas;
+    }
+
+    /**
+     * Obtém a quantidade de empresas processadas com sucesso.
+     *
+     * @return os sucessos
+     */
+    public long getSucessos() {
+        return empresas.stream().filter(ResultadoEmpresa::isSucesso).count();
+    }
+
+    /**
+     * Obtém a quantidade de empresas cujo processamento falhou.
+     *
+     * @return as falhas
+     */
+    public long getFalhas() {
+        return empresas.size() - getSucessos();
+    }
+
+    /**
+     * Obtém a duração total do lote.
+     *
+     * @return a duração, em nanossegundos
+     */
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    /**
+     * Calcula a vazão do lote.
+     *
+     * @return empresas processadas por segundo
+     */
+    public double getEmpresasPorSegundo() {
+        return duracaoNanos == 0 ? 0 : empresas.size() * 1_000_000_000.0 / duracaoNanos;
+    }
+
+    /**
+     * Monta um resumo em texto: uma linha por empresa com os tempos de
+     * carga e de processamento (ou o erro) e uma linha de totais.
+     *
+     * @return o resumo
+     */
+    public String resumo() {
+        StringBuilder texto = new StringBuilder();
+        for (ResultadoEmpresa empresa : empresas) {
+            if (empresa.isSucesso()) {
+                texto.append(String.format(Locale.ROOT, "%-30s ok     %9d funcionários  carga %9.1f ms  processamento %9.1f ms%n",
+                        empresa.getEmpresa(), empresa.getFuncionarios(),
+                        empresa.getNanosCarga() / 1e6, empresa.getNanosProcessamento() / 1e6));
+            } else {
+                texto.append(String.format(Locale.ROOT, "%-30s FALHA  %s%n", empresa.getEmpresa(), empresa.getErro()));
+            }
+        }
+        texto.append(String.format(Locale.ROOT, "%d empresas (%d falhas) em %.1f ms, %.1f empresas/s%n",
+                empresas.size(), getFalhas(), duracaoNanos / 1e6, getEmpresasPorSegundo()));
+        return texto.toString();
+    }
+}
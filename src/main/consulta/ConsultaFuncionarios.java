@@ -0,0 +1,307 @@
+package consulta;
+import repository.IndiceNomes;
+import repository.TabelaFuncionarios;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Consulta sobre os funcionários de uma {@link TabelaFuncionarios} que
+ * combina filtros por função, mês de aniversário, intervalo de datas de
+ * nascimento, faixa salarial e início do nome.  Os filtros são
+ * configurados por métodos {@code comX} encadeáveis e todos precisam
+ * ser satisfeitos; um filtro não configurado aceita qualquer valor.
+ * Por exemplo, gerentes nascidos em outubro que ganham mais de
+ * R$ 3.000,00:
+ *
+ * <pre>{@code
+ * new ConsultaFuncionarios()
+ *         .comFuncoes("Gerente")
+ *         .comAniversarioNosMeses(10)
+ *         .comSalarioAcimaDe(new BigDecimal("3000"))
+ *         .executar(tabela);
+ * }</pre>
+ *
+ * <p>{@link #planejar(TabelaFuncionarios)} escolhe como obter as linhas
+ * candidatas (veja {@link PlanoConsulta}) e
+ * {@link #executar(TabelaFuncionarios)} devolve um
+ * {@link CursorFuncionarios}, que avalia os filtros à medida que as
+ * páginas são pedidas.  Os resultados saem sempre na ordem de inserção,
+ * qualquer que seja o plano.
+ *
+ * <p>A consulta pode ser reutilizada e executada sobre tabelas
+ * diferentes, mas não deve ser alterada durante uma execução.
+ */
+public class ConsultaFuncionarios {
+
+    private Set<String> funcoes;
+    private boolean[] meses;
+    private int nascimentoInicio = Integer.MIN_VALUE;
+    private int nascimentoFim = Integer.MAX_VALUE;
+    private long salarioMinimo = Long.MIN_VALUE;
+    private long salarioMaximo = Long.MAX_VALUE;
+    private String prefixoNome;
+
+    /**
+     * Aceita apenas funcionários que exercem uma das funções
+     * informadas.  Funções inexistentes na tabela não aceitam ninguém.
+     *
+     * @param funcoes os nomes das funções
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comFuncoes(String... funcoes) {
+        if (funcoes == null || funcoes.length == 0) {
+            throw new IllegalArgumentException("Informe ao menos uma função");
+        }
+        Set<String> selecionadas = new LinkedHashSet<>();
+        for (String funcao : funcoes) {
+            if (funcao == null) {
+                throw new IllegalArgumentException("Função não pode ser nula");
+            }
+            selecionadas.add(funcao);
+        }
+        this.funcoes = selecionadas;
+        return this;
+    }
+
+    /**
+     * Aceita apenas funcionários que fazem aniversário em um dos meses
+     * informados.
+     *
+     * @param meses os meses, de 1 a 12
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comAniversarioNosMeses(int... meses) {
+        if (meses == null || meses.length == 0) {
+            throw new IllegalArgumentException("Informe ao menos um mês");
+        }
+        boolean[] selecionados = new boolean[13];
+        for (int mes : meses) {
+            if (mes < 1 || mes > 12) {
+                throw new IllegalArgumentException("Mês inválido: " + mes);
+            }
+            selecionados[mes] = true;
+        }
+        this.meses = selecionados;
+        return this;
+    }
+
+    /**
+     * Aceita apenas funcionários nascidos entre as datas informadas,
+     * inclusive.  Uma data nula deixa o intervalo aberto daquele lado.
+     *
+     * @param inicio a primeira data aceita, ou {@code null}
+     * @param fim    a última data aceita, ou {@code null}
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comNascimentoEntre(LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+        this.nascimentoInicio = inicio == null ? Integer.MIN_VALUE : DataUtil.paraEpochDay(inicio);
+        this.nascimentoFim = fim == null ? Integer.MAX_VALUE : DataUtil.paraEpochDay(fim);
+        return this;
+    }
+
+    /**
+     * Aceita apenas funcionários com salário entre os valores
+     * informados, inclusive.  Um valor nulo deixa a faixa aberta
+     * daquele lado.
+     *
+     * @param minimo o menor salário aceito, ou {@code null}
+     * @param maximo o maior salário aceito, ou {@code null}
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comSalarioEntre(BigDecimal minimo, BigDecimal maximo) {
+        if (minimo != null && maximo != null && minimo.compareTo(maximo) > 0) {
+            throw new IllegalArgumentException("Salário mínimo da faixa maior que o máximo");
+        }
+        this.salarioMinimo = minimo == null ? Long.MIN_VALUE : centavos(minimo, RoundingMode.CEILING);
+        this.salarioMaximo = maximo == null ? Long.MAX_VALUE : centavos(maximo, RoundingMode.FLOOR);
+        return this;
+    }
+
+    /**
+     * Aceita apenas funcionários com salário estritamente maior que o
+     * valor informado.
+     *
+     * @param valor o valor a ser superado
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comSalarioAcimaDe(BigDecimal valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Salário não pode ser nulo");
+        }
+        long limite = centavos(valor, RoundingMode.FLOOR);
+        if (limite == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Salário fora do intervalo: " + valor);
+        }
+        this.salarioMinimo = limite + 1;
+        this.salarioMaximo = Long.MAX_VALUE;
+        return this;
+    }
+
+    /**
+     * Aceita apenas funcionários cujo nome começa pelo texto informado,
+     * sem diferenciar maiúsculas de minúsculas (a mesma regra de
+     * {@link IndiceNomes#chave(CharSequence)}).
+     *
+     * @param prefixo o início do nome
+     * @return esta consulta, para encadeamento
+     */
+    public ConsultaFuncionarios comNomeIniciadoPor(String prefixo) {
+        if (prefixo == null) {
+            throw new IllegalArgumentException("Prefixo não pode ser nulo");
+        }
+        this.prefixoNome = IndiceNomes.chave(prefixo);
+        return this;
+    }
+
+    /**
+     * Escolhe a forma de obter as linhas candidatas na tabela
+     * informada.  Os índices consultados são criados, se ainda não
+     * existirem.
+     *
+     * @param tabela a tabela a consultar
+     * @return o plano escolhido
+     */
+    public PlanoConsulta planejar(TabelaFuncionarios tabela) {
+        return PlanoConsulta.escolher(this, tabela);
+    }
+
+    /**
+     * Planeja e abre a consulta sobre a tabela.  Nenhuma linha é
+     * avaliada até que o cursor seja lido.
+     *
+     * @param tabela a tabela a consultar
+     * @return o cursor dos resultados
+     */
+    public CursorFuncionarios executar(TabelaFuncionarios tabela) {
+        return new CursorFuncionarios(tabela, planejar(tabela), new Filtro(this, tabela));
+    }
+
+    /**
+     * Conta os funcionários que satisfazem a consulta, sem criar
+     * objetos {@link model.Funcionario}.
+     *
+     * @param tabela a tabela a consultar
+     * @return a quantidade de funcionários
+     */
+    public int contar(TabelaFuncionarios tabela) {
+        return executar(tabela).contarRestantes();
+    }
+
+    Set<String> getFuncoes() {
+        return funcoes;
+    }
+
+    boolean[] getMeses() {
+        return meses;
+    }
+
+    boolean filtraNascimento() {
+        return nascimentoInicio != Integer.MIN_VALUE || nascimentoFim != Integer.MAX_VALUE;
+    }
+
+    int getNascimentoInicio() {
+        return nascimentoInicio;
+    }
+
+    int getNascimentoFim() {
+        return nascimentoFim;
+    }
+
+    /**
+     * Converte o valor para centavos, arredondando na direção que
+     * mantém a faixa equivalente à comparação com o valor original.
+     */
+    private static long centavos(BigDecimal valor, RoundingMode arredondamento) {
+        try {
+            return valor.setScale(2, arredondamento).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Salário fora do intervalo: " + valor, e);
+        }
+    }
+
+    /**
+     * Os filtros de uma consulta traduzidos para as colunas de uma
+     * tabela: funções como identificadores, meses como máscara de bits
+     * e salários em centavos.  Avaliar uma linha não cria objetos.
+     */
+    static final class Filtro {
+
+        private final TabelaFuncionarios tabela;
+        private final boolean[] funcoesAceitas;
+        private final int mascaraMeses;
+        private final int nascimentoInicio;
+        private final int nascimentoFim;
+        private final long salarioMinimo;
+        private final long salarioMaximo;
+        private final char[] prefixo;
+
+        Filtro(ConsultaFuncionarios consulta, TabelaFuncionarios tabela) {
+            this.tabela = tabela;
+            if (consulta.funcoes == null) {
+                funcoesAceitas = null;
+            } else {
+                funcoesAceitas = new boolean[tabela.funcoes().tamanho()];
+                for (int id : PlanoConsulta.idsDasFuncoes(consulta.funcoes, tabela)) {
+                    funcoesAceitas[id] = true;
+                }
+            }
+            int mascara = 0;
+            for (int mes = 1; mes <= 12; mes++) {
+                if (consulta.meses == null || consulta.meses[mes]) {
+                    mascara |= 1 << mes;
+                }
+            }
+            mascaraMeses = mascara;
+            nascimentoInicio = consulta.nascimentoInicio;
+            nascimentoFim = consulta.nascimentoFim;
+            salarioMinimo = consulta.salarioMinimo;
+            salarioMaximo = consulta.salarioMaximo;
+            prefixo = consulta.prefixoNome == null ? null : consulta.prefixoNome.toCharArray();
+        }
+
+        /**
+         * Informa se a linha ativa satisfaz todos os filtros.
+         */
+        boolean aceita(int linha) {
+            if (funcoesAceitas != null) {
+                int funcaoId = tabela.funcaoId(linha);
+                if (funcaoId >= funcoesAceitas.length || !funcoesAceitas[funcaoId]) {
+                    return false;
+                }
+            }
+            long salario = tabela.salarioCentavos(linha);
+            if (salario < salarioMinimo || salario > salarioMaximo) {
+                return false;
+            }
+            int nascimento = tabela.nascimento(linha);
+            if (nascimento < nascimentoInicio || nascimento > nascimentoFim) {
+                return false;
+            }
+            if ((mascaraMeses & (1 << DataUtil.mes(tabela.nascimentoEmpacotado(linha)))) == 0) {
+                return false;
+            }
+            return prefixo == null || comecaCom(linha);
+        }
+
+        private boolean comecaCom(int linha) {
+            if (tabela.tamanhoNome(linha) < prefixo.length) {
+                return false;
+            }
+            for (int i = 0; i < prefixo.length; i++) {
+                char c = tabela.caractereNome(linha, i);
+                if (Character.toLowerCase(Character.toUpperCase(c)) != prefixo[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package consulta;
+import model.Funcionario;
+import repository.TabelaFuncionarios;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Resultados de uma {@link ConsultaFuncionarios}, em ordem de inserção,
+ * produzidos sob demanda.  Os filtros são avaliados em lotes apenas
+ * quando um resultado ainda não avaliado é pedido, e os objetos
+ * {@link Funcionario} são criados só para os resultados entregues; uma
+ * primeira página custa, portanto, só as linhas necessárias para
+ * preenchê-la.
+ *
+ * <p>Na varredura, cada lote tem o dobro de linhas do anterior, até
+ * {@value #LINHAS_POR_LOTE_MAXIMO}, e lotes grandes são divididos em
+ * blocos avaliados em paralelo.  Com um índice, as candidatas vêm do
+ * índice e são avaliadas em sequência.
+ *
+ * <p>O cursor lê a tabela de origem.  Se ela for alterada depois da
+ * abertura, as leituras seguintes lançam
+ * {@link ConcurrentModificationException}.
+ */
+public class CursorFuncionarios implements Iterator<Funcionario> {
+
+    /** Quantidade de linhas do primeiro lote. */
+    private static final int LINHAS_POR_LOTE_INICIAL = 1024;
+
+    /** Quantidade máxima de linhas de um lote. */
+    private static final int LINHAS_POR_LOTE_MAXIMO = 1 << 20;
+
+    /** Linhas de cada bloco paralelo de um lote. */
+    private static final int LINHAS_POR_BLOCO = 16 * 1024;
+
+    private static final int[] SEM_LINHAS = new int[0];
+
+    private final TabelaFuncionarios tabela;
+    private final long versao;
+    private final PlanoConsulta plano;
+    private final ConsultaFuncionarios.Filtro filtro;
+    private final int[] candidatas;
+    private final int fimOrigem;
+
+    private int proximaOrigem;
+    private int linhasPorLote = LINHAS_POR_LOTE_INICIAL;
+    private int[] aceitas = SEM_LINHAS;
+    private int proximaAceita;
+    private int entregues;
+
+    CursorFuncionarios(TabelaFuncionarios tabela, PlanoConsulta plano, ConsultaFuncionarios.Filtro filtro) {
+        this.tabela = tabela;
+        this.versao = tabela.versao();
+        this.plano = plano;
+        this.filtro = filtro;
+        if (plano.getEstrategia() == PlanoConsulta.Estrategia.VARREDURA_PARALELA) {
+            this.candidatas = null;
+            this.fimOrigem = tabela.limite();
+        } else {
+            this.candidatas = plano.linhasCandidatas(tabela);
+            this.fimOrigem = candidatas.length;
+        }
+    }
+
+    /**
+     * Obtém o plano usado pela consulta.
+     *
+     * @return o plano
+     */
+    public PlanoConsulta getPlano() {
+        return plano;
+    }
+
+    /**
+     * Obtém a quantidade de resultados já entregues ou pulados.
+     *
+     * @return a posição atual do cursor
+     */
+    public int getPosicao() {
+        return entregues;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return preencher();
+    }
+
+    @Override
+    public Funcionario next() {
+        if (!preencher()) {
+            throw new NoSuchElementException();
+        }
+        entregues++;
+        return tabela.funcionario(aceitas[proximaAceita++]);
+    }
+
+    /**
+     * Obtém a linha da tabela do próximo resultado, sem criar o
+     * {@link Funcionario}.
+     *
+     * @return a linha, ou -1 se não houver mais resultados
+     */
+    public int proximaLinha() {
+        if (!preencher()) {
+            return -1;
+        }
+        entregues++;
+        return aceitas[proximaAceita++];
+    }
+
+    /**
+     * Obtém os próximos resultados.
+     *
+     * @param tamanho a quantidade máxima de resultados
+     * @return uma nova lista com até {@code tamanho} funcionários; vazia
+     *     no fim dos resultados
+     */
+    public List<Funcionario> proximaPagina(int tamanho) {
+        if (tamanho < 0) {
+            throw new IllegalArgumentException("Tamanho da página não pode ser negativo");
+        }
+        List<Funcionario> pagina = new ArrayList<>(Math.min(tamanho, 1024));
+        while (pagina.size() < tamanho && preencher()) {
+            int quantidade = Math.min(tamanho - pagina.size(), aceitas.length - proximaAceita);
+            for (int i = 0; i < quantidade; i++) {
+                pagina.add(tabela.funcionario(aceitas[proximaAceita++]));
+            }
+            entregues += quantidade;
+        }
+        return pagina;
+    }
+
+    /**
+     * Avança sobre resultados sem criar os objetos {@link Funcionario},
+     * por exemplo para ir direto a uma página.
+     *
+     * @param quantidade a quantidade de resultados a pular
+     * @return a quantidade efetivamente pulada, menor apenas no fim dos
+     *     resultados
+     */
+    public int pular(int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade não pode ser negativa");
+        }
+        int puladas = 0;
+        while (puladas < quantidade && preencher()) {
+            int passo = Math.min(quantidade - puladas, aceitas.length - proximaAceita);
+            proximaAceita += passo;
+            puladas += passo;
+        }
+        entregues += puladas;
+        return puladas;
+    }
+
+    /**
+     * Conta os resultados restantes, consumindo o cursor.
+     *
+     * @return a quantidade de resultados ainda não entregues
+     */
+    public int contarRestantes() {
+        return pular(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Garante que há um resultado avaliado e não entregue, avaliando
+     * lotes até encontrar um ou esgotar a origem.
+     */
+    private boolean preencher() {
+        if (tabela.versao() != versao) {
+            throw new ConcurrentModificationException("A tabela foi alterada após a abertura da consulta");
+        }
+        while (proximaAceita == aceitas.length) {
+            if (proximaOrigem >= fimOrigem) {
+                return false;
+            }
+            int fim = (int) Math.min(fimOrigem, (long) proximaOrigem + linhasPorLote);
+            aceitas = candidatas == null ? varrer(proximaOrigem, fim) : filtrar(proximaOrigem, fim);
+            proximaAceita = 0;
+            proximaOrigem = fim;
+            linhasPorLote = Math.min(LINHAS_POR_LOTE_MAXIMO, linhasPorLote * 2);
+        }
+        return true;
+    }
+
+    private int[] filtrar(int inicio, int fim) {
+        int[] resultado = new int[fim - inicio];
+        int quantidade = 0;
+        for (int i = inicio; i < fim; i++) {
+            int linha = candidatas[i];
+            if (filtro.aceita(linha)) {
+                resultado[quantidade++] = linha;
+            }
+        }
+        return quantidade == resultado.length ? resultado : Arrays.copyOf(resultado, quantidade);
+    }
+
+    private int[] varrer(int inicio, int fim) {
+        if (fim - inicio <= LINHAS_POR_BLOCO) {
+            return varrerBloco(inicio, fim);
+        }
+        int blocos = (fim - inicio + LINHAS_POR_BLOCO - 1) / LINHAS_POR_BLOCO;
+        int[][] porBloco = IntStream.range(0, blocos).parallel()
+                .mapToObj(b -> varrerBloco(inicio + b * LINHAS_POR_BLOCO,
+                        Math.min(fim, inicio + (b + 1) * LINHAS_POR_BLOCO)))
+                .toArray(int[][]::new);
+        int total = 0;
+        for (int[] bloco : porBloco) {
+            total += bloco.length;
+        }
+        int[] resultado = new int[total];
+        int destino = 0;
+        for (int[] bloco : porBloco) {
+            System.arraycopy(bloco, 0, resultado, destino, bloco.length);
+            destino += bloco.length;
+        }
+        return resultado;
+    }
+
+    private int[] varrerBloco(int inicio, int fim) {
+        int[] resultado = new int[fim - inicio];
+        int quantidade = 0;
+        for (int linha = inicio; linha < fim; linha++) {
+            if (!tabela.removida(linha) && filtro.aceita(linha)) {
+                resultado[quantidade++] = linha;
+            }
+        }
+        return Arrays.copyOf(resultado, quantidade);
+    }
+}
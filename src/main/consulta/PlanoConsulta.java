@@ -0,0 +1,172 @@
+package consulta;
+import repository.IndiceAniversarios;
+import repository.IndiceFuncoes;
+import repository.IndiceNascimentos;
+import repository.TabelaFuncionarios;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Forma escolhida para obter as linhas candidatas de uma
+ * {@link ConsultaFuncionarios}.  Para cada filtro que possui índice
+ * (função, mês de aniversário, intervalo de nascimento) o planejador
+ * conta quantas linhas o índice devolveria, sem montá-las: o
+ * {@link IndiceFuncoes} guarda a quantidade por função, o
+ * {@link IndiceAniversarios} conta os bits dos meses e o
+ * {@link IndiceNascimentos} faz duas buscas binárias.  O índice mais
+ * seletivo é usado se devolver no máximo uma linha a cada
+ * {@value #LINHAS_POR_CANDIDATA} da tabela; caso contrário, ou se
+ * nenhum filtro tiver índice, a tabela é varrida em paralelo.  Os
+ * demais filtros (salário, início do nome) são sempre avaliados linha
+ * a linha sobre as candidatas.
+ *
+ * <p>A proporção reflete que cada candidata vinda de um índice custa
+ * um acesso fora de ordem às colunas, enquanto a varredura as lê em
+ * sequência e em várias threads.
+ */
+public final class PlanoConsulta {
+
+    /** Quantidade de linhas da tabela que justifica ler uma candidata pelo índice. */
+    public static final int LINHAS_POR_CANDIDATA = 4;
+
+    /**
+     * Origem das linhas candidatas.
+     */
+    public enum Estrategia {
+        /** Linhas das funções pedidas, pelo {@link IndiceFuncoes}. */
+        INDICE_FUNCOES,
+        /** Aniversariantes dos meses pedidos, pelo {@link IndiceAniversarios}. */
+        INDICE_ANIVERSARIOS,
+        /** Nascidos no intervalo pedido, pelo {@link IndiceNascimentos}. */
+        INDICE_NASCIMENTOS,
+        /** Todas as linhas da tabela, em blocos avaliados em paralelo. */
+        VARREDURA_PARALELA
+    }
+
+    private final ConsultaFuncionarios consulta;
+    private final Estrategia estrategia;
+    private final int candidatas;
+    private final int linhasTabela;
+
+    private PlanoConsulta(ConsultaFuncionarios consulta, Estrategia estrategia, int candidatas, int linhasTabela) {
+        this.consulta = consulta;
+        this.estrategia = estrategia;
+        this.candidatas = candidatas;
+        this.linhasTabela = linhasTabela;
+    }
+
+    /**
+     * Compara a seletividade dos índices aplicáveis à consulta e
+     * escolhe o plano.
+     */
+    static PlanoConsulta escolher(ConsultaFuncionarios consulta, TabelaFuncionarios tabela) {
+        int linhas = tabela.tamanho();
+        Estrategia melhor = Estrategia.VARREDURA_PARALELA;
+        int menor = linhas;
+        if (consulta.getFuncoes() != null) {
+            IndiceFuncoes indice = tabela.indiceFuncoes();
+            int quantidade = 0;
+            for (int id : idsDasFuncoes(consulta.getFuncoes(), tabela)) {
+                quantidade += indice.quantidade(id);
+            }
+            if (quantidade < menor) {
+                melhor = Estrategia.INDICE_FUNCOES;
+                menor = quantidade;
+            }
+        }
+        if (consulta.getMeses() != null) {
+            int quantidade = tabela.indiceAniversarios().contarNosMeses(consulta.getMeses());
+            if (quantidade < menor) {
+                melhor = Estrategia.INDICE_ANIVERSARIOS;
+                menor = quantidade;
+            }
+        }
+        if (consulta.filtraNascimento()) {
+            int quantidade = tabela.indiceNascimentos().contarNascidosEntre(consulta.getNascimentoInicio(),
+                    fimExclusivo(consulta.getNascimentoFim()));
+            if (quantidade < menor) {
+                melhor = Estrategia.INDICE_NASCIMENTOS;
+                menor = quantidade;
+            }
+        }
+        if (melhor != Estrategia.VARREDURA_PARALELA && (long) menor * LINHAS_POR_CANDIDATA > linhas) {
+            melhor = Estrategia.VARREDURA_PARALELA;
+            menor = linhas;
+        }
+        return new PlanoConsulta(consulta, melhor, menor, linhas);
+    }
+
+    /**
+     * Obtém as linhas candidatas do índice escolhido, em ordem de
+     * inserção.  Não se aplica à varredura.
+     */
+    int[] linhasCandidatas(TabelaFuncionarios tabela) {
+        return switch (estrategia) {
+            case INDICE_FUNCOES -> tabela.indiceFuncoes().linhas(idsDasFuncoes(consulta.getFuncoes(), tabela));
+            case INDICE_ANIVERSARIOS -> tabela.indiceAniversarios().linhasNosMeses(consulta.getMeses());
+            case INDICE_NASCIMENTOS -> {
+                int[] linhas = tabela.indiceNascimentos().nascidosEntre(consulta.getNascimentoInicio(),
+                        fimExclusivo(consulta.getNascimentoFim()));
+                // o índice devolve em ordem de nascimento
+                Arrays.sort(linhas);
+                yield linhas;
+            }
+            case VARREDURA_PARALELA -> throw new IllegalStateException("A varredura não possui linhas candidatas");
+        };
+    }
+
+    /**
+     * Traduz os nomes das funções para identificadores da tabela,
+     * ignorando as funções que ela não conhece.
+     */
+    static int[] idsDasFuncoes(Set<String> funcoes, TabelaFuncionarios tabela) {
+        int[] ids = new int[funcoes.size()];
+        int quantidade = 0;
+        for (String funcao : funcoes) {
+            int id = tabela.funcoes().procurar(funcao);
+            if (id >= 0) {
+                ids[quantidade++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, quantidade);
+    }
+
+    private static int fimExclusivo(int fim) {
+        return fim == Integer.MAX_VALUE ? fim : fim + 1;
+    }
+
+    /**
+     * Obtém a origem das linhas candidatas.
+     *
+     * @return a estratégia escolhida
+     */
+    public Estrategia getEstrategia() {
+        return estrategia;
+    }
+
+    /**
+     * Obtém a quantidade de linhas candidatas: as devolvidas pelo
+     * índice escolhido ou, na varredura, todas as linhas ativas.  É um
+     * limite superior para a quantidade de resultados.
+     *
+     * @return a quantidade de candidatas
+     */
+    public int getCandidatas() {
+        return candidatas;
+    }
+
+    /**
+     * Obtém a quantidade de linhas ativas da tabela no planejamento.
+     *
+     * @return a quantidade de linhas
+     */
+    public int getLinhasTabela() {
+        return linhasTabela;
+    }
+
+    @Override
+    public String toString() {
+        return estrategia + " (" + candidatas + " de " + linhasTabela + " linhas)";
+    }
+}
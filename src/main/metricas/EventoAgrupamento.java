@@ -0,0 +1,23 @@
+package metricas;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder emitido a cada agrupamento de
+ * funcionários por função.
+ */
+@Name("projedata.Agrupamento")
+@Label("Agrupamento por função")
+@Category({"Projedata", "Funcionários"})
+@Description("Agrupamento de funcionários por função")
+public class EventoAgrupamento extends Event {
+
+    @Label("Funcionários")
+    public long funcionarios;
+
+    @Label("Grupos")
+    public int grupos;
+}
@@ -0,0 +1,24 @@
+package metricas;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder emitido a cada reajuste salarial
+ * aplicado pelo serviço.
+ */
+@Name("projedata.Reajuste")
+@Label("Reajuste salarial")
+@Category({"Projedata", "Funcionários"})
+@Description("Aplicação de um reajuste salarial a um conjunto de funcionários")
+public class EventoReajuste extends Event {
+
+    @Label("Percentual")
+    @Description("Percentual aplicado a todos, ou vazio para percentuais por função")
+    public String percentual;
+
+    @Label("Funcionários")
+    public long funcionarios;
+}
@@ -0,0 +1,26 @@
+package metricas;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder emitido a cada remoção de funcionários
+ * por nome.
+ */
+@Name("projedata.Remocao")
+@Label("Remoção de funcionários")
+@Category({"Projedata", "Funcionários"})
+@Description("Remoção de funcionários por nome")
+public class EventoRemocao extends Event {
+
+    @Label("Nomes pedidos")
+    public int nomes;
+
+    @Label("Removidos")
+    public int removidos;
+
+    @Label("Funcionários antes da remoção")
+    public long funcionarios;
+}
@@ -0,0 +1,56 @@
+package metricas;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Medição de uma chamada em andamento, criada por
+ * {@link RegistroMetricas#medir(Operacao, long)} e encerrada por
+ * {@link #close()}, normalmente em um bloco try-with-resources.  Com o
+ * registro desativado é usada a instância {@link #INATIVA}, que não
+ * mede nada e não aloca memória.
+ */
+public final class Medicao implements AutoCloseable {
+
+    /** Medição que não registra nada. */
+    static final Medicao INATIVA = new Medicao(null, 0);
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final MetricaOperacao metrica;
+    private final long tamanhoEntrada;
+    private final long inicioAlocacao;
+    private final long inicioNanos;
+
+    Medicao(MetricaOperacao metrica, long tamanhoEntrada) {
+        this.metrica = metrica;
+        this.tamanhoEntrada = tamanhoEntrada;
+        this.inicioAlocacao = metrica == null ? 0 : bytesAlocados();
+        this.inicioNanos = metrica == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Encerra a medição e a registra na métrica da operação.
+     */
+    @Override
+    public void close() {
+        if (metrica == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - inicioNanos;
+        long fimAlocacao = bytesAlocados();
+        long alocados = inicioAlocacao < 0 || fimAlocacao < 0 ? -1 : fimAlocacao - inicioAlocacao;
+        metrica.registrar(nanos, tamanhoEntrada, alocados);
+    }
+
+    private static long bytesAlocados() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+}
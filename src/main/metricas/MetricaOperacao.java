@@ -0,0 +1,152 @@
+package metricas;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estatísticas acumuladas de uma operação: quantidade de chamadas,
+ * histograma de latência, soma dos tamanhos de entrada e bytes
+ * alocados.  Pode ser atualizada por várias threads ao mesmo tempo sem
+ * bloqueio.
+ *
+ * <p>O histograma usa faixas de potências de dois em nanossegundos: a
+ * faixa {@code i} conta durações de {@code 2^(i-1)} a {@code 2^i - 1}
+ * ns.  Os percentis retornados são, portanto, o limite superior da
+ * faixa, com erro de no máximo 2x para cima.
+ */
+public final class MetricaOperacao {
+
+    private static final int FAIXAS = 64;
+
+    private final Operacao operacao;
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder nanosTotais = new LongAdder();
+    private final LongAccumulator nanosMaximo = new LongAccumulator(Math::max, 0);
+    private final LongAdder tamanhoTotal = new LongAdder();
+    private final LongAdder bytesAlocados = new LongAdder();
+    private final AtomicLongArray histograma = new AtomicLongArray(FAIXAS);
+
+    MetricaOperacao(Operacao operacao) {
+        this.operacao = operacao;
+    }
+
+    /**
+     * Registra uma chamada da operação.
+     *
+     * @param nanos          a duração da chamada
+     * @param tamanhoEntrada o tamanho da entrada (quantidade de
+     *     funcionários, por exemplo)
+     * @param alocados       os bytes alocados pela thread chamadora, ou
+     *     um valor negativo se a medição não estiver disponível
+     */
+    void registrar(long nanos, long tamanhoEntrada, long alocados) {
+        long duracao = Math.max(0, nanos);
+        chamadas.increment();
+        nanosTotais.add(duracao);
+        nanosMaximo.accumulate(duracao);
+        tamanhoTotal.add(tamanhoEntrada);
+        if (alocados > 0) {
+            bytesAlocados.add(alocados);
+        }
+        histograma.incrementAndGet(Math.min(FAIXAS - 1, 64 - Long.numberOfLeadingZeros(duracao)));
+    }
+
+    void zerar() {
+        chamadas.reset();
+        nanosTotais.reset();
+        nanosMaximo.reset();
+        tamanhoTotal.reset();
+        bytesAlocados.reset();
+        for (int i = 0; i < FAIXAS; i++) {
+            histograma.set(i, 0);
+        }
+    }
+
+    /**
+     * Obtém a operação medida.
+     *
+     * @return a operação
+     */
+    public Operacao getOperacao() {
+        return operacao;
+    }
+
+    /**
+     * Obtém a quantidade de chamadas registradas.
+     *
+     * @return as chamadas
+     */
+    public long getChamadas() {
+        return chamadas.sum();
+    }
+
+    /**
+     * Obtém a soma das durações das chamadas.
+     *
+     * @return a duração total, em nanossegundos
+     */
+    public long getNanosTotais() {
+        return nanosTotais.sum();
+    }
+
+    /**
+     * Obtém a maior duração registrada.
+     *
+     * @return a duração máxima, em nanossegundos
+     */
+    public long getNanosMaximo() {
+        return nanosMaximo.get();
+    }
+
+    /**
+     * Obtém a soma dos tamanhos de entrada das chamadas.
+     *
+     * @return o tamanho total
+     */
+    public long getTamanhoTotal() {
+        return tamanhoTotal.sum();
+    }
+
+    /**
+     * Retorna os bytes alocados pelas threads chamadoras.  Alocações
+     * feitas por outras threads (por exemplo, no
+     * {@link java.util.concurrent.ForkJoinPool} das operações
+     * paralelas) não são contadas.
+     *
+     * @return a soma dos bytes alocados
+     */
+    public long getBytesAlocados() {
+        return bytesAlocados.sum();
+    }
+
+    /**
+     * Estima um percentil da latência a partir do histograma.
+     *
+     * @param percentil o percentil desejado, de 0 a 100
+     * @return o limite superior, em nanossegundos, da faixa que contém
+     *     o percentil, ou 0 se não houver chamadas
+     */
+    public long percentilNanos(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100");
+        }
+        long[] contagens = new long[FAIXAS];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens[i] = histograma.get(i);
+            total += contagens[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(total * percentil / 100));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,37 @@
+package metricas;
+/**
+ * Operações de {@link service.FuncionarioService} acompanhadas pelo
+ * {@link RegistroMetricas}.  As variantes sobre listas e sobre a tabela
+ * colunar de uma mesma operação são contabilizadas juntas.
+ */
+public enum Operacao {
+    REMOVER_POR_NOME("removerPorNome"),
+    REMOVER_POR_NOMES("removerPorNomes"),
+    BUSCAR_POR_NOME("buscarPorNome"),
+    APLICAR_AUMENTO("aplicarAumento"),
+    AGRUPAR_POR_FUNCAO("agruparPorFuncao"),
+    ANIVERSARIANTES("aniversariantes"),
+    FUNCIONARIO_MAIS_VELHO("funcionarioMaisVelho"),
+    CONSULTA_POR_NASCIMENTO("consultaPorNascimento"),
+    CALCULAR_IDADES("calcularIdades"),
+    CONSULTAR("consultar"),
+    ORDENAR_POR_NOME("ordenarPorNome"),
+    SOMAR_SALARIOS("somarSalarios"),
+    ESTATISTICAS_SALARIAIS("estatisticasSalariais"),
+    SALARIOS_MINIMOS("salariosMinimosQueRecebe");
+
+    private final String nome;
+
+    Operacao(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Retorna o nome usado no resumo e no JMX.
+     *
+     * @return o nome da operação
+     */
+    public String getNome() {
+        return nome;
+    }
+}
@@ -0,0 +1,165 @@
+package metricas;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registro em memória das métricas de cada {@link Operacao}: chamadas,
+ * histograma de latência, tamanho de entrada e bytes alocados.
+ *
+ * <p>Desativado, o custo de uma operação instrumentada é a leitura de
+ * um campo {@code volatile}: {@link #medir(Operacao, long)} devolve uma
+ * medição inativa compartilhada.  O registro global começa ativo
+ * quando a propriedade de sistema {@value #PROPRIEDADE} vale
+ * {@code true}, e pode ser ativado depois por
+ * {@link #setAtivo(boolean)}, inclusive via JMX.
+ */
+public final class RegistroMetricas implements RegistroMetricasMXBean {
+
+    /** Propriedade de sistema que ativa o registro global. */
+    public static final String PROPRIEDADE = "projedata.metricas";
+
+    /** Nome do registro global no servidor JMX da plataforma. */
+    public static final String NOME_JMX = "projedata:type=RegistroMetricas";
+
+    private static final RegistroMetricas GLOBAL = new RegistroMetricas(Boolean.getBoolean(PROPRIEDADE));
+
+    private final MetricaOperacao[] metricas;
+    private volatile boolean ativo;
+
+    /**
+     * Cria um registro independente do global, útil em testes.
+     *
+     * @param ativo se o registro começa coletando métricas
+     */
+    public RegistroMetricas(boolean ativo) {
+        Operacao[] operacoes = Operacao.values();
+        this.metricas = new MetricaOperacao[operacoes.length];
+        for (Operacao operacao : operacoes) {
+            metricas[operacao.ordinal()] = new MetricaOperacao(operacao);
+        }
+        this.ativo = ativo;
+    }
+
+    /**
+     * Obtém o registro global, usado por padrão pelo serviço.
+     *
+     * @return o registro global
+     */
+    public static RegistroMetricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Inicia a medição de uma chamada.  Use em um bloco
+     * try-with-resources, que a encerra ao final da chamada.
+     *
+     * @param operacao       a operação medida
+     * @param tamanhoEntrada o tamanho da entrada
+     * @return a medição, ou uma medição inativa se o registro estiver
+     *     desativado
+     */
+    public Medicao medir(Operacao operacao, long tamanhoEntrada) {
+        return ativo ? new Medicao(metricas[operacao.ordinal()], tamanhoEntrada) : Medicao.INATIVA;
+    }
+
+    /**
+     * Obtém as métricas acumuladas de uma operação.
+     *
+     * @param operacao a operação
+     * @return as métricas
+     */
+    public MetricaOperacao metrica(Operacao operacao) {
+        return metricas[operacao.ordinal()];
+    }
+
+    @Override
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    @Override
+    public void setAtivo(boolean ativo) {
+        this.ativo = ativo;
+    }
+
+    @Override
+    public Map<String, Long> getChamadas() {
+        Map<String, Long> chamadas = new LinkedHashMap<>();
+        for (MetricaOperacao metrica : metricas) {
+            chamadas.put(metrica.getOperacao().getNome(), metrica.getChamadas());
+        }
+        return chamadas;
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaMediaMicros() {
+        Map<String, Double> medias = new LinkedHashMap<>();
+        for (MetricaOperacao metrica : metricas) {
+            long chamadas = metrica.getChamadas();
+            medias.put(metrica.getOperacao().getNome(),
+                    chamadas == 0 ? 0.0 : metrica.getNanosTotais() / 1_000.0 / chamadas);
+        }
+        return medias;
+    }
+
+    @Override
+    public String getResumo() {
+        return resumo();
+    }
+
+    @Override
+    public void zerar() {
+        for (MetricaOperacao metrica : metricas) {
+            metrica.zerar();
+        }
+    }
+
+    /**
+     * Monta uma tabela em texto com as operações chamadas ao menos uma
+     * vez: chamadas, latência média, p50, p99 e máxima (em
+     * microssegundos), tamanho médio da entrada e bytes alocados por
+     * chamada.
+     *
+     * @return o resumo, uma operação por linha
+     */
+    public String resumo() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format(Locale.ROOT, "%-24s %10s %12s %12s %12s %12s %12s %14s%n",
+                "Operação", "Chamadas", "Média µs", "p50 µs", "p99 µs", "Máx µs", "Entrada", "Bytes/chamada"));
+        for (MetricaOperacao metrica : metricas) {
+            long chamadas = metrica.getChamadas();
+            if (chamadas == 0) {
+                continue;
+            }
+            texto.append(String.format(Locale.ROOT, "%-24s %10d %12.1f %12.1f %12.1f %12.1f %12d %14d%n",
+                    metrica.getOperacao().getNome(),
+                    chamadas,
+                    metrica.getNanosTotais() / 1_000.0 / chamadas,
+                    metrica.percentilNanos(50) / 1_000.0,
+                    metrica.percentilNanos(99) / 1_000.0,
+                    metrica.getNanosMaximo() / 1_000.0,
+                    metrica.getTamanhoTotal() / chamadas,
+                    metrica.getBytesAlocados() / chamadas));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Registra este registro no servidor JMX da plataforma com o nome
+     * {@value #NOME_JMX}.  Chamadas repetidas não têm efeito.
+     */
+    public void registrarNoJmx() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(NOME_JMX));
+        } catch (InstanceAlreadyExistsException e) {
+            // já registrado
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao registrar as métricas no JMX", e);
+        }
+    }
+}
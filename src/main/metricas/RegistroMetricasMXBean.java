@@ -0,0 +1,49 @@
+package metricas;
+import java.util.Map;
+
+/**
+ * Interface de gerenciamento do {@link RegistroMetricas}, exposta via
+ * JMX com o nome {@value RegistroMetricas#NOME_JMX}.
+ */
+public interface RegistroMetricasMXBean {
+
+    /**
+     * Informa se o registro está coletando métricas.
+     *
+     * @return {@code true} se estiver ativo
+     */
+    boolean isAtivo();
+
+    /**
+     * Ativa ou desativa a coleta de métricas.
+     *
+     * @param ativo {@code true} para ativar
+     */
+    void setAtivo(boolean ativo);
+
+    /**
+     * Obtém a quantidade de chamadas de cada operação.
+     *
+     * @return as chamadas, por nome de operação
+     */
+    Map<String, Long> getChamadas();
+
+    /**
+     * Obtém a latência média de cada operação.
+     *
+     * @return a latência média em microssegundos, por nome de operação
+     */
+    Map<String, Double> getLatenciaMediaMicros();
+
+    /**
+     * Obtém o resumo em texto, o mesmo de {@link RegistroMetricas#resumo()}.
+     *
+     * @return o resumo
+     */
+    String getResumo();
+
+    /**
+     * Descarta todas as métricas coletadas.
+     */
+    void zerar();
+}
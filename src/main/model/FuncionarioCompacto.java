@@ -0,0 +1,132 @@
+package model;
+import util.CentavosUtil;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link Funcionario} que ocupa menos memória: o salário é guardado em
+ * centavos ({@code long}), a data de nascimento empacotada em um
+ * {@code int} (veja {@link DataUtil#empacotar(int, int, int)}).  Com
+ * isso, cada funcionário deixa de carregar um {@link LocalDate} e um
+ * {@link BigDecimal}.
+ *
+ * <p>A função é guardada como recebida.  Para que funções iguais
+ * ocupem uma única {@link String}, quem cria muitos funcionários passa
+ * o texto de um dicionário próprio, como faz
+ * {@link repository.TabelaFuncionarios#paraListaCompacta()} com o
+ * {@link repository.DicionarioFuncoes} da tabela; o dicionário deixa de
+ * ser usado junto com os funcionários que o referenciam.
+ *
+ * <p>Os getters continuam devolvendo {@link LocalDate} e
+ * {@link BigDecimal}, criados a cada chamada, de modo que o
+ * funcionário compacto pode ser usado em qualquer lugar que aceite um
+ * {@link Funcionario}.  Em troca, o salário não pode ter mais de duas
+ * casas decimais e a data de nascimento não pode ser nula.
+ */
+public final class FuncionarioCompacto extends Funcionario {
+
+    /** Maior ano, em valor absoluto, que cabe na data empacotada. */
+    private static final int ANO_MAXIMO = (1 << 22) - 1;
+
+    private long salarioCentavos;
+    private final int nascimento;
+
+    /**
+     * Constrói um funcionário compacto com os dados fornecidos.
+     *
+     * @param nome           o nome do funcionário
+     * @param dataNascimento a data de nascimento do funcionário
+     * @param salario        o salário, com no máximo duas casas decimais
+     * @param funcao         a função exercida pelo funcionário
+     * @throws IllegalArgumentException se a data for nula ou estiver
+     *     fora do intervalo suportado, ou se o salário não for
+     *     representável em centavos
+     */
+    public FuncionarioCompacto(String nome, LocalDate dataNascimento, BigDecimal salario, String funcao) {
+        super(nome, null, null, funcao);
+        if (dataNascimento == null) {
+            throw new IllegalArgumentException("Data de nascimento não pode ser nula");
+        }
+        if (Math.abs(dataNascimento.getYear()) > ANO_MAXIMO) {
+            throw new IllegalArgumentException("Data de nascimento fora do intervalo suportado: " + dataNascimento);
+        }
+        this.nascimento = DataUtil.empacotar(dataNascimento.getYear(),
+                dataNascimento.getMonthValue(), dataNascimento.getDayOfMonth());
+        this.salarioCentavos = CentavosUtil.paraCentavos(salario);
+    }
+
+    /**
+     * Constrói um funcionário compacto a partir de valores já
+     * codificados, como os de uma tabela colunar, sem criar objetos
+     * intermediários.
+     *
+     * @param nome            o nome do funcionário
+     * @param nascimento      a data de nascimento como dia epoch
+     * @param salarioCentavos o salário em centavos
+     * @param funcao          a função exercida pelo funcionário
+     */
+    public FuncionarioCompacto(String nome, int nascimento, long salarioCentavos, String funcao) {
+        super(nome, null, null, funcao);
+        this.nascimento = DataUtil.empacotar(nascimento);
+        this.salarioCentavos = salarioCentavos;
+    }
+
+    /**
+     * Cria uma cópia compacta do funcionário.
+     *
+     * @param funcionario o funcionário a copiar
+     * @return o funcionário compacto; o próprio funcionário, se ele já
+     *     for compacto
+     */
+    public static FuncionarioCompacto de(Funcionario funcionario) {
+        if (funcionario instanceof FuncionarioCompacto compacto) {
+            return compacto;
+        }
+        return new FuncionarioCompacto(funcionario.getNome(), funcionario.getDataNascimento(),
+                funcionario.getSalario(), funcionario.getFuncao());
+    }
+
+    @Override
+    public LocalDate getDataNascimento() {
+        return LocalDate.of(DataUtil.ano(nascimento), DataUtil.mes(nascimento), DataUtil.dia(nascimento));
+    }
+
+    /**
+     * Obtém a data de nascimento empacotada, sem criar um
+     * {@link LocalDate}.
+     *
+     * @return a data empacotada
+     */
+    public int getNascimentoEmpacotado() {
+        return nascimento;
+    }
+
+    @Override
+    public BigDecimal getSalario() {
+        return CentavosUtil.paraValor(salarioCentavos);
+    }
+
+    /**
+     * Obtém o salário em centavos, sem criar um {@link BigDecimal}.
+     *
+     * @return o salário em centavos
+     */
+    public long getSalarioCentavos() {
+        return salarioCentavos;
+    }
+
+    /**
+     * Altera o salário do funcionário.  Como o salário é guardado em
+     * centavos, o valor não pode ter mais de duas casas decimais.
+     *
+     * @param salario o novo salário
+     * @throws IllegalArgumentException se o salário não for
+     *     representável em centavos
+     */
+    @Override
+    public void setSalario(BigDecimal salario) {
+        this.salarioCentavos = CentavosUtil.paraCentavos(salario);
+    }
+}
@@ -0,0 +1,354 @@
+package particao;
+import model.Funcionario;
+import service.EstatisticasSalariais;
+import util.ColacaoUtil;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Conjunto de funcionários dividido em {@link Particao}s, locais ou em
+ * outros processos.  Cada funcionário vai para a partição indicada
+ * pelo hash de uma chave (a função, por padrão, ou o cliente a que
+ * pertence, por exemplo), e cada operação é executada em todas as
+ * partições em paralelo, com os resultados parciais combinados:
+ * somas e estatísticas são somadas, grupos por função concatenados,
+ * listas ordenadas por nome intercaladas e o funcionário mais velho é
+ * o mais velho entre os de cada partição.
+ *
+ * <p>Cada partição responde sobre o próprio estado no momento da
+ * chamada; não há uma leitura consistente de todas as partições ao
+ * mesmo tempo, e um reajuste aplicado a todas não é atômico.  Quando a
+ * ordem de inserção importa (aniversariantes, funcionários de um
+ * mesmo grupo), os resultados seguem a ordem das partições e, dentro
+ * de cada uma, a de inserção.
+ */
+public final class FuncionariosParticionados implements AutoCloseable {
+
+    private final List<Particao> particoes;
+    private final Function<? super Funcionario, ?> chave;
+    private final ExecutorService executor;
+
+    /**
+     * Divide os funcionários entre as partições pela função.  Assim,
+     * cada grupo por função fica inteiro em uma partição.
+     *
+     * @param particoes as partições, na ordem em que os resultados são
+     *     combinados
+     */
+    public FuncionariosParticionados(List<? extends Particao> particoes) {
+        this(particoes, Funcionario::getFuncao);
+    }
+
+    /**
+     * Divide os funcionários entre as partições pela chave informada.
+     *
+     * @param particoes as partições, na ordem em que os resultados são
+     *     combinados
+     * @param chave     obtém a chave de partição de um funcionário
+     */
+    public FuncionariosParticionados(List<? extends Particao> particoes, Function<? super Funcionario, ?> chave) {
+        if (particoes.isEmpty()) {
+            throw new IllegalArgumentException("É necessária ao menos uma partição");
+        }
+        this.particoes = List.copyOf(particoes);
+        this.chave = chave;
+        this.executor = Executors.newFixedThreadPool(particoes.size(), threads());
+    }
+
+    /**
+     * Obtém as partições.
+     *
+     * @return a lista imutável de partições
+     */
+    public List<Particao> particoes() {
+        return particoes;
+    }
+
+    /**
+     * Obtém a partição de um funcionário.
+     *
+     * @param funcionario o funcionário
+     * @return o índice da partição
+     */
+    public int particao(Funcionario funcionario) {
+        return Math.floorMod(Objects.hashCode(chave.apply(funcionario)), particoes.size());
+    }
+
+    /**
+     * Adiciona um funcionário à sua partição.
+     *
+     * @param funcionario o funcionário a adicionar
+     */
+    public void adicionar(Funcionario funcionario) {
+        particoes.get(particao(funcionario)).adicionar(funcionario);
+    }
+
+    /**
+     * Adiciona vários funcionários, com uma única chamada por partição,
+     * feitas em paralelo.
+     *
+     * @param funcionarios os funcionários a adicionar
+     */
+    public void adicionarTodos(Collection<Funcionario> funcionarios) {
+        List<List<Funcionario>> porParticao = new ArrayList<>();
+        for (int i = 0; i < particoes.size(); i++) {
+            porParticao.add(new ArrayList<>());
+        }
+        for (Funcionario funcionario : funcionarios) {
+            porParticao.get(particao(funcionario)).add(funcionario);
+        }
+        emCadaParticao(i -> {
+            if (!porParticao.get(i).isEmpty()) {
+                particoes.get(i).adicionarTodos(porParticao.get(i));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Remove o primeiro funcionário com o nome indicado, ignorando
+     * maiúsculas e minúsculas.  Como o nome não determina a partição,
+     * as partições são consultadas em ordem até uma delas remover o
+     * funcionário.
+     *
+     * @param nome o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     */
+    public Optional<Funcionario> removerPorNome(String nome) {
+        for (Particao particao : particoes) {
+            Optional<Funcionario> removido = particao.removerPorNome(nome);
+            if (removido.isPresent()) {
+                return removido;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários, em todas as
+     * partições em paralelo.
+     *
+     * @param percentual o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    public void aplicarAumentoPercentual(BigDecimal percentual) {
+        emCadaParticao(i -> {
+            particoes.get(i).aplicarAumentoPercentual(percentual);
+            return null;
+        });
+    }
+
+    /**
+     * Agrupa os funcionários por função, juntando os grupos de mesma
+     * função das várias partições.
+     *
+     * @return um {@link Map} com a função como chave e a lista de
+     *     funcionários como valor
+     */
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        Map<String, List<Funcionario>> grupos = new HashMap<>();
+        for (Map<String, List<Funcionario>> parcial : emCadaParticao(i -> particoes.get(i).agruparPorFuncao())) {
+            parcial.forEach((funcao, funcionarios) ->
+                    grupos.computeIfAbsent(funcao, f -> new ArrayList<>()).addAll(funcionarios));
+        }
+        return grupos;
+    }
+
+    /**
+     * Filtra os funcionários que fazem aniversário nos meses fornecidos.
+     *
+     * @param meses conjunto de meses (1 a 12) a considerar
+     * @return uma lista dos aniversariantes, partição a partição
+     */
+    public List<Funcionario> aniversariantesNosMeses(Set<Integer> meses) {
+        List<Funcionario> aniversariantes = new ArrayList<>();
+        for (List<Funcionario> parcial : emCadaParticao(i -> particoes.get(i).aniversariantesNosMeses(meses))) {
+            aniversariantes.addAll(parcial);
+        }
+        return aniversariantes;
+    }
+
+    /**
+     * Determina o funcionário mais velho entre os mais velhos de cada
+     * partição.  Em caso de empate, vale o da primeira partição.
+     *
+     * @return um Optional contendo o funcionário mais velho, se
+     *     existir
+     */
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        Funcionario maisVelho = null;
+        for (Optional<Funcionario> parcial : emCadaParticao(i -> particoes.get(i).funcionarioMaisVelho())) {
+            if (parcial.isPresent() && (maisVelho == null
+                    || parcial.get().getDataNascimento().isBefore(maisVelho.getDataNascimento()))) {
+                maisVelho = parcial.get();
+            }
+        }
+        return Optional.ofNullable(maisVelho);
+    }
+
+    /**
+     * Retorna os funcionários em ordem alfabética pt-BR, intercalando as
+     * listas já ordenadas de cada partição.  Nomes equivalentes seguem
+     * a ordem das partições.
+     *
+     * @return uma nova lista ordenada por nome
+     */
+    public List<Funcionario> ordenarPorNome() {
+        List<List<Funcionario>> parciais = emCadaParticao(i -> particoes.get(i).ordenarPorNome());
+        int total = 0;
+        PriorityQueue<Cabeca> cabecas = new PriorityQueue<>();
+        for (int i = 0; i < parciais.size(); i++) {
+            total += parciais.get(i).size();
+            if (!parciais.get(i).isEmpty()) {
+                cabecas.add(new Cabeca(i, 0, parciais.get(i).get(0)));
+            }
+        }
+        List<Funcionario> ordenados = new ArrayList<>(total);
+        while (!cabecas.isEmpty()) {
+            Cabeca menor = cabecas.poll();
+            ordenados.add(menor.funcionario);
+            List<Funcionario> parcial = parciais.get(menor.particao);
+            int proxima = menor.posicao + 1;
+            if (proxima < parcial.size()) {
+                cabecas.add(new Cabeca(menor.particao, proxima, parcial.get(proxima)));
+            }
+        }
+        return ordenados;
+    }
+
+    /**
+     * Obtém o total dos salários de todas as partições.
+     *
+     * @return o total dos salários, com duas casas decimais
+     */
+    public BigDecimal somarSalarios() {
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (BigDecimal parcial : emCadaParticao(i -> particoes.get(i).somarSalarios())) {
+            total = total.add(parcial);
+        }
+        return total;
+    }
+
+    /**
+     * Calcula as estatísticas dos salários, no total e por função,
+     * combinando as de cada partição.
+     *
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     */
+    public EstatisticasSalariais estatisticasSalariais(BigDecimal... limitesHistograma) {
+        List<EstatisticasSalariais> parciais =
+                emCadaParticao(i -> particoes.get(i).estatisticasSalariais(limitesHistograma));
+        EstatisticasSalariais estatisticas = parciais.get(0);
+        for (int i = 1; i < parciais.size(); i++) {
+            estatisticas.combinar(parciais.get(i));
+        }
+        return estatisticas;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários de todas as partições.
+     *
+     * @return a quantidade de funcionários
+     */
+    public int tamanho() {
+        int total = 0;
+        for (int parcial : emCadaParticao(i -> particoes.get(i).tamanho())) {
+            total += parcial;
+        }
+        return total;
+    }
+
+    /**
+     * Executa a operação em todas as partições em paralelo e aguarda os
+     * resultados.  A primeira falha é relançada depois que todas as
+     * partições terminarem.
+     */
+    private <T> List<T> emCadaParticao(IntFunction<T> operacao) {
+        List<Future<T>> futuros = new ArrayList<>(particoes.size());
+        for (int i = 0; i < particoes.size(); i++) {
+            int particao = i;
+            futuros.add(executor.submit(() -> operacao.apply(particao)));
+        }
+        List<T> resultados = new ArrayList<>(futuros.size());
+        RuntimeException falha = null;
+        for (Future<T> futuro : futuros) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                if (falha == null) {
+                    falha = e.getCause() instanceof RuntimeException causa ? causa
+                            : new IllegalStateException("Falha em uma partição", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando as partições", e);
+            }
+        }
+        if (falha != null) {
+            throw falha;
+        }
+        return resultados;
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "particao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Encerra as threads e fecha as partições.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (Particao particao : particoes) {
+            particao.close();
+        }
+    }
+
+    /**
+     * Próximo funcionário de uma partição na intercalação por nome.
+     */
+    private static final class Cabeca implements Comparable<Cabeca> {
+
+        final int particao;
+        final int posicao;
+        final Funcionario funcionario;
+        final byte[] chave;
+
+        Cabeca(int particao, int posicao, Funcionario funcionario) {
+            this.particao = particao;
+            this.posicao = posicao;
+            this.funcionario = funcionario;
+            this.chave = ColacaoUtil.chave(funcionario.getNome());
+        }
+
+        @Override
+        public int compareTo(Cabeca outra) {
+            int comparacao = ColacaoUtil.comparar(chave, outra.chave);
+            return comparacao != 0 ? comparacao : Integer.compare(particao, outra.particao);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package particao;
+import model.Funcionario;
+import service.EstatisticasSalariais;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Uma parte do conjunto de funcionários, com as operações do
+ * {@link service.FuncionarioService} que {@link FuncionariosParticionados}
+ * executa em cada parte e combina.  A partição pode estar no mesmo
+ * processo ({@link ParticaoLocal}) ou em outro, acessada por um socket
+ * ({@link ParticaoRemota}).
+ *
+ * <p>As implementações podem ser chamadas por várias threads ao mesmo
+ * tempo e devolvem resultados independentes dos dados da partição.
+ */
+public interface Particao extends AutoCloseable {
+
+    /**
+     * Adiciona um funcionário à partição.
+     *
+     * @param funcionario o funcionário a adicionar
+     */
+    void adicionar(Funcionario funcionario);
+
+    /**
+     * Adiciona vários funcionários à partição, de uma só vez.
+     *
+     * @param funcionarios os funcionários a adicionar
+     */
+    void adicionarTodos(Collection<Funcionario> funcionarios);
+
+    /**
+     * Remove o primeiro funcionário com o nome indicado, ignorando
+     * maiúsculas e minúsculas.
+     *
+     * @param nome o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     */
+    Optional<Funcionario> removerPorNome(String nome);
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários da partição.
+     *
+     * @param percentual o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    void aplicarAumentoPercentual(BigDecimal percentual);
+
+    /**
+     * Agrupa os funcionários da partição por função.
+     *
+     * @return um {@link Map} com a função como chave e a lista de
+     *     funcionários, na ordem de inserção, como valor
+     */
+    Map<String, List<Funcionario>> agruparPorFuncao();
+
+    /**
+     * Filtra os funcionários que fazem aniversário nos meses fornecidos.
+     *
+     * @param meses conjunto de meses (1 a 12) a considerar
+     * @return uma lista, na ordem de inserção, dos aniversariantes
+     */
+    List<Funcionario> aniversariantesNosMeses(Set<Integer> meses);
+
+    /**
+     * Determina o funcionário mais velho da partição.
+     *
+     * @return um Optional contendo o funcionário mais velho, se
+     *     existir
+     */
+    Optional<Funcionario> funcionarioMaisVelho();
+
+    /**
+     * Retorna os funcionários da partição em ordem alfabética pt-BR.
+     *
+     * @return uma lista ordenada por nome
+     */
+    List<Funcionario> ordenarPorNome();
+
+    /**
+     * Obtém o total dos salários da partição.
+     *
+     * @return o total dos salários, com duas casas decimais
+     */
+    BigDecimal somarSalarios();
+
+    /**
+     * Calcula as estatísticas dos salários da partição, no total e por
+     * função.
+     *
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     */
+    EstatisticasSalariais estatisticasSalariais(BigDecimal... limitesHistograma);
+
+    /**
+     * Obtém a quantidade de funcionários da partição.
+     *
+     * @return a quantidade de funcionários
+     */
+    int tamanho();
+
+    /**
+     * Libera os recursos da partição.  Partições locais não fazem nada.
+     */
+    @Override
+    default void close() {
+    }
+}
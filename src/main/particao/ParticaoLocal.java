@@ -0,0 +1,109 @@
+package particao;
+import model.Funcionario;
+import repository.RepositorioFuncionarios;
+import repository.TabelaFuncionarios;
+import service.EstatisticasSalariais;
+import service.FuncionarioService;
+import service.FuncionarioServiceConcorrente;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link Particao} guardada neste processo, em um
+ * {@link RepositorioFuncionarios} próprio e consultada pelo
+ * {@link FuncionarioServiceConcorrente}.
+ */
+public final class ParticaoLocal implements Particao {
+
+    private final RepositorioFuncionarios repositorio;
+    private final FuncionarioServiceConcorrente service;
+
+    /**
+     * Cria uma partição vazia.
+     */
+    public ParticaoLocal() {
+        this(new FuncionarioService(), new RepositorioFuncionarios(new TabelaFuncionarios()));
+    }
+
+    /**
+     * Cria uma partição sobre o repositório informado, delegando as
+     * regras de negócio ao serviço indicado.
+     *
+     * @param service     o serviço de funcionários
+     * @param repositorio o repositório com os funcionários da partição
+     */
+    public ParticaoLocal(FuncionarioService service, RepositorioFuncionarios repositorio) {
+        this.repositorio = repositorio;
+        this.service = new FuncionarioServiceConcorrente(service, repositorio);
+    }
+
+    @Override
+    public void adicionar(Funcionario funcionario) {
+        service.adicionar(funcionario);
+    }
+
+    /**
+     * Adiciona vários funcionários sob uma única trava de escrita.
+     *
+     * @param funcionarios os funcionários a adicionar
+     */
+    @Override
+    public void adicionarTodos(Collection<Funcionario> funcionarios) {
+        repositorio.alterar(tabela -> {
+            for (Funcionario funcionario : funcionarios) {
+                tabela.adicionar(funcionario);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Funcionario> removerPorNome(String nome) {
+        return service.removerPorNome(nome);
+    }
+
+    @Override
+    public void aplicarAumentoPercentual(BigDecimal percentual) {
+        service.aplicarAumentoPercentual(percentual);
+    }
+
+    @Override
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        return service.agruparPorFuncao();
+    }
+
+    @Override
+    public List<Funcionario> aniversariantesNosMeses(Set<Integer> meses) {
+        return service.aniversariantesNosMeses(meses);
+    }
+
+    @Override
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        return service.funcionarioMaisVelho();
+    }
+
+    @Override
+    public List<Funcionario> ordenarPorNome() {
+        return service.ordenarPorNome();
+    }
+
+    @Override
+    public BigDecimal somarSalarios() {
+        return service.somarSalarios();
+    }
+
+    @Override
+    public EstatisticasSalariais estatisticasSalariais(BigDecimal... limitesHistograma) {
+        return service.estatisticasSalariais(limitesHistograma);
+    }
+
+    @Override
+    public int tamanho() {
+        return service.tamanho();
+    }
+}
@@ -0,0 +1,209 @@
+package particao;
+import model.Funcionario;
+import service.EstatisticasSalariais;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link Particao} mantida por um {@link ServidorParticao} em outro
+ * processo, acessada por uma conexão TCP.  Cada operação envia um
+ * pedido e espera a resposta; chamadas simultâneas de várias threads
+ * são atendidas uma de cada vez pela mesma conexão.
+ *
+ * <p>Os funcionários devolvidos são cópias recebidas do servidor.
+ * Falhas de comunicação lançam {@link UncheckedIOException} e fecham a
+ * conexão; argumentos recusados pelo servidor lançam
+ * {@link IllegalArgumentException}, e outros erros do servidor,
+ * {@link IllegalStateException}.
+ */
+public final class ParticaoRemota implements Particao {
+
+    private final Socket socket;
+    private final DataInputStream entrada;
+    private final DataOutputStream saida;
+
+    /**
+     * Conecta-se ao servidor de partição no endereço informado.
+     *
+     * @param endereco o endereço do servidor
+     * @throws IOException se a conexão falhar
+     */
+    public ParticaoRemota(InetSocketAddress endereco) throws IOException {
+        socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(endereco);
+            entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Conecta-se ao servidor de partição desta máquina, na porta
+     * informada.
+     *
+     * @param porta a porta do servidor
+     * @return a partição conectada
+     * @throws IOException se a conexão falhar
+     */
+    public static ParticaoRemota local(int porta) throws IOException {
+        return new ParticaoRemota(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    @Override
+    public void adicionar(Funcionario funcionario) {
+        chamar(ProtocoloParticao.ADICIONAR,
+                saida -> ProtocoloParticao.escreverFuncionario(saida, funcionario), entrada -> null);
+    }
+
+    @Override
+    public void adicionarTodos(Collection<Funcionario> funcionarios) {
+        chamar(ProtocoloParticao.ADICIONAR_TODOS,
+                saida -> ProtocoloParticao.escreverFuncionarios(saida, funcionarios), entrada -> null);
+    }
+
+    @Override
+    public Optional<Funcionario> removerPorNome(String nome) {
+        return chamar(ProtocoloParticao.REMOVER_POR_NOME,
+                saida -> ProtocoloParticao.escreverTexto(saida, nome), ProtocoloParticao::lerOpcional);
+    }
+
+    @Override
+    public void aplicarAumentoPercentual(BigDecimal percentual) {
+        chamar(ProtocoloParticao.APLICAR_AUMENTO,
+                saida -> ProtocoloParticao.escreverValor(saida, percentual), entrada -> null);
+    }
+
+    @Override
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        return chamar(ProtocoloParticao.AGRUPAR_POR_FUNCAO, saida -> { }, entrada -> {
+            int grupos = entrada.readInt();
+            Map<String, List<Funcionario>> porFuncao = new HashMap<>();
+            for (int i = 0; i < grupos; i++) {
+                porFuncao.put(ProtocoloParticao.lerTexto(entrada), ProtocoloParticao.lerFuncionarios(entrada));
+            }
+            return porFuncao;
+        });
+    }
+
+    @Override
+    public List<Funcionario> aniversariantesNosMeses(Set<Integer> meses) {
+        return chamar(ProtocoloParticao.ANIVERSARIANTES, saida -> {
+            saida.writeInt(meses == null ? 0 : meses.size());
+            if (meses != null) {
+                for (int mes : meses) {
+                    saida.writeInt(mes);
+                }
+            }
+        }, ProtocoloParticao::lerFuncionarios);
+    }
+
+    @Override
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        return chamar(ProtocoloParticao.FUNCIONARIO_MAIS_VELHO, saida -> { }, ProtocoloParticao::lerOpcional);
+    }
+
+    @Override
+    public List<Funcionario> ordenarPorNome() {
+        return chamar(ProtocoloParticao.ORDENAR_POR_NOME, saida -> { }, ProtocoloParticao::lerFuncionarios);
+    }
+
+    @Override
+    public BigDecimal somarSalarios() {
+        return chamar(ProtocoloParticao.SOMAR_SALARIOS, saida -> { }, ProtocoloParticao::lerValor);
+    }
+
+    @Override
+    public EstatisticasSalariais estatisticasSalariais(BigDecimal... limitesHistograma) {
+        return chamar(ProtocoloParticao.ESTATISTICAS_SALARIAIS, saida -> {
+            saida.writeInt(limitesHistograma.length);
+            for (BigDecimal limite : limitesHistograma) {
+                ProtocoloParticao.escreverValor(saida, limite);
+            }
+        }, EstatisticasSalariais::ler);
+    }
+
+    @Override
+    public int tamanho() {
+        return chamar(ProtocoloParticao.TAMANHO, saida -> { }, DataInputStream::readInt);
+    }
+
+    /**
+     * Envia um pedido e lê a resposta.  O pedido é montado inteiro
+     * antes do envio, para que um argumento inválido (um salário com
+     * mais de duas casas decimais, por exemplo) não deixe um pedido
+     * pela metade na conexão.
+     */
+    private <T> T chamar(byte operacao, Pedido pedido, Resposta<T> resposta) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream montagem = new DataOutputStream(bytes);
+            montagem.writeByte(operacao);
+            pedido.escrever(montagem);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return enviar(bytes, resposta);
+    }
+
+    private synchronized <T> T enviar(ByteArrayOutputStream pedido, Resposta<T> resposta) {
+        try {
+            pedido.writeTo(saida);
+            saida.flush();
+            byte situacao = entrada.readByte();
+            if (situacao == ProtocoloParticao.SUCESSO) {
+                return resposta.ler(entrada);
+            }
+            String mensagem = entrada.readUTF();
+            if (situacao == ProtocoloParticao.ARGUMENTO_INVALIDO) {
+                throw new IllegalArgumentException(mensagem);
+            }
+            throw new IllegalStateException("Falha na partição remota: " + mensagem);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Falha na comunicação com a partição " + socket.getRemoteSocketAddress(), e);
+        }
+    }
+
+    /**
+     * Fecha a conexão com o servidor.  O servidor e seus dados não são
+     * afetados.
+     */
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // a conexão já não pode ser usada
+        }
+    }
+
+    @FunctionalInterface
+    private interface Pedido {
+        void escrever(DataOutputStream saida) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Resposta<T> {
+        T ler(DataInputStream entrada) throws IOException;
+    }
+}
@@ -0,0 +1,109 @@
+package particao;
+import model.Funcionario;
+import util.CentavosUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Formato das mensagens trocadas entre {@link ParticaoRemota} e
+ * {@link ServidorParticao}.  Cada pedido é um byte de operação seguido
+ * dos argumentos; cada resposta, um byte de situação seguido do
+ * resultado ou, em caso de erro, da mensagem.  Funcionários viajam
+ * como nome, dia epoch do nascimento, salário em centavos e função.
+ */
+final class ProtocoloParticao {
+
+    static final byte ADICIONAR = 1;
+    static final byte ADICIONAR_TODOS = 2;
+    static final byte REMOVER_POR_NOME = 3;
+    static final byte APLICAR_AUMENTO = 4;
+    static final byte AGRUPAR_POR_FUNCAO = 5;
+    static final byte ANIVERSARIANTES = 6;
+    static final byte FUNCIONARIO_MAIS_VELHO = 7;
+    static final byte ORDENAR_POR_NOME = 8;
+    static final byte SOMAR_SALARIOS = 9;
+    static final byte ESTATISTICAS_SALARIAIS = 10;
+    static final byte TAMANHO = 11;
+
+    static final byte SUCESSO = 0;
+    static final byte ARGUMENTO_INVALIDO = 1;
+    static final byte FALHA = 2;
+
+    private ProtocoloParticao() {
+    }
+
+    static void escreverTexto(DataOutput saida, String texto) throws IOException {
+        saida.writeBoolean(texto != null);
+        if (texto != null) {
+            saida.writeUTF(texto);
+        }
+    }
+
+    static String lerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    static void escreverValor(DataOutput saida, BigDecimal valor) throws IOException {
+        saida.writeUTF(valor.toString());
+    }
+
+    static BigDecimal lerValor(DataInput entrada) throws IOException {
+        try {
+            return new BigDecimal(entrada.readUTF());
+        } catch (NumberFormatException e) {
+            throw new IOException("Valor inválido", e);
+        }
+    }
+
+    static void escreverFuncionario(DataOutput saida, Funcionario funcionario) throws IOException {
+        escreverTexto(saida, funcionario.getNome());
+        saida.writeLong(funcionario.getDataNascimento().toEpochDay());
+        saida.writeLong(CentavosUtil.paraCentavos(funcionario.getSalario()));
+        escreverTexto(saida, funcionario.getFuncao());
+    }
+
+    static Funcionario lerFuncionario(DataInput entrada) throws IOException {
+        String nome = lerTexto(entrada);
+        LocalDate nascimento = LocalDate.ofEpochDay(entrada.readLong());
+        BigDecimal salario = CentavosUtil.paraValor(entrada.readLong());
+        return new Funcionario(nome, nascimento, salario, lerTexto(entrada));
+    }
+
+    static void escreverFuncionarios(DataOutput saida, Collection<Funcionario> funcionarios) throws IOException {
+        saida.writeInt(funcionarios.size());
+        for (Funcionario funcionario : funcionarios) {
+            escreverFuncionario(saida, funcionario);
+        }
+    }
+
+    static List<Funcionario> lerFuncionarios(DataInput entrada) throws IOException {
+        int quantidade = entrada.readInt();
+        if (quantidade < 0) {
+            throw new IOException("Quantidade inválida: " + quantidade);
+        }
+        List<Funcionario> funcionarios = new ArrayList<>(Math.min(quantidade, 1 << 16));
+        for (int i = 0; i < quantidade; i++) {
+            funcionarios.add(lerFuncionario(entrada));
+        }
+        return funcionarios;
+    }
+
+    static void escreverOpcional(DataOutput saida, Optional<Funcionario> funcionario) throws IOException {
+        saida.writeBoolean(funcionario.isPresent());
+        if (funcionario.isPresent()) {
+            escreverFuncionario(saida, funcionario.get());
+        }
+    }
+
+    static Optional<Funcionario> lerOpcional(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? Optional.of(lerFuncionario(entrada)) : Optional.empty();
+    }
+}
@@ -0,0 +1,237 @@
+package particao;
+import model.Funcionario;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor que expõe uma {@link Particao} a {@link ParticaoRemota}s de
+ * outros processos, por TCP na interface de loopback.  Cada conexão é
+ * atendida por uma thread própria, pedido a pedido; conexões
+ * diferentes são atendidas ao mesmo tempo, o que a partição suporta.
+ *
+ * <p>Para manter uma partição em um processo separado:
+ *
+ * <pre>
+ * java -cp target/classes particao.ServidorParticao [porta]
+ * </pre>
+ *
+ * <p>O processo escreve a porta em que aceita conexões na primeira
+ * linha da saída padrão e termina quando a entrada padrão é fechada,
+ * de modo que o processo que o iniciou controla sua duração.
+ */
+public final class ServidorParticao implements Closeable {
+
+    private final Particao particao;
+    private final ServerSocket servidor;
+    private final Set<Socket> conexoes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger contador = new AtomicInteger();
+
+    /**
+     * Cria o servidor e começa a aceitar conexões.
+     *
+     * @param particao a partição a expor
+     * @param porta    a porta, ou 0 para uma porta livre qualquer
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public ServidorParticao(Particao particao, int porta) throws IOException {
+        this.particao = particao;
+        this.servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+        iniciar(this::aceitar, "particao-servidor");
+    }
+
+    /**
+     * Obtém a porta em que o servidor aceita conexões.
+     *
+     * @return a porta
+     */
+    public int porta() {
+        return servidor.getLocalPort();
+    }
+
+    private void iniciar(Runnable tarefa, String nome) {
+        Thread thread = new Thread(tarefa, nome);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void aceitar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket conexao = servidor.accept();
+                conexao.setTcpNoDelay(true);
+                conexoes.add(conexao);
+                iniciar(() -> atender(conexao), "particao-conexao-" + contador.incrementAndGet());
+            } catch (IOException e) {
+                // servidor fechado, ou falha de uma conexão que ainda não foi aceita
+            }
+        }
+    }
+
+    private void atender(Socket conexao) {
+        try (conexao) {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(conexao.getInputStream(), 64 * 1024));
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(conexao.getOutputStream(), 64 * 1024));
+            while (true) {
+                byte operacao;
+                try {
+                    operacao = entrada.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                executar(operacao, entrada).writeTo(saida);
+                saida.flush();
+            }
+        } catch (IOException e) {
+            // conexão encerrada pelo cliente ou pelo fechamento do servidor
+        } finally {
+            conexoes.remove(conexao);
+        }
+    }
+
+    /**
+     * Lê os argumentos da operação, executa-a na partição e monta a
+     * resposta inteira.  Exceções da partição, inclusive as lançadas ao
+     * escrever o resultado, viram respostas de erro, e a conexão
+     * continua utilizável.
+     */
+    private ByteArrayOutputStream executar(byte operacao, DataInputStream entrada) throws IOException {
+        try {
+            switch (operacao) {
+                case ProtocoloParticao.ADICIONAR -> {
+                    Funcionario funcionario = ProtocoloParticao.lerFuncionario(entrada);
+                    particao.adicionar(funcionario);
+                    return sucesso(null, (saida, nada) -> { });
+                }
+                case ProtocoloParticao.ADICIONAR_TODOS -> {
+                    List<Funcionario> funcionarios = ProtocoloParticao.lerFuncionarios(entrada);
+                    particao.adicionarTodos(funcionarios);
+                    return sucesso(null, (saida, nada) -> { });
+                }
+                case ProtocoloParticao.REMOVER_POR_NOME -> {
+                    String nome = ProtocoloParticao.lerTexto(entrada);
+                    return sucesso(particao.removerPorNome(nome), ProtocoloParticao::escreverOpcional);
+                }
+                case ProtocoloParticao.APLICAR_AUMENTO -> {
+                    BigDecimal percentual = ProtocoloParticao.lerValor(entrada);
+                    particao.aplicarAumentoPercentual(percentual);
+                    return sucesso(null, (saida, nada) -> { });
+                }
+                case ProtocoloParticao.AGRUPAR_POR_FUNCAO -> {
+                    return sucesso(particao.agruparPorFuncao(), (saida, grupos) -> {
+                        saida.writeInt(grupos.size());
+                        for (Map.Entry<String, List<Funcionario>> grupo : grupos.entrySet()) {
+                            ProtocoloParticao.escreverTexto(saida, grupo.getKey());
+                            ProtocoloParticao.escreverFuncionarios(saida, grupo.getValue());
+                        }
+                    });
+                }
+                case ProtocoloParticao.ANIVERSARIANTES -> {
+                    int quantidade = entrada.readInt();
+                    Set<Integer> meses = new HashSet<>();
+                    for (int i = 0; i < quantidade; i++) {
+                        meses.add(entrada.readInt());
+                    }
+                    return sucesso(particao.aniversariantesNosMeses(meses), ProtocoloParticao::escreverFuncionarios);
+                }
+                case ProtocoloParticao.FUNCIONARIO_MAIS_VELHO -> {
+                    return sucesso(particao.funcionarioMaisVelho(), ProtocoloParticao::escreverOpcional);
+                }
+                case ProtocoloParticao.ORDENAR_POR_NOME -> {
+                    return sucesso(particao.ordenarPorNome(), ProtocoloParticao::escreverFuncionarios);
+                }
+                case ProtocoloParticao.SOMAR_SALARIOS -> {
+                    return sucesso(particao.somarSalarios(), ProtocoloParticao::escreverValor);
+                }
+                case ProtocoloParticao.ESTATISTICAS_SALARIAIS -> {
+                    BigDecimal[] limites = new BigDecimal[entrada.readInt()];
+                    for (int i = 0; i < limites.length; i++) {
+                        limites[i] = ProtocoloParticao.lerValor(entrada);
+                    }
+                    return sucesso(particao.estatisticasSalariais(limites),
+                            (saida, estatisticas) -> estatisticas.gravar(saida));
+                }
+                case ProtocoloParticao.TAMANHO -> {
+                    return sucesso(particao.tamanho(), DataOutputStream::writeInt);
+                }
+                default -> throw new IOException("Operação desconhecida: " + operacao);
+            }
+        } catch (IllegalArgumentException e) {
+            return erro(ProtocoloParticao.ARGUMENTO_INVALIDO, e);
+        } catch (RuntimeException e) {
+            return erro(ProtocoloParticao.FALHA, e);
+        }
+    }
+
+    private static <T> ByteArrayOutputStream sucesso(T resultado, Escrita<T> escrita) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(ProtocoloParticao.SUCESSO);
+        escrita.escrever(saida, resultado);
+        return bytes;
+    }
+
+    private static ByteArrayOutputStream erro(byte situacao, RuntimeException e) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(situacao);
+        saida.writeUTF(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        return bytes;
+    }
+
+    /**
+     * Para de aceitar conexões e encerra as existentes.  A partição não
+     * é fechada.
+     */
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        for (Socket conexao : conexoes) {
+            conexao.close();
+        }
+    }
+
+    /**
+     * Mantém uma {@link ParticaoLocal} vazia neste processo até a
+     * entrada padrão ser fechada.
+     *
+     * @param args a porta (padrão: uma porta livre qualquer)
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public static void main(String[] args) throws IOException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (ParticaoLocal particao = new ParticaoLocal();
+             ServidorParticao servidor = new ServidorParticao(particao, porta)) {
+            System.out.println(servidor.porta());
+            System.out.flush();
+            InputStream entrada = System.in;
+            while (entrada.read() != -1) {
+                // apenas espera o fim da entrada
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escrita<T> {
+        void escrever(DataOutputStream saida, T resultado) throws IOException;
+    }
+}
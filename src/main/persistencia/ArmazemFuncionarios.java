@@ -0,0 +1,399 @@
+package persistencia;
+import model.Funcionario;
+import repository.RepositorioFuncionarios;
+import repository.TabelaFuncionarios;
+import service.FuncionarioService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Conjunto de funcionários persistente.  As alterações são feitas na
+ * tabela em memória, pelo {@link FuncionarioService}, e registradas em
+ * um {@link DiarioOperacoes}; cada método de alteração só retorna
+ * depois que o registro foi confirmado.  De tempos em tempos (ou por
+ * {@link #gravarInstantaneo()}), um {@link InstantaneoTabela} é gravado
+ * e o diário recomeça vazio, o que limita o tempo de recuperação.
+ *
+ * <p>O diretório contém {@value #ARQUIVO_INSTANTANEO} e
+ * {@value #ARQUIVO_DIARIO}.  Ao abrir, o instantâneo (se houver) é
+ * carregado e os registros posteriores do diário são reaplicados; uma
+ * cauda incompleta, deixada por uma queda no meio de uma escrita, é
+ * descartada.  Os índices da tabela não fazem parte do instantâneo:
+ * são criados pela primeira leitura que precisar deles, de modo que
+ * não atrasam a recuperação.
+ *
+ * <p>A tabela fica dentro de um {@link RepositorioFuncionarios}: as
+ * alterações são exclusivas, mas a confirmação no diário acontece fora
+ * da trava, de modo que alterações de várias threads são confirmadas
+ * juntas por uma única escrita.
+ *
+ * <p>Se uma alteração falhar depois de mudar a tabela (ao registrar no
+ * diário, por exemplo), ou se a confirmação falhar, a tabela em memória
+ * passa a conter alterações que o diário não garante.  O armazém então
+ * fica somente para leitura: as alterações e os instantâneos seguintes
+ * lançam {@link IllegalStateException}, e o estado durável volta a ser
+ * usado quando o diretório for reaberto.
+ */
+public class ArmazemFuncionarios implements Closeable {
+
+    /** Nome do arquivo do instantâneo dentro do diretório. */
+    public static final String ARQUIVO_INSTANTANEO = "instantaneo.bin";
+
+    /** Nome do arquivo do diário dentro do diretório. */
+    public static final String ARQUIVO_DIARIO = "diario.log";
+
+    /** Quantidade padrão de registros do diário entre instantâneos. */
+    public static final long REGISTROS_POR_INSTANTANEO_PADRAO = 1_000_000;
+
+    private final Path diretorio;
+    private final FuncionarioService service;
+    private final RepositorioFuncionarios repositorio;
+    private final DiarioOperacoes diario;
+    private final long nanosRecuperacao;
+    private volatile long registrosPorInstantaneo = REGISTROS_POR_INSTANTANEO_PADRAO;
+    private volatile long lsnInstantaneo;
+    private volatile RuntimeException falha;
+
+    /**
+     * Abre o conjunto gravado no diretório, criando-o se não existir.
+     *
+     * @param diretorio o diretório dos arquivos
+     * @param politica  a política de sincronização do diário
+     */
+    public ArmazemFuncionarios(Path diretorio, PoliticaSincronizacao politica) {
+        this(diretorio, politica, new FuncionarioService());
+    }
+
+    /**
+     * Abre o conjunto gravado no diretório, criando-o se não existir, e
+     * usa o serviço informado nas alterações.
+     *
+     * @param diretorio o diretório dos arquivos
+     * @param politica  a política de sincronização do diário
+     * @param service   o serviço de funcionários
+     */
+    public ArmazemFuncionarios(Path diretorio, PoliticaSincronizacao politica, FuncionarioService service) {
+        long inicio = System.nanoTime();
+        this.diretorio = diretorio;
+        this.service = service;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar " + diretorio, e);
+        }
+        Path instantaneo = diretorio.resolve(ARQUIVO_INSTANTANEO);
+        TabelaFuncionarios tabela;
+        if (Files.exists(instantaneo)) {
+            InstantaneoTabela lido = InstantaneoTabela.ler(instantaneo);
+            tabela = lido.getTabela();
+            lsnInstantaneo = lido.getLsn();
+        } else {
+            tabela = new TabelaFuncionarios();
+        }
+        diario = DiarioOperacoes.abrir(diretorio.resolve(ARQUIVO_DIARIO), politica, lsnInstantaneo,
+                new Reaplicacao(tabela));
+        repositorio = new RepositorioFuncionarios(tabela, false);
+        nanosRecuperacao = System.nanoTime() - inicio;
+    }
+
+    /**
+     * Define a cada quantos registros do diário um instantâneo é
+     * gravado automaticamente.  Zero desativa os instantâneos
+     * automáticos.
+     *
+     * @param registros a quantidade de registros entre instantâneos
+     * @return este armazém, para encadeamento
+     */
+    public ArmazemFuncionarios comInstantaneoACada(long registros) {
+        if (registros < 0) {
+            throw new IllegalArgumentException("Quantidade de registros não pode ser negativa");
+        }
+        this.registrosPorInstantaneo = registros;
+        return this;
+    }
+
+    /**
+     * Define o intervalo entre sincronizações da política
+     * {@link PoliticaSincronizacao#PERIODICA}.
+     *
+     * @param intervalo o intervalo mínimo entre sincronizações
+     * @return este armazém, para encadeamento
+     */
+    public ArmazemFuncionarios comIntervaloSincronizacao(Duration intervalo) {
+        diario.comIntervaloSincronizacao(intervalo);
+        return this;
+    }
+
+    /**
+     * Adiciona um funcionário.
+     *
+     * @param funcionario o funcionário a adicionar
+     */
+    public void adicionar(Funcionario funcionario) {
+        alterar(tabela -> {
+            int linha = tabela.adicionar(funcionario);
+            diario.registrarAdicao(tabela.nome(linha), tabela.nascimento(linha),
+                    tabela.salarioCentavos(linha), tabela.funcao(linha));
+            return null;
+        });
+    }
+
+    /**
+     * Remove o primeiro funcionário com o nome indicado.
+     *
+     * @param nome o nome a remover
+     * @return o funcionário removido, se existir
+     */
+    public Optional<Funcionario> removerPorNome(String nome) {
+        return alterar(tabela -> {
+            Optional<Funcionario> removido = service.removerPorNome(tabela, nome);
+            if (removido.isPresent()) {
+                diario.registrarRemocao(nome);
+            }
+            return removido;
+        });
+    }
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários.
+     *
+     * @param percentual o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    public void aplicarAumentoPercentual(BigDecimal percentual) {
+        alterar(tabela -> {
+            service.aplicarAumentoPercentual(tabela, percentual);
+            diario.registrarAumento(percentual, Map.of());
+            return null;
+        });
+    }
+
+    /**
+     * Aplica um percentual de aumento diferente para cada função.
+     *
+     * @param percentuaisPorFuncao o percentual de aumento de cada função
+     */
+    public void aplicarAumentoPorFuncao(Map<String, BigDecimal> percentuaisPorFuncao) {
+        alterar(tabela -> {
+            service.aplicarAumentoPorFuncao(tabela, percentuaisPorFuncao);
+            diario.registrarAumento(null, percentuaisPorFuncao);
+            return null;
+        });
+    }
+
+    /**
+     * Troca a função do primeiro funcionário com o nome indicado.
+     *
+     * @param nome   o nome do funcionário
+     * @param funcao a nova função
+     * @return {@code true} se o funcionário existia
+     */
+    public boolean alterarFuncao(String nome, String funcao) {
+        if (funcao == null) {
+            throw new IllegalArgumentException("Função não pode ser nula");
+        }
+        return alterar(tabela -> {
+            int linha = tabela.indiceNomes().primeiraLinha(nome);
+            if (linha < 0) {
+                return false;
+            }
+            tabela.definirFuncao(linha, funcao);
+            diario.registrarFuncao(nome, funcao);
+            return true;
+        });
+    }
+
+    /**
+     * Executa uma leitura da tabela; veja
+     * {@link RepositorioFuncionarios#ler(Function)}.
+     *
+     * @param leitura a função de leitura
+     * @param <R>     o tipo do resultado
+     * @return o resultado da leitura
+     */
+    public <R> R ler(Function<TabelaFuncionarios, R> leitura) {
+        return repositorio.ler(leitura);
+    }
+
+    /**
+     * Obtém a quantidade de funcionários.
+     *
+     * @return a quantidade de funcionários
+     */
+    public int tamanho() {
+        return repositorio.tamanho();
+    }
+
+    /**
+     * Aplica a alteração com acesso exclusivo e, já fora da trava,
+     * confirma os registros que ela fez.  Uma exceção que escapa depois
+     * de a tabela mudar, ou da confirmação, deixa o armazém somente
+     * para leitura; uma recusa antes de qualquer mudança (um argumento
+     * inválido) não.
+     */
+    private <R> R alterar(Function<TabelaFuncionarios, R> alteracao) {
+        verificarFalha();
+        long[] lsn = new long[1];
+        R resultado = repositorio.alterar(tabela -> {
+            verificarFalha();
+            long versao = tabela.versao();
+            try {
+                R parcial = alteracao.apply(tabela);
+                lsn[0] = diario.ultimoLsn();
+                return parcial;
+            } catch (RuntimeException e) {
+                if (tabela.versao() != versao) {
+                    falha = e;
+                }
+                throw e;
+            }
+        });
+        try {
+            diario.confirmar(lsn[0]);
+        } catch (RuntimeException e) {
+            falha = e;
+            throw e;
+        }
+        long limite = registrosPorInstantaneo;
+        if (limite > 0 && lsn[0] - lsnInstantaneo >= limite) {
+            gravarInstantaneo();
+        }
+        return resultado;
+    }
+
+    /**
+     * Grava um instantâneo da tabela e esvazia o diário.  O instantâneo
+     * é gravado sob a trava de leitura: as alterações esperam o fim da
+     * gravação, mas as leituras continuam.
+     */
+    public synchronized void gravarInstantaneo() {
+        verificarFalha();
+        repositorio.ler(tabela -> {
+            long lsn = diario.ultimoLsn();
+            if (lsn == lsnInstantaneo && Files.exists(diretorio.resolve(ARQUIVO_INSTANTANEO))) {
+                return null;
+            }
+            diario.sincronizar();
+            InstantaneoTabela.gravar(tabela, lsn, diretorio.resolve(ARQUIVO_INSTANTANEO));
+            diario.reiniciar();
+            lsnInstantaneo = lsn;
+            return null;
+        });
+    }
+
+    /**
+     * Recusa alterações depois de uma falha que deixou a tabela à frente
+     * do diário, ou de uma falha de escrita do próprio diário.
+     */
+    private void verificarFalha() {
+        RuntimeException anterior = falha;
+        if (anterior != null) {
+            throw new IllegalStateException("Armazém somente para leitura depois de uma falha", anterior);
+        }
+        diario.verificarFalha();
+    }
+
+    /**
+     * Indica se o armazém ficou somente para leitura depois de uma
+     * falha.
+     *
+     * @return {@code true} se as alterações estão sendo recusadas
+     */
+    public boolean isSomenteLeitura() {
+        return falha != null || diario.falhou();
+    }
+
+    /**
+     * Obtém a quantidade de registros do diário reaplicados na abertura.
+     *
+     * @return os registros reaplicados
+     */
+    public long getRegistrosRecuperados() {
+        return diario.getRegistrosReproduzidos();
+    }
+
+    /**
+     * Obtém a quantidade de bytes descartados do final do diário na
+     * abertura.
+     *
+     * @return os bytes descartados
+     */
+    public long getBytesDescartados() {
+        return diario.getBytesDescartados();
+    }
+
+    /**
+     * Obtém a duração da abertura: leitura do instantâneo e reaplicação
+     * do diário.
+     *
+     * @return a duração em nanossegundos
+     */
+    public long getNanosRecuperacao() {
+        return nanosRecuperacao;
+    }
+
+    /**
+     * Obtém o tamanho atual do arquivo do diário.
+     *
+     * @return o tamanho em bytes
+     */
+    public long tamanhoDiario() {
+        return diario.tamanhoArquivo();
+    }
+
+    /**
+     * Confirma os registros pendentes e fecha o diário.
+     */
+    @Override
+    public void close() throws IOException {
+        diario.close();
+    }
+
+    /**
+     * Reaplica os registros do diário sobre a tabela carregada, pelos
+     * mesmos caminhos usados nas alterações originais.
+     */
+    private final class Reaplicacao implements DiarioOperacoes.Aplicador {
+
+        private final TabelaFuncionarios tabela;
+
+        Reaplicacao(TabelaFuncionarios tabela) {
+            this.tabela = tabela;
+        }
+
+        @Override
+        public void adicionar(String nome, int nascimento, long salarioCentavos, String funcao) {
+            tabela.adicionar(nome, nascimento, salarioCentavos, tabela.funcoes().codificar(funcao));
+        }
+
+        @Override
+        public void removerPorNome(String nome) {
+            service.removerPorNome(tabela, nome);
+        }
+
+        @Override
+        public void aplicarAumento(BigDecimal percentualPadrao, Map<String, BigDecimal> percentuaisPorFuncao) {
+            if (percentualPadrao != null) {
+                service.aplicarAumentoPercentual(tabela, percentualPadrao);
+            } else {
+                service.aplicarAumentoPorFuncao(tabela, percentuaisPorFuncao);
+            }
+        }
+
+        @Override
+        public void alterarFuncao(String nome, String funcao) {
+            int linha = tabela.indiceNomes().primeiraLinha(nome);
+            if (linha >= 0) {
+                tabela.definirFuncao(linha, funcao);
+            }
+        }
+    }
+}
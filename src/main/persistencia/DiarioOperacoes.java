@@ -0,0 +1,694 @@
+package persistencia;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário de escrita antecipada das alterações do conjunto de
+ * funcionários.  Cada alteração vira um registro binário compacto,
+ * acrescentado ao final de um único arquivo:
+ *
+ * <pre>
+ * int  tamanho do conteúdo
+ * int  CRC32C do número de sequência, do tipo e do conteúdo
+ * long número de sequência (crescente, sem lacunas)
+ * byte tipo
+ * ...  conteúdo
+ * </pre>
+ *
+ * <p>Os registros são operações lógicas (adicionar, remover pelo nome,
+ * reajustar, trocar a função), não imagens das linhas alteradas: um
+ * reajuste de dez milhões de salários ocupa poucas dezenas de bytes.
+ * Reaplicá-las na mesma ordem sobre o mesmo estado reproduz o mesmo
+ * resultado.
+ *
+ * <p>{@code registrar...} apenas acrescenta o registro a um buffer em
+ * memória e devolve seu número de sequência; {@link #confirmar(long)}
+ * espera que ele chegue ao arquivo.  A primeira thread que confirma
+ * passa a escrever todo o buffer acumulado, inclusive os registros das
+ * demais, e as outras apenas aguardam: confirmações simultâneas
+ * custam uma única escrita e, conforme a {@link PoliticaSincronizacao},
+ * uma única sincronização.  Na política
+ * {@link PoliticaSincronizacao#PERIODICA}, uma thread do diário
+ * sincroniza a cada intervalo os registros escritos e ainda não
+ * sincronizados, de modo que eles não esperam por uma próxima
+ * confirmação que pode nunca vir.
+ *
+ * <p>Na abertura, os registros existentes são relidos e entregues a um
+ * {@link Aplicador}.  A leitura para no primeiro registro incompleto ou
+ * corrompido (uma escrita interrompida por uma queda), e o arquivo é
+ * truncado nesse ponto.
+ */
+public class DiarioOperacoes implements Closeable {
+
+    /** Tamanho do cabeçalho de cada registro, em bytes. */
+    static final int CABECALHO = 4 + 4 + 8 + 1;
+
+    /** Maior conteúdo aceito em um registro. */
+    static final int CONTEUDO_MAXIMO = 16 * 1024 * 1024;
+
+    private static final byte ADICAO = 1;
+    private static final byte REMOCAO = 2;
+    private static final byte AUMENTO = 3;
+    private static final byte FUNCAO = 4;
+
+    /** Menor espera da thread de sincronização periódica, em nanossegundos. */
+    private static final long ESPERA_MINIMA = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Destino dos registros relidos na abertura do diário.
+     */
+    public interface Aplicador {
+
+        /**
+         * Reaplica a inclusão de um funcionário.
+         *
+         * @param nome            o nome
+         * @param nascimento      a data de nascimento como dia epoch
+         * @param salarioCentavos o salário em centavos
+         * @param funcao          o nome da função
+         */
+        void adicionar(String nome, int nascimento, long salarioCentavos, String funcao);
+
+        /**
+         * Reaplica a remoção do primeiro funcionário com o nome.
+         *
+         * @param nome o nome removido
+         */
+        void removerPorNome(String nome);
+
+        /**
+         * Reaplica um reajuste salarial.
+         *
+         * @param percentualPadrao     o percentual das funções sem
+         *     percentual próprio, ou {@code null}
+         * @param percentuaisPorFuncao os percentuais de cada função
+         */
+        void aplicarAumento(BigDecimal percentualPadrao, Map<String, BigDecimal> percentuaisPorFuncao);
+
+        /**
+         * Reaplica a troca de função do primeiro funcionário com o nome.
+         *
+         * @param nome   o nome do funcionário
+         * @param funcao a nova função
+         */
+        void alterarFuncao(String nome, String funcao);
+    }
+
+    private final FileChannel canal;
+    private final PoliticaSincronizacao politica;
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Condition gravado = trava.newCondition();
+    private final Condition periodo = trava.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private final long registrosReproduzidos;
+    private final long bytesDescartados;
+
+    private volatile long intervaloNanos = Duration.ofMillis(100).toNanos();
+    private ByteBuffer pendente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer emEscrita = ByteBuffer.allocate(64 * 1024);
+    private long ultimoLsn;
+    private long lsnGravado;
+    private long lsnSincronizado;
+    private long ultimaSincronizacao = System.nanoTime();
+    private boolean escrevendo;
+    private boolean fechado;
+    private volatile IOException falha;
+
+    private DiarioOperacoes(FileChannel canal, PoliticaSincronizacao politica, long ultimoLsn,
+                            long registrosReproduzidos, long bytesDescartados) {
+        this.canal = canal;
+        this.politica = politica;
+        this.ultimoLsn = ultimoLsn;
+        this.lsnGravado = ultimoLsn;
+        this.lsnSincronizado = ultimoLsn;
+        this.registrosReproduzidos = registrosReproduzidos;
+        this.bytesDescartados = bytesDescartados;
+    }
+
+    /**
+     * Abre (ou cria) o diário, reaplicando os registros posteriores a
+     * {@code lsnInicial} e descartando uma cauda incompleta.
+     *
+     * @param arquivo    o arquivo do diário
+     * @param politica   a política de sincronização
+     * @param lsnInicial o último número de sequência já refletido no
+     *     estado recebido pelo aplicador (o do instantâneo, ou 0)
+     * @param aplicador  o destino dos registros relidos
+     * @return o diário, pronto para novos registros
+     */
+    public static DiarioOperacoes abrir(Path arquivo, PoliticaSincronizacao politica, long lsnInicial,
+                                        Aplicador aplicador) {
+        if (politica == null) {
+            throw new IllegalArgumentException("Política de sincronização não pode ser nula");
+        }
+        FileChannel canal = null;
+        try {
+            canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long tamanho = canal.size();
+            long valido = 0;
+            long anterior = 0;
+            long reproduzidos = 0;
+            ByteBuffer leitura = ByteBuffer.allocate(64 * 1024);
+            leitura.limit(0);
+            CRC32C verificacao = new CRC32C();
+            while (preencher(canal, leitura, CABECALHO)) {
+                int conteudo = leitura.getInt(leitura.position());
+                if (conteudo < 0 || conteudo > CONTEUDO_MAXIMO) {
+                    break;
+                }
+                if (leitura.capacity() < CABECALHO + conteudo) {
+                    leitura = ampliar(leitura, CABECALHO + conteudo);
+                }
+                if (!preencher(canal, leitura, CABECALHO + conteudo)) {
+                    break;
+                }
+                int inicio = leitura.position();
+                verificacao.reset();
+                verificacao.update(leitura.slice(inicio + 8, 8 + 1 + conteudo));
+                long lsn = leitura.getLong(inicio + 8);
+                if ((int) verificacao.getValue() != leitura.getInt(inicio + 4)
+                        || anterior != 0 && lsn != anterior + 1) {
+                    break;
+                }
+                byte tipo = leitura.get(inicio + 16);
+                ByteBuffer registro = leitura.slice(inicio + CABECALHO, conteudo);
+                leitura.position(inicio + CABECALHO + conteudo);
+                valido += CABECALHO + conteudo;
+                anterior = lsn;
+                if (lsn <= lsnInicial) {
+                    // já refletido no instantâneo
+                    continue;
+                }
+                if (reproduzidos == 0 && lsn != lsnInicial + 1) {
+                    throw new IOException("O diário começa em " + lsn + ", mas o estado inicial vai até " + lsnInicial);
+                }
+                aplicar(tipo, registro, aplicador);
+                reproduzidos++;
+            }
+            if (valido < tamanho) {
+                canal.truncate(valido);
+                canal.force(false);
+            }
+            canal.position(valido);
+            DiarioOperacoes diario = new DiarioOperacoes(canal, politica, Math.max(anterior, lsnInicial),
+                    reproduzidos, tamanho - valido);
+            if (politica == PoliticaSincronizacao.PERIODICA) {
+                Thread thread = new Thread(diario::sincronizarPeriodicamente, "diario-sincronizacao");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return diario;
+        } catch (IOException e) {
+            fecharSilenciosamente(canal);
+            throw new UncheckedIOException("Falha ao abrir o diário " + arquivo, e);
+        } catch (RuntimeException e) {
+            fecharSilenciosamente(canal);
+            throw e;
+        }
+    }
+
+    /**
+     * Garante que o buffer tenha ao menos {@code quantidade} bytes por
+     * ler, lendo mais do canal se preciso.
+     *
+     * @return {@code false} se o arquivo terminar antes
+     */
+    private static boolean preencher(FileChannel canal, ByteBuffer leitura, int quantidade) throws IOException {
+        if (leitura.remaining() >= quantidade) {
+            return true;
+        }
+        leitura.compact();
+        while (leitura.position() < quantidade) {
+            if (canal.read(leitura) < 0) {
+                leitura.flip();
+                return false;
+            }
+        }
+        leitura.flip();
+        return true;
+    }
+
+    private static ByteBuffer ampliar(ByteBuffer buffer, int minimo) {
+        ByteBuffer maior = ByteBuffer.allocate(Math.max(minimo, buffer.capacity() * 2));
+        maior.put(buffer);
+        maior.flip();
+        return maior;
+    }
+
+    private static void aplicar(byte tipo, ByteBuffer registro, Aplicador aplicador) {
+        switch (tipo) {
+            case ADICAO -> {
+                String nome = lerTexto(registro);
+                int nascimento = registro.getInt();
+                long centavos = registro.getLong();
+                aplicador.adicionar(nome, nascimento, centavos, lerTexto(registro));
+            }
+            case REMOCAO -> aplicador.removerPorNome(lerTexto(registro));
+            case AUMENTO -> {
+                BigDecimal padrao = registro.get() == 0 ? null : lerDecimal(registro);
+                int funcoes = registro.getInt();
+                Map<String, BigDecimal> percentuais = new LinkedHashMap<>();
+                for (int i = 0; i < funcoes; i++) {
+                    String funcao = lerTexto(registro);
+                    percentuais.put(funcao, lerDecimal(registro));
+                }
+                aplicador.aplicarAumento(padrao, percentuais);
+            }
+            case FUNCAO -> {
+                String nome = lerTexto(registro);
+                aplicador.alterarFuncao(nome, lerTexto(registro));
+            }
+            default -> throw new IllegalArgumentException("Tipo de registro desconhecido: " + tipo);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer registro) {
+        byte[] bytes = new byte[registro.getInt()];
+        registro.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal lerDecimal(ByteBuffer registro) {
+        int escala = registro.getInt();
+        byte[] valor = new byte[registro.get()];
+        registro.get(valor);
+        return new BigDecimal(new BigInteger(valor), escala);
+    }
+
+    /**
+     * Define o intervalo entre sincronizações da política
+     * {@link PoliticaSincronizacao#PERIODICA}.  O padrão é 100 ms.
+     *
+     * @param intervalo o intervalo mínimo entre sincronizações
+     * @return este diário, para encadeamento
+     */
+    public DiarioOperacoes comIntervaloSincronizacao(Duration intervalo) {
+        if (intervalo == null || intervalo.isNegative()) {
+            throw new IllegalArgumentException("Intervalo de sincronização inválido");
+        }
+        trava.lock();
+        try {
+            this.intervaloNanos = intervalo.toNanos();
+            periodo.signalAll();
+        } finally {
+            trava.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Registra a inclusão de um funcionário.
+     *
+     * @param nome            o nome
+     * @param nascimento      a data de nascimento como dia epoch
+     * @param salarioCentavos o salário em centavos
+     * @param funcao          o nome da função
+     * @return o número de sequência do registro
+     */
+    public long registrarAdicao(String nome, int nascimento, long salarioCentavos, String funcao) {
+        byte[] bytesNome = nome.getBytes(StandardCharsets.UTF_8);
+        byte[] bytesFuncao = funcao.getBytes(StandardCharsets.UTF_8);
+        trava.lock();
+        try {
+            int inicio = iniciar(4 + bytesNome.length + 4 + 8 + 4 + bytesFuncao.length, ADICAO);
+            escreverTexto(bytesNome);
+            pendente.putInt(nascimento);
+            pendente.putLong(salarioCentavos);
+            escreverTexto(bytesFuncao);
+            return concluir(inicio);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra a remoção do primeiro funcionário com o nome.
+     *
+     * @param nome o nome removido
+     * @return o número de sequência do registro
+     */
+    public long registrarRemocao(String nome) {
+        byte[] bytesNome = nome.getBytes(StandardCharsets.UTF_8);
+        trava.lock();
+        try {
+            int inicio = iniciar(4 + bytesNome.length, REMOCAO);
+            escreverTexto(bytesNome);
+            return concluir(inicio);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra um reajuste salarial.
+     *
+     * @param percentualPadrao     o percentual das funções sem percentual
+     *     próprio, ou {@code null}
+     * @param percentuaisPorFuncao os percentuais de cada função
+     * @return o número de sequência do registro
+     */
+    public long registrarAumento(BigDecimal percentualPadrao, Map<String, BigDecimal> percentuaisPorFuncao) {
+        int tamanho = 1 + (percentualPadrao == null ? 0 : tamanhoDecimal(percentualPadrao)) + 4;
+        byte[][] funcoes = new byte[percentuaisPorFuncao.size()][];
+        int i = 0;
+        for (Map.Entry<String, BigDecimal> entrada : percentuaisPorFuncao.entrySet()) {
+            funcoes[i] = entrada.getKey().getBytes(StandardCharsets.UTF_8);
+            tamanho += 4 + funcoes[i].length + tamanhoDecimal(entrada.getValue());
+            i++;
+        }
+        trava.lock();
+        try {
+            int inicio = iniciar(tamanho, AUMENTO);
+            pendente.put((byte) (percentualPadrao == null ? 0 : 1));
+            if (percentualPadrao != null) {
+                escreverDecimal(percentualPadrao);
+            }
+            pendente.putInt(funcoes.length);
+            i = 0;
+            for (BigDecimal percentual : percentuaisPorFuncao.values()) {
+                escreverTexto(funcoes[i++]);
+                escreverDecimal(percentual);
+            }
+            return concluir(inicio);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra a troca de função do primeiro funcionário com o nome.
+     *
+     * @param nome   o nome do funcionário
+     * @param funcao a nova função
+     * @return o número de sequência do registro
+     */
+    public long registrarFuncao(String nome, String funcao) {
+        byte[] bytesNome = nome.getBytes(StandardCharsets.UTF_8);
+        byte[] bytesFuncao = funcao.getBytes(StandardCharsets.UTF_8);
+        trava.lock();
+        try {
+            int inicio = iniciar(4 + bytesNome.length + 4 + bytesFuncao.length, FUNCAO);
+            escreverTexto(bytesNome);
+            escreverTexto(bytesFuncao);
+            return concluir(inicio);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private static int tamanhoDecimal(BigDecimal valor) {
+        return 4 + 1 + valor.unscaledValue().toByteArray().length;
+    }
+
+    private int iniciar(int conteudo, byte tipo) {
+        if (conteudo > CONTEUDO_MAXIMO) {
+            throw new IllegalArgumentException("Registro grande demais para o diário: " + conteudo + " bytes");
+        }
+        if (pendente.remaining() < CABECALHO + conteudo) {
+            pendente = ampliar(pendente.flip(), pendente.position() + CABECALHO + conteudo);
+            pendente.position(pendente.limit()).limit(pendente.capacity());
+        }
+        int inicio = pendente.position();
+        pendente.putInt(conteudo);
+        pendente.putInt(0);
+        pendente.putLong(ultimoLsn + 1);
+        pendente.put(tipo);
+        return inicio;
+    }
+
+    private long concluir(int inicio) {
+        crc.reset();
+        crc.update(pendente.slice(inicio + 8, pendente.position() - inicio - 8));
+        pendente.putInt(inicio + 4, (int) crc.getValue());
+        return ++ultimoLsn;
+    }
+
+    private void escreverTexto(byte[] texto) {
+        pendente.putInt(texto.length);
+        pendente.put(texto);
+    }
+
+    private void escreverDecimal(BigDecimal valor) {
+        byte[] bytes = valor.unscaledValue().toByteArray();
+        pendente.putInt(valor.scale());
+        pendente.put((byte) bytes.length);
+        pendente.put(bytes);
+    }
+
+    /**
+     * Obtém o número de sequência do último registro feito, confirmado
+     * ou não.
+     *
+     * @return o último número de sequência, ou 0 se nenhum registro existe
+     */
+    public long ultimoLsn() {
+        trava.lock();
+        try {
+            return ultimoLsn;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Espera que o registro informado, e todos os anteriores, sejam
+     * escritos no arquivo (e sincronizados, conforme a política).
+     *
+     * @param lsn o número de sequência a confirmar
+     */
+    public void confirmar(long lsn) {
+        trava.lock();
+        try {
+            while (lsnGravado < lsn) {
+                verificarFalha();
+                if (escrevendo) {
+                    gravado.awaitUninterruptibly();
+                    continue;
+                }
+                gravar(politica == PoliticaSincronizacao.SEMPRE
+                        || politica == PoliticaSincronizacao.PERIODICA
+                        && System.nanoTime() - ultimaSincronizacao >= intervaloNanos);
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Escreve o buffer pendente e, se pedido, sincroniza o arquivo.
+     * Chamado com a trava obtida; a trava é liberada durante a escrita,
+     * para que outras threads continuem registrando.
+     */
+    private void gravar(boolean sincronizar) {
+        escrevendo = true;
+        ByteBuffer lote = pendente;
+        pendente = emEscrita;
+        emEscrita = lote;
+        long ate = ultimoLsn;
+        IOException erro = null;
+        trava.unlock();
+        try {
+            lote.flip();
+            while (lote.hasRemaining()) {
+                canal.write(lote);
+            }
+            if (sincronizar) {
+                canal.force(false);
+            }
+        } catch (IOException e) {
+            erro = e;
+        } finally {
+            lote.clear();
+            trava.lock();
+            escrevendo = false;
+            if (erro != null) {
+                falha = erro;
+            } else {
+                lsnGravado = ate;
+                if (sincronizar) {
+                    lsnSincronizado = ate;
+                    ultimaSincronizacao = System.nanoTime();
+                }
+            }
+            gravado.signalAll();
+        }
+    }
+
+    /**
+     * Laço da thread da política {@link PoliticaSincronizacao#PERIODICA}.
+     * Quando há registros não sincronizados e o intervalo se esgotou
+     * desde a última sincronização, grava e sincroniza o buffer; uma
+     * falha fica registrada para a próxima confirmação e encerra a
+     * thread, assim como o fechamento do diário.
+     */
+    private void sincronizarPeriodicamente() {
+        trava.lock();
+        try {
+            while (!fechado && falha == null) {
+                long espera = intervaloNanos - (System.nanoTime() - ultimaSincronizacao);
+                if (escrevendo) {
+                    gravado.awaitUninterruptibly();
+                } else if (lsnSincronizado == ultimoLsn) {
+                    periodo.awaitNanos(Math.max(intervaloNanos, ESPERA_MINIMA));
+                } else if (espera > 0) {
+                    periodo.awaitNanos(espera);
+                } else {
+                    gravar(true);
+                }
+            }
+        } catch (InterruptedException e) {
+            // a thread é encerrada; as confirmações continuam sincronizando pela política
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Obtém o número de sequência do último registro sincronizado.
+     *
+     * @return o último número de sequência sincronizado
+     */
+    long ultimoLsnSincronizado() {
+        trava.lock();
+        try {
+            return lsnSincronizado;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Escreve todos os registros feitos até agora e sincroniza o
+     * arquivo, qualquer que seja a política.
+     */
+    public void sincronizar() {
+        trava.lock();
+        try {
+            while (escrevendo) {
+                gravado.awaitUninterruptibly();
+            }
+            verificarFalha();
+            gravar(true);
+            verificarFalha();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Descarta todos os registros do arquivo, depois que um instantâneo
+     * passou a refleti-los.  A numeração continua de onde estava.  Não
+     * deve haver registros sendo feitos durante a chamada.
+     */
+    public void reiniciar() {
+        trava.lock();
+        try {
+            sincronizar();
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao reiniciar o diário", e);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Indica se uma escrita anterior falhou.
+     *
+     * @return {@code true} se os registros não chegam mais ao arquivo
+     */
+    boolean falhou() {
+        return falha != null;
+    }
+
+    /**
+     * Lança a falha de uma escrita anterior, se houver.  Depois dela, os
+     * registros feitos não chegam mais ao arquivo.
+     */
+    void verificarFalha() {
+        if (falha != null) {
+            throw new UncheckedIOException("Falha anterior ao gravar o diário", falha);
+        }
+    }
+
+    /**
+     * Obtém a quantidade de registros reaplicados na abertura.
+     *
+     * @return os registros reaplicados
+     */
+    public long getRegistrosReproduzidos() {
+        return registrosReproduzidos;
+    }
+
+    /**
+     * Obtém a quantidade de bytes descartados do final do arquivo na
+     * abertura, por pertencerem a um registro incompleto ou corrompido.
+     *
+     * @return os bytes descartados
+     */
+    public long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    /**
+     * Obtém o tamanho atual do arquivo do diário.
+     *
+     * @return o tamanho em bytes
+     */
+    public long tamanhoArquivo() {
+        try {
+            return canal.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Grava e sincroniza os registros pendentes e fecha o arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        trava.lock();
+        try {
+            fechado = true;
+            periodo.signalAll();
+        } finally {
+            trava.unlock();
+        }
+        try {
+            if (canal.isOpen()) {
+                sincronizar();
+            }
+        } finally {
+            canal.close();
+        }
+    }
+
+    private static void fecharSilenciosamente(FileChannel canal) {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // a falha original é mais relevante
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package persistencia;
+import repository.DicionarioFuncoes;
+import repository.TabelaFuncionarios;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantâneo binário de uma {@link TabelaFuncionarios}, acompanhado do
+ * número de sequência do último registro do {@link DiarioOperacoes}
+ * que ele reflete.  Na recuperação, o instantâneo é carregado e apenas
+ * os registros posteriores do diário são reaplicados.
+ *
+ * <p>O arquivo guarda o dicionário de funções e, linha a linha, apenas
+ * os funcionários ativos (nascimento, salário em centavos, função
+ * codificada e nome em UTF-16), seguidos de um CRC32C de todo o
+ * conteúdo.  A leitura e a escrita percorrem o arquivo uma única vez,
+ * por um buffer direto, e a carga usa o caminho de
+ * {@link TabelaFuncionarios#adicionar(char[], int, int, int, long, int)},
+ * sem criar objetos por funcionário.
+ *
+ * <p>O instantâneo é escrito em um arquivo temporário, sincronizado e
+ * só então renomeado sobre o anterior: uma queda durante a gravação
+ * mantém o instantâneo antigo intacto.  Depois da troca de nome, o
+ * diretório também é sincronizado, porque é ele que guarda o nome: sem
+ * isso, uma queda logo depois poderia trazer de volta o instantâneo
+ * antigo, já com o diário esvaziado.
+ */
+public class InstantaneoTabela {
+
+    private static final int ASSINATURA = 0x504A4449;
+    private static final int VERSAO_FORMATO = 1;
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+    private static final int NOME_MAXIMO = TAMANHO_BUFFER / 4;
+
+    private final TabelaFuncionarios tabela;
+    private final long lsn;
+
+    private InstantaneoTabela(TabelaFuncionarios tabela, long lsn) {
+        this.tabela = tabela;
+        this.lsn = lsn;
+    }
+
+    /**
+     * Grava o instantâneo da tabela.  A tabela não deve ser alterada
+     * durante a gravação.
+     *
+     * @param tabela  a tabela a gravar
+     * @param lsn     o último número de sequência refletido na tabela
+     * @param arquivo o arquivo de destino
+     */
+    public static void gravar(TabelaFuncionarios tabela, long lsn, Path arquivo) {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Escrita escrita = new Escrita(canal);
+            DicionarioFuncoes funcoes = tabela.funcoes();
+            long caracteres = 0;
+            for (int linha = 0; linha < tabela.limite(); linha++) {
+                if (!tabela.removida(linha)) {
+                    caracteres += tabela.tamanhoNome(linha);
+                }
+            }
+            escrita.garantir(4 + 4 + 8 + 4 + 4 + 8);
+            escrita.buffer.putInt(ASSINATURA).putInt(VERSAO_FORMATO).putLong(lsn)
+                    .putInt(funcoes.tamanho()).putInt(tabela.tamanho()).putLong(caracteres);
+            for (int id = 0; id < funcoes.tamanho(); id++) {
+                byte[] funcao = funcoes.decodificar(id).getBytes(StandardCharsets.UTF_8);
+                escrita.garantir(4 + funcao.length);
+                escrita.buffer.putInt(funcao.length).put(funcao);
+            }
+            for (int linha = 0; linha < tabela.limite(); linha++) {
+                if (tabela.removida(linha)) {
+                    continue;
+                }
+                int tamanhoNome = tabela.tamanhoNome(linha);
+                if (tamanhoNome > NOME_MAXIMO) {
+                    throw new IllegalArgumentException("Nome grande demais para o instantâneo na linha " + linha);
+                }
+                escrita.garantir(4 + 8 + 4 + 4 + 2 * tamanhoNome);
+                ByteBuffer buffer = escrita.buffer;
+                buffer.putInt(tabela.nascimento(linha))
+                        .putLong(tabela.salarioCentavos(linha))
+                        .putInt(tabela.funcaoId(linha))
+                        .putInt(tamanhoNome);
+                for (int i = 0; i < tamanhoNome; i++) {
+                    buffer.putChar(tabela.caractereNome(linha, i));
+                }
+            }
+            escrita.concluir();
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o instantâneo " + arquivo, e);
+        }
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao substituir o instantâneo " + arquivo, e);
+        }
+        sincronizarDiretorio(arquivo.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Força a gravação física das entradas do diretório, como os nomes
+     * trocados por {@link Files#move}.
+     */
+    private static void sincronizarDiretorio(Path diretorio) {
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao sincronizar o diretório " + diretorio, e);
+        }
+    }
+
+    /**
+     * Lê um instantâneo gravado por {@link #gravar}.
+     *
+     * @param arquivo o arquivo do instantâneo
+     * @return o instantâneo lido
+     * @throws IllegalArgumentException se o arquivo não for um
+     *     instantâneo ou estiver corrompido
+     */
+    public static InstantaneoTabela ler(Path arquivo) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            Leitura leitura = new Leitura(canal);
+            leitura.garantir(4 + 4 + 8 + 4 + 4 + 8);
+            ByteBuffer buffer = leitura.buffer;
+            if (buffer.getInt() != ASSINATURA || buffer.getInt() != VERSAO_FORMATO) {
+                throw new IllegalArgumentException("Arquivo não é um instantâneo válido: " + arquivo);
+            }
+            long lsn = buffer.getLong();
+            int quantidadeFuncoes = buffer.getInt();
+            int linhas = buffer.getInt();
+            long caracteres = buffer.getLong();
+            if (quantidadeFuncoes < 0 || linhas < 0 || caracteres < 0 || caracteres > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Cabeçalho inválido no instantâneo: " + arquivo);
+            }
+            TabelaFuncionarios tabela = new TabelaFuncionarios(linhas);
+            tabela.reservar(0, (int) caracteres);
+            for (int id = 0; id < quantidadeFuncoes; id++) {
+                leitura.garantir(4);
+                int tamanho = buffer.getInt();
+                if (tamanho < 0 || tamanho > NOME_MAXIMO) {
+                    throw new IllegalArgumentException("Função inválida no instantâneo: " + arquivo);
+                }
+                leitura.garantir(tamanho);
+                byte[] funcao = new byte[tamanho];
+                buffer.get(funcao);
+                tabela.funcoes().codificar(new String(funcao, StandardCharsets.UTF_8));
+            }
+            char[] nome = new char[64];
+            for (int i = 0; i < linhas; i++) {
+                leitura.garantir(4 + 8 + 4 + 4);
+                int nascimento = buffer.getInt();
+                long salario = buffer.getLong();
+                int funcaoId = buffer.getInt();
+                int tamanhoNome = buffer.getInt();
+                if (tamanhoNome < 0 || tamanhoNome > NOME_MAXIMO) {
+                    throw new IllegalArgumentException("Nome inválido no instantâneo: " + arquivo);
+                }
+                leitura.garantir(2 * tamanhoNome);
+                if (nome.length < tamanhoNome) {
+                    nome = new char[Math.max(tamanhoNome, nome.length * 2)];
+                }
+                for (int c = 0; c < tamanhoNome; c++) {
+                    nome[c] = buffer.getChar();
+                }
+                tabela.adicionar(nome, 0, tamanhoNome, nascimento, salario, funcaoId);
+            }
+            leitura.verificarFim();
+            return new InstantaneoTabela(tabela, lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o instantâneo " + arquivo, e);
+        }
+    }
+
+    /**
+     * Obtém a tabela carregada do instantâneo.
+     *
+     * @return a tabela
+     */
+    public TabelaFuncionarios getTabela() {
+        return tabela;
+    }
+
+    /**
+     * Obtém o número de sequência do último registro do diário
+     * refletido no instantâneo.
+     *
+     * @return o número de sequência
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Escrita em blocos que acumula o CRC de tudo o que é gravado.
+     */
+    private static final class Escrita {
+
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        private final CRC32C crc = new CRC32C();
+
+        Escrita(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void garantir(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                descarregar();
+            }
+        }
+
+        private void descarregar() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void concluir() throws IOException {
+            descarregar();
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Leitura em blocos que confere, ao final, o CRC de tudo o que foi
+     * lido.
+     */
+    private static final class Leitura {
+
+        private final FileChannel canal;
+        private final long conteudo;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        private final CRC32C crc = new CRC32C();
+        private long lidos;
+
+        Leitura(FileChannel canal) throws IOException {
+            this.canal = canal;
+            this.conteudo = canal.size() - 4;
+            buffer.limit(0);
+        }
+
+        void garantir(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int inicio = buffer.position();
+                buffer.limit((int) Math.min(buffer.capacity(), inicio + conteudo - lidos));
+                if (buffer.position() == buffer.limit() || canal.read(buffer) < 0) {
+                    throw new IllegalArgumentException("Instantâneo truncado");
+                }
+                crc.update(buffer.duplicate().flip().position(inicio));
+                lidos += buffer.position() - inicio;
+            }
+            buffer.flip();
+        }
+
+        void verificarFim() throws IOException {
+            if (buffer.hasRemaining() || lidos != conteudo) {
+                throw new IllegalArgumentException("Instantâneo com dados excedentes");
+            }
+            ByteBuffer gravado = ByteBuffer.allocate(4);
+            while (gravado.hasRemaining()) {
+                if (canal.read(gravado) < 0) {
+                    throw new IllegalArgumentException("Instantâneo truncado");
+                }
+            }
+            if (gravado.flip().getInt() != (int) crc.getValue()) {
+                throw new IllegalArgumentException("Instantâneo corrompido (CRC inválido)");
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package persistencia;
+/**
+ * Quando o {@link DiarioOperacoes} força a gravação física
+ * ({@code fsync}) dos registros confirmados.  Em todos os casos a
+ * confirmação só retorna depois que os registros foram entregues ao
+ * sistema operacional; a política define apenas o risco de perdê-los
+ * em uma queda da máquina (não do processo).
+ */
+public enum PoliticaSincronizacao {
+
+    /**
+     * Cada confirmação espera a gravação física.  Confirmações
+     * simultâneas compartilham a mesma sincronização (gravação em grupo).
+     */
+    SEMPRE,
+
+    /**
+     * A gravação física ocorre no máximo uma vez por intervalo: na
+     * primeira confirmação depois que o intervalo se esgota ou, sem
+     * novas confirmações, por uma thread do diário ao fim do intervalo.
+     * Uma queda da máquina pode perder as confirmações desse intervalo.
+     */
+    PERIODICA,
+
+    /**
+     * A gravação física fica a cargo do sistema operacional, exceto ao
+     * fechar o diário e ao gravar um instantâneo.
+     */
+    NUNCA
+}
@@ -0,0 +1,479 @@
+package repository;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Agregados materializados de uma {@link TabelaFuncionarios}: total dos
+ * salários, total e quantidade por função, menor e maior salário e o
+ * funcionário mais velho.  Os valores são atualizados a cada inserção,
+ * remoção, alteração de salário e alteração de função, de modo que as
+ * leituras não percorrem a tabela.
+ *
+ * <p>Menor salário, maior salário e funcionário mais velho são
+ * mantidos por blocos de {@value #LINHAS_POR_BLOCO} linhas: cada bloco
+ * guarda os próprios extremos, e os extremos da tabela são os extremos
+ * entre os blocos, guardados em cache.  Quando a linha que detinha o
+ * extremo de um bloco é removida (ou tem o salário alterado no sentido
+ * contrário), só aquele bloco é marcado como desatualizado e
+ * percorrido de novo na próxima leitura; a leitura compara então os
+ * extremos dos blocos, sem percorrer a tabela.  Um reajuste em lote
+ * recalcula os totais em uma passagem e deixa os extremos de salário
+ * de todos os blocos para a próxima leitura; o mais velho não muda.
+ *
+ * <p>Os totais são somados com {@link Math#addExact(long, long)}.  Se
+ * um total deixar de caber em um {@code long}, ele é recalculado na
+ * próxima leitura, que lança {@link ArithmeticException} enquanto o
+ * total exato não couber.
+ *
+ * <p>Os agregados são obtidos por {@link TabelaFuncionarios#agregados()}
+ * e se mantêm sincronizados com a tabela como {@link OuvinteTabela}.
+ */
+public class AgregadosSalariais implements OuvinteTabela {
+
+    /** Quantidade de linhas de cada bloco dos extremos. */
+    static final int LINHAS_POR_BLOCO = 1024;
+
+    private static final int DESLOCAMENTO_BLOCO = Integer.numberOfTrailingZeros(LINHAS_POR_BLOCO);
+
+    private final TabelaFuncionarios tabela;
+
+    private long total;
+    private int quantidade;
+    private long[] totaisPorFuncao = new long[0];
+    private int[] quantidadesPorFuncao = new int[0];
+    private boolean totaisDesatualizados;
+
+    private long[] menorPorBloco = new long[0];
+    private long[] maiorPorBloco = new long[0];
+    private int[] maisVelhoPorBloco = new int[0];
+    private boolean[] salariosBlocoDesatualizados = new boolean[0];
+    private boolean[] maisVelhoBlocoDesatualizado = new boolean[0];
+
+    private long menorSalario;
+    private long maiorSalario;
+    private boolean extremosDesatualizados;
+    private int linhaMaisVelha;
+    private boolean maisVelhoDesatualizado;
+
+    /**
+     * Constrói os agregados a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela agregada
+     */
+    AgregadosSalariais(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        recalcular();
+    }
+
+    /**
+     * Obtém o total dos salários, em centavos.
+     *
+     * @return o total dos salários
+     * @throws ArithmeticException se o total não couber em um
+     *     {@code long}
+     */
+    public long total() {
+        atualizarTotais();
+        return total;
+    }
+
+    /**
+     * Indica se os totais precisam ser recalculados antes de lidos.
+     * Junto com {@link #totalCalculado()}, permite ler o total em uma
+     * leitura otimista, que não pode alterar os agregados.
+     *
+     * @return verdadeiro se algum total deixou de caber em um
+     *     {@code long} desde o último cálculo
+     */
+    boolean totaisDesatualizados() {
+        return totaisDesatualizados;
+    }
+
+    /**
+     * Obtém o total dos salários como está, sem recalculá-lo.  Só é
+     * válido se {@link #totaisDesatualizados()} for falso.
+     *
+     * @return o último total calculado, em centavos
+     */
+    long totalCalculado() {
+        return total;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários ativos.
+     *
+     * @return a quantidade de funcionários
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Obtém o total dos salários de uma função, em centavos.
+     *
+     * @param funcaoId o identificador da função
+     * @return o total dos salários da função
+     * @throws ArithmeticException se algum total não couber em um
+     *     {@code long}
+     */
+    public long totalPorFuncao(int funcaoId) {
+        atualizarTotais();
+        return funcaoId < totaisPorFuncao.length ? totaisPorFuncao[funcaoId] : 0L;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários ativos de uma função.
+     *
+     * @param funcaoId o identificador da função
+     * @return a quantidade de funcionários da função
+     */
+    public int quantidadePorFuncao(int funcaoId) {
+        return funcaoId < quantidadesPorFuncao.length ? quantidadesPorFuncao[funcaoId] : 0;
+    }
+
+    /**
+     * Obtém o menor salário, em centavos.
+     *
+     * @return o menor salário, ou vazio se não houver funcionários
+     */
+    public OptionalLong menorSalario() {
+        atualizarExtremos();
+        return quantidade == 0 ? OptionalLong.empty() : OptionalLong.of(menorSalario);
+    }
+
+    /**
+     * Obtém o maior salário, em centavos.
+     *
+     * @return o maior salário, ou vazio se não houver funcionários
+     */
+    public OptionalLong maiorSalario() {
+        atualizarExtremos();
+        return quantidade == 0 ? OptionalLong.empty() : OptionalLong.of(maiorSalario);
+    }
+
+    /**
+     * Obtém a linha do funcionário mais velho.  Em caso de empate,
+     * prevalece o primeiro inserido.
+     *
+     * @return a linha do mais velho, ou -1 se não houver funcionários
+     */
+    public synchronized int linhaMaisVelha() {
+        if (maisVelhoDesatualizado) {
+            linhaMaisVelha = -1;
+            for (int bloco = 0; bloco < maisVelhoPorBloco.length; bloco++) {
+                if (maisVelhoBlocoDesatualizado[bloco]) {
+                    recalcularMaisVelho(bloco);
+                }
+                int linha = maisVelhoPorBloco[bloco];
+                if (linha >= 0 && maisVelhoQue(linha, linhaMaisVelha)) {
+                    linhaMaisVelha = linha;
+                }
+            }
+            maisVelhoDesatualizado = false;
+        }
+        return linhaMaisVelha;
+    }
+
+    /**
+     * Compara os agregados mantidos incrementalmente com um recálculo
+     * completo sobre a tabela.  Destinado a testes.
+     *
+     * @throws IllegalStateException se algum agregado divergir
+     */
+    public void verificarConsistencia() {
+        AgregadosSalariais esperado = new AgregadosSalariais(tabela);
+        verificar("total", esperado.total(), total());
+        verificar("quantidade", esperado.quantidade, quantidade);
+        int funcoes = Math.max(esperado.totaisPorFuncao.length, totaisPorFuncao.length);
+        for (int id = 0; id < funcoes; id++) {
+            verificar("total da função " + id, esperado.totalPorFuncao(id), totalPorFuncao(id));
+            verificar("quantidade da função " + id, esperado.quantidadePorFuncao(id), quantidadePorFuncao(id));
+        }
+        verificar("menor salário", esperado.menorSalario().orElse(0), menorSalario().orElse(0));
+        verificar("maior salário", esperado.maiorSalario().orElse(0), maiorSalario().orElse(0));
+        verificar("linha mais velha", esperado.linhaMaisVelha(), linhaMaisVelha());
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        long salario = tabela.salarioCentavos(linha);
+        int funcao = tabela.funcaoId(linha);
+        garantirFuncao(funcao);
+        garantirBloco(linha >>> DESLOCAMENTO_BLOCO);
+        somar(funcao, salario);
+        quantidade++;
+        quantidadesPorFuncao[funcao]++;
+        incluirNosExtremos(linha, salario);
+        incluirNoMaisVelho(linha);
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        long salario = tabela.salarioCentavos(linha);
+        int funcao = tabela.funcaoId(linha);
+        subtrair(funcao, salario);
+        quantidade--;
+        quantidadesPorFuncao[funcao]--;
+        int bloco = linha >>> DESLOCAMENTO_BLOCO;
+        if (salario == menorPorBloco[bloco] || salario == maiorPorBloco[bloco]) {
+            salariosBlocoDesatualizados[bloco] = true;
+        }
+        if (salario == menorSalario || salario == maiorSalario) {
+            extremosDesatualizados = true;
+        }
+        if (linha == maisVelhoPorBloco[bloco]) {
+            maisVelhoBlocoDesatualizado[bloco] = true;
+        }
+        if (linha == linhaMaisVelha) {
+            maisVelhoDesatualizado = true;
+        }
+    }
+
+    @Override
+    public void aoAlterarSalario(int linha, long anterior, long novo) {
+        int funcao = tabela.funcaoId(linha);
+        subtrair(funcao, anterior);
+        somar(funcao, novo);
+        int bloco = linha >>> DESLOCAMENTO_BLOCO;
+        if (deixaDeSerExtremo(anterior, novo, menorPorBloco[bloco], maiorPorBloco[bloco])) {
+            salariosBlocoDesatualizados[bloco] = true;
+        }
+        if (deixaDeSerExtremo(anterior, novo, menorSalario, maiorSalario)) {
+            extremosDesatualizados = true;
+        }
+        incluirNosExtremos(linha, novo);
+    }
+
+    @Override
+    public void aoAlterarSalariosEmLote() {
+        recalcularTotais();
+        Arrays.fill(salariosBlocoDesatualizados, true);
+        extremosDesatualizados = true;
+    }
+
+    @Override
+    public void aoAlterarFuncao(int linha, int anterior, int nova) {
+        long salario = tabela.salarioCentavos(linha);
+        garantirFuncao(nova);
+        quantidadesPorFuncao[anterior]--;
+        quantidadesPorFuncao[nova]++;
+        if (!totaisDesatualizados) {
+            try {
+                totaisPorFuncao[anterior] = Math.subtractExact(totaisPorFuncao[anterior], salario);
+                totaisPorFuncao[nova] = Math.addExact(totaisPorFuncao[nova], salario);
+            } catch (ArithmeticException e) {
+                totaisDesatualizados = true;
+            }
+        }
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        // as linhas mudam de bloco: os extremos são refeitos com a própria compactação, também O(n)
+        recalcularBlocos();
+    }
+
+    private void recalcular() {
+        recalcularTotais();
+        recalcularBlocos();
+    }
+
+    /**
+     * Refaz os totais e as quantidades em uma passagem pela tabela.  Se
+     * algum total não couber em um {@code long}, os totais continuam
+     * desatualizados e a próxima leitura tenta de novo.
+     */
+    private void recalcularTotais() {
+        int funcoes = Math.max(tabela.funcoes().tamanho(), totaisPorFuncao.length);
+        long novoTotal = 0;
+        int novaQuantidade = 0;
+        long[] totais = new long[funcoes];
+        int[] quantidades = new int[funcoes];
+        boolean excedeu = false;
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                long salario = tabela.salarioCentavos(linha);
+                int funcao = tabela.funcaoId(linha);
+                quantidades[funcao]++;
+                novaQuantidade++;
+                if (!excedeu) {
+                    try {
+                        novoTotal = Math.addExact(novoTotal, salario);
+                        totais[funcao] = Math.addExact(totais[funcao], salario);
+                    } catch (ArithmeticException e) {
+                        excedeu = true;
+                    }
+                }
+            }
+        }
+        total = novoTotal;
+        quantidade = novaQuantidade;
+        totaisPorFuncao = totais;
+        quantidadesPorFuncao = quantidades;
+        totaisDesatualizados = excedeu;
+    }
+
+    private synchronized void atualizarTotais() {
+        if (totaisDesatualizados) {
+            recalcularTotais();
+            if (totaisDesatualizados) {
+                throw new ArithmeticException("Total dos salários excede o limite de um long");
+            }
+        }
+    }
+
+    private void recalcularBlocos() {
+        int blocos = (tabela.limite() + LINHAS_POR_BLOCO - 1) >>> DESLOCAMENTO_BLOCO;
+        menorPorBloco = new long[blocos];
+        maiorPorBloco = new long[blocos];
+        maisVelhoPorBloco = new int[blocos];
+        salariosBlocoDesatualizados = new boolean[blocos];
+        maisVelhoBlocoDesatualizado = new boolean[blocos];
+        for (int bloco = 0; bloco < blocos; bloco++) {
+            recalcularSalarios(bloco);
+            recalcularMaisVelho(bloco);
+        }
+        extremosDesatualizados = true;
+        maisVelhoDesatualizado = true;
+    }
+
+    private void recalcularSalarios(int bloco) {
+        long menor = Long.MAX_VALUE;
+        long maior = Long.MIN_VALUE;
+        int fim = Math.min(tabela.limite(), (bloco + 1) << DESLOCAMENTO_BLOCO);
+        for (int linha = bloco << DESLOCAMENTO_BLOCO; linha < fim; linha++) {
+            if (!tabela.removida(linha)) {
+                long salario = tabela.salarioCentavos(linha);
+                menor = Math.min(menor, salario);
+                maior = Math.max(maior, salario);
+            }
+        }
+        menorPorBloco[bloco] = menor;
+        maiorPorBloco[bloco] = maior;
+        salariosBlocoDesatualizados[bloco] = false;
+    }
+
+    private void recalcularMaisVelho(int bloco) {
+        int maisVelho = -1;
+        int fim = Math.min(tabela.limite(), (bloco + 1) << DESLOCAMENTO_BLOCO);
+        for (int linha = bloco << DESLOCAMENTO_BLOCO; linha < fim; linha++) {
+            if (!tabela.removida(linha) && maisVelhoQue(linha, maisVelho)) {
+                maisVelho = linha;
+            }
+        }
+        maisVelhoPorBloco[bloco] = maisVelho;
+        maisVelhoBlocoDesatualizado[bloco] = false;
+    }
+
+    /**
+     * Refaz os extremos da tabela a partir dos extremos dos blocos,
+     * percorrendo de novo apenas os blocos desatualizados.  Um bloco sem
+     * linhas ativas tem menor {@code Long.MAX_VALUE} e maior
+     * {@code Long.MIN_VALUE}, e não afeta o resultado.
+     */
+    private synchronized void atualizarExtremos() {
+        if (!extremosDesatualizados) {
+            return;
+        }
+        menorSalario = Long.MAX_VALUE;
+        maiorSalario = Long.MIN_VALUE;
+        for (int bloco = 0; bloco < menorPorBloco.length; bloco++) {
+            if (salariosBlocoDesatualizados[bloco]) {
+                recalcularSalarios(bloco);
+            }
+            menorSalario = Math.min(menorSalario, menorPorBloco[bloco]);
+            maiorSalario = Math.max(maiorSalario, maiorPorBloco[bloco]);
+        }
+        extremosDesatualizados = false;
+    }
+
+    private void incluirNosExtremos(int linha, long salario) {
+        int bloco = linha >>> DESLOCAMENTO_BLOCO;
+        if (!salariosBlocoDesatualizados[bloco]) {
+            menorPorBloco[bloco] = Math.min(menorPorBloco[bloco], salario);
+            maiorPorBloco[bloco] = Math.max(maiorPorBloco[bloco], salario);
+        }
+        if (!extremosDesatualizados) {
+            menorSalario = Math.min(menorSalario, salario);
+            maiorSalario = Math.max(maiorSalario, salario);
+        }
+    }
+
+    /**
+     * Indica se um salário que era o menor ou o maior deixa de sê-lo,
+     * caso em que o novo extremo só se conhece percorrendo as linhas.
+     */
+    private static boolean deixaDeSerExtremo(long anterior, long novo, long menor, long maior) {
+        return (anterior == menor && novo > anterior) || (anterior == maior && novo < anterior);
+    }
+
+    private void incluirNoMaisVelho(int linha) {
+        int bloco = linha >>> DESLOCAMENTO_BLOCO;
+        if (!maisVelhoBlocoDesatualizado[bloco] && maisVelhoQue(linha, maisVelhoPorBloco[bloco])) {
+            maisVelhoPorBloco[bloco] = linha;
+        }
+        if (!maisVelhoDesatualizado && maisVelhoQue(linha, linhaMaisVelha)) {
+            linhaMaisVelha = linha;
+        }
+    }
+
+    private void somar(int funcao, long salario) {
+        if (totaisDesatualizados) {
+            return;
+        }
+        try {
+            long novoTotal = Math.addExact(total, salario);
+            totaisPorFuncao[funcao] = Math.addExact(totaisPorFuncao[funcao], salario);
+            total = novoTotal;
+        } catch (ArithmeticException e) {
+            totaisDesatualizados = true;
+        }
+    }
+
+    private void subtrair(int funcao, long salario) {
+        if (totaisDesatualizados) {
+            return;
+        }
+        try {
+            long novoTotal = Math.subtractExact(total, salario);
+            totaisPorFuncao[funcao] = Math.subtractExact(totaisPorFuncao[funcao], salario);
+            total = novoTotal;
+        } catch (ArithmeticException e) {
+            totaisDesatualizados = true;
+        }
+    }
+
+    private boolean maisVelhoQue(int linha, int atual) {
+        return atual < 0 || tabela.nascimento(linha) < tabela.nascimento(atual);
+    }
+
+    private void garantirFuncao(int funcaoId) {
+        if (funcaoId >= quantidadesPorFuncao.length) {
+            int tamanho = Math.max(funcaoId + 1, tabela.funcoes().tamanho());
+            totaisPorFuncao = Arrays.copyOf(totaisPorFuncao, tamanho);
+            quantidadesPorFuncao = Arrays.copyOf(quantidadesPorFuncao, tamanho);
+        }
+    }
+
+    private void garantirBloco(int bloco) {
+        if (bloco >= menorPorBloco.length) {
+            int tamanho = Math.max(bloco + 1, menorPorBloco.length * 2);
+            int anterior = menorPorBloco.length;
+            menorPorBloco = Arrays.copyOf(menorPorBloco, tamanho);
+            maiorPorBloco = Arrays.copyOf(maiorPorBloco, tamanho);
+            maisVelhoPorBloco = Arrays.copyOf(maisVelhoPorBloco, tamanho);
+            salariosBlocoDesatualizados = Arrays.copyOf(salariosBlocoDesatualizados, tamanho);
+            maisVelhoBlocoDesatualizado = Arrays.copyOf(maisVelhoBlocoDesatualizado, tamanho);
+            Arrays.fill(menorPorBloco, anterior, tamanho, Long.MAX_VALUE);
+            Arrays.fill(maiorPorBloco, anterior, tamanho, Long.MIN_VALUE);
+            Arrays.fill(maisVelhoPorBloco, anterior, tamanho, -1);
+        }
+    }
+
+    private static void verificar(String agregado, long esperado, long obtido) {
+        if (esperado != obtido) {
+            throw new IllegalStateException("Agregado inconsistente (" + agregado + "): esperado "
+                    + esperado + ", obtido " + obtido);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package repository;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Área de nomes fora do heap, usada pela
+ * {@link ListaFuncionariosForaDoHeap}.  Os nomes são gravados um após o
+ * outro em blocos de memória direta ({@link ByteBuffer#allocateDirect(int)})
+ * e identificados por uma referência {@code long}, de modo que o heap
+ * não guarda nenhum objeto por nome.
+ *
+ * <p>Como nas {@link String}s compactas do JDK, um nome cujos
+ * caracteres cabem em um byte (ISO-8859-1, o caso de quase todos os
+ * nomes em português) ocupa um byte por caractere; os demais ocupam
+ * dois.  A referência guarda a posição do nome, a codificação e a
+ * quantidade de caracteres:
+ *
+ * <pre>
+ *  bits 63..17  posição do primeiro byte na área
+ *  bit  16      1 se o nome usa dois bytes por caractere
+ *  bits 15..0   quantidade de caracteres
+ * </pre>
+ *
+ * <p>A área só cresce: nomes de funcionários removidos continuam
+ * ocupando espaço até que a lista seja compactada para uma nova área.
+ * A memória é devolvida ao sistema quando a área deixa de ser
+ * alcançável, como em todo {@link ByteBuffer} direto.
+ */
+public final class ArenaNomes {
+
+    /** Maior quantidade de caracteres de um nome. */
+    public static final int TAMANHO_MAXIMO_NOME = 0xFFFF;
+
+    private static final int BYTES_POR_BLOCO = 1 << 24;
+    private static final int BITS_POSICAO_NO_BLOCO = 24;
+    private static final long DOIS_BYTES = 1L << 16;
+
+    private final List<ByteBuffer> blocos = new ArrayList<>();
+    private ByteBuffer atual;
+    private long bytesUsados;
+
+    /**
+     * Constrói uma área vazia.  O primeiro bloco é reservado com o
+     * tamanho informado e os seguintes com 16 MiB.
+     *
+     * @param bytesIniciais o tamanho do primeiro bloco
+     */
+    public ArenaNomes(int bytesIniciais) {
+        if (bytesIniciais < 0) {
+            throw new IllegalArgumentException("Tamanho inicial não pode ser negativo");
+        }
+        this.atual = ByteBuffer.allocateDirect(Math.min(Math.max(bytesIniciais, 1024), BYTES_POR_BLOCO));
+        blocos.add(atual);
+    }
+
+    /**
+     * Grava um nome e devolve sua referência.
+     *
+     * @param nome o nome a gravar
+     * @return a referência do nome
+     */
+    public long gravar(CharSequence nome) {
+        int tamanho = nome.length();
+        if (tamanho > TAMANHO_MAXIMO_NOME) {
+            throw new IllegalArgumentException("Nome com mais de " + TAMANHO_MAXIMO_NOME + " caracteres");
+        }
+        boolean doisBytes = false;
+        for (int i = 0; i < tamanho && !doisBytes; i++) {
+            doisBytes = nome.charAt(i) > 0xFF;
+        }
+        int bytes = doisBytes ? tamanho * 2 : tamanho;
+        reservar(bytes);
+        long posicao = ((long) (blocos.size() - 1) << BITS_POSICAO_NO_BLOCO) | atual.position();
+        if (doisBytes) {
+            for (int i = 0; i < tamanho; i++) {
+                atual.putChar(nome.charAt(i));
+            }
+        } else {
+            for (int i = 0; i < tamanho; i++) {
+                atual.put((byte) nome.charAt(i));
+            }
+        }
+        bytesUsados += bytes;
+        return (posicao << 17) | (doisBytes ? DOIS_BYTES : 0) | tamanho;
+    }
+
+    /**
+     * Obtém a quantidade de caracteres do nome.
+     *
+     * @param referencia a referência do nome
+     * @return a quantidade de caracteres
+     */
+    public static int tamanho(long referencia) {
+        return (int) (referencia & TAMANHO_MAXIMO_NOME);
+    }
+
+    /**
+     * Obtém um caractere do nome sem criar uma {@link String}.
+     *
+     * @param referencia a referência do nome
+     * @param indice     a posição do caractere
+     * @return o caractere
+     */
+    public char caractere(long referencia, int indice) {
+        if (indice < 0 || indice >= tamanho(referencia)) {
+            throw new IndexOutOfBoundsException("Posição inválida no nome: " + indice);
+        }
+        ByteBuffer bloco = bloco(referencia);
+        int inicio = inicio(referencia);
+        return (referencia & DOIS_BYTES) != 0
+                ? bloco.getChar(inicio + indice * 2)
+                : (char) (bloco.get(inicio + indice) & 0xFF);
+    }
+
+    /**
+     * Lê o nome como uma nova {@link String}.
+     *
+     * @param referencia a referência do nome
+     * @return o nome
+     */
+    public String ler(long referencia) {
+        int tamanho = tamanho(referencia);
+        ByteBuffer bloco = bloco(referencia);
+        int inicio = inicio(referencia);
+        char[] caracteres = new char[tamanho];
+        if ((referencia & DOIS_BYTES) != 0) {
+            for (int i = 0; i < tamanho; i++) {
+                caracteres[i] = bloco.getChar(inicio + i * 2);
+            }
+        } else {
+            for (int i = 0; i < tamanho; i++) {
+                caracteres[i] = (char) (bloco.get(inicio + i) & 0xFF);
+            }
+        }
+        return new String(caracteres);
+    }
+
+    /**
+     * Obtém a quantidade de bytes ocupados pelos nomes.
+     *
+     * @return os bytes usados
+     */
+    public long bytesUsados() {
+        return bytesUsados;
+    }
+
+    /**
+     * Obtém a quantidade de memória direta reservada pelos blocos.
+     *
+     * @return os bytes reservados
+     */
+    public long bytesReservados() {
+        long total = 0;
+        for (ByteBuffer bloco : blocos) {
+            total += bloco.capacity();
+        }
+        return total;
+    }
+
+    private void reservar(int bytes) {
+        if (atual.remaining() >= bytes) {
+            return;
+        }
+        atual = ByteBuffer.allocateDirect(BYTES_POR_BLOCO);
+        blocos.add(atual);
+    }
+
+    private ByteBuffer bloco(long referencia) {
+        return blocos.get((int) (referencia >>> (17 + BITS_POSICAO_NO_BLOCO)));
+    }
+
+    private static int inicio(long referencia) {
+        return (int) ((referencia >>> 17) & ((1L << BITS_POSICAO_NO_BLOCO) - 1));
+    }
+}
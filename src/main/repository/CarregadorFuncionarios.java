@@ -0,0 +1,518 @@
+package repository;
+import model.Funcionario;
+import model.FuncionarioCompacto;
+import util.DataUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Carregador de arquivos de funcionários no formato CSV brasileiro,
+ * com campos separados por ponto e vírgula e codificação UTF-8:
+ *
+ * <pre>
+ * nome;dd/MM/yyyy;função;1.234,56
+ * </pre>
+ *
+ * <p>Datas e valores seguem o mesmo padrão impresso por
+ * {@link util.FormatadorUtil}.  O arquivo é mapeado em memória com
+ * {@link FileChannel#map} e dividido em blocos alinhados a quebras de
+ * linha, processados em paralelo.  A leitura dos campos é feita
+ * diretamente sobre os bytes, sem criar uma {@link String} por campo:
+ * datas e salários são convertidos para dia epoch e centavos, nomes
+ * são decodificados para uma área de caracteres e funções são
+ * codificadas por um dicionário local a cada bloco.
+ *
+ * <p>Linhas vazias são ignoradas.  Linhas com quantidade de campos,
+ * data ou valor inválidos são contadas e descartadas, sem interromper a
+ * carga.
+ */
+public class CarregadorFuncionarios {
+
+    /** Tamanho padrão de cada bloco processado por uma tarefa. */
+    public static final int TAMANHO_BLOCO_PADRAO = 32 * 1024 * 1024;
+
+    /** Quantidade máxima de números de linhas inválidas guardados. */
+    private static final int MAXIMO_EXEMPLOS = 100;
+
+    private boolean possuiCabecalho;
+    private int tamanhoBloco = TAMANHO_BLOCO_PADRAO;
+    private boolean funcionariosCompactos;
+
+    /**
+     * Indica que a primeira linha do arquivo é um cabeçalho e deve ser
+     * ignorada.
+     *
+     * @return este carregador, para encadeamento
+     */
+    public CarregadorFuncionarios comCabecalho() {
+        this.possuiCabecalho = true;
+        return this;
+    }
+
+    /**
+     * Define o tamanho aproximado, em bytes, de cada bloco processado
+     * em paralelo.
+     *
+     * @param tamanhoBloco o tamanho do bloco
+     * @return este carregador, para encadeamento
+     */
+    public CarregadorFuncionarios comTamanhoBloco(int tamanhoBloco) {
+        if (tamanhoBloco < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco deve ser positivo");
+        }
+        this.tamanhoBloco = tamanhoBloco;
+        return this;
+    }
+
+    /**
+     * Faz a carga em listas criar {@link FuncionarioCompacto}, que
+     * ocupam menos memória que funcionários comuns.
+     *
+     * @return este carregador, para encadeamento
+     */
+    public CarregadorFuncionarios comFuncionariosCompactos() {
+        this.funcionariosCompactos = true;
+        return this;
+    }
+
+    /**
+     * Carrega o arquivo inserindo os funcionários, na ordem do arquivo,
+     * diretamente nos vetores da tabela.
+     *
+     * @param arquivo o arquivo CSV
+     * @param destino a tabela que receberá os funcionários
+     * @return o resumo da carga
+     */
+    public ResultadoCarga carregar(Path arquivo, TabelaFuncionarios destino) {
+        long inicio = System.nanoTime();
+        List<Bloco> blocos = lerBlocos(arquivo);
+        int quantidade = 0;
+        int caracteres = 0;
+        for (Bloco bloco : blocos) {
+            quantidade += bloco.quantidade;
+            caracteres += bloco.nomesUsados;
+        }
+        destino.reservar(quantidade, caracteres);
+        for (Bloco bloco : blocos) {
+            int[] funcoesGlobais = new int[bloco.funcoes.size()];
+            for (int local = 0; local < funcoesGlobais.length; local++) {
+                funcoesGlobais[local] = destino.funcoes().codificar(bloco.funcoes.get(local));
+            }
+            for (int i = 0; i < bloco.quantidade; i++) {
+                destino.adicionar(bloco.nomes, bloco.nomesInicio[i], bloco.nomesTamanho[i],
+                        bloco.nascimentos[i], bloco.salarios[i], funcoesGlobais[bloco.funcoesIds[i]]);
+            }
+        }
+        return resumir(blocos, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Carrega o arquivo acrescentando os funcionários, na ordem do
+     * arquivo, ao final da lista informada.  Os funcionários são
+     * compactos se o carregador foi configurado com
+     * {@link #comFuncionariosCompactos()}.
+     *
+     * @param arquivo o arquivo CSV
+     * @param destino a lista que receberá os funcionários
+     * @return o resumo da carga
+     */
+    public ResultadoCarga carregar(Path arquivo, List<Funcionario> destino) {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        ResultadoCarga resultado = carregar(arquivo, tabela);
+        destino.addAll(funcionariosCompactos ? tabela.paraListaCompacta() : tabela.paraLista());
+        return resultado;
+    }
+
+    private List<Bloco> lerBlocos(Path arquivo) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            List<Long> limites = new ArrayList<>();
+            limites.add(0L);
+            for (long nominal = tamanhoBloco; nominal < tamanho; nominal += tamanhoBloco) {
+                long limite = proximoInicioDeLinha(canal, nominal, tamanho);
+                if (limite > limites.get(limites.size() - 1) && limite < tamanho) {
+                    limites.add(limite);
+                }
+            }
+            limites.add(tamanho);
+            List<Bloco> blocos = IntStream.range(0, limites.size() - 1)
+                    .parallel()
+                    .mapToObj(i -> lerBloco(canal, limites.get(i), limites.get(i + 1), i == 0))
+                    .toList();
+            long linhasAnteriores = 0;
+            for (Bloco bloco : blocos) {
+                bloco.primeiraLinha = linhasAnteriores;
+                linhasAnteriores += bloco.linhasFisicas;
+            }
+            return blocos;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + arquivo, e);
+        }
+    }
+
+    /**
+     * Encontra o início da primeira linha que começa a partir da
+     * posição informada.
+     */
+    private static long proximoInicioDeLinha(FileChannel canal, long posicao, long tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long atual = posicao - 1;
+        while (atual < tamanho) {
+            buffer.clear();
+            int lidos = canal.read(buffer, atual);
+            if (lidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return atual + i + 1;
+                }
+            }
+            atual += lidos;
+        }
+        return tamanho;
+    }
+
+    private Bloco lerBloco(FileChannel canal, long inicio, long fim, boolean primeiro) {
+        MappedByteBuffer dados;
+        try {
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Bloco bloco = new Bloco((int) Math.max(16, (fim - inicio) / 48));
+        int posicao = 0;
+        int limite = dados.limit();
+        if (primeiro && limite >= 3 && dados.get(0) == (byte) 0xEF
+                && dados.get(1) == (byte) 0xBB && dados.get(2) == (byte) 0xBF) {
+            posicao = 3; // marca de ordem de bytes UTF-8
+        }
+        while (posicao < limite) {
+            int fimLinha = posicao;
+            while (fimLinha < limite && dados.get(fimLinha) != '\n') {
+                fimLinha++;
+            }
+            int fimConteudo = fimLinha > posicao && dados.get(fimLinha - 1) == '\r' ? fimLinha - 1 : fimLinha;
+            boolean cabecalho = primeiro && possuiCabecalho && bloco.linhasFisicas == 0;
+            if (!cabecalho && fimConteudo > posicao && !bloco.lerLinha(dados, posicao, fimConteudo)) {
+                bloco.registrarInvalida();
+            }
+            bloco.linhasFisicas++;
+            posicao = fimLinha + 1;
+        }
+        return bloco;
+    }
+
+    private static ResultadoCarga resumir(List<Bloco> blocos, long duracaoNanos) {
+        long carregadas = 0;
+        long invalidas = 0;
+        List<Long> exemplos = new ArrayList<>();
+        for (Bloco bloco : blocos) {
+            carregadas += bloco.quantidade;
+            invalidas += bloco.invalidas;
+            for (int i = 0; i < bloco.quantidadeExemplos && exemplos.size() < MAXIMO_EXEMPLOS; i++) {
+                exemplos.add(bloco.primeiraLinha + bloco.exemplosInvalidos[i] + 1);
+            }
+        }
+        return new ResultadoCarga(carregadas, invalidas, exemplos, duracaoNanos);
+    }
+
+    /**
+     * Resultado parcial da leitura de um bloco, em formato colunar.  As
+     * funções são codificadas por um dicionário local ao bloco e
+     * traduzidas para o dicionário da tabela na junção.
+     */
+    private static final class Bloco {
+
+        private long[] salarios;
+        private int[] nascimentos;
+        private int[] funcoesIds;
+        private int[] nomesInicio;
+        private int[] nomesTamanho;
+        private char[] nomes;
+        private int nomesUsados;
+        private int quantidade;
+
+        private final List<String> funcoes = new ArrayList<>();
+        private final List<byte[]> funcoesBytes = new ArrayList<>();
+        private int[] hashFuncoes = new int[64];
+
+        private int linhasFisicas;
+        private long primeiraLinha;
+        private long invalidas;
+        private final int[] exemplosInvalidos = new int[MAXIMO_EXEMPLOS];
+        private int quantidadeExemplos;
+
+        Bloco(int capacidade) {
+            salarios = new long[capacidade];
+            nascimentos = new int[capacidade];
+            funcoesIds = new int[capacidade];
+            nomesInicio = new int[capacidade];
+            nomesTamanho = new int[capacidade];
+            nomes = new char[capacidade * 8];
+            Arrays.fill(hashFuncoes, -1);
+        }
+
+        void registrarInvalida() {
+            invalidas++;
+            if (quantidadeExemplos < MAXIMO_EXEMPLOS) {
+                exemplosInvalidos[quantidadeExemplos++] = linhasFisicas;
+            }
+        }
+
+        /**
+         * Lê os quatro campos de uma linha.  Os dados só são gravados
+         * quando todos os campos são válidos.
+         *
+         * @return {@code true} se a linha foi aceita
+         */
+        boolean lerLinha(ByteBuffer dados, int inicio, int fim) {
+            int separador1 = procurar(dados, inicio, fim);
+            int separador2 = procurar(dados, separador1 + 1, fim);
+            int separador3 = procurar(dados, separador2 + 1, fim);
+            if (separador1 >= fim || separador2 >= fim || separador3 >= fim
+                    || procurar(dados, separador3 + 1, fim) < fim || separador1 == inicio) {
+                return false;
+            }
+            int nascimento = lerData(dados, separador1 + 1, separador2);
+            if (nascimento == Integer.MIN_VALUE) {
+                return false;
+            }
+            long salario = lerValor(dados, separador3 + 1, fim);
+            if (salario == Long.MIN_VALUE || separador3 == separador2 + 1) {
+                return false;
+            }
+            garantirCapacidade(separador1 - inicio);
+            int inicioNome = nomesUsados;
+            if (!decodificarNome(dados, inicio, separador1)) {
+                nomesUsados = inicioNome;
+                return false;
+            }
+            salarios[quantidade] = salario;
+            nascimentos[quantidade] = nascimento;
+            funcoesIds[quantidade] = codificarFuncao(dados, separador2 + 1, separador3);
+            nomesInicio[quantidade] = inicioNome;
+            nomesTamanho[quantidade] = nomesUsados - inicioNome;
+            quantidade++;
+            return true;
+        }
+
+        private static int procurar(ByteBuffer dados, int inicio, int fim) {
+            int i = inicio;
+            while (i < fim && dados.get(i) != ';') {
+                i++;
+            }
+            return i;
+        }
+
+        /** Lê uma data dd/MM/yyyy; retorna {@code Integer.MIN_VALUE} se inválida. */
+        private static int lerData(ByteBuffer dados, int inicio, int fim) {
+            if (fim - inicio != 10 || dados.get(inicio + 2) != '/' || dados.get(inicio + 5) != '/') {
+                return Integer.MIN_VALUE;
+            }
+            int dia = digitos(dados, inicio, 2);
+            int mes = digitos(dados, inicio + 3, 2);
+            int ano = digitos(dados, inicio + 6, 4);
+            if (dia < 0 || mes < 0 || ano < 0 || !DataUtil.dataValida(ano, mes, dia)) {
+                return Integer.MIN_VALUE;
+            }
+            return DataUtil.paraEpochDay(ano, mes, dia);
+        }
+
+        private static int digitos(ByteBuffer dados, int inicio, int quantidade) {
+            int valor = 0;
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                int digito = dados.get(i) - '0';
+                if (digito < 0 || digito > 9) {
+                    return -1;
+                }
+                valor = valor * 10 + digito;
+            }
+            return valor;
+        }
+
+        /**
+         * Lê um valor no formato 1.234,56 e o converte para centavos;
+         * retorna {@code Long.MIN_VALUE} se inválido.  Os pontos são
+         * opcionais, mas, se usados, separam grupos de exatamente três
+         * dígitos depois de um primeiro grupo de um a três: "12.34" e
+         * "1.2.3" são inválidos.
+         */
+        private static long lerValor(ByteBuffer dados, int inicio, int fim) {
+            boolean negativo = inicio < fim && dados.get(inicio) == '-';
+            int i = negativo ? inicio + 1 : inicio;
+            long inteiro = 0;
+            int quantidadeDigitos = 0;
+            int digitosGrupo = 0;
+            boolean agrupado = false;
+            for (; i < fim && dados.get(i) != ','; i++) {
+                byte b = dados.get(i);
+                if (b == '.') {
+                    if (agrupado ? digitosGrupo != 3 : digitosGrupo < 1 || digitosGrupo > 3) {
+                        return Long.MIN_VALUE;
+                    }
+                    agrupado = true;
+                    digitosGrupo = 0;
+                    continue;
+                }
+                if (b < '0' || b > '9' || quantidadeDigitos >= 16) {
+                    return Long.MIN_VALUE;
+                }
+                inteiro = inteiro * 10 + (b - '0');
+                quantidadeDigitos++;
+                digitosGrupo++;
+            }
+            if (quantidadeDigitos == 0 || agrupado && digitosGrupo != 3) {
+                return Long.MIN_VALUE;
+            }
+            long centavos = inteiro * 100;
+            if (i < fim) {
+                int casas = fim - i - 1;
+                if (casas < 1 || casas > 2) {
+                    return Long.MIN_VALUE;
+                }
+                int fracao = digitos(dados, i + 1, casas);
+                if (fracao < 0) {
+                    return Long.MIN_VALUE;
+                }
+                centavos += casas == 1 ? fracao * 10L : fracao;
+            }
+            return negativo ? -centavos : centavos;
+        }
+
+        /** Decodifica o nome em UTF-8 para a área de caracteres do bloco. */
+        private boolean decodificarNome(ByteBuffer dados, int inicio, int fim) {
+            int i = inicio;
+            while (i < fim) {
+                int b = dados.get(i) & 0xFF;
+                int codigo;
+                int continuacoes;
+                if (b < 0x80) {
+                    codigo = b;
+                    continuacoes = 0;
+                } else if (b >= 0xC2 && b < 0xE0) {
+                    codigo = b & 0x1F;
+                    continuacoes = 1;
+                } else if (b >= 0xE0 && b < 0xF0) {
+                    codigo = b & 0x0F;
+                    continuacoes = 2;
+                } else if (b >= 0xF0 && b < 0xF5) {
+                    codigo = b & 0x07;
+                    continuacoes = 3;
+                } else {
+                    return false;
+                }
+                if (i + continuacoes >= fim) {
+                    return false;
+                }
+                for (int c = 1; c <= continuacoes; c++) {
+                    int continuacao = dados.get(i + c) & 0xFF;
+                    if ((continuacao & 0xC0) != 0x80) {
+                        return false;
+                    }
+                    codigo = (codigo << 6) | (continuacao & 0x3F);
+                }
+                i += continuacoes + 1;
+                if ((continuacoes == 2 && (codigo < 0x800 || Character.isSurrogate((char) codigo)))
+                        || (continuacoes == 3 && codigo < 0x10000)) {
+                    return false; // forma longa demais ou surrogate codificado
+                }
+                if (Character.isBmpCodePoint(codigo)) {
+                    nomes[nomesUsados++] = (char) codigo;
+                } else if (Character.isValidCodePoint(codigo)) {
+                    nomes[nomesUsados++] = Character.highSurrogate(codigo);
+                    nomes[nomesUsados++] = Character.lowSurrogate(codigo);
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Obtém o identificador local da função, registrando-a se necessário. */
+        private int codificarFuncao(ByteBuffer dados, int inicio, int fim) {
+            int hash = 0;
+            for (int i = inicio; i < fim; i++) {
+                hash = 31 * hash + dados.get(i);
+            }
+            int mascara = hashFuncoes.length - 1;
+            int posicao = espalhar(hash) & mascara;
+            while (hashFuncoes[posicao] >= 0) {
+                int id = hashFuncoes[posicao];
+                if (iguais(funcoesBytes.get(id), dados, inicio, fim)) {
+                    return id;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            byte[] bytes = new byte[fim - inicio];
+            dados.get(inicio, bytes);
+            int id = funcoes.size();
+            funcoes.add(new String(bytes, StandardCharsets.UTF_8));
+            funcoesBytes.add(bytes);
+            hashFuncoes[posicao] = id;
+            if (funcoes.size() * 2 > hashFuncoes.length) {
+                redimensionarHash();
+            }
+            return id;
+        }
+
+        private void redimensionarHash() {
+            hashFuncoes = new int[hashFuncoes.length * 2];
+            Arrays.fill(hashFuncoes, -1);
+            int mascara = hashFuncoes.length - 1;
+            for (int id = 0; id < funcoesBytes.size(); id++) {
+                int hash = 0;
+                for (byte b : funcoesBytes.get(id)) {
+                    hash = 31 * hash + b;
+                }
+                int posicao = espalhar(hash) & mascara;
+                while (hashFuncoes[posicao] >= 0) {
+                    posicao = (posicao + 1) & mascara;
+                }
+                hashFuncoes[posicao] = id;
+            }
+        }
+
+        private static int espalhar(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean iguais(byte[] bytes, ByteBuffer dados, int inicio, int fim) {
+            if (bytes.length != fim - inicio) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != dados.get(inicio + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void garantirCapacidade(int bytesNome) {
+            if (quantidade == salarios.length) {
+                int nova = salarios.length * 2;
+                salarios = Arrays.copyOf(salarios, nova);
+                nascimentos = Arrays.copyOf(nascimentos, nova);
+                funcoesIds = Arrays.copyOf(funcoesIds, nova);
+                nomesInicio = Arrays.copyOf(nomesInicio, nova);
+                nomesTamanho = Arrays.copyOf(nomesTamanho, nova);
+            }
+            // cada byte do nome gera no máximo um caractere
+            if (nomes.length - nomesUsados < bytesNome) {
+                nomes = Arrays.copyOf(nomes, Math.max(nomes.length * 2, nomesUsados + bytesNome));
+            }
+        }
+    }
+}
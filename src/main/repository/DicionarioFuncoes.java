@@ -0,0 +1,69 @@
+package repository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dicionário que codifica cada função distinta como um identificador
+ * inteiro pequeno.  Como existem poucas funções diferentes em uma
+ * organização, guardar apenas o identificador em cada registro evita
+ * repetir a mesma {@link String} milhões de vezes e torna as
+ * comparações entre funções uma simples comparação de inteiros.
+ */
+public class DicionarioFuncoes {
+
+    private final Map<String, Integer> idsPorFuncao = new HashMap<>();
+    private final List<String> funcoesPorId = new ArrayList<>();
+
+    /**
+     * Obtém o identificador da função, registrando-a caso ainda não
+     * exista no dicionário.
+     *
+     * @param funcao o nome da função
+     * @return o identificador da função
+     */
+    public int codificar(String funcao) {
+        if (funcao == null) {
+            throw new IllegalArgumentException("Função não pode ser nula");
+        }
+        Integer id = idsPorFuncao.get(funcao);
+        if (id == null) {
+            id = funcoesPorId.size();
+            funcoesPorId.add(funcao);
+            idsPorFuncao.put(funcao, id);
+        }
+        return id;
+    }
+
+    /**
+     * Procura o identificador de uma função sem registrá-la.
+     *
+     * @param funcao o nome da função
+     * @return o identificador, ou -1 se a função não estiver registrada
+     */
+    public int procurar(String funcao) {
+        Integer id = idsPorFuncao.get(funcao);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Obtém o nome da função associado ao identificador.
+     *
+     * @param id o identificador da função
+     * @return o nome da função
+     */
+    public String decodificar(int id) {
+        return funcoesPorId.get(id);
+    }
+
+    /**
+     * Obtém a quantidade de funções registradas.  Os identificadores
+     * válidos vão de 0 até {@code tamanho() - 1}.
+     *
+     * @return a quantidade de funções
+     */
+    public int tamanho() {
+        return funcoesPorId.size();
+    }
+}
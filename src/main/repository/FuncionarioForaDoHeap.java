@@ -0,0 +1,97 @@
+package repository;
+import model.Funcionario;
+import util.CentavosUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Visão de um registro de uma {@link ListaFuncionariosForaDoHeap}.  A
+ * visão guarda apenas a lista e o número do registro; cada leitura
+ * decodifica o atributo do registro (criando o {@link LocalDate}, o
+ * {@link BigDecimal} ou a {@link String} naquele momento) e cada
+ * alteração grava diretamente no registro.  Os campos herdados de
+ * {@link Funcionario} não são usados.
+ *
+ * <p>Duas visões são iguais quando apontam para o mesmo registro da
+ * mesma lista.  Para guardar o funcionário independentemente da lista,
+ * use {@link #copiar()}.
+ */
+public final class FuncionarioForaDoHeap extends Funcionario {
+
+    private final ListaFuncionariosForaDoHeap lista;
+    private final int registro;
+    private final int geracao;
+
+    FuncionarioForaDoHeap(ListaFuncionariosForaDoHeap lista, int registro, int geracao) {
+        super(null, null, null, null);
+        this.lista = lista;
+        this.registro = registro;
+        this.geracao = geracao;
+    }
+
+    @Override
+    public String getNome() {
+        return lista.nome(registro, geracao);
+    }
+
+    @Override
+    public LocalDate getDataNascimento() {
+        return LocalDate.ofEpochDay(lista.nascimento(registro, geracao));
+    }
+
+    @Override
+    public BigDecimal getSalario() {
+        return CentavosUtil.paraValor(lista.salarioCentavos(registro, geracao));
+    }
+
+    /**
+     * Altera o salário no registro.  Como o registro guarda centavos, o
+     * valor não pode ter mais de duas casas decimais.
+     *
+     * @param salario o novo salário
+     */
+    @Override
+    public void setSalario(BigDecimal salario) {
+        lista.definirSalarioCentavos(registro, geracao, CentavosUtil.paraCentavos(salario));
+    }
+
+    @Override
+    public String getFuncao() {
+        return lista.funcoes().decodificar(lista.funcaoId(registro, geracao));
+    }
+
+    @Override
+    public void setFuncao(String funcao) {
+        lista.definirFuncao(registro, geracao, funcao);
+    }
+
+    /**
+     * Cria um {@link Funcionario} comum com os valores atuais do
+     * registro, desligado da lista.
+     *
+     * @return a cópia do funcionário
+     */
+    public Funcionario copiar() {
+        return new Funcionario(getNome(), getDataNascimento(), getSalario(), getFuncao());
+    }
+
+    boolean pertenceA(ListaFuncionariosForaDoHeap outra, int geracaoAtual) {
+        return lista == outra && geracao == geracaoAtual;
+    }
+
+    int registro() {
+        return registro;
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof FuncionarioForaDoHeap visao && visao.lista == lista && visao.registro == registro
+                && visao.geracao == geracao;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(lista) * 31 + registro;
+    }
+}
@@ -0,0 +1,362 @@
+package repository;
+import model.Funcionario;
+import repository.VersaoFuncionarios.Bloco;
+import util.CentavosUtil;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Conjunto de funcionários com controle de versões (MVCC).  Leitores
+ * obtêm com {@link #versaoAtual()} uma {@link VersaoFuncionarios}
+ * imutável, sem travas e sem cópias, e podem usá-la enquanto outras
+ * threads fazem alterações; um relatório montado sobre uma versão nunca
+ * mistura salários de antes e de depois de um reajuste.
+ *
+ * <p>As alterações são feitas por {@link #alterar(Function)}, uma de
+ * cada vez, sobre uma {@link Edicao}.  A edição copia um bloco de
+ * funcionários apenas na primeira vez em que o modifica; os demais
+ * blocos continuam compartilhados com a versão anterior.  Ao final, a
+ * nova versão é publicada de uma só vez.  Se a alteração lançar uma
+ * exceção, nada é publicado e a versão atual permanece a mesma.
+ *
+ * <p>Versões antigas não precisam ser liberadas: quando nenhum leitor
+ * as referencia mais, os blocos que só elas usavam são recolhidos pelo
+ * coletor de lixo.
+ */
+public class FuncionariosVersionados {
+
+    /** Quantidade de funcionários a partir da qual um reajuste é feito em paralelo. */
+    private static final int LIMIAR_PARALELO = 64 * 1024;
+
+    private final Map<String, Integer> idsPorFuncao = new HashMap<>();
+    private volatile VersaoFuncionarios atual = new VersaoFuncionarios(0, new Bloco[0], new String[0]);
+
+    /**
+     * Cria um conjunto com os funcionários da coleção, na ordem em que
+     * são percorridos.  Os funcionários são copiados.
+     *
+     * @param funcionarios os funcionários iniciais
+     * @return o conjunto
+     */
+    public static FuncionariosVersionados de(Collection<? extends Funcionario> funcionarios) {
+        FuncionariosVersionados versionados = new FuncionariosVersionados();
+        versionados.alterar(edicao -> {
+            for (Funcionario f : funcionarios) {
+                edicao.adicionar(f);
+            }
+            return null;
+        });
+        return versionados;
+    }
+
+    /**
+     * Obtém a última versão publicada.  A versão não muda depois de
+     * obtida, mesmo que novas alterações sejam feitas.
+     *
+     * @return a versão atual
+     */
+    public VersaoFuncionarios versaoAtual() {
+        return atual;
+    }
+
+    /**
+     * Executa uma alteração e publica o resultado como uma nova versão.
+     * Alterações são feitas uma de cada vez; leituras de versões não
+     * esperam por elas.
+     *
+     * @param alteracao a função que altera a edição
+     * @param <R>       o tipo do resultado
+     * @return o resultado da alteração
+     */
+    public synchronized <R> R alterar(Function<Edicao, R> alteracao) {
+        Edicao edicao = new Edicao(atual);
+        R resultado = alteracao.apply(edicao);
+        if (edicao.alterada) {
+            atual = edicao.publicar();
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula o novo salário, em centavos, de um funcionário de uma
+     * função.
+     */
+    @FunctionalInterface
+    public interface SalarioPorFuncao {
+
+        /**
+         * Calcula o novo salário.
+         *
+         * @param funcaoId o identificador da função (veja
+         *     {@link Edicao#funcao(int)})
+         * @param centavos o salário atual em centavos
+         * @return o novo salário em centavos
+         */
+        long calcular(int funcaoId, long centavos);
+    }
+
+    /**
+     * Alterações em andamento sobre uma versão.  Só pode ser usada
+     * dentro de {@link #alterar(Function)}, pela thread que a recebeu.
+     */
+    public final class Edicao {
+
+        private final long numero;
+        private final List<Bloco> blocos;
+        private String[] funcoes;
+        private int tamanho;
+        private int[] inicios;
+        private boolean alterada;
+
+        private Edicao(VersaoFuncionarios base) {
+            this.numero = base.numero() + 1;
+            this.blocos = new ArrayList<>(Arrays.asList(base.blocos()));
+            this.funcoes = base.funcoes();
+            this.tamanho = base.size();
+        }
+
+        /**
+         * Obtém a quantidade de funcionários.
+         *
+         * @return a quantidade de funcionários
+         */
+        public int tamanho() {
+            return tamanho;
+        }
+
+        /**
+         * Obtém uma cópia do funcionário na posição informada.
+         *
+         * @param indice a posição do funcionário
+         * @return o funcionário
+         */
+        public Funcionario funcionario(int indice) {
+            int b = numeroBloco(indice);
+            Bloco bloco = blocos.get(b);
+            int posicao = indice - inicios[b];
+            return new Funcionario(bloco.nomes[posicao],
+                    LocalDate.ofEpochDay(bloco.nascimentos[posicao]),
+                    CentavosUtil.paraValor(bloco.salarios[posicao]),
+                    funcoes[bloco.funcoes[posicao]]);
+        }
+
+        /**
+         * Procura o primeiro funcionário com o nome indicado, ignorando
+         * maiúsculas e minúsculas.
+         *
+         * @param nome o nome procurado
+         * @return a posição do funcionário, ou -1 se não existir
+         */
+        public int procurarPorNome(String nome) {
+            int inicio = 0;
+            for (Bloco bloco : blocos) {
+                for (int i = 0; i < bloco.tamanho; i++) {
+                    if (bloco.nomes[i].equalsIgnoreCase(nome)) {
+                        return inicio + i;
+                    }
+                }
+                inicio += bloco.tamanho;
+            }
+            return -1;
+        }
+
+        /**
+         * Adiciona um funcionário ao final.
+         *
+         * @param funcionario o funcionário a adicionar
+         */
+        public void adicionar(Funcionario funcionario) {
+            if (funcionario.getNome() == null || funcionario.getDataNascimento() == null) {
+                throw new IllegalArgumentException("Nome e data de nascimento não podem ser nulos");
+            }
+            long salario = CentavosUtil.paraCentavos(funcionario.getSalario());
+            int funcao = codificar(funcionario.getFuncao());
+            int ultimo = blocos.size() - 1;
+            if (ultimo < 0 || blocos.get(ultimo).tamanho == VersaoFuncionarios.FUNCIONARIOS_POR_BLOCO) {
+                blocos.add(new Bloco(numero));
+                ultimo++;
+            }
+            Bloco bloco = proprio(ultimo);
+            int posicao = bloco.tamanho++;
+            bloco.salarios[posicao] = salario;
+            bloco.nascimentos[posicao] = DataUtil.paraEpochDay(funcionario.getDataNascimento());
+            bloco.funcoes[posicao] = funcao;
+            bloco.nomes[posicao] = funcionario.getNome();
+            tamanho++;
+            inicios = null;
+        }
+
+        /**
+         * Remove o funcionário da posição informada.  Os seguintes
+         * passam a ocupar a posição anterior.
+         *
+         * @param indice a posição do funcionário
+         * @return uma cópia do funcionário removido
+         */
+        public Funcionario remover(int indice) {
+            Funcionario removido = funcionario(indice);
+            int b = numeroBloco(indice);
+            int posicao = indice - inicios[b];
+            Bloco bloco = proprio(b);
+            int seguintes = bloco.tamanho - posicao - 1;
+            System.arraycopy(bloco.salarios, posicao + 1, bloco.salarios, posicao, seguintes);
+            System.arraycopy(bloco.nascimentos, posicao + 1, bloco.nascimentos, posicao, seguintes);
+            System.arraycopy(bloco.funcoes, posicao + 1, bloco.funcoes, posicao, seguintes);
+            System.arraycopy(bloco.nomes, posicao + 1, bloco.nomes, posicao, seguintes);
+            bloco.nomes[--bloco.tamanho] = null;
+            if (bloco.tamanho == 0) {
+                blocos.remove(b);
+            }
+            tamanho--;
+            inicios = null;
+            return removido;
+        }
+
+        /**
+         * Altera o salário do funcionário da posição informada.
+         *
+         * @param indice  a posição do funcionário
+         * @param salario o novo salário, com no máximo duas casas decimais
+         */
+        public void definirSalario(int indice, BigDecimal salario) {
+            long centavos = CentavosUtil.paraCentavos(salario);
+            int b = numeroBloco(indice);
+            proprio(b).salarios[indice - inicios[b]] = centavos;
+        }
+
+        /**
+         * Altera a função do funcionário da posição informada.
+         *
+         * @param indice a posição do funcionário
+         * @param funcao a nova função
+         */
+        public void definirFuncao(int indice, String funcao) {
+            int id = codificar(funcao);
+            int b = numeroBloco(indice);
+            proprio(b).funcoes[indice - inicios[b]] = id;
+        }
+
+        /**
+         * Recalcula o salário de todos os funcionários.  Cada bloco é
+         * copiado uma vez e, em conjuntos grandes, os blocos são
+         * processados em paralelo.
+         *
+         * @param novoSalario o cálculo do novo salário
+         */
+        public void alterarSalarios(SalarioPorFuncao novoSalario) {
+            IntStream indices = IntStream.range(0, blocos.size());
+            if (tamanho >= LIMIAR_PARALELO) {
+                indices = indices.parallel();
+            }
+            Bloco[] alterados = indices.mapToObj(b -> {
+                Bloco bloco = blocos.get(b).dono == numero ? blocos.get(b) : blocos.get(b).copiar(numero);
+                for (int i = 0; i < bloco.tamanho; i++) {
+                    bloco.salarios[i] = novoSalario.calcular(bloco.funcoes[i], bloco.salarios[i]);
+                }
+                return bloco;
+            }).toArray(Bloco[]::new);
+            for (int b = 0; b < alterados.length; b++) {
+                blocos.set(b, alterados[b]);
+            }
+            alterada = true;
+        }
+
+        /**
+         * Obtém a quantidade de funções conhecidas.  Os identificadores
+         * vão de 0 até {@code quantidadeFuncoes() - 1}.
+         *
+         * @return a quantidade de funções
+         */
+        public int quantidadeFuncoes() {
+            return funcoes.length;
+        }
+
+        /**
+         * Obtém o nome da função de um identificador.
+         *
+         * @param funcaoId o identificador da função
+         * @return o nome da função
+         */
+        public String funcao(int funcaoId) {
+            return funcoes[funcaoId];
+        }
+
+        private int codificar(String funcao) {
+            if (funcao == null) {
+                throw new IllegalArgumentException("Função não pode ser nula");
+            }
+            Integer id = idsPorFuncao.get(funcao);
+            // o identificador pode ter sido criado por uma alteração que não foi publicada
+            if (id == null || id >= funcoes.length || !funcoes[id].equals(funcao)) {
+                // o vetor publicado não pode mudar: a nova função gera uma cópia
+                id = funcoes.length;
+                funcoes = Arrays.copyOf(funcoes, id + 1);
+                funcoes[id] = funcao;
+                idsPorFuncao.put(funcao, id);
+            }
+            return id;
+        }
+
+        /**
+         * Obtém o bloco para alteração, copiando-o se ele ainda pertencer
+         * a uma versão publicada.
+         */
+        private Bloco proprio(int b) {
+            Bloco bloco = blocos.get(b);
+            if (bloco.dono != numero) {
+                bloco = bloco.copiar(numero);
+                blocos.set(b, bloco);
+            }
+            alterada = true;
+            return bloco;
+        }
+
+        private int numeroBloco(int indice) {
+            if (indice < 0 || indice >= tamanho) {
+                throw new IndexOutOfBoundsException("Posição inválida: " + indice);
+            }
+            if (inicios == null) {
+                inicios = new int[blocos.size()];
+                for (int b = 1; b < inicios.length; b++) {
+                    inicios[b] = inicios[b - 1] + blocos.get(b - 1).tamanho;
+                }
+            }
+            int b = Arrays.binarySearch(inicios, indice);
+            return b >= 0 ? b : -b - 2;
+        }
+
+        /**
+         * Junta blocos vizinhos que, depois de remoções, cabem juntos em
+         * metade de um bloco, e cria a versão.
+         */
+        private VersaoFuncionarios publicar() {
+            List<Bloco> juntos = new ArrayList<>(blocos.size());
+            for (Bloco bloco : blocos) {
+                int ultimo = juntos.size() - 1;
+                if (ultimo >= 0 && juntos.get(ultimo).tamanho + bloco.tamanho
+                        <= VersaoFuncionarios.FUNCIONARIOS_POR_BLOCO / 2) {
+                    Bloco destino = juntos.get(ultimo).dono == numero ? juntos.get(ultimo) : juntos.get(ultimo).copiar(numero);
+                    System.arraycopy(bloco.salarios, 0, destino.salarios, destino.tamanho, bloco.tamanho);
+                    System.arraycopy(bloco.nascimentos, 0, destino.nascimentos, destino.tamanho, bloco.tamanho);
+                    System.arraycopy(bloco.funcoes, 0, destino.funcoes, destino.tamanho, bloco.tamanho);
+                    System.arraycopy(bloco.nomes, 0, destino.nomes, destino.tamanho, bloco.tamanho);
+                    destino.tamanho += bloco.tamanho;
+                    juntos.set(ultimo, destino);
+                } else {
+                    juntos.add(bloco);
+                }
+            }
+            return new VersaoFuncionarios(numero, juntos.toArray(new Bloco[0]), funcoes);
+        }
+    }
+}
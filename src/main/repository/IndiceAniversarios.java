@@ -0,0 +1,198 @@
+package repository;
+import util.DataUtil;
+
+import java.util.Arrays;
+
+/**
+ * Índice de aniversários de uma {@link TabelaFuncionarios}.  Para cada
+ * mês é mantido um mapa de bits com uma posição por linha da tabela,
+ * de modo que a consulta por um conjunto de meses se reduz a um OU
+ * entre mapas de bits.  Como os bits são percorridos em ordem
+ * crescente, os resultados saem na ordem de inserção.
+ *
+ * <p>Para consultas por dia (aniversários nos próximos N dias), cada
+ * um dos 366 dias do calendário possui a lista crescente das linhas
+ * nascidas nele.  Listas são usadas em vez de mapas de bits porque 366
+ * mapas densos custariam 366 bits por funcionário.  Nascidos em 29 de
+ * fevereiro comemoram em 28 de fevereiro nos anos não bissextos, a
+ * mesma regra de {@link java.time.LocalDate#withYear(int)}.
+ *
+ * <p>O índice é obtido por {@link TabelaFuncionarios#indiceAniversarios()}
+ * e se mantém sincronizado com a tabela como {@link OuvinteTabela}.
+ */
+public class IndiceAniversarios implements OuvinteTabela {
+
+    /** Dias do ano bissexto anteriores a cada mês (índice 1 a 12). */
+    private static final int[] DIAS_ANTES_DO_MES = {0, 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335};
+
+    private static final int DIAS_NO_ANO = 366;
+    private static final int POSICAO_29_DE_FEVEREIRO = DIAS_ANTES_DO_MES[2] + 28;
+
+    private final TabelaFuncionarios tabela;
+    private final long[][] bitsPorMes = new long[13][];
+    private final int[][] linhasPorDia = new int[DIAS_NO_ANO][];
+    private final int[] tamanhosPorDia = new int[DIAS_NO_ANO];
+
+    /**
+     * Constrói o índice a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela indexada
+     */
+    IndiceAniversarios(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        reconstruir();
+    }
+
+    /**
+     * Obtém as linhas ativas cujo aniversário cai em um dos meses
+     * informados, em ordem de inserção.
+     *
+     * @param meses vetor indexado pelo mês (1 a 12) indicando os meses
+     *     selecionados
+     * @return as linhas encontradas
+     */
+    public int[] linhasNosMeses(boolean[] meses) {
+        long[] resultado = new long[palavras()];
+        for (int mes = 1; mes <= 12; mes++) {
+            if (mes < meses.length && meses[mes]) {
+                long[] bits = bitsPorMes[mes];
+                for (int i = 0; i < resultado.length; i++) {
+                    resultado[i] |= bits[i];
+                }
+            }
+        }
+        return linhasMarcadas(resultado);
+    }
+
+    /**
+     * Conta as linhas ativas cujo aniversário cai em um dos meses
+     * informados, sem montar a lista.
+     *
+     * @param meses vetor indexado pelo mês (1 a 12) indicando os meses
+     *     selecionados
+     * @return a quantidade de linhas
+     */
+    public int contarNosMeses(boolean[] meses) {
+        int quantidade = 0;
+        for (int mes = 1; mes <= 12; mes++) {
+            if (mes < meses.length && meses[mes]) {
+                for (long palavra : bitsPorMes[mes]) {
+                    quantidade += Long.bitCount(palavra);
+                }
+            }
+        }
+        return quantidade;
+    }
+
+    /**
+     * Obtém as linhas ativas que fazem aniversário em um dos
+     * {@code dias} dias a partir da data de referência (inclusive),
+     * em ordem de inserção.
+     *
+     * @param referencia a data inicial como dia epoch
+     * @param dias       a quantidade de dias do intervalo
+     * @return as linhas encontradas
+     */
+    public int[] linhasNosProximosDias(int referencia, int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("Quantidade de dias não pode ser negativa");
+        }
+        boolean[] selecionados = new boolean[DIAS_NO_ANO];
+        for (int i = 0; i < Math.min(dias, DIAS_NO_ANO); i++) {
+            int data = DataUtil.empacotar(referencia + i);
+            int mes = DataUtil.mes(data);
+            int dia = DataUtil.dia(data);
+            selecionados[posicao(mes, dia)] = true;
+            if (mes == 2 && dia == 28 && !DataUtil.bissexto(DataUtil.ano(data))) {
+                selecionados[POSICAO_29_DE_FEVEREIRO] = true;
+            }
+        }
+        long[] resultado = new long[palavras()];
+        for (int posicao = 0; posicao < DIAS_NO_ANO; posicao++) {
+            if (!selecionados[posicao]) {
+                continue;
+            }
+            int[] linhas = linhasPorDia[posicao];
+            for (int i = 0; i < tamanhosPorDia[posicao]; i++) {
+                int linha = linhas[i];
+                if (!tabela.removida(linha)) {
+                    resultado[linha >>> 6] |= 1L << linha;
+                }
+            }
+        }
+        return linhasMarcadas(resultado);
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        int data = DataUtil.empacotar(tabela.nascimento(linha));
+        int mes = DataUtil.mes(data);
+        long[] bits = bitsPorMes[mes];
+        if ((linha >>> 6) >= bits.length) {
+            int palavras = Math.max((linha >>> 6) + 1, bits.length * 2);
+            for (int m = 1; m <= 12; m++) {
+                bitsPorMes[m] = Arrays.copyOf(bitsPorMes[m], palavras);
+            }
+            bits = bitsPorMes[mes];
+        }
+        bits[linha >>> 6] |= 1L << linha;
+        int posicao = posicao(mes, DataUtil.dia(data));
+        if (tamanhosPorDia[posicao] == linhasPorDia[posicao].length) {
+            linhasPorDia[posicao] = Arrays.copyOf(linhasPorDia[posicao], Math.max(4, tamanhosPorDia[posicao] * 2));
+        }
+        linhasPorDia[posicao][tamanhosPorDia[posicao]++] = linha;
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        // As listas por dia são filtradas pela lápide da tabela na consulta
+        int mes = DataUtil.mesDoEpochDay(tabela.nascimento(linha));
+        bitsPorMes[mes][linha >>> 6] &= ~(1L << linha);
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        reconstruir();
+    }
+
+    private void reconstruir() {
+        int palavras = Math.max(1, (tabela.limite() + 63) >>> 6);
+        for (int mes = 1; mes <= 12; mes++) {
+            bitsPorMes[mes] = new long[palavras];
+        }
+        for (int posicao = 0; posicao < DIAS_NO_ANO; posicao++) {
+            linhasPorDia[posicao] = new int[4];
+            tamanhosPorDia[posicao] = 0;
+        }
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                aoAdicionar(linha);
+            }
+        }
+    }
+
+    private int palavras() {
+        return (tabela.limite() + 63) >>> 6;
+    }
+
+    private static int[] linhasMarcadas(long[] bits) {
+        int quantidade = 0;
+        for (long palavra : bits) {
+            quantidade += Long.bitCount(palavra);
+        }
+        int[] linhas = new int[quantidade];
+        int proxima = 0;
+        for (int i = 0; i < bits.length; i++) {
+            long palavra = bits[i];
+            while (palavra != 0) {
+                linhas[proxima++] = (i << 6) + Long.numberOfTrailingZeros(palavra);
+                palavra &= palavra - 1;
+            }
+        }
+        return linhas;
+    }
+
+    private static int posicao(int mes, int dia) {
+        return DIAS_ANTES_DO_MES[mes] + dia - 1;
+    }
+}
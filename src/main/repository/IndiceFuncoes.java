@@ -0,0 +1,185 @@
+package repository;
+import java.util.Arrays;
+
+/**
+ * Índice de funções de uma {@link TabelaFuncionarios}.  Cada função
+ * possui a lista crescente das linhas que a exercem e a quantidade
+ * exata de linhas ativas, de modo que a seletividade de um filtro por
+ * função é conhecida sem percorrer a tabela.
+ *
+ * <p>Remoções e trocas de função não apagam a entrada antiga, que é
+ * descartada na consulta seguinte à lista afetada.  Uma linha que
+ * passa a exercer outra função é acrescentada ao final da lista da
+ * nova função, que volta a ser ordenada na mesma consulta.
+ *
+ * <p>O índice é obtido por {@link TabelaFuncionarios#indiceFuncoes()}
+ * e se mantém sincronizado com a tabela como {@link OuvinteTabela}.
+ */
+public class IndiceFuncoes implements OuvinteTabela {
+
+    private static final int[] SEM_LINHAS = new int[0];
+
+    private final TabelaFuncionarios tabela;
+
+    private int[][] linhasPorFuncao = new int[0][];
+    private int[] tamanhos = new int[0];
+    private int[] ativas = new int[0];
+    private boolean[] desatualizadas = new boolean[0];
+
+    /**
+     * Constrói o índice a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela indexada
+     */
+    IndiceFuncoes(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        reconstruir();
+    }
+
+    /**
+     * Obtém a quantidade de funcionários ativos de uma função.
+     *
+     * @param funcaoId o identificador da função
+     * @return a quantidade de funcionários da função
+     */
+    public int quantidade(int funcaoId) {
+        return funcaoId >= 0 && funcaoId < ativas.length ? ativas[funcaoId] : 0;
+    }
+
+    /**
+     * Obtém as linhas ativas de uma função, em ordem de inserção.
+     *
+     * @param funcaoId o identificador da função
+     * @return as linhas encontradas; vetor vazio se não houver
+     */
+    public int[] linhas(int funcaoId) {
+        // funções do dicionário que nunca tiveram linhas ativas desde a
+        // última reconstrução não têm lista
+        if (funcaoId < 0 || funcaoId >= tamanhos.length || linhasPorFuncao[funcaoId] == null) {
+            return SEM_LINHAS;
+        }
+        consolidar(funcaoId);
+        return Arrays.copyOf(linhasPorFuncao[funcaoId], tamanhos[funcaoId]);
+    }
+
+    /**
+     * Obtém as linhas ativas que exercem alguma das funções, em ordem
+     * de inserção.
+     *
+     * @param funcoesIds os identificadores das funções, sem repetição
+     * @return as linhas encontradas
+     */
+    public int[] linhas(int[] funcoesIds) {
+        if (funcoesIds.length == 1) {
+            return linhas(funcoesIds[0]);
+        }
+        // o tamanho vem das listas consolidadas, e não dos contadores
+        int[][] porFuncao = new int[funcoesIds.length][];
+        int total = 0;
+        for (int i = 0; i < funcoesIds.length; i++) {
+            porFuncao[i] = linhas(funcoesIds[i]);
+            total += porFuncao[i].length;
+        }
+        int[] resultado = new int[total];
+        int destino = 0;
+        for (int[] linhas : porFuncao) {
+            System.arraycopy(linhas, 0, resultado, destino, linhas.length);
+            destino += linhas.length;
+        }
+        // cada linha exerce uma única função, então não há repetições
+        Arrays.sort(resultado);
+        return resultado;
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        int funcaoId = tabela.funcaoId(linha);
+        acrescentar(funcaoId, linha);
+        ativas[funcaoId]++;
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        int funcaoId = tabela.funcaoId(linha);
+        ativas[funcaoId]--;
+        desatualizadas[funcaoId] = true;
+    }
+
+    @Override
+    public void aoAlterarFuncao(int linha, int anterior, int nova) {
+        if (anterior == nova || tabela.removida(linha)) {
+            // uma linha removida já saiu da contagem da função anterior
+            return;
+        }
+        ativas[anterior]--;
+        desatualizadas[anterior] = true;
+        acrescentar(nova, linha);
+        ativas[nova]++;
+        desatualizadas[nova] = true;
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        reconstruir();
+    }
+
+    private void acrescentar(int funcaoId, int linha) {
+        if (funcaoId >= tamanhos.length) {
+            int funcoes = Math.max(funcaoId + 1, tamanhos.length * 2);
+            linhasPorFuncao = Arrays.copyOf(linhasPorFuncao, funcoes);
+            tamanhos = Arrays.copyOf(tamanhos, funcoes);
+            ativas = Arrays.copyOf(ativas, funcoes);
+            desatualizadas = Arrays.copyOf(desatualizadas, funcoes);
+        }
+        int[] linhas = linhasPorFuncao[funcaoId];
+        if (linhas == null) {
+            linhas = linhasPorFuncao[funcaoId] = new int[4];
+        } else if (tamanhos[funcaoId] == linhas.length) {
+            linhas = linhasPorFuncao[funcaoId] = Arrays.copyOf(linhas, linhas.length * 2);
+        }
+        linhas[tamanhos[funcaoId]++] = linha;
+    }
+
+    /**
+     * Descarta as entradas removidas ou de outra função e reordena a
+     * lista.  É sincronizado porque várias leituras simultâneas (veja
+     * {@link RepositorioFuncionarios}) podem encontrar a mesma lista
+     * desatualizada.
+     */
+    private synchronized void consolidar(int funcaoId) {
+        if (!desatualizadas[funcaoId]) {
+            return;
+        }
+        int[] linhas = linhasPorFuncao[funcaoId];
+        int destino = 0;
+        for (int i = 0; i < tamanhos[funcaoId]; i++) {
+            int linha = linhas[i];
+            if (!tabela.removida(linha) && tabela.funcaoId(linha) == funcaoId) {
+                linhas[destino++] = linha;
+            }
+        }
+        Arrays.sort(linhas, 0, destino);
+        // uma linha que saiu da função e voltou aparece duas vezes
+        int unicas = 0;
+        for (int i = 0; i < destino; i++) {
+            if (unicas == 0 || linhas[unicas - 1] != linhas[i]) {
+                linhas[unicas++] = linhas[i];
+            }
+        }
+        tamanhos[funcaoId] = unicas;
+        desatualizadas[funcaoId] = false;
+    }
+
+    private void reconstruir() {
+        int funcoes = tabela.funcoes().tamanho();
+        linhasPorFuncao = new int[funcoes][];
+        tamanhos = new int[funcoes];
+        ativas = new int[funcoes];
+        desatualizadas = new boolean[funcoes];
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                aoAdicionar(linha);
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package repository;
+import java.util.Arrays;
+
+/**
+ * Índice ordenado por data de nascimento de uma
+ * {@link TabelaFuncionarios}.  Cada entrada é um {@code long} que
+ * combina o dia epoch do nascimento (32 bits superiores) com a linha
+ * (32 bits inferiores), e as entradas ficam em um vetor primitivo
+ * ordenado.  Assim, os mais velhos estão no início do vetor, empates
+ * são resolvidos pela ordem de inserção, e consultas por intervalo de
+ * datas são buscas binárias em tempo logarítmico.
+ *
+ * <p>Alterações não tocam o vetor principal: inserções e remoções vão
+ * para dois vetores de pendências, ordenados na leitura seguinte, e as
+ * consultas combinam os três vetores (as posições são as do vetor
+ * principal mais as das inserções, menos as das remoções).  Só quando
+ * as pendências passam de {@value #PENDENCIAS_MINIMAS} entradas ou da
+ * raiz quadrada do tamanho do índice é que uma leitura as intercala
+ * com o vetor principal, em uma única passagem.  Uma alteração seguida
+ * de uma leitura custa, assim, a ordenação de poucas pendências, e não
+ * uma cópia do índice inteiro; cargas em lote continuam custando uma
+ * ordenação em vez de um deslocamento do vetor por funcionário.
+ *
+ * <p>O índice é obtido por {@link TabelaFuncionarios#indiceNascimentos()}
+ * e se mantém sincronizado com a tabela como {@link OuvinteTabela}.
+ */
+public class IndiceNascimentos implements OuvinteTabela {
+
+    /** Quantidade de pendências que uma leitura sempre tolera sem intercalá-las. */
+    static final int PENDENCIAS_MINIMAS = 1024;
+
+    private final TabelaFuncionarios tabela;
+
+    private long[] ordenadas = new long[0];
+    private int quantidadeOrdenadas;
+    private long[] inseridas = new long[16];
+    private int quantidadeInseridas;
+    private long[] removidas = new long[16];
+    private int quantidadeRemovidas;
+    private boolean pendenciasOrdenadas = true;
+
+    /**
+     * Constrói o índice a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela indexada
+     */
+    IndiceNascimentos(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        ordenadas = new long[tabela.tamanho()];
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                ordenadas[quantidadeOrdenadas++] = chave(tabela.nascimento(linha), linha);
+            }
+        }
+        Arrays.parallelSort(ordenadas, 0, quantidadeOrdenadas);
+    }
+
+    /**
+     * Obtém a quantidade de funcionários indexados.
+     *
+     * @return a quantidade de funcionários ativos
+     */
+    public int tamanho() {
+        prepararLeitura();
+        return quantidadeOrdenadas + quantidadeInseridas - quantidadeRemovidas;
+    }
+
+    /**
+     * Obtém a linha na posição informada da ordem de nascimento, em
+     * que a posição 0 é o funcionário mais velho.
+     *
+     * @param posicao a posição na ordem, de 0 até {@link #tamanho()} - 1
+     * @return a linha do funcionário
+     */
+    public int linha(int posicao) {
+        if (posicao < 0 || posicao >= tamanho()) {
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        }
+        // a menor chave com mais de "posicao" entradas até ela, inclusive
+        long baixo = Long.MIN_VALUE;
+        long alto = Long.MAX_VALUE;
+        while (baixo < alto) {
+            long meio = (baixo >> 1) + (alto >> 1) + (baixo & alto & 1);
+            if (posicao(meio + 1) > posicao) {
+                alto = meio;
+            } else {
+                baixo = meio + 1;
+            }
+        }
+        return (int) baixo;
+    }
+
+    /**
+     * Obtém as linhas dos {@code k} funcionários mais velhos, do mais
+     * velho para o mais novo.
+     *
+     * @param k a quantidade de funcionários
+     * @return as linhas encontradas (no máximo {@code k})
+     */
+    public int[] maisVelhos(int k) {
+        return linhas(Long.MIN_VALUE, Math.min(Math.max(k, 0), tamanho()));
+    }
+
+    /**
+     * Obtém as linhas dos {@code k} funcionários mais novos, do mais
+     * novo para o mais velho.
+     *
+     * @param k a quantidade de funcionários
+     * @return as linhas encontradas (no máximo {@code k})
+     */
+    public int[] maisNovos(int k) {
+        int quantidade = Math.min(Math.max(k, 0), tamanho());
+        int[] linhas = new int[quantidade];
+        int i = quantidadeOrdenadas - 1;
+        int j = quantidadeInseridas - 1;
+        int r = quantidadeRemovidas - 1;
+        int destino = 0;
+        while (destino < quantidade) {
+            long proxima = i >= 0 && (j < 0 || ordenadas[i] > inseridas[j]) ? ordenadas[i--] : inseridas[j--];
+            while (r >= 0 && removidas[r] > proxima) {
+                r--;
+            }
+            if (r >= 0 && removidas[r] == proxima) {
+                r--;
+            } else {
+                linhas[destino++] = (int) proxima;
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Conta os funcionários nascidos antes do dia informado.
+     *
+     * @param epochDay o dia epoch limite (exclusivo)
+     * @return a quantidade de funcionários nascidos antes dele
+     */
+    public int contarNascidosAntesDe(int epochDay) {
+        prepararLeitura();
+        return posicao(chave(epochDay, 0));
+    }
+
+    /**
+     * Conta os funcionários nascidos no intervalo {@code [inicio, fim)}.
+     *
+     * @param inicio o primeiro dia epoch do intervalo (inclusive)
+     * @param fim    o dia epoch final (exclusivo)
+     * @return a quantidade de funcionários
+     */
+    public int contarNascidosEntre(int inicio, int fim) {
+        prepararLeitura();
+        return Math.max(0, posicao(chave(fim, 0)) - posicao(chave(inicio, 0)));
+    }
+
+    /**
+     * Obtém as linhas dos funcionários nascidos no intervalo
+     * {@code [inicio, fim)}, em ordem de nascimento.
+     *
+     * @param inicio o primeiro dia epoch do intervalo (inclusive)
+     * @param fim    o dia epoch final (exclusivo)
+     * @return as linhas encontradas
+     */
+    public int[] nascidosEntre(int inicio, int fim) {
+        return linhas(chave(inicio, 0), contarNascidosEntre(inicio, fim));
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        if (quantidadeInseridas == inseridas.length) {
+            inseridas = Arrays.copyOf(inseridas, inseridas.length * 2);
+        }
+        inseridas[quantidadeInseridas++] = chave(tabela.nascimento(linha), linha);
+        pendenciasOrdenadas = false;
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        if (quantidadeRemovidas == removidas.length) {
+            removidas = Arrays.copyOf(removidas, removidas.length * 2);
+        }
+        removidas[quantidadeRemovidas++] = chave(tabela.nascimento(linha), linha);
+        pendenciasOrdenadas = false;
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        // A compactação preserva a ordem relativa das linhas, logo a
+        // ordem das entradas também é preservada.  As linhas removidas
+        // somem do vetor principal e das inserções, e com elas as
+        // remoções pendentes.
+        quantidadeOrdenadas = renumerar(ordenadas, quantidadeOrdenadas, novasLinhas);
+        quantidadeInseridas = renumerar(inseridas, quantidadeInseridas, novasLinhas);
+        quantidadeRemovidas = 0;
+    }
+
+    private static int renumerar(long[] chaves, int quantidade, int[] novasLinhas) {
+        int destino = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int nova = novasLinhas[(int) chaves[i]];
+            if (nova >= 0) {
+                chaves[destino++] = chave((int) (chaves[i] >> 32), nova);
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Ordena as pendências e, se passarem do limite, intercala-as com o
+     * vetor ordenado.  É sincronizado porque várias leituras
+     * simultâneas (veja {@link RepositorioFuncionarios}) podem encontrar
+     * o índice desatualizado ao mesmo tempo.
+     */
+    private synchronized void prepararLeitura() {
+        if (pendenciasOrdenadas) {
+            return;
+        }
+        Arrays.sort(inseridas, 0, quantidadeInseridas);
+        Arrays.sort(removidas, 0, quantidadeRemovidas);
+        if (quantidadeInseridas + quantidadeRemovidas
+                > Math.max(PENDENCIAS_MINIMAS, (int) Math.sqrt(quantidadeOrdenadas))) {
+            intercalar();
+        }
+        pendenciasOrdenadas = true;
+    }
+
+    /**
+     * Intercala as inserções com o vetor ordenado, descartando as
+     * remoções, em uma única passagem.
+     */
+    private void intercalar() {
+        long[] resultado = new long[quantidadeOrdenadas + quantidadeInseridas - quantidadeRemovidas];
+        int i = 0;
+        int j = 0;
+        int r = 0;
+        int destino = 0;
+        while (i < quantidadeOrdenadas || j < quantidadeInseridas) {
+            long proxima;
+            if (j >= quantidadeInseridas || (i < quantidadeOrdenadas && ordenadas[i] < inseridas[j])) {
+                proxima = ordenadas[i++];
+            } else {
+                proxima = inseridas[j++];
+            }
+            if (r < quantidadeRemovidas && removidas[r] == proxima) {
+                r++;
+            } else {
+                resultado[destino++] = proxima;
+            }
+        }
+        ordenadas = resultado;
+        quantidadeOrdenadas = destino;
+        quantidadeInseridas = 0;
+        quantidadeRemovidas = 0;
+        if (inseridas.length > PENDENCIAS_MINIMAS) {
+            inseridas = new long[16];
+        }
+        if (removidas.length > PENDENCIAS_MINIMAS) {
+            removidas = new long[16];
+        }
+    }
+
+    /**
+     * Obtém a quantidade de entradas ativas com chave menor que a
+     * informada, isto é, a posição em que ela ficaria na ordem.
+     */
+    private int posicao(long chave) {
+        return primeiraPosicao(ordenadas, quantidadeOrdenadas, chave)
+                + primeiraPosicao(inseridas, quantidadeInseridas, chave)
+                - primeiraPosicao(removidas, quantidadeRemovidas, chave);
+    }
+
+    /**
+     * Percorre, em ordem, as {@code quantidade} primeiras entradas
+     * ativas com chave a partir de {@code de}.
+     */
+    private int[] linhas(long de, int quantidade) {
+        int[] linhas = new int[quantidade];
+        int i = primeiraPosicao(ordenadas, quantidadeOrdenadas, de);
+        int j = primeiraPosicao(inseridas, quantidadeInseridas, de);
+        int r = primeiraPosicao(removidas, quantidadeRemovidas, de);
+        int destino = 0;
+        while (destino < quantidade) {
+            long proxima = j >= quantidadeInseridas || (i < quantidadeOrdenadas && ordenadas[i] < inseridas[j])
+                    ? ordenadas[i++] : inseridas[j++];
+            while (r < quantidadeRemovidas && removidas[r] < proxima) {
+                r++;
+            }
+            if (r < quantidadeRemovidas && removidas[r] == proxima) {
+                r++;
+            } else {
+                linhas[destino++] = (int) proxima;
+            }
+        }
+        return linhas;
+    }
+
+    private static int primeiraPosicao(long[] chaves, int quantidade, long procurada) {
+        int baixo = 0;
+        int alto = quantidade;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (chaves[meio] < procurada) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static long chave(int epochDay, int linha) {
+        return ((long) epochDay << 32) | linha;
+    }
+}
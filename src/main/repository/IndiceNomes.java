@@ -0,0 +1,151 @@
+package repository;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice de nomes de uma {@link TabelaFuncionarios} que ignora
+ * diferenças entre maiúsculas e minúsculas, inclusive em nomes
+ * acentuados como "Heloísa" e "HELOÍSA".  Cada nome normalizado aponta
+ * para as linhas que o possuem, em ordem crescente (ordem de
+ * inserção), o que torna a busca e a remoção por nome O(1) em vez de
+ * uma varredura de toda a tabela.
+ *
+ * <p>O índice é obtido por {@link TabelaFuncionarios#indiceNomes()} e
+ * se mantém sincronizado com a tabela como {@link OuvinteTabela}.
+ */
+public class IndiceNomes implements OuvinteTabela {
+
+    private static final int[] SEM_LINHAS = new int[0];
+
+    private final TabelaFuncionarios tabela;
+    private final Map<String, Linhas> linhasPorNome = new HashMap<>();
+
+    /**
+     * Constrói o índice a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela indexada
+     */
+    IndiceNomes(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                aoAdicionar(linha);
+            }
+        }
+    }
+
+    /**
+     * Normaliza um nome para comparação sem diferenciar maiúsculas e
+     * minúsculas.  Cada caractere é convertido para maiúsculo e depois
+     * para minúsculo, a mesma regra usada por
+     * {@link String#equalsIgnoreCase(String)}, de modo que dois nomes
+     * possuem a mesma chave exatamente quando {@code equalsIgnoreCase}
+     * os considera iguais.
+     *
+     * @param nome o nome a normalizar
+     * @return a chave normalizada
+     */
+    public static String chave(CharSequence nome) {
+        char[] chave = new char[nome.length()];
+        for (int i = 0; i < chave.length; i++) {
+            chave[i] = Character.toLowerCase(Character.toUpperCase(nome.charAt(i)));
+        }
+        return new String(chave);
+    }
+
+    /**
+     * Obtém a primeira linha ativa (na ordem de inserção) com o nome
+     * informado.  Um nome nulo não corresponde a nenhuma linha, como em
+     * {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param nome o nome procurado
+     * @return a linha encontrada, ou -1 se não houver
+     */
+    public int primeiraLinha(CharSequence nome) {
+        Linhas linhas = nome == null ? null : linhasPorNome.get(chave(nome));
+        return linhas == null ? -1 : linhas.valores[linhas.inicio];
+    }
+
+    /**
+     * Obtém todas as linhas ativas com o nome informado, em ordem de
+     * inserção.
+     *
+     * @param nome o nome procurado
+     * @return as linhas encontradas; vetor vazio se não houver
+     */
+    public int[] linhas(CharSequence nome) {
+        Linhas linhas = nome == null ? null : linhasPorNome.get(chave(nome));
+        return linhas == null ? SEM_LINHAS : Arrays.copyOfRange(linhas.valores, linhas.inicio, linhas.fim);
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        char[] chave = new char[tabela.tamanhoNome(linha)];
+        for (int i = 0; i < chave.length; i++) {
+            chave[i] = Character.toLowerCase(Character.toUpperCase(tabela.caractereNome(linha, i)));
+        }
+        linhasPorNome.computeIfAbsent(new String(chave), k -> new Linhas()).adicionar(linha);
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        String chave = chave(tabela.nome(linha));
+        Linhas linhas = linhasPorNome.get(chave);
+        if (linhas != null && linhas.remover(linha)) {
+            linhasPorNome.remove(chave);
+        }
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        for (Linhas linhas : linhasPorNome.values()) {
+            for (int i = linhas.inicio; i < linhas.fim; i++) {
+                linhas.valores[i] = novasLinhas[linhas.valores[i]];
+            }
+        }
+    }
+
+    /**
+     * Sequência crescente de linhas que compartilham o mesmo nome.  A
+     * remoção da primeira linha, o caso mais comum, apenas avança o
+     * início da sequência.
+     */
+    private static final class Linhas {
+
+        private int[] valores = new int[1];
+        private int inicio;
+        private int fim;
+
+        void adicionar(int linha) {
+            if (fim == valores.length) {
+                int quantidade = fim - inicio;
+                int[] novos = new int[Math.max(2, quantidade * 2)];
+                System.arraycopy(valores, inicio, novos, 0, quantidade);
+                valores = novos;
+                inicio = 0;
+                fim = quantidade;
+            }
+            valores[fim++] = linha;
+        }
+
+        /**
+         * Remove a linha da sequência.
+         *
+         * @return {@code true} se a sequência ficou vazia
+         */
+        boolean remover(int linha) {
+            int posicao = Arrays.binarySearch(valores, inicio, fim, linha);
+            if (posicao < 0) {
+                return inicio == fim;
+            }
+            if (posicao == inicio) {
+                inicio++;
+            } else {
+                System.arraycopy(valores, posicao + 1, valores, posicao, fim - posicao - 1);
+                fim--;
+            }
+            return inicio == fim;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package repository;
+import util.ColacaoUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Índice que mantém as linhas de uma {@link TabelaFuncionarios} em
+ * ordem alfabética pt-BR (veja {@link ColacaoUtil}).  A chave de
+ * colação de cada funcionário é calculada uma única vez, quando ele é
+ * inserido; nomes iguais ficam na ordem de inserção.
+ *
+ * <p>Assim como os nomes na tabela, as chaves ficam todas em um único
+ * vetor de bytes, com o início e o tamanho da chave de cada linha em
+ * vetores de {@code int}, e a ordem é um vetor com as linhas.  Os oito
+ * primeiros bytes de cada chave ficam também em um {@code long}, de
+ * modo que a maioria das comparações não chega a percorrer as chaves.
+ * Nenhum objeto é criado por linha.
+ *
+ * <p>Inserções são acumuladas em um vetor de pendências e remoções
+ * são apenas contadas.  Na consulta seguinte, as pendências são
+ * ordenadas e intercaladas com a ordem existente, descartando as
+ * linhas removidas; a ordem nunca é refeita do zero.  A ordenação é
+ * um merge sort das linhas, feito em paralelo por fatias quando há
+ * muitas pendências, como na construção do índice.
+ *
+ * <p>O índice é obtido por {@link TabelaFuncionarios#indiceOrdemNomes()}
+ * e se mantém sincronizado com a tabela como {@link OuvinteTabela}.
+ */
+public class IndiceOrdemNomes implements OuvinteTabela {
+
+    private static final int LIMIAR_PARALELO = 64 * 1024;
+    private static final int LIMIAR_INSERCAO = 32;
+
+    private final TabelaFuncionarios tabela;
+
+    private byte[] chaves = new byte[256];
+    private int chavesUsadas;
+    private int[] chavesInicio = new int[16];
+    private int[] chavesTamanho = new int[16];
+    private long[] prefixos = new long[16];
+
+    private int[] ordenadas = new int[0];
+    private int quantidadeOrdenadas;
+    private int[] pendentes = new int[16];
+    private int quantidadePendentes;
+    private int remocoesPendentes;
+
+    /**
+     * Constrói o índice a partir das linhas ativas da tabela.
+     *
+     * @param tabela a tabela indexada
+     */
+    IndiceOrdemNomes(TabelaFuncionarios tabela) {
+        this.tabela = tabela;
+        int limite = tabela.limite();
+        garantirLinha(limite - 1);
+        // as chaves de colação são o passo mais caro e podem ser calculadas em paralelo, cada fatia em
+        // um vetor próprio, depois concatenados
+        int fatias = limite < LIMIAR_PARALELO ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = Math.max(1, (limite + fatias - 1) / fatias);
+        byte[][] porFatia = new byte[fatias][];
+        paralelo(fatias, fatia -> {
+            byte[] bytes = new byte[256];
+            int usados = 0;
+            int fim = Math.min(limite, (fatia + 1) * tamanhoFatia);
+            for (int linha = fatia * tamanhoFatia; linha < fim; linha++) {
+                if (!tabela.removida(linha)) {
+                    byte[] chave = ColacaoUtil.chave(tabela.nome(linha));
+                    bytes = garantirBytes(bytes, (long) usados + chave.length);
+                    System.arraycopy(chave, 0, bytes, usados, chave.length);
+                    chavesInicio[linha] = usados;
+                    chavesTamanho[linha] = chave.length;
+                    usados += chave.length;
+                }
+            }
+            porFatia[fatia] = Arrays.copyOf(bytes, usados);
+        });
+        long total = 0;
+        for (byte[] bytes : porFatia) {
+            total += bytes.length;
+        }
+        chaves = garantirBytes(chaves, total);
+        int quantidade = 0;
+        for (int fatia = 0; fatia < fatias; fatia++) {
+            int deslocamento = chavesUsadas;
+            System.arraycopy(porFatia[fatia], 0, chaves, deslocamento, porFatia[fatia].length);
+            chavesUsadas += porFatia[fatia].length;
+            int fim = Math.min(limite, (fatia + 1) * tamanhoFatia);
+            for (int linha = fatia * tamanhoFatia; linha < fim; linha++) {
+                if (!tabela.removida(linha)) {
+                    chavesInicio[linha] += deslocamento;
+                    prefixos[linha] = prefixo(linha);
+                    quantidade++;
+                }
+            }
+        }
+        pendentes = new int[Math.max(quantidade, 16)];
+        for (int linha = 0; linha < limite; linha++) {
+            if (!tabela.removida(linha)) {
+                pendentes[quantidadePendentes++] = linha;
+            }
+        }
+    }
+
+    /**
+     * Obtém as linhas ativas em ordem alfabética.
+     *
+     * @return as linhas ordenadas pelo nome
+     */
+    public int[] linhasOrdenadas() {
+        consolidar();
+        return Arrays.copyOf(ordenadas, quantidadeOrdenadas);
+    }
+
+    @Override
+    public void aoAdicionar(int linha) {
+        garantirLinha(linha);
+        byte[] chave = ColacaoUtil.chave(tabela.nome(linha));
+        chaves = garantirBytes(chaves, (long) chavesUsadas + chave.length);
+        System.arraycopy(chave, 0, chaves, chavesUsadas, chave.length);
+        chavesInicio[linha] = chavesUsadas;
+        chavesTamanho[linha] = chave.length;
+        chavesUsadas += chave.length;
+        prefixos[linha] = prefixo(linha);
+        if (quantidadePendentes == pendentes.length) {
+            pendentes = Arrays.copyOf(pendentes, pendentes.length * 2);
+        }
+        pendentes[quantidadePendentes++] = linha;
+    }
+
+    @Override
+    public void aoRemover(int linha) {
+        remocoesPendentes++;
+    }
+
+    @Override
+    public void aoCompactar(int[] novasLinhas) {
+        // como na tabela, as linhas mantidas vêm em ordem e suas chaves só andam para trás no vetor
+        int usadas = 0;
+        for (int linha = 0; linha < novasLinhas.length; linha++) {
+            int nova = novasLinhas[linha];
+            if (nova >= 0) {
+                System.arraycopy(chaves, chavesInicio[linha], chaves, usadas, chavesTamanho[linha]);
+                chavesInicio[nova] = usadas;
+                chavesTamanho[nova] = chavesTamanho[linha];
+                prefixos[nova] = prefixos[linha];
+                usadas += chavesTamanho[linha];
+            }
+        }
+        chavesUsadas = usadas;
+        quantidadeOrdenadas = renumerar(ordenadas, quantidadeOrdenadas, novasLinhas);
+        quantidadePendentes = renumerar(pendentes, quantidadePendentes, novasLinhas);
+        remocoesPendentes = 0;
+    }
+
+    private static int renumerar(int[] linhas, int quantidade, int[] novasLinhas) {
+        int destino = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int nova = novasLinhas[linhas[i]];
+            if (nova >= 0) {
+                linhas[destino++] = nova;
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Ordena as linhas pendentes e as intercala com as já ordenadas.
+     * Leituras concorrentes sob o {@link RepositorioFuncionarios} podem
+     * chegar aqui juntas; só a primeira faz o trabalho.
+     */
+    private synchronized void consolidar() {
+        if (quantidadePendentes == 0 && remocoesPendentes == 0) {
+            return;
+        }
+        ordenar(pendentes, quantidadePendentes);
+        int[] resultado = new int[quantidadeOrdenadas + quantidadePendentes];
+        int i = 0;
+        int j = 0;
+        int destino = 0;
+        while (i < quantidadeOrdenadas || j < quantidadePendentes) {
+            int proxima;
+            if (j >= quantidadePendentes
+                    || (i < quantidadeOrdenadas && comparar(ordenadas[i], pendentes[j]) < 0)) {
+                proxima = ordenadas[i++];
+            } else {
+                proxima = pendentes[j++];
+            }
+            if (!tabela.removida(proxima)) {
+                resultado[destino++] = proxima;
+            }
+        }
+        ordenadas = resultado;
+        quantidadeOrdenadas = destino;
+        pendentes = new int[16];
+        quantidadePendentes = 0;
+        remocoesPendentes = 0;
+    }
+
+    /**
+     * Ordena as linhas por merge sort: as fatias são ordenadas em
+     * paralelo e depois intercaladas duas a duas, também em paralelo,
+     * alternando entre o vetor e um auxiliar.
+     */
+    private void ordenar(int[] linhas, int quantidade) {
+        int[] auxiliar = new int[quantidade];
+        int fatias = quantidade < LIMIAR_PARALELO ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = Math.max(1, (quantidade + fatias - 1) / fatias);
+        paralelo(fatias, fatia -> {
+            int de = Math.min(quantidade, fatia * tamanhoFatia);
+            ordenar(linhas, auxiliar, de, Math.min(quantidade, de + tamanhoFatia));
+        });
+        int[] origem = linhas;
+        int[] destino = auxiliar;
+        for (int largura = tamanhoFatia; largura < quantidade; largura *= 2) {
+            int passo = largura;
+            int[] de = origem;
+            int[] para = destino;
+            paralelo((quantidade + 2 * passo - 1) / (2 * passo), par -> {
+                int inicio = par * 2 * passo;
+                int meio = Math.min(quantidade, inicio + passo);
+                intercalar(de, para, inicio, meio, Math.min(quantidade, meio + passo));
+            });
+            origem = para;
+            destino = de;
+        }
+        if (origem != linhas) {
+            System.arraycopy(origem, 0, linhas, 0, quantidade);
+        }
+    }
+
+    private void ordenar(int[] linhas, int[] auxiliar, int de, int ate) {
+        if (ate - de <= LIMIAR_INSERCAO) {
+            for (int i = de + 1; i < ate; i++) {
+                int linha = linhas[i];
+                int j = i;
+                while (j > de && comparar(linhas[j - 1], linha) > 0) {
+                    linhas[j] = linhas[j - 1];
+                    j--;
+                }
+                linhas[j] = linha;
+            }
+            return;
+        }
+        int meio = (de + ate) >>> 1;
+        ordenar(linhas, auxiliar, de, meio);
+        ordenar(linhas, auxiliar, meio, ate);
+        if (comparar(linhas[meio - 1], linhas[meio]) > 0) {
+            intercalar(linhas, auxiliar, de, meio, ate);
+            System.arraycopy(auxiliar, de, linhas, de, ate - de);
+        }
+    }
+
+    private void intercalar(int[] origem, int[] destino, int de, int meio, int ate) {
+        int i = de;
+        int j = meio;
+        for (int k = de; k < ate; k++) {
+            if (j >= ate || (i < meio && comparar(origem[i], origem[j]) <= 0)) {
+                destino[k] = origem[i++];
+            } else {
+                destino[k] = origem[j++];
+            }
+        }
+    }
+
+    /**
+     * Compara duas linhas pela chave de colação e, no empate, pela
+     * ordem de inserção.  Prefixos diferentes já decidem a comparação:
+     * os bytes que faltam às chaves curtas valem zero, e uma chave que
+     * é prefixo de outra vem antes dela.
+     */
+    private int comparar(int a, int b) {
+        int comparacao = Long.compareUnsigned(prefixos[a], prefixos[b]);
+        if (comparacao == 0) {
+            comparacao = ColacaoUtil.comparar(chaves, chavesInicio[a], chavesInicio[a] + chavesTamanho[a],
+                    chaves, chavesInicio[b], chavesInicio[b] + chavesTamanho[b]);
+        }
+        return comparacao != 0 ? comparacao : Integer.compare(a, b);
+    }
+
+    private long prefixo(int linha) {
+        long prefixo = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            int valor = i < chavesTamanho[linha] ? chaves[chavesInicio[linha] + i] & 0xFF : 0;
+            prefixo = (prefixo << 8) | valor;
+        }
+        return prefixo;
+    }
+
+    private void garantirLinha(int linha) {
+        if (linha >= chavesInicio.length) {
+            int tamanho = Math.max(linha + 1, chavesInicio.length * 2);
+            chavesInicio = Arrays.copyOf(chavesInicio, tamanho);
+            chavesTamanho = Arrays.copyOf(chavesTamanho, tamanho);
+            prefixos = Arrays.copyOf(prefixos, tamanho);
+        }
+    }
+
+    private static byte[] garantirBytes(byte[] bytes, long necessario) {
+        if (necessario <= bytes.length) {
+            return bytes;
+        }
+        if (necessario > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Chaves de colação excedem o tamanho máximo de um vetor");
+        }
+        return Arrays.copyOf(bytes, (int) Math.max(necessario, Math.min(2L * bytes.length, Integer.MAX_VALUE - 8)));
+    }
+
+    private static void paralelo(int fatias, IntConsumer tarefa) {
+        if (fatias == 1) {
+            tarefa.accept(0);
+        } else {
+            IntStream.range(0, fatias).parallel().forEach(tarefa);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package repository;
+import model.Funcionario;
+import util.CentavosUtil;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Lista de funcionários guardada fora do heap, para conjuntos grandes
+ * demais para objetos {@link Funcionario} comuns: cada funcionário
+ * comum ocupa, entre o próprio objeto, {@link String}, {@link LocalDate}
+ * e {@link BigDecimal}, mais de 150 bytes no heap, que o coletor de lixo
+ * precisa percorrer a cada coleta completa.
+ *
+ * <p>Aqui cada funcionário é um registro de largura fixa de
+ * {@value #BYTES_POR_REGISTRO} bytes em blocos de memória direta
+ * ({@link ByteBuffer#allocateDirect(int)}):
+ *
+ * <pre>
+ *  0  long  salário em centavos
+ *  8  int   data de nascimento como dia epoch
+ *  12 int   identificador da função no {@link DicionarioFuncoes}
+ *  16 long  referência do nome na {@link ArenaNomes}
+ * </pre>
+ *
+ * <p>No heap ficam apenas a ordem da lista (um {@code int} por
+ * elemento, com o número do registro) e o dicionário de funções.  Os
+ * elementos lidos são visões {@link FuncionarioForaDoHeap}, criadas a
+ * cada leitura, que leem e alteram o registro; por isso a lista pode
+ * ser passada aos métodos de {@link service.FuncionarioService} que
+ * recebem {@code List<Funcionario>}, inclusive os que alteram salários
+ * ou removem elementos.
+ *
+ * <p>Como em uma lista de objetos, a identidade de um elemento é o seu
+ * registro: remover um elemento não apaga o registro, de modo que a
+ * visão devolvida continua legível, e adicionar uma visão desta lista
+ * apenas volta a incluir o registro, sem copiá-lo.  Funcionários de
+ * outra origem são copiados para um novo registro.  Registros que
+ * deixaram de fazer parte da lista só são descartados por
+ * {@link #compactar()}, que invalida as visões existentes.
+ *
+ * <p>A lista não é segura entre threads.
+ */
+public class ListaFuncionariosForaDoHeap extends AbstractList<Funcionario> implements RandomAccess {
+
+    /** Quantidade de bytes de cada registro. */
+    public static final int BYTES_POR_REGISTRO = 24;
+
+    private static final int SALARIO = 0;
+    private static final int NASCIMENTO = 8;
+    private static final int FUNCAO = 12;
+    private static final int NOME = 16;
+
+    private static final int BITS_REGISTROS_POR_BLOCO = 16;
+    private static final int REGISTROS_POR_BLOCO = 1 << BITS_REGISTROS_POR_BLOCO;
+    private static final int CARACTERES_POR_NOME_ESTIMADOS = 16;
+
+    private final DicionarioFuncoes funcoes;
+    private ArenaNomes nomes;
+    private ByteBuffer[] blocos = new ByteBuffer[0];
+    private int registrosUsados;
+    private int[] ordem;
+    private int tamanho;
+    private int geracao;
+
+    /**
+     * Constrói uma lista vazia.
+     */
+    public ListaFuncionariosForaDoHeap() {
+        this(16);
+    }
+
+    /**
+     * Constrói uma lista vazia já dimensionada para a quantidade de
+     * funcionários informada.
+     *
+     * @param capacidade a quantidade esperada de funcionários
+     */
+    public ListaFuncionariosForaDoHeap(int capacidade) {
+        this(capacidade, new DicionarioFuncoes());
+    }
+
+    private ListaFuncionariosForaDoHeap(int capacidade, DicionarioFuncoes funcoes) {
+        if (capacidade < 0) {
+            throw new IllegalArgumentException("Capacidade não pode ser negativa");
+        }
+        this.funcoes = funcoes;
+        this.nomes = new ArenaNomes((int) Math.min(Integer.MAX_VALUE, (long) capacidade * CARACTERES_POR_NOME_ESTIMADOS));
+        this.ordem = new int[Math.max(capacidade, 1)];
+    }
+
+    /**
+     * Cria uma lista com cópias dos funcionários da coleção, na ordem
+     * em que são percorridos.
+     *
+     * @param funcionarios os funcionários a copiar
+     * @return a nova lista
+     */
+    public static ListaFuncionariosForaDoHeap de(Collection<? extends Funcionario> funcionarios) {
+        ListaFuncionariosForaDoHeap lista = new ListaFuncionariosForaDoHeap(funcionarios.size());
+        for (Funcionario f : funcionarios) {
+            lista.add(f);
+        }
+        return lista;
+    }
+
+    /**
+     * Cria uma lista com as linhas ativas da tabela, na ordem de
+     * inserção, copiando os valores já codificados das colunas sem
+     * criar objetos {@link Funcionario}.
+     *
+     * @param tabela a tabela a copiar
+     * @return a nova lista
+     */
+    public static ListaFuncionariosForaDoHeap de(TabelaFuncionarios tabela) {
+        DicionarioFuncoes funcoes = new DicionarioFuncoes();
+        for (int id = 0; id < tabela.funcoes().tamanho(); id++) {
+            funcoes.codificar(tabela.funcoes().decodificar(id));
+        }
+        ListaFuncionariosForaDoHeap lista = new ListaFuncionariosForaDoHeap(tabela.tamanho(), funcoes);
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                int registro = lista.novoRegistro(tabela.salarioCentavos(linha), tabela.nascimento(linha),
+                        tabela.funcaoId(linha), lista.nomes.gravar(tabela.nome(linha)));
+                lista.incluir(lista.tamanho, registro);
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Obtém uma visão do funcionário na posição informada.  Cada
+     * chamada cria uma nova visão sobre o mesmo registro.
+     *
+     * @param indice a posição na lista
+     * @return a visão do funcionário
+     */
+    @Override
+    public FuncionarioForaDoHeap get(int indice) {
+        verificarIndice(indice, tamanho);
+        return new FuncionarioForaDoHeap(this, ordem[indice], geracao);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public Funcionario set(int indice, Funcionario funcionario) {
+        verificarIndice(indice, tamanho);
+        FuncionarioForaDoHeap anterior = get(indice);
+        ordem[indice] = registroDe(funcionario);
+        return anterior;
+    }
+
+    @Override
+    public void add(int indice, Funcionario funcionario) {
+        verificarIndice(indice, tamanho + 1);
+        incluir(indice, registroDe(funcionario));
+    }
+
+    /**
+     * Retira o funcionário da lista.  O registro não é apagado, e a
+     * visão devolvida continua válida até a próxima
+     * {@link #compactar()}.
+     *
+     * @param indice a posição na lista
+     * @return a visão do funcionário retirado
+     */
+    @Override
+    public FuncionarioForaDoHeap remove(int indice) {
+        FuncionarioForaDoHeap removido = get(indice);
+        System.arraycopy(ordem, indice + 1, ordem, indice, tamanho - indice - 1);
+        tamanho--;
+        modCount++;
+        return removido;
+    }
+
+    @Override
+    public void clear() {
+        tamanho = 0;
+        modCount++;
+    }
+
+    /**
+     * Descarta os registros que não fazem mais parte da lista,
+     * regravando os demais, na ordem da lista, em novos blocos e em uma
+     * nova área de nomes.  As visões obtidas antes da compactação
+     * deixam de ser válidas e lançam {@link IllegalStateException}.
+     */
+    public void compactar() {
+        ByteBuffer[] blocosAntigos = blocos;
+        ArenaNomes nomesAntigos = nomes;
+        int[] novos = new int[registrosUsados];
+        Arrays.fill(novos, -1);
+        ListaFuncionariosForaDoHeap destino = new ListaFuncionariosForaDoHeap(tamanho, funcoes);
+        for (int i = 0; i < tamanho; i++) {
+            int registro = ordem[i];
+            if (novos[registro] < 0) {
+                ByteBuffer bloco = blocosAntigos[registro >>> BITS_REGISTROS_POR_BLOCO];
+                int base = deslocamento(registro);
+                novos[registro] = destino.novoRegistro(bloco.getLong(base + SALARIO), bloco.getInt(base + NASCIMENTO),
+                        bloco.getInt(base + FUNCAO), destino.nomes.gravar(nomesAntigos.ler(bloco.getLong(base + NOME))));
+            }
+            ordem[i] = novos[registro];
+        }
+        blocos = destino.blocos;
+        registrosUsados = destino.registrosUsados;
+        nomes = destino.nomes;
+        geracao++;
+        modCount++;
+    }
+
+    /**
+     * Obtém o dicionário usado para codificar as funções.
+     *
+     * @return o dicionário de funções
+     */
+    public DicionarioFuncoes funcoes() {
+        return funcoes;
+    }
+
+    /**
+     * Obtém a quantidade de registros gravados, incluindo os que já não
+     * fazem parte da lista e aguardam {@link #compactar()}.
+     *
+     * @return a quantidade de registros
+     */
+    public int registrosOcupados() {
+        return registrosUsados;
+    }
+
+    /**
+     * Obtém a quantidade de memória direta reservada pelos registros e
+     * pelos nomes.  Somada à ordem da lista, de quatro bytes por
+     * elemento, é toda a memória usada pelos funcionários.
+     *
+     * @return os bytes reservados fora do heap
+     */
+    public long bytesForaDoHeap() {
+        return (long) blocos.length * REGISTROS_POR_BLOCO * BYTES_POR_REGISTRO + nomes.bytesReservados();
+    }
+
+    /**
+     * Obtém a quantidade de bytes efetivamente ocupados fora do heap
+     * pelos registros gravados e seus nomes.
+     *
+     * @return os bytes ocupados fora do heap
+     */
+    public long bytesOcupadosForaDoHeap() {
+        return (long) registrosUsados * BYTES_POR_REGISTRO + nomes.bytesUsados();
+    }
+
+    long salarioCentavos(int registro, int geracaoVisao) {
+        return bloco(registro, geracaoVisao).getLong(deslocamento(registro) + SALARIO);
+    }
+
+    void definirSalarioCentavos(int registro, int geracaoVisao, long centavos) {
+        bloco(registro, geracaoVisao).putLong(deslocamento(registro) + SALARIO, centavos);
+    }
+
+    int nascimento(int registro, int geracaoVisao) {
+        return bloco(registro, geracaoVisao).getInt(deslocamento(registro) + NASCIMENTO);
+    }
+
+    int funcaoId(int registro, int geracaoVisao) {
+        return bloco(registro, geracaoVisao).getInt(deslocamento(registro) + FUNCAO);
+    }
+
+    void definirFuncao(int registro, int geracaoVisao, String funcao) {
+        bloco(registro, geracaoVisao).putInt(deslocamento(registro) + FUNCAO, funcoes.codificar(funcao));
+    }
+
+    String nome(int registro, int geracaoVisao) {
+        return nomes.ler(bloco(registro, geracaoVisao).getLong(deslocamento(registro) + NOME));
+    }
+
+    /**
+     * Obtém o registro do funcionário: o da própria visão, se ela for
+     * desta lista, ou um novo com a cópia dos atributos.
+     */
+    private int registroDe(Funcionario funcionario) {
+        if (funcionario instanceof FuncionarioForaDoHeap visao && visao.pertenceA(this, geracao)) {
+            return visao.registro();
+        }
+        if (funcionario == null || funcionario.getNome() == null || funcionario.getDataNascimento() == null) {
+            throw new IllegalArgumentException("Nome e data de nascimento não podem ser nulos");
+        }
+        long salario = CentavosUtil.paraCentavos(funcionario.getSalario());
+        int funcao = funcoes.codificar(funcionario.getFuncao());
+        return novoRegistro(salario, DataUtil.paraEpochDay(funcionario.getDataNascimento()),
+                funcao, nomes.gravar(funcionario.getNome()));
+    }
+
+    private int novoRegistro(long salarioCentavos, int nascimento, int funcaoId, long nome) {
+        int registro = registrosUsados;
+        int bloco = registro >>> BITS_REGISTROS_POR_BLOCO;
+        if (bloco == blocos.length) {
+            blocos = Arrays.copyOf(blocos, bloco + 1);
+            blocos[bloco] = ByteBuffer.allocateDirect(REGISTROS_POR_BLOCO * BYTES_POR_REGISTRO);
+        }
+        ByteBuffer destino = blocos[bloco];
+        int base = deslocamento(registro);
+        destino.putLong(base + SALARIO, salarioCentavos);
+        destino.putInt(base + NASCIMENTO, nascimento);
+        destino.putInt(base + FUNCAO, funcaoId);
+        destino.putLong(base + NOME, nome);
+        registrosUsados++;
+        return registro;
+    }
+
+    private void incluir(int indice, int registro) {
+        if (tamanho == ordem.length) {
+            ordem = Arrays.copyOf(ordem, Math.max(tamanho + 1, tamanho + (tamanho >> 1)));
+        }
+        System.arraycopy(ordem, indice, ordem, indice + 1, tamanho - indice);
+        ordem[indice] = registro;
+        tamanho++;
+        modCount++;
+    }
+
+    private ByteBuffer bloco(int registro, int geracaoVisao) {
+        if (geracaoVisao != geracao) {
+            throw new IllegalStateException("Visão obtida antes da compactação da lista");
+        }
+        return blocos[registro >>> BITS_REGISTROS_POR_BLOCO];
+    }
+
+    private static int deslocamento(int registro) {
+        return (registro & (REGISTROS_POR_BLOCO - 1)) * BYTES_POR_REGISTRO;
+    }
+
+    private static void verificarIndice(int indice, int limite) {
+        if (indice < 0 || indice >= limite) {
+            throw new IndexOutOfBoundsException("Posição inválida: " + indice);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package repository;
+
+/**
+ * Observador de alterações em uma {@link TabelaFuncionarios}.  Índices
+ * e agregados registrados na tabela recebem cada alteração e se
+ * mantêm sincronizados sem precisar percorrer todos os funcionários
+ * novamente.  Todos os métodos possuem implementação vazia, de modo
+ * que cada observador sobrescreve apenas os eventos que lhe
+ * interessam.
+ */
+public interface OuvinteTabela {
+
+    /**
+     * Chamado depois que uma linha é adicionada à tabela.
+     *
+     * @param linha a linha adicionada
+     */
+    default void aoAdicionar(int linha) {
+    }
+
+    /**
+     * Chamado antes que uma linha seja marcada como removida.  Os dados
+     * da linha ainda podem ser lidos durante a chamada.
+     *
+     * @param linha a linha removida
+     */
+    default void aoRemover(int linha) {
+    }
+
+    /**
+     * Chamado depois que o salário de uma linha é alterado
+     * individualmente.
+     *
+     * @param linha    a linha alterada
+     * @param anterior o salário anterior, em centavos
+     * @param novo     o novo salário, em centavos
+     */
+    default void aoAlterarSalario(int linha, long anterior, long novo) {
+    }
+
+    /**
+     * Chamado depois de uma alteração de salários em lote, feita por
+     * {@link TabelaFuncionarios#alterarSalariosEmLote(Runnable)}.  Nesse
+     * caso as alterações individuais não são notificadas.
+     */
+    default void aoAlterarSalariosEmLote() {
+    }
+
+    /**
+     * Chamado depois que a função de uma linha é alterada.
+     *
+     * @param linha    a linha alterada
+     * @param anterior o identificador da função anterior
+     * @param nova     o identificador da nova função
+     */
+    default void aoAlterarFuncao(int linha, int anterior, int nova) {
+    }
+
+    /**
+     * Chamado depois que as linhas removidas são descartadas e as
+     * demais renumeradas.
+     *
+     * @param novasLinhas vetor indexado pela linha antiga contendo a nova
+     *     linha, ou -1 para linhas descartadas
+     */
+    default void aoCompactar(int[] novasLinhas) {
+    }
+}
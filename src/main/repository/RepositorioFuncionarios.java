@@ -0,0 +1,158 @@
+package repository;
+import model.Funcionario;
+
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Repositório seguro entre threads sobre uma {@link TabelaFuncionarios}.
+ * Leituras e alterações recebem a tabela dentro de um
+ * {@link StampedLock}: várias leituras são feitas ao mesmo tempo e cada
+ * alteração tem acesso exclusivo.
+ *
+ * <p>A primeira leitura de um índice da tabela o cria, o que não pode
+ * acontecer sob a trava compartilhada.  Por isso todos os índices são
+ * criados com o repositório e, se ainda assim
+ * {@link TabelaFuncionarios#precisaPrepararLeitura()} indicar o
+ * contrário, a leitura converte a trava em escrita, prepara a tabela e
+ * volta à leitura.  As consolidações sob demanda dos índices ordenados
+ * e dos agregados são sincronizadas nas próprias estruturas, de modo
+ * que uma sequência de alterações é consolidada uma única vez, pela
+ * primeira leitura que precisar dela.
+ *
+ * <p>Os totais ({@link #totalCentavos()}, {@link #tamanho()}) usam
+ * leitura otimista, sem travar, e só recorrem à trava de leitura se uma
+ * alteração ocorrer durante a leitura.
+ *
+ * <p>As funções de leitura não devem alterar a tabela nem devolver
+ * visões que a leiam depois (como as listas e mapas preguiçosos do
+ * serviço): o resultado deve ser materializado dentro da função.
+ */
+public class RepositorioFuncionarios {
+
+    private final TabelaFuncionarios tabela;
+    private final StampedLock trava = new StampedLock();
+
+    /**
+     * Cria o repositório sobre a tabela informada.  A tabela não deve
+     * mais ser acessada diretamente.
+     *
+     * @param tabela a tabela a proteger
+     */
+    public RepositorioFuncionarios(TabelaFuncionarios tabela) {
+        this(tabela, true);
+    }
+
+    /**
+     * Cria o repositório sobre a tabela informada, opcionalmente sem
+     * criar os índices.  Nesse caso eles são criados pela primeira
+     * leitura, o que torna a abertura de tabelas grandes imediata.
+     *
+     * @param tabela          a tabela a proteger
+     * @param prepararLeitura se os índices devem ser criados agora
+     */
+    public RepositorioFuncionarios(TabelaFuncionarios tabela, boolean prepararLeitura) {
+        this.tabela = tabela;
+        if (prepararLeitura) {
+            tabela.prepararLeitura();
+        }
+    }
+
+    /**
+     * Cria um repositório com os funcionários informados.
+     *
+     * @param funcionarios os funcionários iniciais
+     * @return o repositório
+     */
+    public static RepositorioFuncionarios de(Collection<Funcionario> funcionarios) {
+        return new RepositorioFuncionarios(TabelaFuncionarios.de(funcionarios));
+    }
+
+    /**
+     * Executa uma leitura da tabela, possivelmente ao mesmo tempo que
+     * outras leituras.
+     *
+     * @param leitura a função de leitura
+     * @param <R>     o tipo do resultado
+     * @return o resultado da leitura
+     */
+    public <R> R ler(Function<TabelaFuncionarios, R> leitura) {
+        long carimbo = trava.readLock();
+        try {
+            if (tabela.precisaPrepararLeitura()) {
+                long escrita = trava.tryConvertToWriteLock(carimbo);
+                if (escrita == 0) {
+                    trava.unlockRead(carimbo);
+                    escrita = trava.writeLock();
+                }
+                carimbo = escrita;
+                // outra thread pode ter preparado a tabela enquanto esperávamos
+                if (tabela.precisaPrepararLeitura()) {
+                    tabela.prepararLeitura();
+                }
+                carimbo = trava.tryConvertToReadLock(carimbo);
+            }
+            return leitura.apply(tabela);
+        } finally {
+            trava.unlock(carimbo);
+        }
+    }
+
+    /**
+     * Executa uma alteração da tabela com acesso exclusivo.
+     *
+     * @param alteracao a função de alteração
+     * @param <R>       o tipo do resultado
+     * @return o resultado da alteração
+     */
+    public <R> R alterar(Function<TabelaFuncionarios, R> alteracao) {
+        long carimbo = trava.writeLock();
+        try {
+            return alteracao.apply(tabela);
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Obtém o total dos salários, em centavos, por leitura otimista.
+     * A leitura otimista só lê o total já calculado; se ele estiver
+     * desatualizado, o recálculo é feito com a trava de leitura.
+     *
+     * @return o total dos salários
+     * @throws ArithmeticException se o total não couber em um
+     *     {@code long}
+     */
+    public long totalCentavos() {
+        long carimbo = trava.tryOptimisticRead();
+        if (!tabela.precisaPrepararLeitura()) {
+            AgregadosSalariais agregados = tabela.agregados();
+            boolean desatualizado = agregados.totaisDesatualizados();
+            long total = agregados.totalCalculado();
+            if (!desatualizado && trava.validate(carimbo)) {
+                return total;
+            }
+        }
+        return ler(lida -> lida.agregados().total());
+    }
+
+    /**
+     * Obtém a quantidade de funcionários, por leitura otimista.
+     *
+     * @return a quantidade de funcionários
+     */
+    public int tamanho() {
+        long carimbo = trava.tryOptimisticRead();
+        int tamanho = tabela.tamanho();
+        if (trava.validate(carimbo)) {
+            return tamanho;
+        }
+        carimbo = trava.readLock();
+        try {
+            return tabela.tamanho();
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+}
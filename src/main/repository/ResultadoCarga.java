@@ -0,0 +1,78 @@
+package repository;
+import java.util.List;
+
+/**
+ * Resumo de uma carga de funcionários feita por
+ * {@link CarregadorFuncionarios}: quantidade de linhas carregadas e
+ * rejeitadas, duração e vazão.
+ */
+public class ResultadoCarga {
+
+    private final long linhasCarregadas;
+    private final long linhasInvalidas;
+    private final List<Long> exemplosInvalidos;
+    private final long duracaoNanos;
+
+    /**
+     * Constrói o resumo de uma carga.
+     *
+     * @param linhasCarregadas  quantidade de funcionários carregados
+     * @param linhasInvalidas   quantidade de linhas rejeitadas
+     * @param exemplosInvalidos números (a partir de 1) de algumas linhas
+     *     rejeitadas
+     * @param duracaoNanos      duração da carga em nanossegundos
+     */
+    public ResultadoCarga(long linhasCarregadas, long linhasInvalidas,
+                          List<Long> exemplosInvalidos, long duracaoNanos) {
+        this.linhasCarregadas = linhasCarregadas;
+        this.linhasInvalidas = linhasInvalidas;
+        this.exemplosInvalidos = List.copyOf(exemplosInvalidos);
+        this.duracaoNanos = duracaoNanos;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários carregados.
+     *
+     * @return as linhas válidas
+     */
+    public long getLinhasCarregadas() {
+        return linhasCarregadas;
+    }
+
+    /**
+     * Obtém a quantidade de linhas rejeitadas por erro de formato.
+     *
+     * @return as linhas inválidas
+     */
+    public long getLinhasInvalidas() {
+        return linhasInvalidas;
+    }
+
+    /**
+     * Obtém os números de algumas das linhas rejeitadas, em ordem
+     * crescente, para diagnóstico.
+     *
+     * @return os números das linhas, contados a partir de 1
+     */
+    public List<Long> getExemplosInvalidos() {
+        return exemplosInvalidos;
+    }
+
+    /**
+     * Obtém a duração da carga.
+     *
+     * @return a duração em nanossegundos
+     */
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    /**
+     * Calcula a vazão da carga.
+     *
+     * @return linhas (válidas e inválidas) processadas por segundo
+     */
+    public double getLinhasPorSegundo() {
+        return duracaoNanos == 0 ? 0 : (linhasCarregadas + linhasInvalidas) * 1e9 / duracaoNanos;
+    }
+}
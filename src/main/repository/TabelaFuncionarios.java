@@ -0,0 +1,724 @@
+package repository;
+import model.Funcionario;
+import model.FuncionarioCompacto;
+import util.CentavosUtil;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Armazenamento colunar de funcionários.  Em vez de manter uma lista
+ * de objetos {@link Funcionario}, cada atributo é guardado em um vetor
+ * primitivo próprio (estrutura de vetores): salário em centavos
+ * ({@code long}), data de nascimento como dia epoch ({@code int}),
+ * função como identificador do {@link DicionarioFuncoes} ({@code int})
+ * e o nome como deslocamento dentro de uma área contínua de
+ * caracteres.  O nascimento também é guardado empacotado (veja
+ * {@link DataUtil#empacotar(int)}), para cálculos de idade em lote.
+ *
+ * <p>Cada funcionário ocupa uma linha, numerada a partir de zero na
+ * ordem de inserção.  A remoção apenas marca a linha com uma lápide,
+ * sem deslocar os vetores; as linhas removidas são descartadas por
+ * {@link #compactar()}.  Para percorrer a tabela, use as linhas de 0
+ * até {@link #limite()} ignorando as que {@link #removida(int)}.
+ *
+ * <p>Objetos {@link Funcionario} só são criados sob demanda por
+ * {@link #funcionario(int)}; eles são cópias desligadas da tabela, de
+ * modo que alterações nesses objetos não se refletem aqui.
+ */
+public class TabelaFuncionarios {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private final DicionarioFuncoes funcoes = new DicionarioFuncoes();
+    private final List<OuvinteTabela> ouvintes = new ArrayList<>();
+
+    private long[] salariosCentavos;
+    private int[] nascimentos;
+    private int[] nascimentosEmpacotados;
+    private int[] funcoesIds;
+    private int[] nomesInicio;
+    private int[] nomesTamanho;
+    private long[] removidas;
+    private char[] nomes;
+    private int nomesUsados;
+    private int limite;
+    private int quantidadeRemovidas;
+    private long versao;
+
+    private IndiceNomes indiceNomes;
+    private IndiceAniversarios indiceAniversarios;
+    private IndiceNascimentos indiceNascimentos;
+    private IndiceOrdemNomes indiceOrdemNomes;
+    private IndiceFuncoes indiceFuncoes;
+    private AgregadosSalariais agregados;
+    private boolean alterandoEmLote;
+
+    /**
+     * Constrói uma tabela vazia com a capacidade inicial padrão.
+     */
+    public TabelaFuncionarios() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Constrói uma tabela vazia já dimensionada para a quantidade de
+     * funcionários informada, evitando realocações durante a carga.
+     *
+     * @param capacidade a quantidade esperada de funcionários
+     */
+    public TabelaFuncionarios(int capacidade) {
+        if (capacidade < 0) {
+            throw new IllegalArgumentException("Capacidade não pode ser negativa");
+        }
+        int inicial = Math.max(capacidade, 1);
+        salariosCentavos = new long[inicial];
+        nascimentos = new int[inicial];
+        nascimentosEmpacotados = new int[inicial];
+        funcoesIds = new int[inicial];
+        nomesInicio = new int[inicial];
+        nomesTamanho = new int[inicial];
+        removidas = new long[(inicial + 63) >>> 6];
+        nomes = new char[inicial * 8];
+    }
+
+    /**
+     * Cria uma tabela contendo os funcionários da coleção, na ordem em
+     * que são percorridos.
+     *
+     * @param funcionarios os funcionários a copiar
+     * @return a nova tabela
+     */
+    public static TabelaFuncionarios de(Collection<Funcionario> funcionarios) {
+        TabelaFuncionarios tabela = new TabelaFuncionarios(funcionarios.size());
+        for (Funcionario f : funcionarios) {
+            tabela.adicionar(f);
+        }
+        return tabela;
+    }
+
+    /**
+     * Registra um observador que será notificado de cada alteração.
+     *
+     * @param ouvinte o observador a registrar
+     */
+    public void registrar(OuvinteTabela ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Obtém o índice de nomes da tabela, criando-o na primeira chamada.
+     * Depois de criado, o índice é mantido a cada inserção e remoção.
+     *
+     * @return o índice de nomes
+     */
+    public IndiceNomes indiceNomes() {
+        if (indiceNomes == null) {
+            indiceNomes = new IndiceNomes(this);
+            registrar(indiceNomes);
+        }
+        return indiceNomes;
+    }
+
+    /**
+     * Obtém o índice de aniversários da tabela, criando-o na primeira
+     * chamada.  Depois de criado, o índice é mantido a cada inserção e
+     * remoção.
+     *
+     * @return o índice de aniversários
+     */
+    public IndiceAniversarios indiceAniversarios() {
+        if (indiceAniversarios == null) {
+            indiceAniversarios = new IndiceAniversarios(this);
+            registrar(indiceAniversarios);
+        }
+        return indiceAniversarios;
+    }
+
+    /**
+     * Obtém o índice ordenado por data de nascimento, criando-o na
+     * primeira chamada.  Depois de criado, o índice é mantido a cada
+     * inserção e remoção.
+     *
+     * @return o índice de nascimentos
+     */
+    public IndiceNascimentos indiceNascimentos() {
+        if (indiceNascimentos == null) {
+            indiceNascimentos = new IndiceNascimentos(this);
+            registrar(indiceNascimentos);
+        }
+        return indiceNascimentos;
+    }
+
+    /**
+     * Obtém o índice de ordem alfabética dos nomes, criando-o na
+     * primeira chamada.  Depois de criado, o índice é mantido a cada
+     * inserção e remoção.
+     *
+     * @return o índice de ordem dos nomes
+     */
+    public IndiceOrdemNomes indiceOrdemNomes() {
+        if (indiceOrdemNomes == null) {
+            indiceOrdemNomes = new IndiceOrdemNomes(this);
+            registrar(indiceOrdemNomes);
+        }
+        return indiceOrdemNomes;
+    }
+
+    /**
+     * Obtém o índice de funções da tabela, criando-o na primeira
+     * chamada.  Depois de criado, o índice é mantido a cada inserção,
+     * remoção e troca de função.
+     *
+     * @return o índice de funções
+     */
+    public IndiceFuncoes indiceFuncoes() {
+        if (indiceFuncoes == null) {
+            indiceFuncoes = new IndiceFuncoes(this);
+            registrar(indiceFuncoes);
+        }
+        return indiceFuncoes;
+    }
+
+    /**
+     * Obtém os agregados salariais da tabela, criando-os na primeira
+     * chamada.  Depois de criados, os agregados são atualizados a cada
+     * alteração, e suas leituras não percorrem a tabela.
+     *
+     * @return os agregados salariais
+     */
+    public AgregadosSalariais agregados() {
+        if (agregados == null) {
+            agregados = new AgregadosSalariais(this);
+            registrar(agregados);
+        }
+        return agregados;
+    }
+
+    /**
+     * Informa se alguma leitura da tabela ainda criaria um índice ou os
+     * agregados.  Depois de {@link #prepararLeitura()}, as leituras
+     * podem ser feitas por várias threads ao mesmo tempo, desde que
+     * nenhuma alteração ocorra enquanto isso: as consolidações feitas
+     * sob demanda pelos índices ordenados e pelos agregados são
+     * sincronizadas.
+     *
+     * @return {@code true} se for preciso chamar {@link #prepararLeitura()}
+     */
+    public boolean precisaPrepararLeitura() {
+        return indiceNomes == null || indiceAniversarios == null || indiceNascimentos == null
+                || indiceOrdemNomes == null || indiceFuncoes == null || agregados == null;
+    }
+
+    /**
+     * Cria todos os índices e agregados ainda não criados.
+     */
+    public void prepararLeitura() {
+        indiceNomes();
+        indiceAniversarios();
+        indiceNascimentos();
+        indiceOrdemNomes();
+        indiceFuncoes();
+        agregados();
+    }
+
+    /**
+     * Adiciona um funcionário ao final da tabela.
+     *
+     * @param funcionario o funcionário a adicionar
+     * @return a linha ocupada pelo funcionário
+     */
+    public int adicionar(Funcionario funcionario) {
+        if (funcionario instanceof FuncionarioCompacto compacto && compacto.getNome() != null) {
+            int nascimento = compacto.getNascimentoEmpacotado();
+            return adicionar(compacto.getNome(),
+                    DataUtil.paraEpochDay(DataUtil.ano(nascimento), DataUtil.mes(nascimento), DataUtil.dia(nascimento)),
+                    compacto.getSalarioCentavos(),
+                    funcoes.codificar(compacto.getFuncao()));
+        }
+        return adicionar(funcionario.getNome(),
+                funcionario.getDataNascimento(),
+                funcionario.getSalario(),
+                funcionario.getFuncao());
+    }
+
+    /**
+     * Adiciona um funcionário ao final da tabela a partir de seus
+     * atributos.
+     *
+     * @param nome           o nome do funcionário
+     * @param dataNascimento a data de nascimento
+     * @param salario        o salário, com no máximo duas casas decimais
+     * @param funcao         a função exercida
+     * @return a linha ocupada pelo funcionário
+     */
+    public int adicionar(String nome, LocalDate dataNascimento, BigDecimal salario, String funcao) {
+        if (nome == null || dataNascimento == null) {
+            throw new IllegalArgumentException("Nome e data de nascimento não podem ser nulos");
+        }
+        return adicionar(nome,
+                DataUtil.paraEpochDay(dataNascimento),
+                CentavosUtil.paraCentavos(salario),
+                funcoes.codificar(funcao));
+    }
+
+    /**
+     * Adiciona um funcionário ao final da tabela a partir de valores
+     * já codificados.  É o caminho usado por cargas em lote, que não
+     * precisam criar objetos intermediários.
+     *
+     * @param nome             o nome do funcionário
+     * @param nascimento       a data de nascimento como dia epoch
+     * @param salarioCentavos  o salário em centavos
+     * @param funcaoId         o identificador da função no {@link #funcoes()}
+     * @return a linha ocupada pelo funcionário
+     */
+    public int adicionar(CharSequence nome, int nascimento, long salarioCentavos, int funcaoId) {
+        int linha = reservarLinha(nome.length(), nascimento, salarioCentavos, funcaoId);
+        for (int i = 0; i < nome.length(); i++) {
+            nomes[nomesUsados++] = nome.charAt(i);
+        }
+        return concluirLinha(linha);
+    }
+
+    /**
+     * Adiciona um funcionário cujo nome está em um trecho de um vetor
+     * de caracteres.  Variante de
+     * {@link #adicionar(CharSequence, int, long, int)} para cargas em
+     * lote que não criam nenhum objeto por funcionário.
+     *
+     * @param nome             o vetor que contém o nome
+     * @param inicioNome       a posição inicial do nome no vetor
+     * @param tamanhoNome      a quantidade de caracteres do nome
+     * @param nascimento       a data de nascimento como dia epoch
+     * @param salarioCentavos  o salário em centavos
+     * @param funcaoId         o identificador da função no {@link #funcoes()}
+     * @return a linha ocupada pelo funcionário
+     */
+    public int adicionar(char[] nome, int inicioNome, int tamanhoNome,
+                         int nascimento, long salarioCentavos, int funcaoId) {
+        int linha = reservarLinha(tamanhoNome, nascimento, salarioCentavos, funcaoId);
+        System.arraycopy(nome, inicioNome, nomes, nomesUsados, tamanhoNome);
+        nomesUsados += tamanhoNome;
+        return concluirLinha(linha);
+    }
+
+    /**
+     * Garante espaço para mais funcionários sem novas realocações.  Útil
+     * antes de cargas em lote cujo tamanho é conhecido.
+     *
+     * @param quantidade a quantidade de funcionários a inserir
+     * @param caracteres a quantidade total de caracteres dos nomes
+     */
+    public void reservar(int quantidade, int caracteres) {
+        garantirCapacidade(limite + quantidade);
+        garantirCapacidadeNomes(nomesUsados + caracteres);
+    }
+
+    private int reservarLinha(int tamanhoNome, int nascimento, long salarioCentavos, int funcaoId) {
+        if (funcaoId < 0 || funcaoId >= funcoes.tamanho()) {
+            throw new IllegalArgumentException("Função não registrada: " + funcaoId);
+        }
+        garantirCapacidade(limite + 1);
+        garantirCapacidadeNomes(nomesUsados + tamanhoNome);
+        int linha = limite;
+        salariosCentavos[linha] = salarioCentavos;
+        nascimentos[linha] = nascimento;
+        nascimentosEmpacotados[linha] = DataUtil.empacotar(nascimento);
+        funcoesIds[linha] = funcaoId;
+        nomesInicio[linha] = nomesUsados;
+        nomesTamanho[linha] = tamanhoNome;
+        return linha;
+    }
+
+    private int concluirLinha(int linha) {
+        limite++;
+        versao++;
+        for (OuvinteTabela ouvinte : ouvintes) {
+            ouvinte.aoAdicionar(linha);
+        }
+        return linha;
+    }
+
+
+    /**
+     * Marca a linha como removida.  Os vetores não são deslocados, de
+     * modo que as demais linhas mantêm sua numeração até a próxima
+     * {@link #compactar()}.
+     *
+     * @param linha a linha a remover
+     * @return {@code true} se a linha estava ativa e foi removida
+     */
+    public boolean remover(int linha) {
+        verificarLinha(linha);
+        if (removida(linha)) {
+            return false;
+        }
+        for (OuvinteTabela ouvinte : ouvintes) {
+            ouvinte.aoRemover(linha);
+        }
+        removidas[linha >>> 6] |= 1L << linha;
+        quantidadeRemovidas++;
+        versao++;
+        return true;
+    }
+
+    /**
+     * Indica se a linha foi removida.
+     *
+     * @param linha a linha a verificar
+     * @return {@code true} se a linha possui lápide
+     */
+    public boolean removida(int linha) {
+        return (removidas[linha >>> 6] & (1L << linha)) != 0;
+    }
+
+    /**
+     * Obtém a quantidade de linhas removidas ainda não descartadas.
+     *
+     * @return a quantidade de lápides
+     */
+    public int quantidadeRemovidas() {
+        return quantidadeRemovidas;
+    }
+
+    /**
+     * Descarta as linhas removidas, deslocando as linhas ativas para o
+     * início dos vetores e preservando a ordem de inserção.  As linhas
+     * ativas são renumeradas e os observadores recebem o mapeamento
+     * entre a numeração antiga e a nova.
+     */
+    public void compactar() {
+        if (quantidadeRemovidas == 0) {
+            return;
+        }
+        int[] novasLinhas = new int[limite];
+        char[] novosNomes = new char[Math.max(nomes.length, 1)];
+        int novosNomesUsados = 0;
+        int destino = 0;
+        for (int linha = 0; linha < limite; linha++) {
+            if (removida(linha)) {
+                novasLinhas[linha] = -1;
+                continue;
+            }
+            novasLinhas[linha] = destino;
+            salariosCentavos[destino] = salariosCentavos[linha];
+            nascimentos[destino] = nascimentos[linha];
+            nascimentosEmpacotados[destino] = nascimentosEmpacotados[linha];
+            funcoesIds[destino] = funcoesIds[linha];
+            System.arraycopy(nomes, nomesInicio[linha], novosNomes, novosNomesUsados, nomesTamanho[linha]);
+            nomesInicio[destino] = novosNomesUsados;
+            nomesTamanho[destino] = nomesTamanho[linha];
+            novosNomesUsados += nomesTamanho[linha];
+            destino++;
+        }
+        nomes = novosNomes;
+        nomesUsados = novosNomesUsados;
+        limite = destino;
+        quantidadeRemovidas = 0;
+        Arrays.fill(removidas, 0L);
+        versao++;
+        for (OuvinteTabela ouvinte : ouvintes) {
+            ouvinte.aoCompactar(novasLinhas);
+        }
+    }
+
+    /**
+     * Obtém a versão da tabela, um contador incrementado a cada
+     * alteração (inserção, remoção, compactação, alteração de salário
+     * ou de função).  Permite detectar que resultados derivados da
+     * tabela ficaram desatualizados.
+     *
+     * @return a versão atual
+     */
+    public long versao() {
+        return versao;
+    }
+
+    /**
+     * Obtém a quantidade de funcionários ativos (não removidos).
+     *
+     * @return a quantidade de funcionários armazenados
+     */
+    public int tamanho() {
+        return limite - quantidadeRemovidas;
+    }
+
+    /**
+     * Obtém a quantidade de linhas ocupadas, incluindo as removidas.
+     * As linhas válidas vão de 0 até {@code limite() - 1}.
+     *
+     * @return o limite superior (exclusivo) das linhas
+     */
+    public int limite() {
+        return limite;
+    }
+
+    /**
+     * Obtém o dicionário usado para codificar as funções.
+     *
+     * @return o dicionário de funções
+     */
+    public DicionarioFuncoes funcoes() {
+        return funcoes;
+    }
+
+    /**
+     * Obtém o salário da linha em centavos.
+     *
+     * @param linha a linha do funcionário
+     * @return o salário em centavos
+     */
+    public long salarioCentavos(int linha) {
+        verificarLinha(linha);
+        return salariosCentavos[linha];
+    }
+
+    /**
+     * Altera o salário da linha.
+     *
+     * @param linha    a linha do funcionário
+     * @param centavos o novo salário em centavos
+     * @throws IllegalArgumentException se a linha tiver sido removida
+     */
+    public void definirSalarioCentavos(int linha, long centavos) {
+        verificarLinhaAtiva(linha);
+        long anterior = salariosCentavos[linha];
+        salariosCentavos[linha] = centavos;
+        if (!alterandoEmLote) {
+            versao++;
+            for (OuvinteTabela ouvinte : ouvintes) {
+                ouvinte.aoAlterarSalario(linha, anterior, centavos);
+            }
+        }
+    }
+
+    /**
+     * Executa uma alteração de salários em lote.  Durante a execução,
+     * {@link #definirSalarioCentavos(int, long)} não notifica os
+     * observadores, o que permite que a alteração seja feita por várias
+     * threads em linhas distintas; ao final, os observadores recebem
+     * uma única notificação {@link OuvinteTabela#aoAlterarSalariosEmLote()}.
+     *
+     * @param alteracao a alteração a executar
+     */
+    public void alterarSalariosEmLote(Runnable alteracao) {
+        alterandoEmLote = true;
+        try {
+            alteracao.run();
+        } finally {
+            alterandoEmLote = false;
+            versao++;
+            for (OuvinteTabela ouvinte : ouvintes) {
+                ouvinte.aoAlterarSalariosEmLote();
+            }
+        }
+    }
+
+    /**
+     * Obtém a data de nascimento da linha como dia epoch.
+     *
+     * @param linha a linha do funcionário
+     * @return o dia epoch do nascimento
+     */
+    public int nascimento(int linha) {
+        verificarLinha(linha);
+        return nascimentos[linha];
+    }
+
+    /**
+     * Obtém a data de nascimento da linha empacotada, no formato de
+     * {@link DataUtil#empacotar(int, int, int)}.
+     *
+     * @param linha a linha do funcionário
+     * @return a data de nascimento empacotada
+     */
+    public int nascimentoEmpacotado(int linha) {
+        verificarLinha(linha);
+        return nascimentosEmpacotados[linha];
+    }
+
+    /**
+     * Copia as datas de nascimento empacotadas das linhas 0 até
+     * {@link #limite()} (inclusive as removidas) para o início do
+     * vetor de destino.
+     *
+     * @param destino o vetor de destino, com ao menos {@link #limite()}
+     *     posições
+     */
+    public void copiarNascimentosEmpacotados(int[] destino) {
+        System.arraycopy(nascimentosEmpacotados, 0, destino, 0, limite);
+    }
+
+    /**
+     * Obtém o identificador da função da linha.
+     *
+     * @param linha a linha do funcionário
+     * @return o identificador da função
+     */
+    public int funcaoId(int linha) {
+        verificarLinha(linha);
+        return funcoesIds[linha];
+    }
+
+    /**
+     * Altera a função exercida pelo funcionário da linha.
+     *
+     * @param linha  a linha do funcionário
+     * @param funcao o nome da nova função
+     * @throws IllegalArgumentException se a linha tiver sido removida
+     */
+    public void definirFuncao(int linha, String funcao) {
+        verificarLinhaAtiva(linha);
+        int anterior = funcoesIds[linha];
+        int nova = funcoes.codificar(funcao);
+        funcoesIds[linha] = nova;
+        versao++;
+        for (OuvinteTabela ouvinte : ouvintes) {
+            ouvinte.aoAlterarFuncao(linha, anterior, nova);
+        }
+    }
+
+    /**
+     * Obtém o nome da função da linha.
+     *
+     * @param linha a linha do funcionário
+     * @return o nome da função
+     */
+    public String funcao(int linha) {
+        return funcoes.decodificar(funcaoId(linha));
+    }
+
+    /**
+     * Obtém o nome do funcionário da linha.  Uma nova {@link String} é
+     * criada a partir da área de caracteres a cada chamada.
+     *
+     * @param linha a linha do funcionário
+     * @return o nome
+     */
+    public String nome(int linha) {
+        verificarLinha(linha);
+        return new String(nomes, nomesInicio[linha], nomesTamanho[linha]);
+    }
+
+    /**
+     * Obtém a quantidade de caracteres do nome da linha.
+     *
+     * @param linha a linha do funcionário
+     * @return o tamanho do nome
+     */
+    public int tamanhoNome(int linha) {
+        verificarLinha(linha);
+        return nomesTamanho[linha];
+    }
+
+    /**
+     * Obtém um caractere do nome da linha sem criar uma
+     * {@link String}.
+     *
+     * @param linha  a linha do funcionário
+     * @param indice a posição do caractere no nome
+     * @return o caractere
+     */
+    public char caractereNome(int linha, int indice) {
+        verificarLinha(linha);
+        if (indice < 0 || indice >= nomesTamanho[linha]) {
+            throw new IndexOutOfBoundsException("Posição inválida no nome: " + indice);
+        }
+        return nomes[nomesInicio[linha] + indice];
+    }
+
+    /**
+     * Cria um objeto {@link Funcionario} com os dados da linha.  O
+     * objeto retornado é uma cópia; alterá-lo não modifica a tabela.
+     *
+     * @param linha a linha do funcionário
+     * @return o funcionário materializado
+     */
+    public Funcionario funcionario(int linha) {
+        verificarLinha(linha);
+        return new Funcionario(
+                nome(linha),
+                LocalDate.ofEpochDay(nascimentos[linha]),
+                CentavosUtil.paraValor(salariosCentavos[linha]),
+                funcoes.decodificar(funcoesIds[linha]));
+    }
+
+    /**
+     * Materializa todas as linhas ativas como uma lista de
+     * funcionários, na ordem de inserção.
+     *
+     * @return uma nova lista mutável
+     */
+    public List<Funcionario> paraLista() {
+        List<Funcionario> lista = new ArrayList<>(tamanho());
+        for (int linha = 0; linha < limite; linha++) {
+            if (!removida(linha)) {
+                lista.add(funcionario(linha));
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Materializa todas as linhas ativas como funcionários compactos,
+     * na ordem de inserção.  Os valores são copiados dos vetores sem
+     * criar {@link LocalDate} nem {@link BigDecimal}.
+     *
+     * @return uma nova lista mutável
+     * @see FuncionarioCompacto
+     */
+    public List<Funcionario> paraListaCompacta() {
+        List<Funcionario> lista = new ArrayList<>(tamanho());
+        for (int linha = 0; linha < limite; linha++) {
+            if (!removida(linha)) {
+                lista.add(new FuncionarioCompacto(nome(linha), nascimentos[linha],
+                        salariosCentavos[linha], funcoes.decodificar(funcoesIds[linha])));
+            }
+        }
+        return lista;
+    }
+
+    private void verificarLinha(int linha) {
+        if (linha < 0 || linha >= limite) {
+            throw new IndexOutOfBoundsException("Linha inválida: " + linha);
+        }
+    }
+
+    /**
+     * Recusa alterações em linhas removidas: os índices e agregados já
+     * descontaram a linha, e a lápide só some na compactação.
+     */
+    private void verificarLinhaAtiva(int linha) {
+        verificarLinha(linha);
+        if (removida(linha)) {
+            throw new IllegalArgumentException("Linha removida: " + linha);
+        }
+    }
+
+    private void garantirCapacidade(int minimo) {
+        if (minimo <= salariosCentavos.length) {
+            return;
+        }
+        int nova = Math.max(minimo, salariosCentavos.length + (salariosCentavos.length >> 1));
+        salariosCentavos = Arrays.copyOf(salariosCentavos, nova);
+        nascimentos = Arrays.copyOf(nascimentos, nova);
+        nascimentosEmpacotados = Arrays.copyOf(nascimentosEmpacotados, nova);
+        funcoesIds = Arrays.copyOf(funcoesIds, nova);
+        nomesInicio = Arrays.copyOf(nomesInicio, nova);
+        nomesTamanho = Arrays.copyOf(nomesTamanho, nova);
+        removidas = Arrays.copyOf(removidas, (nova + 63) >>> 6);
+    }
+
+    private void garantirCapacidadeNomes(int minimo) {
+        if (minimo <= nomes.length) {
+            return;
+        }
+        nomes = Arrays.copyOf(nomes, Math.max(minimo, nomes.length + (nomes.length >> 1)));
+    }
+}
@@ -0,0 +1,199 @@
+package repository;
+import model.Funcionario;
+import util.CentavosUtil;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Versão imutável dos funcionários de um {@link FuncionariosVersionados},
+ * como estavam quando uma alteração foi concluída.  A versão é uma
+ * {@link java.util.List} somente de leitura que pode ser percorrida por
+ * várias threads, e pelo tempo que for preciso, enquanto novas
+ * alterações são feitas: elas criam novas versões e nunca modificam
+ * esta.  Os {@link Funcionario} lidos são cópias criadas a cada
+ * leitura; alterá-los não afeta a versão.
+ *
+ * <p>Os funcionários ficam em blocos de até {@value #FUNCIONARIOS_POR_BLOCO}
+ * linhas, com cada atributo em um vetor primitivo.  Versões sucessivas
+ * compartilham os blocos que não foram alterados entre elas, de modo
+ * que obter uma versão não copia nada e uma alteração copia apenas os
+ * blocos que modifica.  Blocos que nenhuma versão alcançável usa são
+ * recolhidos pelo coletor de lixo.
+ */
+public final class VersaoFuncionarios extends AbstractList<Funcionario> implements RandomAccess {
+
+    /** Quantidade máxima de funcionários de um bloco. */
+    public static final int FUNCIONARIOS_POR_BLOCO = 4096;
+
+    static final int BITS_POR_BLOCO = 12;
+
+    private final long numero;
+    private final Bloco[] blocos;
+    private final int[] inicios;
+    private final int tamanho;
+    private final boolean blocosCheios;
+    private final String[] funcoes;
+
+    VersaoFuncionarios(long numero, Bloco[] blocos, String[] funcoes) {
+        this.numero = numero;
+        this.blocos = blocos;
+        this.funcoes = funcoes;
+        this.inicios = new int[blocos.length];
+        int total = 0;
+        boolean cheios = true;
+        for (int b = 0; b < blocos.length; b++) {
+            inicios[b] = total;
+            total += blocos[b].tamanho;
+            cheios &= b == blocos.length - 1 || blocos[b].tamanho == FUNCIONARIOS_POR_BLOCO;
+        }
+        this.tamanho = total;
+        this.blocosCheios = cheios;
+    }
+
+    /**
+     * Obtém o número da versão.  Cada alteração concluída cria uma
+     * versão com o número seguinte.
+     *
+     * @return o número da versão
+     */
+    public long numero() {
+        return numero;
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public Funcionario get(int indice) {
+        Bloco bloco = blocoDe(indice);
+        int posicao = posicaoDe(indice);
+        return new Funcionario(bloco.nomes[posicao],
+                LocalDate.ofEpochDay(bloco.nascimentos[posicao]),
+                CentavosUtil.paraValor(bloco.salarios[posicao]),
+                funcoes[bloco.funcoes[posicao]]);
+    }
+
+    /**
+     * Obtém o nome do funcionário sem criar uma cópia do funcionário.
+     *
+     * @param indice a posição do funcionário
+     * @return o nome
+     */
+    public String nome(int indice) {
+        return blocoDe(indice).nomes[posicaoDe(indice)];
+    }
+
+    /**
+     * Obtém o salário do funcionário em centavos.
+     *
+     * @param indice a posição do funcionário
+     * @return o salário em centavos
+     */
+    public long salarioCentavos(int indice) {
+        return blocoDe(indice).salarios[posicaoDe(indice)];
+    }
+
+    /**
+     * Conta os blocos desta versão que também fazem parte da outra, isto
+     * é, que não foram copiados por nenhuma alteração entre as duas.
+     *
+     * @param outra a outra versão
+     * @return a quantidade de blocos compartilhados
+     */
+    public int blocosEmComum(VersaoFuncionarios outra) {
+        Set<Bloco> daOutra = Collections.newSetFromMap(new IdentityHashMap<>());
+        daOutra.addAll(Arrays.asList(outra.blocos));
+        int comuns = 0;
+        for (Bloco bloco : blocos) {
+            if (daOutra.contains(bloco)) {
+                comuns++;
+            }
+        }
+        return comuns;
+    }
+
+    /**
+     * Obtém a quantidade de blocos da versão.
+     *
+     * @return a quantidade de blocos
+     */
+    public int quantidadeBlocos() {
+        return blocos.length;
+    }
+
+    Bloco[] blocos() {
+        return blocos;
+    }
+
+    String[] funcoes() {
+        return funcoes;
+    }
+
+    private Bloco blocoDe(int indice) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição inválida: " + indice);
+        }
+        return blocos[numeroBloco(indice)];
+    }
+
+    private int posicaoDe(int indice) {
+        return indice - inicios[numeroBloco(indice)];
+    }
+
+    private int numeroBloco(int indice) {
+        if (blocosCheios) {
+            return indice >>> BITS_POR_BLOCO;
+        }
+        int b = Arrays.binarySearch(inicios, indice);
+        if (b >= 0) {
+            // blocos vazios não são publicados, então o início é único
+            return b;
+        }
+        return -b - 2;
+    }
+
+    /**
+     * Trecho de até {@value #FUNCIONARIOS_POR_BLOCO} funcionários
+     * consecutivos, com um vetor por atributo.  Um bloco só é alterado
+     * pela edição que o criou ({@link #dono}); depois que uma versão o
+     * publica, ele nunca mais muda.
+     */
+    static final class Bloco {
+
+        final long dono;
+        final long[] salarios;
+        final int[] nascimentos;
+        final int[] funcoes;
+        final String[] nomes;
+        int tamanho;
+
+        Bloco(long dono) {
+            this.dono = dono;
+            this.salarios = new long[FUNCIONARIOS_POR_BLOCO];
+            this.nascimentos = new int[FUNCIONARIOS_POR_BLOCO];
+            this.funcoes = new int[FUNCIONARIOS_POR_BLOCO];
+            this.nomes = new String[FUNCIONARIOS_POR_BLOCO];
+        }
+
+        /**
+         * Cria uma cópia do bloco pertencente à edição informada.
+         */
+        Bloco copiar(long novoDono) {
+            Bloco copia = new Bloco(novoDono);
+            System.arraycopy(salarios, 0, copia.salarios, 0, tamanho);
+            System.arraycopy(nascimentos, 0, copia.nascimentos, 0, tamanho);
+            System.arraycopy(funcoes, 0, copia.funcoes, 0, tamanho);
+            System.arraycopy(nomes, 0, copia.nomes, 0, tamanho);
+            copia.tamanho = tamanho;
+            return copia;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package service;
+import model.Funcionario;
+import repository.TabelaFuncionarios;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Agrupamento das linhas de uma {@link TabelaFuncionarios} por função.
+ * Como as funções já estão codificadas como inteiros pequenos, o
+ * agrupamento é uma ordenação por contagem feita em paralelo: cada
+ * fatia da tabela conta suas linhas por função, uma soma de prefixos
+ * define a posição de cada fatia dentro de cada grupo e, por fim, as
+ * fatias distribuem suas linhas em um único vetor.  Dentro de cada
+ * grupo as linhas permanecem na ordem de inserção.
+ *
+ * <p>O resultado guarda apenas índices de linha.  A visão
+ * {@link #paraMapa()} é compatível com o {@link Map} retornado por
+ * {@link FuncionarioService#agruparPorFuncao(List)}, mas só cria os
+ * objetos {@link Funcionario} de um grupo quando ele é acessado.  A
+ * visão se refere à tabela no momento do agrupamento; se a tabela for
+ * alterada depois, acessar um grupo ainda não materializado lança
+ * {@link ConcurrentModificationException}.
+ */
+public class AgrupamentoPorFuncao {
+
+    /** Quantidade de linhas abaixo da qual o agrupamento é sequencial. */
+    private static final int LIMIAR_PARALELO = 64 * 1024;
+
+    private final TabelaFuncionarios tabela;
+    private final long versao;
+    private final int[] inicios;
+    private final int[] linhas;
+
+    private AgrupamentoPorFuncao(TabelaFuncionarios tabela, int[] inicios, int[] linhas) {
+        this.tabela = tabela;
+        this.versao = tabela.versao();
+        this.inicios = inicios;
+        this.linhas = linhas;
+    }
+
+    /**
+     * Agrupa as linhas ativas da tabela por função.
+     *
+     * @param tabela a tabela a agrupar
+     * @return o agrupamento
+     */
+    public static AgrupamentoPorFuncao calcular(TabelaFuncionarios tabela) {
+        int limite = tabela.limite();
+        int quantidadeFuncoes = tabela.funcoes().tamanho();
+        int fatias = limite < LIMIAR_PARALELO ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = Math.max(1, (limite + fatias - 1) / fatias);
+
+        // 1. contagem por fatia e função
+        int[][] contagens = new int[fatias][];
+        paralelo(fatias, fatia -> {
+            int[] contagem = new int[quantidadeFuncoes];
+            int fim = Math.min(limite, (fatia + 1) * tamanhoFatia);
+            for (int linha = fatia * tamanhoFatia; linha < fim; linha++) {
+                if (!tabela.removida(linha)) {
+                    contagem[tabela.funcaoId(linha)]++;
+                }
+            }
+            contagens[fatia] = contagem;
+        });
+
+        // 2. soma de prefixos: grupo a grupo, fatia a fatia
+        int[] inicios = new int[quantidadeFuncoes + 1];
+        int[][] posicoes = new int[fatias][quantidadeFuncoes];
+        int proxima = 0;
+        for (int id = 0; id < quantidadeFuncoes; id++) {
+            inicios[id] = proxima;
+            for (int fatia = 0; fatia < fatias; fatia++) {
+                posicoes[fatia][id] = proxima;
+                proxima += contagens[fatia][id];
+            }
+        }
+        inicios[quantidadeFuncoes] = proxima;
+
+        // 3. distribuição das linhas
+        int[] linhas = new int[proxima];
+        paralelo(fatias, fatia -> {
+            int[] posicao = posicoes[fatia];
+            int fim = Math.min(limite, (fatia + 1) * tamanhoFatia);
+            for (int linha = fatia * tamanhoFatia; linha < fim; linha++) {
+                if (!tabela.removida(linha)) {
+                    linhas[posicao[tabela.funcaoId(linha)]++] = linha;
+                }
+            }
+        });
+        return new AgrupamentoPorFuncao(tabela, inicios, linhas);
+    }
+
+    private static void paralelo(int fatias, IntConsumer tarefa) {
+        if (fatias == 1) {
+            tarefa.accept(0);
+        } else {
+            IntStream.range(0, fatias).parallel().forEach(tarefa);
+        }
+    }
+
+    /**
+     * Obtém a quantidade de funcionários de uma função.
+     *
+     * @param funcaoId o identificador da função
+     * @return o tamanho do grupo
+     */
+    public int tamanhoGrupo(int funcaoId) {
+        return inicios[funcaoId + 1] - inicios[funcaoId];
+    }
+
+    /**
+     * Obtém a linha de um funcionário do grupo.
+     *
+     * @param funcaoId o identificador da função
+     * @param posicao  a posição dentro do grupo, a partir de zero
+     * @return a linha na tabela
+     */
+    public int linha(int funcaoId, int posicao) {
+        if (posicao < 0 || posicao >= tamanhoGrupo(funcaoId)) {
+            throw new IndexOutOfBoundsException("Posição inválida no grupo: " + posicao);
+        }
+        return linhas[inicios[funcaoId] + posicao];
+    }
+
+    /**
+     * Obtém uma visão do agrupamento como mapa da função para a lista
+     * de funcionários.  Funções sem funcionários ativos não aparecem.
+     * O mapa não pode ser modificado.
+     *
+     * @return a visão em forma de mapa
+     */
+    public Map<String, List<Funcionario>> paraMapa() {
+        return new Visao();
+    }
+
+    /**
+     * Entrada do mapa cujo valor só é materializado quando lido.
+     */
+    private final class Grupo implements Map.Entry<String, List<Funcionario>> {
+
+        private final int id;
+        private final Visao visao;
+
+        Grupo(Visao visao, int id) {
+            this.visao = visao;
+            this.id = id;
+        }
+
+        @Override
+        public String getKey() {
+            return tabela.funcoes().decodificar(id);
+        }
+
+        @Override
+        public List<Funcionario> getValue() {
+            return visao.grupo(id);
+        }
+
+        @Override
+        public List<Funcionario> setValue(List<Funcionario> valor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof Map.Entry<?, ?> entrada
+                    && getKey().equals(entrada.getKey())
+                    && getValue().equals(entrada.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+    }
+
+    /**
+     * Mapa somente leitura cujos grupos são materializados na primeira
+     * vez em que são acessados.
+     */
+    private final class Visao extends AbstractMap<String, List<Funcionario>> {
+
+        private final List<?>[] grupos = new List<?>[inicios.length - 1];
+
+        @SuppressWarnings("unchecked")
+        private List<Funcionario> grupo(int id) {
+            if (grupos[id] == null) {
+                if (tabela.versao() != versao) {
+                    throw new ConcurrentModificationException("A tabela foi alterada após o agrupamento");
+                }
+                Funcionario[] funcionarios = new Funcionario[tamanhoGrupo(id)];
+                for (int i = 0; i < funcionarios.length; i++) {
+                    funcionarios[i] = tabela.funcionario(linhas[inicios[id] + i]);
+                }
+                grupos[id] = List.of(funcionarios);
+            }
+            return (List<Funcionario>) grupos[id];
+        }
+
+        @Override
+        public List<Funcionario> get(Object chave) {
+            int id = chave instanceof String ? tabela.funcoes().procurar((String) chave) : -1;
+            return id < 0 || id >= grupos.length || tamanhoGrupo(id) == 0 ? null : grupo(id);
+        }
+
+        @Override
+        public boolean containsKey(Object chave) {
+            int id = chave instanceof String ? tabela.funcoes().procurar((String) chave) : -1;
+            return id >= 0 && id < grupos.length && tamanhoGrupo(id) > 0;
+        }
+
+        @Override
+        public Set<Entry<String, List<Funcionario>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, List<Funcionario>>> iterator() {
+                    return new Iterator<>() {
+                        private int proximo = avancar(0);
+
+                        private int avancar(int id) {
+                            while (id < grupos.length && tamanhoGrupo(id) == 0) {
+                                id++;
+                            }
+                            return id;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return proximo < grupos.length;
+                        }
+
+                        @Override
+                        public Entry<String, List<Funcionario>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int id = proximo;
+                            proximo = avancar(id + 1);
+                            return new Grupo(Visao.this, id);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int quantidade = 0;
+                    for (int id = 0; id < grupos.length; id++) {
+                        if (tamanhoGrupo(id) > 0) {
+                            quantidade++;
+                        }
+                    }
+                    return quantidade;
+                }
+            };
+        }
+    }
+}
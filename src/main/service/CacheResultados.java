@@ -0,0 +1,227 @@
+package service;
+import metricas.Operacao;
+import repository.TabelaFuncionarios;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache de resultados das consultas de {@link FuncionarioService} sobre
+ * uma {@link TabelaFuncionarios}.  Cada resultado é guardado junto com
+ * a {@link TabelaFuncionarios#versao() versão} da tabela em que foi
+ * calculado e só é devolvido enquanto a tabela continuar nessa versão:
+ * qualquer alteração o invalida, sem que a tabela precise avisar o
+ * cache.  Consultas repetidas entre duas alterações custam uma busca
+ * em um mapa.
+ *
+ * <p>A chave é a operação, a tabela (por identidade) e os argumentos;
+ * há no máximo uma entrada por chave, e um resultado de versão antiga
+ * é substituído pelo da versão atual.  O cache é limitado pela
+ * quantidade de entradas e pela soma dos pesos (aproximadamente a
+ * quantidade de funcionários que cada resultado referencia); ao
+ * ultrapassar um dos limites, descarta as entradas usadas há mais
+ * tempo.  Resultados mais pesados que o limite não são guardados.
+ *
+ * <p>Pode ser usado por várias threads.  O cálculo de um resultado
+ * ausente é feito fora da trava do cache, de modo que duas threads
+ * podem calcular o mesmo resultado ao mesmo tempo; só o primeiro é
+ * guardado.  Como o cache mantém as tabelas de suas entradas
+ * alcançáveis, use {@link #limpar()} ao descartar uma tabela.
+ */
+public final class CacheResultados {
+
+    private final int maximoEntradas;
+    private final long pesoMaximo;
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long pesoTotal;
+    private long acertos;
+    private long faltas;
+    private long descartes;
+
+    /**
+     * Cria um cache vazio com os limites informados.
+     *
+     * @param maximoEntradas a quantidade máxima de resultados guardados
+     * @param pesoMaximo     a soma máxima dos pesos dos resultados
+     */
+    public CacheResultados(int maximoEntradas, long pesoMaximo) {
+        if (maximoEntradas < 1) {
+            throw new IllegalArgumentException("Quantidade máxima de entradas deve ser positiva");
+        }
+        if (pesoMaximo < 1) {
+            throw new IllegalArgumentException("Peso máximo deve ser positivo");
+        }
+        this.maximoEntradas = maximoEntradas;
+        this.pesoMaximo = pesoMaximo;
+    }
+
+    /**
+     * Obtém o resultado da operação sobre a versão atual da tabela,
+     * calculando-o e guardando-o se ele não estiver no cache.
+     *
+     * @param operacao   a operação
+     * @param tabela     a tabela consultada
+     * @param argumentos os argumentos da operação, comparados por
+     *     {@code equals}, ou {@code null}
+     * @param calcular   calcula o resultado
+     * @param peso       o peso de um resultado
+     * @param <T>        o tipo do resultado
+     * @return o resultado guardado ou o recém-calculado
+     */
+    @SuppressWarnings("unchecked")
+    <T> T obter(Operacao operacao, TabelaFuncionarios tabela, Object argumentos,
+                Supplier<T> calcular, ToLongFunction<? super T> peso) {
+        Chave chave = new Chave(operacao, tabela, argumentos);
+        long versao = tabela.versao();
+        synchronized (this) {
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null && entrada.versao == versao) {
+                acertos++;
+                return (T) entrada.resultado;
+            }
+            faltas++;
+        }
+        T resultado = calcular.get();
+        long pesoResultado = Math.max(1, peso.applyAsLong(resultado));
+        if (pesoResultado <= pesoMaximo && tabela.versao() == versao) {
+            guardar(chave, new Entrada(versao, resultado, pesoResultado));
+        }
+        return resultado;
+    }
+
+    private synchronized void guardar(Chave chave, Entrada nova) {
+        Entrada anterior = entradas.get(chave);
+        if (anterior != null) {
+            if (anterior.versao >= nova.versao) {
+                return;
+            }
+            pesoTotal -= anterior.peso;
+        }
+        entradas.put(chave, nova);
+        pesoTotal += nova.peso;
+        // a entrada nova é a última na ordem de acesso e nunca é descartada aqui
+        Iterator<Map.Entry<Chave, Entrada>> antigas = entradas.entrySet().iterator();
+        while (entradas.size() > maximoEntradas || pesoTotal > pesoMaximo) {
+            pesoTotal -= antigas.next().getValue().peso;
+            antigas.remove();
+            descartes++;
+        }
+    }
+
+    /**
+     * Remove todas as entradas.  As estatísticas são mantidas.
+     */
+    public synchronized void limpar() {
+        entradas.clear();
+        pesoTotal = 0;
+    }
+
+    /**
+     * Obtém a quantidade de consultas atendidas pelo cache.
+     *
+     * @return os acertos
+     */
+    public synchronized long acertos() {
+        return acertos;
+    }
+
+    /**
+     * Obtém a quantidade de consultas que precisaram calcular o
+     * resultado, por ele não estar no cache ou ser de outra versão.
+     *
+     * @return as faltas
+     */
+    public synchronized long faltas() {
+        return faltas;
+    }
+
+    /**
+     * Obtém a quantidade de entradas descartadas para respeitar os
+     * limites do cache.
+     *
+     * @return os descartes
+     */
+    public synchronized long descartes() {
+        return descartes;
+    }
+
+    /**
+     * Obtém a fração das consultas atendidas pelo cache.
+     *
+     * @return a taxa de acertos, de 0 a 1, ou 0 se não houve consultas
+     */
+    public synchronized double taxaAcertos() {
+        long consultas = acertos + faltas;
+        return consultas == 0 ? 0 : (double) acertos / consultas;
+    }
+
+    /**
+     * Obtém a quantidade de resultados guardados.
+     *
+     * @return as entradas
+     */
+    public synchronized int entradas() {
+        return entradas.size();
+    }
+
+    /**
+     * Obtém a soma dos pesos dos resultados guardados.
+     *
+     * @return o peso total
+     */
+    public synchronized long pesoTotal() {
+        return pesoTotal;
+    }
+
+    /**
+     * Operação, tabela e argumentos de uma consulta.  A tabela é
+     * comparada por identidade.
+     */
+    private static final class Chave {
+
+        private final Operacao operacao;
+        private final TabelaFuncionarios tabela;
+        private final Object argumentos;
+
+        Chave(Operacao operacao, TabelaFuncionarios tabela, Object argumentos) {
+            this.operacao = operacao;
+            this.tabela = tabela;
+            this.argumentos = argumentos;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return operacao == outra.operacao && tabela == outra.tabela
+                    && Objects.equals(argumentos, outra.argumentos);
+        }
+
+        @Override
+        public int hashCode() {
+            return (operacao.hashCode() * 31 + System.identityHashCode(tabela)) * 31 + Objects.hashCode(argumentos);
+        }
+    }
+
+    /**
+     * Resultado guardado, com a versão da tabela em que foi calculado.
+     */
+    private static final class Entrada {
+
+        final long versao;
+        final Object resultado;
+        final long peso;
+
+        Entrada(long versao, Object resultado, long peso) {
+            this.versao = versao;
+            this.resultado = resultado;
+            this.peso = peso;
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package service;
+import util.CentavosUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * Distribuição dos salários de um conjunto de funcionários, acumulada
+ * em uma única passagem: quantidade, menor e maior salário, média,
+ * variância, histograma com faixas fixas e quantis aproximados.  Duas
+ * distribuições com os mesmos parâmetros podem ser combinadas, de modo
+ * que partes dos dados podem ser acumuladas em threads, arquivos ou
+ * processos diferentes e reunidas no final; o resultado é o mesmo de
+ * acumular tudo em uma só distribuição.
+ *
+ * <p>Os quantis vêm de contagens em faixas log-lineares de centavos: para
+ * {@code e > b}, os valores de {@code 2^e} a {@code 2^(e+1) - 1} são
+ * divididos em {@code 2^b} faixas de mesma largura, e valores menores
+ * que {@code 2^(b+1)} centavos têm uma faixa cada.  O quantil devolvido é o
+ * centro da faixa do valor exato, e por isso difere dele em no máximo
+ * {@link #erroRelativo()} {@code = 2^-(b+1)} do valor exato, qualquer
+ * que seja a quantidade de salários: as contagens são exatas e a
+ * combinação apenas as soma.  O valor exato é o de posição
+ * {@code ceil(q * n)} (a partir de 1) entre os {@code n} salários em
+ * ordem crescente.  Quantidade, extremos, soma, média e histograma
+ * são exatos (uma soma que não caiba em um {@code long} é recusada com
+ * {@link ArithmeticException}); a variância é calculada em ponto flutuante sobre os desvios
+ * em relação ao primeiro salário acumulado, o que evita o cancelamento
+ * da fórmula ingênua.
+ *
+ * <p>Não pode ser usada por várias threads ao mesmo tempo sem
+ * sincronização externa: cada thread deve acumular a sua e combiná-las
+ * depois.
+ */
+public final class DistribuicaoSalarial {
+
+    /** Erro relativo máximo dos quantis usado quando nenhum é informado. */
+    public static final double ERRO_RELATIVO_PADRAO = 0.005;
+
+    private static final int VERSAO_FORMATO = 1;
+    private static final int BITS_MAXIMOS = 20;
+
+    private final int bits;
+    private final long[] limites;
+    private final long[] histograma;
+    private long[] contagens = new long[0];
+    private long[] contagensNegativas;
+    private long quantidade;
+    private long minimo = Long.MAX_VALUE;
+    private long maximo = Long.MIN_VALUE;
+    private long soma;
+    private long referencia;
+    private double somaQuadrados;
+
+    /**
+     * Cria uma distribuição vazia.
+     *
+     * @param erroRelativo       o erro relativo máximo aceito nos quantis,
+     *     entre 0 e 1 (exclusive); o erro efetivo é a maior potência de
+     *     dois que não o ultrapassa
+     * @param limitesHistograma os limites entre as faixas do histograma,
+     *     em ordem crescente e com no máximo duas casas decimais; a
+     *     faixa {@code i} vai do limite {@code i - 1} (inclusive) ao
+     *     limite {@code i} (exclusive), e as faixas das pontas não têm
+     *     limite
+     */
+    public DistribuicaoSalarial(double erroRelativo, BigDecimal... limitesHistograma) {
+        this(bitsPara(erroRelativo), paraCentavos(limitesHistograma));
+    }
+
+    private DistribuicaoSalarial(int bits, long[] limites) {
+        this.bits = bits;
+        this.limites = limites;
+        this.histograma = new long[limites.length + 1];
+    }
+
+    /**
+     * Cria uma distribuição vazia com os mesmos parâmetros desta.
+     *
+     * @return a nova distribuição
+     */
+    public DistribuicaoSalarial vazia() {
+        return new DistribuicaoSalarial(bits, limites);
+    }
+
+    private static int bitsPara(double erroRelativo) {
+        if (!(erroRelativo > 0 && erroRelativo < 1)) {
+            throw new IllegalArgumentException("Erro relativo deve estar entre 0 e 1: " + erroRelativo);
+        }
+        int bits = 0;
+        while (bits < BITS_MAXIMOS && Math.scalb(1.0, -(bits + 1)) > erroRelativo) {
+            bits++;
+        }
+        return bits;
+    }
+
+    private static long[] paraCentavos(BigDecimal[] limitesHistograma) {
+        long[] limites = new long[limitesHistograma.length];
+        for (int i = 0; i < limites.length; i++) {
+            limites[i] = CentavosUtil.paraCentavos(limitesHistograma[i]);
+            if (i > 0 && limites[i] <= limites[i - 1]) {
+                throw new IllegalArgumentException("Limites do histograma devem ser crescentes");
+            }
+        }
+        return limites;
+    }
+
+    /**
+     * Acumula um salário.
+     *
+     * @param centavos o salário em centavos
+     * @throws ArithmeticException se a soma dos salários deixar de
+     *     caber em um {@code long}; a distribuição não é alterada
+     */
+    public void registrar(long centavos) {
+        long novaSoma = Math.addExact(soma, centavos);
+        if (quantidade == 0) {
+            referencia = centavos;
+        }
+        quantidade++;
+        minimo = Math.min(minimo, centavos);
+        maximo = Math.max(maximo, centavos);
+        soma = novaSoma;
+        double desvio = centavos - referencia;
+        somaQuadrados += desvio * desvio;
+        histograma[faixaHistograma(centavos)]++;
+        if (centavos >= 0) {
+            contagens = contar(contagens, indice(centavos));
+        } else {
+            contagensNegativas = contar(contagensNegativas == null ? new long[0] : contagensNegativas,
+                    indice(centavos == Long.MIN_VALUE ? Long.MAX_VALUE : -centavos));
+        }
+    }
+
+    private static long[] contar(long[] contagens, int indice) {
+        if (indice >= contagens.length) {
+            contagens = Arrays.copyOf(contagens, Math.max(indice + 1, contagens.length + (contagens.length >> 1)));
+        }
+        contagens[indice]++;
+        return contagens;
+    }
+
+    private int faixaHistograma(long centavos) {
+        int faixa = Arrays.binarySearch(limites, centavos);
+        return faixa >= 0 ? faixa + 1 : -faixa - 1;
+    }
+
+    /**
+     * Calcula a faixa log-linear de um valor não negativo.
+     */
+    private int indice(long valor) {
+        int deslocamento = Math.max(0, 63 - Long.numberOfLeadingZeros(valor) - bits);
+        return (int) (valor >>> deslocamento) + (deslocamento << bits);
+    }
+
+    /**
+     * Calcula o centro da faixa log-linear, o inverso aproximado de
+     * {@link #indice(long)}.
+     */
+    private long centro(int indice) {
+        if (indice < 2 << bits) {
+            return indice;
+        }
+        int deslocamento = (indice >>> bits) - 1;
+        long inicio = (long) (indice - (deslocamento << bits)) << deslocamento;
+        return inicio + (1L << (deslocamento - 1));
+    }
+
+    /**
+     * Acrescenta a esta distribuição os salários de outra, criada com os
+     * mesmos parâmetros.  A outra distribuição não é alterada.
+     *
+     * @param outra a distribuição a combinar
+     * @throws IllegalArgumentException se os parâmetros forem diferentes
+     * @throws ArithmeticException      se a soma dos salários deixar de
+     *     caber em um {@code long}; esta distribuição não é alterada
+     */
+    public void combinar(DistribuicaoSalarial outra) {
+        if (outra.bits != bits || !Arrays.equals(outra.limites, limites)) {
+            throw new IllegalArgumentException("Distribuições com parâmetros diferentes não podem ser combinadas");
+        }
+        if (outra.quantidade == 0) {
+            return;
+        }
+        long novaSoma = Math.addExact(soma, outra.soma);
+        if (quantidade == 0) {
+            referencia = outra.referencia;
+        }
+        // desvios da outra passam a ser medidos a partir da referência desta
+        double diferenca = (double) outra.referencia - referencia;
+        double somaDesviosOutra = (double) outra.soma - (double) outra.quantidade * outra.referencia;
+        somaQuadrados += outra.somaQuadrados + 2 * diferenca * somaDesviosOutra
+                + outra.quantidade * diferenca * diferenca;
+        quantidade += outra.quantidade;
+        minimo = Math.min(minimo, outra.minimo);
+        maximo = Math.max(maximo, outra.maximo);
+        soma = novaSoma;
+        for (int i = 0; i < histograma.length; i++) {
+            histograma[i] += outra.histograma[i];
+        }
+        contagens = somar(contagens, outra.contagens);
+        if (outra.contagensNegativas != null) {
+            contagensNegativas = somar(contagensNegativas == null ? new long[0] : contagensNegativas,
+                    outra.contagensNegativas);
+        }
+    }
+
+    private static long[] somar(long[] destino, long[] origem) {
+        if (origem.length > destino.length) {
+            destino = Arrays.copyOf(destino, origem.length);
+        }
+        for (int i = 0; i < origem.length; i++) {
+            destino[i] += origem[i];
+        }
+        return destino;
+    }
+
+    /**
+     * Obtém a quantidade de salários acumulados.
+     *
+     * @return a quantidade
+     */
+    public long quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Obtém o erro relativo máximo dos quantis, {@code 2^-(b+1)}.
+     *
+     * @return o erro relativo
+     */
+    public double erroRelativo() {
+        return Math.scalb(1.0, -(bits + 1));
+    }
+
+    /**
+     * Obtém o menor salário.
+     *
+     * @return o menor salário, ou vazio se não houver salários
+     */
+    public Optional<BigDecimal> minimo() {
+        return quantidade == 0 ? Optional.empty() : Optional.of(CentavosUtil.paraValor(minimo));
+    }
+
+    /**
+     * Obtém o maior salário.
+     *
+     * @return o maior salário, ou vazio se não houver salários
+     */
+    public Optional<BigDecimal> maximo() {
+        return quantidade == 0 ? Optional.empty() : Optional.of(CentavosUtil.paraValor(maximo));
+    }
+
+    /**
+     * Obtém a soma exata dos salários.
+     *
+     * @return a soma, com duas casas decimais
+     */
+    public BigDecimal soma() {
+        return CentavosUtil.paraValor(soma);
+    }
+
+    /**
+     * Obtém a média dos salários, arredondada para centavos com
+     * {@link RoundingMode#HALF_UP}.
+     *
+     * @return a média, ou vazio se não houver salários
+     */
+    public Optional<BigDecimal> media() {
+        return quantidade == 0 ? Optional.empty()
+                : Optional.of(soma().divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Obtém a variância populacional dos salários, em reais ao
+     * quadrado.
+     *
+     * @return a variância, ou vazio se não houver salários
+     */
+    public OptionalDouble variancia() {
+        if (quantidade == 0) {
+            return OptionalDouble.empty();
+        }
+        double mediaDesvios = ((double) soma - (double) quantidade * referencia) / quantidade;
+        double variancia = somaQuadrados / quantidade - mediaDesvios * mediaDesvios;
+        return OptionalDouble.of(Math.max(0, variancia) / 10_000);
+    }
+
+    /**
+     * Obtém o desvio padrão populacional dos salários, em reais.
+     *
+     * @return o desvio padrão, ou vazio se não houver salários
+     */
+    public OptionalDouble desvioPadrao() {
+        OptionalDouble variancia = variancia();
+        return variancia.isPresent() ? OptionalDouble.of(Math.sqrt(variancia.getAsDouble())) : variancia;
+    }
+
+    /**
+     * Obtém o quantil aproximado dos salários.  O primeiro e o último
+     * salário (quantis 0 e 1) são exatos; os demais diferem do exato em
+     * no máximo {@link #erroRelativo()} dele.
+     *
+     * @param q o quantil, de 0 a 1 (0,5 para a mediana)
+     * @return o quantil, ou vazio se não houver salários
+     */
+    public Optional<BigDecimal> quantil(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantil deve estar entre 0 e 1: " + q);
+        }
+        if (quantidade == 0) {
+            return Optional.empty();
+        }
+        long posicao = Math.max(1, (long) Math.ceil(q * quantidade));
+        if (posicao == 1) {
+            return minimo();
+        }
+        if (posicao >= quantidade) {
+            return maximo();
+        }
+        long vistos = 0;
+        if (contagensNegativas != null) {
+            for (int i = contagensNegativas.length - 1; i >= 0; i--) {
+                vistos += contagensNegativas[i];
+                if (vistos >= posicao) {
+                    return Optional.of(limitar(-centro(i)));
+                }
+            }
+        }
+        for (int i = 0; i < contagens.length; i++) {
+            vistos += contagens[i];
+            if (vistos >= posicao) {
+                return Optional.of(limitar(centro(i)));
+            }
+        }
+        return maximo();
+    }
+
+    private BigDecimal limitar(long centavos) {
+        return CentavosUtil.paraValor(Math.max(minimo, Math.min(maximo, centavos)));
+    }
+
+    /**
+     * Obtém a mediana aproximada dos salários.
+     *
+     * @return a mediana, ou vazio se não houver salários
+     * @see #quantil(double)
+     */
+    public Optional<BigDecimal> mediana() {
+        return quantil(0.5);
+    }
+
+    /**
+     * Obtém os limites entre as faixas do histograma.
+     *
+     * @return uma cópia dos limites
+     */
+    public BigDecimal[] limitesHistograma() {
+        BigDecimal[] valores = new BigDecimal[limites.length];
+        for (int i = 0; i < limites.length; i++) {
+            valores[i] = CentavosUtil.paraValor(limites[i]);
+        }
+        return valores;
+    }
+
+    /**
+     * Obtém a quantidade de salários de cada faixa do histograma, com
+     * uma faixa a mais que a quantidade de limites.
+     *
+     * @return uma cópia das contagens
+     */
+    public long[] histograma() {
+        return histograma.clone();
+    }
+
+    /**
+     * Grava a distribuição em formato binário, para que seja lida e
+     * combinada em outro processo.
+     *
+     * @param saida o destino
+     * @throws IOException se a gravação falhar
+     */
+    public void gravar(DataOutput saida) throws IOException {
+        saida.writeInt(VERSAO_FORMATO);
+        saida.writeInt(bits);
+        saida.writeInt(limites.length);
+        for (long limite : limites) {
+            saida.writeLong(limite);
+        }
+        saida.writeLong(quantidade);
+        saida.writeLong(minimo);
+        saida.writeLong(maximo);
+        saida.writeLong(soma);
+        saida.writeLong(referencia);
+        saida.writeDouble(somaQuadrados);
+        for (long contagem : histograma) {
+            saida.writeLong(contagem);
+        }
+        gravarContagens(saida, contagens);
+        gravarContagens(saida, contagensNegativas == null ? new long[0] : contagensNegativas);
+    }
+
+    private static void gravarContagens(DataOutput saida, long[] contagens) throws IOException {
+        int ocupadas = 0;
+        for (long contagem : contagens) {
+            ocupadas += contagem != 0 ? 1 : 0;
+        }
+        saida.writeInt(ocupadas);
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] != 0) {
+                saida.writeInt(i);
+                saida.writeLong(contagens[i]);
+            }
+        }
+    }
+
+    /**
+     * Lê uma distribuição gravada por {@link #gravar(DataOutput)}.
+     *
+     * @param entrada a origem
+     * @return a distribuição lida
+     * @throws IOException se a leitura falhar ou o formato for inválido
+     */
+    public static DistribuicaoSalarial ler(DataInput entrada) throws IOException {
+        int versao = entrada.readInt();
+        if (versao != VERSAO_FORMATO) {
+            throw new IOException("Versão de formato desconhecida: " + versao);
+        }
+        int bits = entrada.readInt();
+        int quantidadeLimites = entrada.readInt();
+        if (bits < 0 || bits > BITS_MAXIMOS || quantidadeLimites < 0) {
+            throw new IOException("Distribuição inválida");
+        }
+        long[] limites = new long[quantidadeLimites];
+        for (int i = 0; i < limites.length; i++) {
+            limites[i] = entrada.readLong();
+        }
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(bits, limites);
+        distribuicao.quantidade = entrada.readLong();
+        distribuicao.minimo = entrada.readLong();
+        distribuicao.maximo = entrada.readLong();
+        distribuicao.soma = entrada.readLong();
+        distribuicao.referencia = entrada.readLong();
+        distribuicao.somaQuadrados = entrada.readDouble();
+        for (int i = 0; i < distribuicao.histograma.length; i++) {
+            distribuicao.histograma[i] = entrada.readLong();
+        }
+        int maiorIndice = distribuicao.indice(Long.MAX_VALUE);
+        distribuicao.contagens = lerContagens(entrada, maiorIndice);
+        long[] negativas = lerContagens(entrada, maiorIndice);
+        distribuicao.contagensNegativas = negativas.length == 0 ? null : negativas;
+        return distribuicao;
+    }
+
+    /**
+     * Lê as contagens das faixas ocupadas.  Faixas além da do maior
+     * valor possível são recusadas, o que também limita o vetor criado
+     * a partir de um arquivo corrompido.
+     */
+    private static long[] lerContagens(DataInput entrada, int maiorIndice) throws IOException {
+        int ocupadas = entrada.readInt();
+        long[] contagens = new long[0];
+        for (int i = 0; i < ocupadas; i++) {
+            int indice = entrada.readInt();
+            if (indice < 0 || indice > maiorIndice) {
+                throw new IOException("Faixa inválida: " + indice);
+            }
+            if (indice >= contagens.length) {
+                contagens = Arrays.copyOf(contagens,
+                        Math.min(Math.max(indice + 1, contagens.length * 2), maiorIndice + 1));
+            }
+            contagens[indice] = entrada.readLong();
+        }
+        return contagens;
+    }
+}
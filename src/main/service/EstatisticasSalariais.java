@@ -0,0 +1,241 @@
+package service;
+import model.Funcionario;
+import model.FuncionarioCompacto;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Estatísticas dos salários de um conjunto de funcionários, no total e
+ * por função, cada uma em uma {@link DistribuicaoSalarial}.  O cálculo
+ * percorre os funcionários uma única vez: conjuntos grandes são
+ * divididos em fatias acumuladas em paralelo, e as distribuições das
+ * fatias são combinadas no final.
+ *
+ * <p>Os resultados também podem ser montados aos poucos, com
+ * {@link #registrar(String, long)}, e combinados com
+ * {@link #combinar(EstatisticasSalariais)}: estatísticas de partes dos
+ * dados, calculadas em threads, arquivos ou processos diferentes e
+ * transferidas com {@link #gravar(DataOutput)} e
+ * {@link #ler(DataInput)}, resultam nas mesmas estatísticas do
+ * conjunto inteiro.
+ */
+public final class EstatisticasSalariais {
+
+    /** Quantidade de funcionários abaixo da qual o cálculo é sequencial. */
+    private static final int LIMIAR_PARALELO = 64 * 1024;
+
+    private final DistribuicaoSalarial geral;
+    private final Map<String, DistribuicaoSalarial> porFuncao = new LinkedHashMap<>();
+
+    /**
+     * Cria estatísticas vazias.
+     *
+     * @param erroRelativo       o erro relativo máximo dos quantis
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @see DistribuicaoSalarial#DistribuicaoSalarial(double, BigDecimal...)
+     */
+    public EstatisticasSalariais(double erroRelativo, BigDecimal... limitesHistograma) {
+        this(new DistribuicaoSalarial(erroRelativo, limitesHistograma));
+    }
+
+    private EstatisticasSalariais(DistribuicaoSalarial geral) {
+        this.geral = geral;
+    }
+
+    /**
+     * Calcula as estatísticas dos funcionários ativos da tabela, lendo
+     * os salários em centavos diretamente das colunas.
+     *
+     * @param tabela             a tabela de funcionários
+     * @param erroRelativo       o erro relativo máximo dos quantis
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     */
+    public static EstatisticasSalariais calcular(TabelaFuncionarios tabela, double erroRelativo,
+                                                 BigDecimal... limitesHistograma) {
+        EstatisticasSalariais estatisticas = new EstatisticasSalariais(erroRelativo, limitesHistograma);
+        int limite = tabela.limite();
+        int quantidadeFuncoes = tabela.funcoes().tamanho();
+        int fatias = limite < LIMIAR_PARALELO ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = Math.max(1, (limite + fatias - 1) / fatias);
+
+        DistribuicaoSalarial[][] parciais = new DistribuicaoSalarial[fatias][];
+        paralelo(fatias, fatia -> {
+            DistribuicaoSalarial[] distribuicoes = new DistribuicaoSalarial[quantidadeFuncoes];
+            int fim = Math.min(limite, (fatia + 1) * tamanhoFatia);
+            for (int linha = fatia * tamanhoFatia; linha < fim; linha++) {
+                if (!tabela.removida(linha)) {
+                    int id = tabela.funcaoId(linha);
+                    if (distribuicoes[id] == null) {
+                        distribuicoes[id] = estatisticas.geral.vazia();
+                    }
+                    distribuicoes[id].registrar(tabela.salarioCentavos(linha));
+                }
+            }
+            parciais[fatia] = distribuicoes;
+        });
+
+        for (int id = 0; id < quantidadeFuncoes; id++) {
+            for (DistribuicaoSalarial[] distribuicoes : parciais) {
+                if (distribuicoes[id] != null) {
+                    estatisticas.funcao(tabela.funcoes().decodificar(id)).combinar(distribuicoes[id]);
+                }
+            }
+        }
+        estatisticas.combinarFuncoesNoGeral();
+        return estatisticas;
+    }
+
+    /**
+     * Calcula as estatísticas dos funcionários da lista.  Os salários
+     * de {@link FuncionarioCompacto} são lidos em centavos; os demais
+     * são convertidos.
+     *
+     * @param funcionarios       os funcionários
+     * @param erroRelativo       o erro relativo máximo dos quantis
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     * @throws IllegalArgumentException se algum salário tiver mais de
+     *     duas casas decimais
+     */
+    public static EstatisticasSalariais calcular(List<Funcionario> funcionarios, double erroRelativo,
+                                                 BigDecimal... limitesHistograma) {
+        Funcionario[] origem = funcionarios.toArray(new Funcionario[0]);
+        DistribuicaoSalarial modelo = new DistribuicaoSalarial(erroRelativo, limitesHistograma);
+        int fatias = origem.length < LIMIAR_PARALELO ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int tamanhoFatia = Math.max(1, (origem.length + fatias - 1) / fatias);
+
+        EstatisticasSalariais[] parciais = new EstatisticasSalariais[fatias];
+        paralelo(fatias, fatia -> {
+            EstatisticasSalariais parcial = new EstatisticasSalariais(modelo.vazia());
+            int fim = Math.min(origem.length, (fatia + 1) * tamanhoFatia);
+            for (int i = fatia * tamanhoFatia; i < fim; i++) {
+                Funcionario f = origem[i];
+                long centavos = f instanceof FuncionarioCompacto compacto
+                        ? compacto.getSalarioCentavos() : CentavosUtil.paraCentavos(f.getSalario());
+                parcial.funcao(f.getFuncao()).registrar(centavos);
+            }
+            parciais[fatia] = parcial;
+        });
+
+        EstatisticasSalariais estatisticas = new EstatisticasSalariais(modelo);
+        for (EstatisticasSalariais parcial : parciais) {
+            parcial.porFuncao.forEach((funcao, distribuicao) -> estatisticas.funcao(funcao).combinar(distribuicao));
+        }
+        estatisticas.combinarFuncoesNoGeral();
+        return estatisticas;
+    }
+
+    private static void paralelo(int fatias, IntConsumer tarefa) {
+        if (fatias == 1) {
+            tarefa.accept(0);
+        } else {
+            IntStream.range(0, fatias).parallel().forEach(tarefa);
+        }
+    }
+
+    private DistribuicaoSalarial funcao(String funcao) {
+        return porFuncao.computeIfAbsent(funcao, f -> geral.vazia());
+    }
+
+    private void combinarFuncoesNoGeral() {
+        for (DistribuicaoSalarial distribuicao : porFuncao.values()) {
+            geral.combinar(distribuicao);
+        }
+    }
+
+    /**
+     * Acumula o salário de um funcionário.
+     *
+     * @param funcao   a função do funcionário
+     * @param centavos o salário em centavos
+     */
+    public void registrar(String funcao, long centavos) {
+        geral.registrar(centavos);
+        funcao(funcao).registrar(centavos);
+    }
+
+    /**
+     * Acrescenta a estas estatísticas as de outra parte dos dados,
+     * calculadas com os mesmos parâmetros.  A outra não é alterada.
+     *
+     * @param outras as estatísticas a combinar
+     * @throws IllegalArgumentException se os parâmetros forem diferentes
+     */
+    public void combinar(EstatisticasSalariais outras) {
+        geral.combinar(outras.geral);
+        outras.porFuncao.forEach((funcao, distribuicao) -> funcao(funcao).combinar(distribuicao));
+    }
+
+    /**
+     * Obtém a distribuição de todos os salários.
+     *
+     * @return a distribuição geral
+     */
+    public DistribuicaoSalarial geral() {
+        return geral;
+    }
+
+    /**
+     * Obtém a distribuição dos salários de cada função, na ordem em que
+     * as funções apareceram.  O mapa não pode ser modificado.
+     *
+     * @return as distribuições por função
+     */
+    public Map<String, DistribuicaoSalarial> porFuncao() {
+        return Collections.unmodifiableMap(porFuncao);
+    }
+
+    /**
+     * Grava as estatísticas em formato binário.
+     *
+     * @param saida o destino
+     * @throws IOException se a gravação falhar
+     * @see DistribuicaoSalarial#gravar(DataOutput)
+     */
+    public void gravar(DataOutput saida) throws IOException {
+        geral.gravar(saida);
+        saida.writeInt(porFuncao.size());
+        for (Map.Entry<String, DistribuicaoSalarial> entrada : porFuncao.entrySet()) {
+            saida.writeBoolean(entrada.getKey() != null);
+            if (entrada.getKey() != null) {
+                saida.writeUTF(entrada.getKey());
+            }
+            entrada.getValue().gravar(saida);
+        }
+    }
+
+    /**
+     * Lê estatísticas gravadas por {@link #gravar(DataOutput)}.
+     *
+     * @param entrada a origem
+     * @return as estatísticas lidas
+     * @throws IOException se a leitura falhar ou o formato for inválido
+     */
+    public static EstatisticasSalariais ler(DataInput entrada) throws IOException {
+        EstatisticasSalariais estatisticas = new EstatisticasSalariais(DistribuicaoSalarial.ler(entrada));
+        int funcoes = entrada.readInt();
+        for (int i = 0; i < funcoes; i++) {
+            String funcao = entrada.readBoolean() ? entrada.readUTF() : null;
+            DistribuicaoSalarial distribuicao = DistribuicaoSalarial.ler(entrada);
+            try {
+                estatisticas.funcao(funcao).combinar(distribuicao);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Distribuição da função " + funcao + " incompatível com a geral", e);
+            }
+        }
+        return estatisticas;
+    }
+}
@@ -1,11 +1,31 @@
 package service;
+import consulta.ConsultaFuncionarios;
+import consulta.CursorFuncionarios;
+import metricas.EventoAgrupamento;
+import metricas.EventoReajuste;
+import metricas.EventoRemocao;
+import metricas.Medicao;
+import metricas.Operacao;
+import metricas.RegistroMetricas;
 import model.Funcionario;
+import repository.AgregadosSalariais;
+import repository.FuncionariosVersionados;
+import repository.IndiceAniversarios;
+import repository.IndiceNascimentos;
+import repository.IndiceNomes;
+import repository.IndiceOrdemNomes;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+import util.ColacaoUtil;
+import util.DataUtil;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -13,9 +33,102 @@ import java.util.stream.Collectors;
  * classe centraliza a criação da lista inicial, bem como operações de
  * remoção, aumento salarial, agrupamento, ordenação e cálculos
  * agregados.
+ *
+ * <p>As operações principais existem em duas variantes: uma sobre
+ * {@link List} de {@link Funcionario} e outra sobre
+ * {@link TabelaFuncionarios}, o armazenamento colunar em que salários
+ * são guardados em centavos.  Ambas produzem os mesmos resultados,
+ * inclusive o arredondamento {@link RoundingMode#HALF_UP}.  A remoção
+ * e o reajuste também existem sobre {@link FuncionariosVersionados},
+ * para que leitores usem versões imutáveis enquanto os dados mudam.
+ *
+ * <p>Cada chamada é medida no {@link RegistroMetricas} do serviço
+ * (quando ativo), e reajustes, remoções e agrupamentos emitem eventos
+ * do JDK Flight Recorder ({@link EventoReajuste}, {@link EventoRemocao}
+ * e {@link EventoAgrupamento}).
+ *
+ * <p>Com um {@link CacheResultados}, o agrupamento por função, a
+ * ordenação por nome, a soma dos salários e os aniversariantes dos
+ * meses sobre a tabela são guardados até a próxima alteração da
+ * tabela.  Dos agrupamentos, ordenações e aniversariantes, o cache
+ * guarda apenas as linhas da tabela: cada chamada recebe o mesmo tipo
+ * de resultado que receberia sem cache, com {@link Funcionario} novos,
+ * que podem ser alterados sem afetar as chamadas seguintes.  Só as
+ * chamadas que calculam o resultado são medidas.
  */
 public class FuncionarioService {
 
+    /** Tamanho a partir do qual a ordenação por nome é feita em paralelo. */
+    private static final int LIMIAR_ORDENACAO_PARALELA = 8 * 1024;
+
+    private final RegistroMetricas metricas;
+    private final CacheResultados cache;
+
+    /**
+     * Cria o serviço registrando as métricas das operações no
+     * {@link RegistroMetricas#global() registro global}.
+     */
+    public FuncionarioService() {
+        this(RegistroMetricas.global());
+    }
+
+    /**
+     * Cria o serviço registrando as métricas das operações no registro
+     * informado.
+     *
+     * @param metricas o registro de métricas
+     */
+    public FuncionarioService(RegistroMetricas metricas) {
+        this(metricas, null);
+    }
+
+    /**
+     * Cria o serviço registrando as métricas no registro informado e
+     * guardando os resultados das consultas sobre tabelas no cache.
+     *
+     * @param metricas o registro de métricas
+     * @param cache    o cache de resultados, ou {@code null} para não
+     *     usar cache
+     */
+    public FuncionarioService(RegistroMetricas metricas, CacheResultados cache) {
+        this.metricas = metricas;
+        this.cache = cache;
+    }
+
+    /**
+     * Executa o cálculo medindo-o como uma chamada da operação.
+     *
+     * @param operacao       a operação medida
+     * @param tamanhoEntrada a quantidade de funcionários da entrada
+     * @param calculo        o cálculo a executar
+     * @param <R>            o tipo do resultado
+     * @return o resultado do cálculo
+     */
+    private <R> R medir(Operacao operacao, long tamanhoEntrada, Supplier<R> calculo) {
+        Medicao medicao = metricas.medir(operacao, tamanhoEntrada);
+        try {
+            return calculo.get();
+        } finally {
+            medicao.close();
+        }
+    }
+
+    /**
+     * Executa a alteração medindo-a como uma chamada da operação.
+     *
+     * @param operacao       a operação medida
+     * @param tamanhoEntrada a quantidade de funcionários da entrada
+     * @param alteracao      a alteração a executar
+     */
+    private void medir(Operacao operacao, long tamanhoEntrada, Runnable alteracao) {
+        Medicao medicao = metricas.medir(operacao, tamanhoEntrada);
+        try {
+            alteracao.run();
+        } finally {
+            medicao.close();
+        }
+    }
+
     /**
      * Cria a lista inicial de funcionários conforme especificado no
      * enunciado.  Os dados incluem nome, data de nascimento,
@@ -101,15 +214,194 @@ public class FuncionarioService {
      *     existir
      */
     public Optional<Funcionario> removerPorNome(List<Funcionario> funcionarios, String nome) {
-        Iterator<Funcionario> it = funcionarios.iterator();
-        while (it.hasNext()) {
-            Funcionario f = it.next();
-            if (f.getNome().equalsIgnoreCase(nome)) {
-                it.remove();
-                return Optional.of(f);
+        return medir(Operacao.REMOVER_POR_NOME, funcionarios.size(), () -> {
+            EventoRemocao evento = new EventoRemocao();
+            evento.begin();
+            int tamanho = funcionarios.size();
+            Optional<Funcionario> removido = Optional.empty();
+            Iterator<Funcionario> it = funcionarios.iterator();
+            while (it.hasNext()) {
+                Funcionario f = it.next();
+                if (f.getNome().equalsIgnoreCase(nome)) {
+                    it.remove();
+                    removido = Optional.of(f);
+                    break;
+                }
             }
+            concluir(evento, 1, removido.isPresent() ? 1 : 0, tamanho);
+            return removido;
+        });
+    }
+
+    /**
+     * Remove, em uma única passagem, um funcionário para cada nome
+     * informado.  O resultado é o mesmo de chamar
+     * {@link #removerPorNome(List, String)} para cada nome, mas a lista
+     * é percorrida e reconstruída apenas uma vez, em vez de uma
+     * varredura e um deslocamento por nome.
+     *
+     * @param funcionarios a lista de funcionários a ser modificada
+     * @param nomes        os nomes dos funcionários a remover
+     * @return os funcionários removidos, na ordem em que estavam na lista
+     */
+    public List<Funcionario> removerPorNomes(List<Funcionario> funcionarios, Collection<String> nomes) {
+        return medir(Operacao.REMOVER_POR_NOMES, funcionarios.size(), () -> {
+            EventoRemocao evento = new EventoRemocao();
+            evento.begin();
+            int tamanho = funcionarios.size();
+            Map<String, Integer> pendentes = new HashMap<>();
+            for (String nome : nomes) {
+                pendentes.merge(IndiceNomes.chave(nome), 1, Integer::sum);
+            }
+            List<Funcionario> mantidos = new ArrayList<>(funcionarios.size());
+            List<Funcionario> removidos = new ArrayList<>();
+            for (Funcionario f : funcionarios) {
+                String chave = IndiceNomes.chave(f.getNome());
+                Integer restantes = pendentes.get(chave);
+                if (restantes == null) {
+                    mantidos.add(f);
+                    continue;
+                }
+                removidos.add(f);
+                if (restantes == 1) {
+                    pendentes.remove(chave);
+                } else {
+                    pendentes.put(chave, restantes - 1);
+                }
+            }
+            if (!removidos.isEmpty()) {
+                funcionarios.clear();
+                funcionarios.addAll(mantidos);
+            }
+            concluir(evento, nomes.size(), removidos.size(), tamanho);
+            return removidos;
+        });
+    }
+
+    /**
+     * Remove da tabela o primeiro funcionário que possuir o nome
+     * indicado, ignorando maiúsculas e minúsculas.  A busca usa o
+     * {@link IndiceNomes} da tabela e a remoção apenas marca a linha,
+     * sem deslocar os demais funcionários.
+     *
+     * @param tabela a tabela a ser modificada
+     * @param nome   o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     */
+    public Optional<Funcionario> removerPorNome(TabelaFuncionarios tabela, String nome) {
+        return medir(Operacao.REMOVER_POR_NOME, tabela.tamanho(), () -> {
+            EventoRemocao evento = new EventoRemocao();
+            evento.begin();
+            int tamanho = tabela.tamanho();
+            Optional<Funcionario> removido = removerLinha(tabela, nome);
+            concluir(evento, 1, removido.isPresent() ? 1 : 0, tamanho);
+            return removido;
+        });
+    }
+
+    /**
+     * Remove do conjunto versionado o primeiro funcionário com o nome
+     * indicado, ignorando maiúsculas e minúsculas.  A remoção é
+     * publicada como uma nova versão; versões obtidas antes continuam
+     * contendo o funcionário.
+     *
+     * @param versionados o conjunto a ser modificado
+     * @param nome        o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     */
+    public Optional<Funcionario> removerPorNome(FuncionariosVersionados versionados, String nome) {
+        int tamanho = versionados.versaoAtual().size();
+        return medir(Operacao.REMOVER_POR_NOME, tamanho, () -> {
+            EventoRemocao evento = new EventoRemocao();
+            evento.begin();
+            Optional<Funcionario> removido = versionados.alterar(edicao -> {
+                int indice = edicao.procurarPorNome(nome);
+                return indice < 0 ? Optional.<Funcionario>empty() : Optional.of(edicao.remover(indice));
+            });
+            concluir(evento, 1, removido.isPresent() ? 1 : 0, tamanho);
+            return removido;
+        });
+    }
+
+    /**
+     * Remove da tabela o primeiro funcionário com o nome indicado, sem
+     * medições nem eventos.
+     *
+     * @param tabela a tabela a ser modificada
+     * @param nome   o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     */
+    private Optional<Funcionario> removerLinha(TabelaFuncionarios tabela, String nome) {
+        int linha = tabela.indiceNomes().primeiraLinha(nome);
+        if (linha < 0) {
+            return Optional.empty();
+        }
+        Funcionario removido = tabela.funcionario(linha);
+        tabela.remover(linha);
+        return Optional.of(removido);
+    }
+
+    /**
+     * Conclui um {@link EventoRemocao}, gravando-o se a gravação do
+     * evento estiver habilitada.
+     *
+     * @param evento       o evento iniciado antes da remoção
+     * @param nomes        a quantidade de nomes pedidos
+     * @param removidos    a quantidade de funcionários removidos
+     * @param funcionarios a quantidade de funcionários antes da remoção
+     */
+    private static void concluir(EventoRemocao evento, int nomes, int removidos, long funcionarios) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.nomes = nomes;
+            evento.removidos = removidos;
+            evento.funcionarios = funcionarios;
+            evento.commit();
         }
-        return Optional.empty();
+    }
+
+    /**
+     * Remove da tabela um funcionário para cada nome informado.  Ao
+     * final, se mais da metade das linhas estiver marcada como
+     * removida, a tabela é compactada.
+     *
+     * @param tabela a tabela a ser modificada
+     * @param nomes  os nomes dos funcionários a remover
+     * @return os funcionários removidos, na ordem dos nomes informados
+     */
+    public List<Funcionario> removerPorNomes(TabelaFuncionarios tabela, Collection<String> nomes) {
+        return medir(Operacao.REMOVER_POR_NOMES, tabela.tamanho(), () -> {
+            EventoRemocao evento = new EventoRemocao();
+            evento.begin();
+            int tamanho = tabela.tamanho();
+            List<Funcionario> removidos = new ArrayList<>();
+            for (String nome : nomes) {
+                removerLinha(tabela, nome).ifPresent(removidos::add);
+            }
+            if (tabela.quantidadeRemovidas() > tabela.limite() / 2) {
+                tabela.compactar();
+            }
+            concluir(evento, nomes.size(), removidos.size(), tamanho);
+            return removidos;
+        });
+    }
+
+    /**
+     * Procura o primeiro funcionário da tabela com o nome indicado,
+     * ignorando maiúsculas e minúsculas.
+     *
+     * @param tabela a tabela a consultar
+     * @param nome   o nome procurado
+     * @return um Optional contendo o funcionário, se ele existir
+     */
+    public Optional<Funcionario> buscarPorNome(TabelaFuncionarios tabela, String nome) {
+        return medir(Operacao.BUSCAR_POR_NOME, tabela.tamanho(), () -> {
+            int linha = tabela.indiceNomes().primeiraLinha(nome);
+            return linha < 0 ? Optional.empty() : Optional.of(tabela.funcionario(linha));
+        });
     }
 
     /**
@@ -123,15 +415,103 @@ public class FuncionarioService {
      * @param percentual   o percentual de aumento (por exemplo, 10 para 10%)
      */
     public void aplicarAumentoPercentual(List<Funcionario> funcionarios, BigDecimal percentual) {
-        if (percentual == null) {
-            throw new IllegalArgumentException("Percentual não pode ser nulo");
-        }
-        BigDecimal fator = BigDecimal.ONE.add(percentual.divide(new BigDecimal("100")));
-        for (Funcionario f : funcionarios) {
-            BigDecimal novo = f.getSalario().multiply(fator);
-            // Arredonda para 2 casas decimais
-            novo = novo.setScale(2, RoundingMode.HALF_UP);
-            f.setSalario(novo);
+        medir(Operacao.APLICAR_AUMENTO, funcionarios.size(), () -> {
+            EventoReajuste evento = new EventoReajuste();
+            evento.begin();
+            BigDecimal fator = ReajusteSalarial.fatorDeAumento(percentual);
+            for (Funcionario f : funcionarios) {
+                BigDecimal novo = f.getSalario().multiply(fator);
+                // Arredonda para 2 casas decimais
+                novo = novo.setScale(2, RoundingMode.HALF_UP);
+                f.setSalario(novo);
+            }
+            concluir(evento, percentual, funcionarios.size());
+        });
+    }
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários da tabela.
+     * O cálculo é feito em centavos por {@link ReajusteSalarial}, em
+     * paralelo e sem criar {@link BigDecimal} por funcionário, e
+     * produz exatamente os mesmos valores que
+     * {@link #aplicarAumentoPercentual(List, BigDecimal)}.
+     *
+     * @param tabela     a tabela cujos salários serão ajustados
+     * @param percentual o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    public void aplicarAumentoPercentual(TabelaFuncionarios tabela, BigDecimal percentual) {
+        medir(Operacao.APLICAR_AUMENTO, tabela.tamanho(), () -> {
+            if (percentual == null) {
+                throw new IllegalArgumentException("Percentual não pode ser nulo");
+            }
+            EventoReajuste evento = new EventoReajuste();
+            evento.begin();
+            new ReajusteSalarial(percentual).aplicar(tabela);
+            concluir(evento, percentual, tabela.tamanho());
+        });
+    }
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários do conjunto
+     * versionado, com os mesmos valores de
+     * {@link #aplicarAumentoPercentual(List, BigDecimal)}.  Os novos
+     * salários são publicados juntos, como uma nova versão: quem lê uma
+     * versão vê todos os salários antigos ou todos os novos.
+     *
+     * @param versionados o conjunto cujos salários serão ajustados
+     * @param percentual  o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    public void aplicarAumentoPercentual(FuncionariosVersionados versionados, BigDecimal percentual) {
+        int tamanho = versionados.versaoAtual().size();
+        medir(Operacao.APLICAR_AUMENTO, tamanho, () -> {
+            if (percentual == null) {
+                throw new IllegalArgumentException("Percentual não pode ser nulo");
+            }
+            EventoReajuste evento = new EventoReajuste();
+            evento.begin();
+            ReajusteSalarial reajuste = new ReajusteSalarial(percentual);
+            versionados.alterar(edicao -> {
+                reajuste.aplicar(edicao);
+                return null;
+            });
+            concluir(evento, percentual, tamanho);
+        });
+    }
+
+    /**
+     * Aplica, em uma única passagem, um percentual de aumento
+     * diferente para cada função.  Funcionários cuja função não
+     * aparece no mapa não são alterados.
+     *
+     * @param tabela                a tabela cujos salários serão ajustados
+     * @param percentuaisPorFuncao  o percentual de aumento de cada função
+     */
+    public void aplicarAumentoPorFuncao(TabelaFuncionarios tabela, Map<String, BigDecimal> percentuaisPorFuncao) {
+        medir(Operacao.APLICAR_AUMENTO, tabela.tamanho(), () -> {
+            EventoReajuste evento = new EventoReajuste();
+            evento.begin();
+            ReajusteSalarial reajuste = new ReajusteSalarial(null);
+            percentuaisPorFuncao.forEach(reajuste::comPercentual);
+            reajuste.aplicar(tabela);
+            concluir(evento, null, tabela.tamanho());
+        });
+    }
+
+    /**
+     * Conclui um {@link EventoReajuste}, gravando-o se a gravação do
+     * evento estiver habilitada.
+     *
+     * @param evento       o evento iniciado antes do reajuste
+     * @param percentual   o percentual aplicado a todos, ou {@code null}
+     *     se os percentuais variam por função
+     * @param funcionarios a quantidade de funcionários reajustados
+     */
+    private static void concluir(EventoReajuste evento, BigDecimal percentual, long funcionarios) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.percentual = percentual == null ? null : percentual.toPlainString();
+            evento.funcionarios = funcionarios;
+            evento.commit();
         }
     }
 
@@ -145,8 +525,56 @@ public class FuncionarioService {
      *     funcionários como valor
      */
     public Map<String, List<Funcionario>> agruparPorFuncao(List<Funcionario> funcionarios) {
-        return funcionarios.stream()
-                .collect(Collectors.groupingBy(Funcionario::getFuncao));
+        return medir(Operacao.AGRUPAR_POR_FUNCAO, funcionarios.size(), () -> {
+            EventoAgrupamento evento = new EventoAgrupamento();
+            evento.begin();
+            Map<String, List<Funcionario>> grupos = funcionarios.stream()
+                    .collect(Collectors.groupingBy(Funcionario::getFuncao));
+            concluir(evento, funcionarios.size(), grupos);
+            return grupos;
+        });
+    }
+
+    /**
+     * Agrupa os funcionários da tabela por função.  O agrupamento é
+     * uma ordenação por contagem paralela sobre os identificadores de
+     * função (veja {@link AgrupamentoPorFuncao}); os funcionários de
+     * cada grupo, na ordem de inserção, só são materializados quando o
+     * grupo é acessado.  O mapa retornado não pode ser modificado.
+     *
+     * @param tabela a tabela a ser agrupada
+     * @return um {@link Map} com a função como chave e a lista de
+     *     funcionários como valor
+     */
+    public Map<String, List<Funcionario>> agruparPorFuncao(TabelaFuncionarios tabela) {
+        // o cache guarda só as linhas de cada grupo; cada chamada recebe uma visão e funcionários novos
+        AgrupamentoPorFuncao agrupamento = emCache(Operacao.AGRUPAR_POR_FUNCAO, tabela, null, () -> {
+            return medir(Operacao.AGRUPAR_POR_FUNCAO, tabela.tamanho(), () -> {
+                EventoAgrupamento evento = new EventoAgrupamento();
+                evento.begin();
+                AgrupamentoPorFuncao calculado = AgrupamentoPorFuncao.calcular(tabela);
+                concluir(evento, tabela.tamanho(), calculado.paraMapa());
+                return calculado;
+            });
+        }, grupos -> tabela.tamanho());
+        return agrupamento.paraMapa();
+    }
+
+    /**
+     * Conclui um {@link EventoAgrupamento}, gravando-o se a gravação do
+     * evento estiver habilitada.
+     *
+     * @param evento       o evento iniciado antes do agrupamento
+     * @param funcionarios a quantidade de funcionários agrupados
+     * @param grupos       o resultado do agrupamento
+     */
+    private static void concluir(EventoAgrupamento evento, long funcionarios, Map<String, ?> grupos) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.funcionarios = funcionarios;
+            evento.grupos = grupos.size();
+            evento.commit();
+        }
     }
 
     /**
@@ -159,12 +587,107 @@ public class FuncionarioService {
      *     possuem o mês especificado
      */
     public List<Funcionario> aniversariantesNosMeses(List<Funcionario> funcionarios, Set<Integer> meses) {
+        return medir(Operacao.ANIVERSARIANTES, funcionarios.size(), () -> {
+            if (meses == null || meses.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return funcionarios.stream()
+                    .filter(f -> meses.contains(f.getDataNascimento().getMonthValue()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Filtra os funcionários da tabela que fazem aniversário nos meses
+     * fornecidos.  A consulta usa o {@link IndiceAniversarios} da
+     * tabela, combinando os mapas de bits dos meses pedidos.
+     *
+     * @param tabela a tabela a filtrar
+     * @param meses  conjunto de meses (1 a 12) a considerar
+     * @return uma lista, na ordem de inserção, dos funcionários cujas
+     *     datas de nascimento possuem o mês especificado
+     */
+    public List<Funcionario> aniversariantesNosMeses(TabelaFuncionarios tabela, Set<Integer> meses) {
         if (meses == null || meses.isEmpty()) {
-            return Collections.emptyList();
+            return medir(Operacao.ANIVERSARIANTES, tabela.tamanho(), () -> Collections.emptyList());
+        }
+        // os meses viram um mapa de bits, para que conjuntos iguais usem a mesma entrada do cache
+        int selecionados = 0;
+        for (Integer mes : meses) {
+            if (mes != null && mes >= 1 && mes <= 12) {
+                selecionados |= 1 << mes;
+            }
         }
-        return funcionarios.stream()
-                .filter(f -> meses.contains(f.getDataNascimento().getMonthValue()))
-                .collect(Collectors.toList());
+        int mascara = selecionados;
+        // o cache guarda só as linhas; cada chamada recebe uma lista e funcionários novos
+        int[] linhas = emCache(Operacao.ANIVERSARIANTES, tabela, mascara, () -> {
+            return medir(Operacao.ANIVERSARIANTES, tabela.tamanho(), () -> {
+                boolean[] mesSelecionado = new boolean[13];
+                for (int mes = 1; mes <= 12; mes++) {
+                    mesSelecionado[mes] = (mascara & (1 << mes)) != 0;
+                }
+                return tabela.indiceAniversarios().linhasNosMeses(mesSelecionado);
+            });
+        }, aniversariantes -> aniversariantes.length);
+        return materializar(tabela, linhas);
+    }
+
+    /**
+     * Filtra os funcionários da tabela que fazem aniversário nos
+     * próximos dias, contando a data de referência.  Nascidos em 29 de
+     * fevereiro são considerados aniversariantes em 28 de fevereiro nos
+     * anos não bissextos.
+     *
+     * @param tabela     a tabela a filtrar
+     * @param referencia a data a partir da qual contar (inclusive)
+     * @param dias       a quantidade de dias do intervalo (1 para
+     *     apenas a data de referência)
+     * @return uma lista, na ordem de inserção, dos aniversariantes
+     */
+    public List<Funcionario> aniversariantesNosProximosDias(TabelaFuncionarios tabela,
+                                                            LocalDate referencia,
+                                                            int dias) {
+        return medir(Operacao.ANIVERSARIANTES, tabela.tamanho(), () -> {
+            if (referencia == null) {
+                throw new IllegalArgumentException("Data de referência não pode ser nula");
+            }
+            int[] linhas = tabela.indiceAniversarios()
+                    .linhasNosProximosDias(DataUtil.paraEpochDay(referencia), dias);
+            return materializar(tabela, linhas);
+        });
+    }
+
+    /**
+     * Cria os objetos {@link Funcionario} das linhas informadas,
+     * preservando a ordem.
+     *
+     * @param tabela a tabela de origem
+     * @param linhas as linhas a materializar
+     * @return uma nova lista mutável
+     */
+    private List<Funcionario> materializar(TabelaFuncionarios tabela, int[] linhas) {
+        List<Funcionario> resultado = new ArrayList<>(linhas.length);
+        for (int linha : linhas) {
+            resultado.add(tabela.funcionario(linha));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtém o resultado do {@link CacheResultados} do serviço, ou apenas
+     * o calcula se o serviço não usar cache.
+     *
+     * @param operacao   a operação
+     * @param tabela     a tabela consultada
+     * @param argumentos os argumentos que distinguem o resultado
+     * @param calcular   calcula o resultado
+     * @param peso       o peso do resultado no cache
+     * @param <T>        o tipo do resultado
+     * @return o resultado
+     */
+    private <T> T emCache(Operacao operacao, TabelaFuncionarios tabela, Object argumentos,
+                          Supplier<T> calcular, ToLongFunction<? super T> peso) {
+        return cache == null ? calcular.get() : cache.obter(operacao, tabela, argumentos, calcular, peso);
     }
 
     /**
@@ -177,33 +700,233 @@ public class FuncionarioService {
      *     existir
      */
     public Optional<Funcionario> funcionarioMaisVelho(List<Funcionario> funcionarios) {
-        return funcionarios.stream()
-                .min(Comparator.comparing(Funcionario::getDataNascimento));
+        return medir(Operacao.FUNCIONARIO_MAIS_VELHO, funcionarios.size(), () -> {
+            return funcionarios.stream()
+                    .min(Comparator.comparing(Funcionario::getDataNascimento));
+        });
+    }
+
+    /**
+     * Determina o funcionário mais velho da tabela.  Em caso de empate,
+     * prevalece o primeiro inserido, como na variante sobre listas.  A
+     * linha é lida dos {@link AgregadosSalariais} da tabela, sem
+     * percorrê-la.
+     *
+     * @param tabela a tabela a ser examinada
+     * @return um Optional contendo o funcionário mais velho, se
+     *     existir
+     */
+    public Optional<Funcionario> funcionarioMaisVelho(TabelaFuncionarios tabela) {
+        return medir(Operacao.FUNCIONARIO_MAIS_VELHO, tabela.tamanho(), () -> {
+            int maisVelho = tabela.agregados().linhaMaisVelha();
+            return maisVelho < 0 ? Optional.empty() : Optional.of(tabela.funcionario(maisVelho));
+        });
+    }
+
+    /**
+     * Obtém os {@code k} funcionários mais velhos da tabela, do mais
+     * velho para o mais novo, usando o {@link IndiceNascimentos}.  Em
+     * caso de empate, prevalece o primeiro inserido.
+     *
+     * @param tabela a tabela a ser examinada
+     * @param k      a quantidade de funcionários desejada
+     * @return uma lista com no máximo {@code k} funcionários
+     */
+    public List<Funcionario> funcionariosMaisVelhos(TabelaFuncionarios tabela, int k) {
+        return medir(Operacao.CONSULTA_POR_NASCIMENTO, tabela.tamanho(),
+                () -> materializar(tabela, tabela.indiceNascimentos().maisVelhos(k)));
+    }
+
+    /**
+     * Obtém os {@code k} funcionários mais novos da tabela, do mais
+     * novo para o mais velho, usando o {@link IndiceNascimentos}.
+     *
+     * @param tabela a tabela a ser examinada
+     * @param k      a quantidade de funcionários desejada
+     * @return uma lista com no máximo {@code k} funcionários
+     */
+    public List<Funcionario> funcionariosMaisNovos(TabelaFuncionarios tabela, int k) {
+        return medir(Operacao.CONSULTA_POR_NASCIMENTO, tabela.tamanho(),
+                () -> materializar(tabela, tabela.indiceNascimentos().maisNovos(k)));
+    }
+
+    /**
+     * Obtém os funcionários da tabela nascidos antes da data
+     * informada, em ordem de nascimento.
+     *
+     * @param tabela a tabela a ser examinada
+     * @param data   a data limite (exclusiva)
+     * @return uma lista dos funcionários nascidos antes da data
+     */
+    public List<Funcionario> nascidosAntesDe(TabelaFuncionarios tabela, LocalDate data) {
+        return medir(Operacao.CONSULTA_POR_NASCIMENTO, tabela.tamanho(), () -> {
+            if (data == null) {
+                throw new IllegalArgumentException("Data não pode ser nula");
+            }
+            return materializar(tabela,
+                    tabela.indiceNascimentos().nascidosEntre(Integer.MIN_VALUE, DataUtil.paraEpochDay(data)));
+        });
+    }
+
+    /**
+     * Conta os funcionários da tabela por faixa etária na data de
+     * referência.  As idades limite devem estar em ordem crescente; o
+     * resultado tem uma posição a mais que os limites: a posição 0
+     * conta quem tem menos que {@code idades[0]} anos, a posição
+     * {@code i} conta quem tem de {@code idades[i-1]} a
+     * {@code idades[i] - 1} anos e a última conta quem tem
+     * {@code idades[idades.length - 1]} anos ou mais.  A idade segue a
+     * mesma regra de {@link #idadeEmAnos(LocalDate, LocalDate)}.
+     *
+     * @param tabela     a tabela a ser examinada
+     * @param referencia a data de referência
+     * @param idades     as idades que separam as faixas, em ordem crescente
+     * @return a quantidade de funcionários em cada faixa
+     */
+    public int[] contarPorFaixaEtaria(TabelaFuncionarios tabela, LocalDate referencia, int... idades) {
+        return medir(Operacao.CONSULTA_POR_NASCIMENTO, tabela.tamanho(), () -> {
+            if (referencia == null) {
+                throw new IllegalArgumentException("Data de referência não pode ser nula");
+            }
+            IndiceNascimentos indice = tabela.indiceNascimentos();
+            int[] faixas = new int[idades.length + 1];
+            // quem tem pelo menos "idade" anos nasceu até referencia.minusYears(idade)
+            int anterior = indice.tamanho();
+            for (int i = 0; i < idades.length; i++) {
+                if (i > 0 && idades[i] < idades[i - 1]) {
+                    throw new IllegalArgumentException("Idades devem estar em ordem crescente");
+                }
+                int limite = DataUtil.paraEpochDay(referencia.minusYears(idades[i]));
+                int comPeloMenos = indice.contarNascidosAntesDe(limite + 1);
+                faixas[i] = anterior - comPeloMenos;
+                anterior = comPeloMenos;
+            }
+            faixas[idades.length] = anterior;
+            return faixas;
+        });
+    }
+
+    /**
+     * Abre uma consulta combinada sobre a tabela.  A medição cobre o
+     * planejamento e a obtenção das linhas candidatas; os filtros são
+     * avaliados depois, à medida que o cursor é lido.
+     *
+     * @param tabela   a tabela a consultar
+     * @param consulta os filtros da consulta
+     * @return o cursor dos resultados, em ordem de inserção
+     */
+    public CursorFuncionarios consultar(TabelaFuncionarios tabela, ConsultaFuncionarios consulta) {
+        return medir(Operacao.CONSULTAR, tabela.tamanho(), () -> consulta.executar(tabela));
+    }
+
+    /**
+     * Calcula as idades de todos os funcionários da tabela na data de
+     * referência, de uma só vez, junto com contagens por faixa etária e
+     * por função.  Cada idade é igual à de
+     * {@link #idadeEmAnos(LocalDate, LocalDate)}.
+     *
+     * @param tabela     a tabela a ser examinada
+     * @param referencia a data de referência
+     * @return as idades calculadas
+     */
+    public IdadesEmLote calcularIdades(TabelaFuncionarios tabela, LocalDate referencia) {
+        return medir(Operacao.CALCULAR_IDADES, tabela.tamanho(), () -> IdadesEmLote.calcular(tabela, referencia));
     }
 
     /**
      * Calcula a idade completa, em anos, de uma pessoa na data
-     * especificada.  Utiliza {@link Period#between(LocalDate, LocalDate)}.
+     * especificada.  O resultado é o mesmo de
+     * {@link Period#between(LocalDate, LocalDate)}, mas calculado sobre
+     * as datas empacotadas por {@link DataUtil#idadeEmAnos(int, int)},
+     * sem criar um {@link Period}.
      *
      * @param nascimento    data de nascimento
      * @param dataReferencia data para a qual a idade deve ser calculada
      * @return a idade em anos
      */
     public int idadeEmAnos(LocalDate nascimento, LocalDate dataReferencia) {
-        return Period.between(nascimento, dataReferencia).getYears();
+        return DataUtil.idadeEmAnos(
+                DataUtil.empacotar(nascimento.getYear(), nascimento.getMonthValue(), nascimento.getDayOfMonth()),
+                DataUtil.empacotar(dataReferencia.getYear(), dataReferencia.getMonthValue(),
+                        dataReferencia.getDayOfMonth()));
     }
 
     /**
      * Retorna uma nova lista contendo os funcionários ordenados
-     * alfabeticamente pelo nome.  A lista original não é modificada.
+     * alfabeticamente pelo nome, segundo as regras do português
+     * brasileiro (veja {@link ColacaoUtil}).  Nomes iguais mantêm a
+     * ordem original.  A chave de colação de cada nome é calculada uma
+     * única vez e, para listas grandes, em paralelo, assim como a
+     * ordenação.  A lista original não é modificada.
      *
      * @param funcionarios a lista a ser ordenada
      * @return uma lista ordenada por nome
      */
     public List<Funcionario> ordenarPorNome(List<Funcionario> funcionarios) {
-        return funcionarios.stream()
-                .sorted(Comparator.comparing(Funcionario::getNome))
-                .collect(Collectors.toList());
+        return medir(Operacao.ORDENAR_POR_NOME, funcionarios.size(), () -> {
+            Funcionario[] origem = funcionarios.toArray(new Funcionario[0]);
+            byte[][] chaves = new byte[origem.length][];
+            Integer[] posicoes = new Integer[origem.length];
+            if (origem.length >= LIMIAR_ORDENACAO_PARALELA) {
+                Arrays.parallelSetAll(chaves, i -> ColacaoUtil.chave(origem[i].getNome()));
+            } else {
+                Arrays.setAll(chaves, i -> ColacaoUtil.chave(origem[i].getNome()));
+            }
+            Arrays.setAll(posicoes, i -> i);
+            Comparator<Integer> porChave = (a, b) -> ColacaoUtil.comparar(chaves[a], chaves[b]);
+            // ambas as ordenações são estáveis
+            if (origem.length >= LIMIAR_ORDENACAO_PARALELA) {
+                Arrays.parallelSort(posicoes, porChave);
+            } else {
+                Arrays.sort(posicoes, porChave);
+            }
+            List<Funcionario> ordenados = new ArrayList<>(origem.length);
+            for (Integer posicao : posicoes) {
+                ordenados.add(origem[posicao]);
+            }
+            return ordenados;
+        });
+    }
+
+    /**
+     * Retorna os funcionários da tabela em ordem alfabética pt-BR.  A
+     * ordem vem do {@link IndiceOrdemNomes} da tabela, mantido a cada
+     * inserção e remoção, e não é recalculada a cada chamada.  A lista
+     * retornada não pode ser modificada e cria cada {@link Funcionario}
+     * apenas quando o elemento é lido; se a tabela for alterada depois,
+     * a leitura lança {@link ConcurrentModificationException}.
+     *
+     * @param tabela a tabela a ser ordenada
+     * @return uma lista ordenada por nome
+     */
+    public List<Funcionario> ordenarPorNome(TabelaFuncionarios tabela) {
+        return emCache(Operacao.ORDENAR_POR_NOME, tabela, null, () -> ordenarLinhasPorNome(tabela), List::size);
+    }
+
+    /**
+     * Obtém a ordem por nome do índice da tabela, sem consultar o cache.
+     *
+     * @param tabela a tabela a ser ordenada
+     * @return uma visão da tabela ordenada por nome
+     */
+    private List<Funcionario> ordenarLinhasPorNome(TabelaFuncionarios tabela) {
+        int[] linhas = medir(Operacao.ORDENAR_POR_NOME, tabela.tamanho(),
+                () -> tabela.indiceOrdemNomes().linhasOrdenadas());
+        long versao = tabela.versao();
+        return new AbstractList<>() {
+            @Override
+            public Funcionario get(int indice) {
+                if (tabela.versao() != versao) {
+                    throw new ConcurrentModificationException("A tabela foi alterada após a ordenação");
+                }
+                return tabela.funcionario(linhas[indice]);
+            }
+
+            @Override
+            public int size() {
+                return linhas.length;
+            }
+        };
     }
 
     /**
@@ -214,9 +937,85 @@ public class FuncionarioService {
      * @return o total dos salários
      */
     public BigDecimal somarSalarios(List<Funcionario> funcionarios) {
-        return funcionarios.stream()
-                .map(Funcionario::getSalario)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return medir(Operacao.SOMAR_SALARIOS, funcionarios.size(), () -> {
+            return funcionarios.stream()
+                    .map(Funcionario::getSalario)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        });
+    }
+
+    /**
+     * Obtém o total dos salários da tabela.  O valor é lido dos
+     * {@link AgregadosSalariais}, mantidos a cada alteração, e não
+     * exige percorrer a tabela.  Se a tabela estiver vazia, retorna
+     * zero.
+     *
+     * @param tabela a tabela a ser somada
+     * @return o total dos salários, com duas casas decimais
+     */
+    public BigDecimal somarSalarios(TabelaFuncionarios tabela) {
+        return emCache(Operacao.SOMAR_SALARIOS, tabela, null, () -> {
+            return medir(Operacao.SOMAR_SALARIOS, tabela.tamanho(),
+                    () -> CentavosUtil.paraValor(tabela.agregados().total()));
+        }, total -> 1);
+    }
+
+    /**
+     * Obtém o total dos salários de cada função da tabela, a partir dos
+     * {@link AgregadosSalariais}.  Funções sem funcionários ativos não
+     * aparecem no resultado.
+     *
+     * @param tabela a tabela a ser somada
+     * @return um {@link Map} com a função como chave e o total dos
+     *     salários como valor
+     */
+    public Map<String, BigDecimal> somarSalariosPorFuncao(TabelaFuncionarios tabela) {
+        return medir(Operacao.SOMAR_SALARIOS, tabela.tamanho(), () -> {
+            AgregadosSalariais agregados = tabela.agregados();
+            Map<String, BigDecimal> totais = new HashMap<>();
+            for (int id = 0; id < tabela.funcoes().tamanho(); id++) {
+                if (agregados.quantidadePorFuncao(id) > 0) {
+                    totais.put(tabela.funcoes().decodificar(id), CentavosUtil.paraValor(agregados.totalPorFuncao(id)));
+                }
+            }
+            return totais;
+        });
+    }
+
+    /**
+     * Calcula, em uma única passagem, as estatísticas dos salários da
+     * lista, no total e por função: extremos, média, variância,
+     * histograma e quantis com erro relativo de no máximo
+     * {@link DistribuicaoSalarial#ERRO_RELATIVO_PADRAO}.
+     *
+     * @param funcionarios       a lista de funcionários
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     */
+    public EstatisticasSalariais estatisticasSalariais(List<Funcionario> funcionarios,
+                                                       BigDecimal... limitesHistograma) {
+        return medir(Operacao.ESTATISTICAS_SALARIAIS, funcionarios.size(), () -> {
+            return EstatisticasSalariais.calcular(funcionarios, DistribuicaoSalarial.ERRO_RELATIVO_PADRAO,
+                    limitesHistograma);
+        });
+    }
+
+    /**
+     * Calcula, em uma única passagem sobre as colunas, as estatísticas
+     * dos salários da tabela, no total e por função.  O resultado não é
+     * guardado no cache, já que pode ser combinado com outros e
+     * alterado.
+     *
+     * @param tabela             a tabela de funcionários
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     * @see #estatisticasSalariais(List, BigDecimal...)
+     */
+    public EstatisticasSalariais estatisticasSalariais(TabelaFuncionarios tabela, BigDecimal... limitesHistograma) {
+        return medir(Operacao.ESTATISTICAS_SALARIAIS, tabela.tamanho(), () -> {
+            return EstatisticasSalariais.calcular(tabela, DistribuicaoSalarial.ERRO_RELATIVO_PADRAO,
+                    limitesHistograma);
+        });
     }
 
     /**
@@ -230,7 +1029,39 @@ public class FuncionarioService {
      * @return a quantidade de salários mínimos recebidos
      */
     public BigDecimal salariosMinimosQueRecebe(Funcionario funcionario, BigDecimal salarioMinimo) {
-        return funcionario.getSalario()
-                .divide(salarioMinimo, 2, RoundingMode.HALF_UP);
+        return medir(Operacao.SALARIOS_MINIMOS, 1, () -> {
+            return funcionario.getSalario()
+                    .divide(salarioMinimo, 2, RoundingMode.HALF_UP);
+        });
+    }
+
+    /**
+     * Calcula, de uma só vez, quantos salários mínimos cada funcionário
+     * da lista recebe, para cada um dos valores de salário mínimo.  Os
+     * resultados são iguais aos de
+     * {@link #salariosMinimosQueRecebe(Funcionario, BigDecimal)}.
+     *
+     * @param funcionarios    a lista de funcionários
+     * @param salariosMinimos os valores de salário mínimo
+     * @return os resultados, indexados pela posição na lista
+     */
+    public SalariosMinimosEmLote salariosMinimosQueRecebem(List<Funcionario> funcionarios,
+                                                           BigDecimal... salariosMinimos) {
+        return medir(Operacao.SALARIOS_MINIMOS, funcionarios.size(),
+                () -> SalariosMinimosEmLote.calcular(funcionarios, salariosMinimos));
+    }
+
+    /**
+     * Calcula, de uma só vez, quantos salários mínimos cada funcionário
+     * da tabela recebe, para cada um dos valores de salário mínimo.
+     *
+     * @param tabela          a tabela de funcionários
+     * @param salariosMinimos os valores de salário mínimo
+     * @return os resultados, indexados pela linha da tabela
+     */
+    public SalariosMinimosEmLote salariosMinimosQueRecebem(TabelaFuncionarios tabela,
+                                                           BigDecimal... salariosMinimos) {
+        return medir(Operacao.SALARIOS_MINIMOS, tabela.tamanho(),
+                () -> SalariosMinimosEmLote.calcular(tabela, salariosMinimos));
     }
 }
\ No newline at end of file
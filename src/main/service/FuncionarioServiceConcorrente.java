@@ -0,0 +1,301 @@
+package service;
+import consulta.ConsultaFuncionarios;
+import consulta.CursorFuncionarios;
+import model.Funcionario;
+import repository.RepositorioFuncionarios;
+import util.CentavosUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Operações de {@link FuncionarioService} sobre um
+ * {@link RepositorioFuncionarios}, que podem ser chamadas por várias
+ * threads ao mesmo tempo.  Consultas são feitas sob a trava de leitura
+ * do repositório, em paralelo entre si, e remoções, inserções e
+ * reajustes sob a trava de escrita.
+ *
+ * <p>Os resultados são sempre materializados: as listas e mapas
+ * devolvidos são cópias, e os {@link Funcionario} são objetos
+ * independentes do repositório, de modo que alterá-los (por exemplo,
+ * com {@link Funcionario#setSalario(BigDecimal)}) não afeta os dados
+ * compartilhados nem as outras leituras, mesmo quando o serviço usa um
+ * {@link CacheResultados}.
+ */
+public class FuncionarioServiceConcorrente {
+
+    private final FuncionarioService service;
+    private final RepositorioFuncionarios repositorio;
+
+    /**
+     * Cria o serviço concorrente sobre o repositório informado.
+     *
+     * @param repositorio o repositório de funcionários
+     */
+    public FuncionarioServiceConcorrente(RepositorioFuncionarios repositorio) {
+        this(new FuncionarioService(), repositorio);
+    }
+
+    /**
+     * Cria o serviço concorrente sobre o repositório informado,
+     * delegando as regras de negócio ao serviço indicado.
+     *
+     * @param service     o serviço de funcionários
+     * @param repositorio o repositório de funcionários
+     */
+    public FuncionarioServiceConcorrente(FuncionarioService service, RepositorioFuncionarios repositorio) {
+        this.service = service;
+        this.repositorio = repositorio;
+    }
+
+    /**
+     * Adiciona um funcionário ao repositório.
+     *
+     * @param funcionario o funcionário a adicionar
+     */
+    public void adicionar(Funcionario funcionario) {
+        repositorio.alterar(tabela -> tabela.adicionar(funcionario));
+    }
+
+    /**
+     * Remove o primeiro funcionário com o nome indicado, ignorando
+     * maiúsculas e minúsculas.  Como em
+     * {@link FuncionarioService#removerPorNomes(repository.TabelaFuncionarios, Collection)},
+     * a tabela é compactada quando mais da metade das linhas estiver
+     * marcada como removida.
+     *
+     * @param nome o nome do funcionário a remover
+     * @return um Optional contendo o funcionário removido, se ele
+     *     existir
+     * @see FuncionarioService#removerPorNome(repository.TabelaFuncionarios, String)
+     */
+    public Optional<Funcionario> removerPorNome(String nome) {
+        return repositorio.alterar(tabela -> {
+            Optional<Funcionario> removido = service.removerPorNome(tabela, nome);
+            if (tabela.quantidadeRemovidas() > tabela.limite() / 2) {
+                tabela.compactar();
+            }
+            return removido;
+        });
+    }
+
+    /**
+     * Remove um funcionário para cada nome informado, sob uma única
+     * trava de escrita.
+     *
+     * @param nomes os nomes dos funcionários a remover
+     * @return os funcionários removidos, na ordem dos nomes informados
+     */
+    public List<Funcionario> removerPorNomes(Collection<String> nomes) {
+        return repositorio.alterar(tabela -> service.removerPorNomes(tabela, nomes));
+    }
+
+    /**
+     * Procura o primeiro funcionário com o nome indicado, ignorando
+     * maiúsculas e minúsculas.
+     *
+     * @param nome o nome procurado
+     * @return um Optional contendo o funcionário, se ele existir
+     */
+    public Optional<Funcionario> buscarPorNome(String nome) {
+        return repositorio.ler(tabela -> service.buscarPorNome(tabela, nome));
+    }
+
+    /**
+     * Aplica um aumento percentual a todos os funcionários.
+     *
+     * @param percentual o percentual de aumento (por exemplo, 10 para 10%)
+     */
+    public void aplicarAumentoPercentual(BigDecimal percentual) {
+        repositorio.alterar(tabela -> {
+            service.aplicarAumentoPercentual(tabela, percentual);
+            return null;
+        });
+    }
+
+    /**
+     * Aplica um percentual de aumento diferente para cada função.
+     *
+     * @param percentuaisPorFuncao o percentual de aumento de cada função
+     */
+    public void aplicarAumentoPorFuncao(Map<String, BigDecimal> percentuaisPorFuncao) {
+        repositorio.alterar(tabela -> {
+            service.aplicarAumentoPorFuncao(tabela, percentuaisPorFuncao);
+            return null;
+        });
+    }
+
+    /**
+     * Agrupa os funcionários por função.
+     *
+     * @return um novo {@link Map} com a função como chave e a lista de
+     *     funcionários como valor
+     */
+    public Map<String, List<Funcionario>> agruparPorFuncao() {
+        return repositorio.ler(tabela -> new HashMap<>(service.agruparPorFuncao(tabela)));
+    }
+
+    /**
+     * Filtra os funcionários que fazem aniversário nos meses fornecidos.
+     *
+     * @param meses conjunto de meses (1 a 12) a considerar
+     * @return uma lista, na ordem de inserção, dos aniversariantes
+     */
+    public List<Funcionario> aniversariantesNosMeses(Set<Integer> meses) {
+        return repositorio.ler(tabela -> service.aniversariantesNosMeses(tabela, meses));
+    }
+
+    /**
+     * Filtra os funcionários que fazem aniversário nos próximos dias,
+     * contando a data de referência.
+     *
+     * @param referencia a data a partir da qual contar (inclusive)
+     * @param dias       a quantidade de dias do intervalo
+     * @return uma lista, na ordem de inserção, dos aniversariantes
+     */
+    public List<Funcionario> aniversariantesNosProximosDias(LocalDate referencia, int dias) {
+        return repositorio.ler(tabela -> service.aniversariantesNosProximosDias(tabela, referencia, dias));
+    }
+
+    /**
+     * Determina o funcionário mais velho.
+     *
+     * @return um Optional contendo o funcionário mais velho, se
+     *     existir
+     */
+    public Optional<Funcionario> funcionarioMaisVelho() {
+        return repositorio.ler(service::funcionarioMaisVelho);
+    }
+
+    /**
+     * Obtém os {@code k} funcionários mais velhos, do mais velho para o
+     * mais novo.
+     *
+     * @param k a quantidade de funcionários desejada
+     * @return uma lista com no máximo {@code k} funcionários
+     */
+    public List<Funcionario> funcionariosMaisVelhos(int k) {
+        return repositorio.ler(tabela -> service.funcionariosMaisVelhos(tabela, k));
+    }
+
+    /**
+     * Obtém os {@code k} funcionários mais novos, do mais novo para o
+     * mais velho.
+     *
+     * @param k a quantidade de funcionários desejada
+     * @return uma lista com no máximo {@code k} funcionários
+     */
+    public List<Funcionario> funcionariosMaisNovos(int k) {
+        return repositorio.ler(tabela -> service.funcionariosMaisNovos(tabela, k));
+    }
+
+    /**
+     * Obtém uma página dos resultados de uma consulta combinada.  Cada
+     * página é uma leitura independente: se houver alterações entre
+     * duas páginas, a segunda reflete o novo estado.
+     *
+     * @param consulta     os filtros da consulta
+     * @param deslocamento a quantidade de resultados a pular
+     * @param tamanho      a quantidade máxima de resultados da página
+     * @return uma nova lista com os funcionários da página
+     * @see FuncionarioService#consultar(repository.TabelaFuncionarios, ConsultaFuncionarios)
+     */
+    public List<Funcionario> consultar(ConsultaFuncionarios consulta, int deslocamento, int tamanho) {
+        return repositorio.ler(tabela -> {
+            CursorFuncionarios cursor = service.consultar(tabela, consulta);
+            cursor.pular(deslocamento);
+            return cursor.proximaPagina(tamanho);
+        });
+    }
+
+    /**
+     * Conta os resultados de uma consulta combinada.
+     *
+     * @param consulta os filtros da consulta
+     * @return a quantidade de funcionários que a satisfazem
+     */
+    public int contar(ConsultaFuncionarios consulta) {
+        return repositorio.ler(consulta::contar);
+    }
+
+    /**
+     * Conta os funcionários por faixa etária na data de referência.
+     *
+     * @param referencia a data de referência
+     * @param idades     as idades que separam as faixas, em ordem crescente
+     * @return a quantidade de funcionários em cada faixa
+     * @see FuncionarioService#contarPorFaixaEtaria(repository.TabelaFuncionarios, LocalDate, int...)
+     */
+    public int[] contarPorFaixaEtaria(LocalDate referencia, int... idades) {
+        return repositorio.ler(tabela -> service.contarPorFaixaEtaria(tabela, referencia, idades));
+    }
+
+    /**
+     * Conta os funcionários de cada função por faixa etária na data de
+     * referência.
+     *
+     * @param referencia a data de referência
+     * @param idades     as idades que separam as faixas, em ordem crescente
+     * @return a quantidade de funcionários em cada faixa, por função
+     * @see IdadesEmLote#contarPorFuncaoEFaixa(int...)
+     */
+    public Map<String, int[]> contarPorFuncaoEFaixaEtaria(LocalDate referencia, int... idades) {
+        return repositorio.ler(tabela -> service.calcularIdades(tabela, referencia).contarPorFuncaoEFaixa(idades));
+    }
+
+    /**
+     * Retorna os funcionários em ordem alfabética pt-BR.
+     *
+     * @return uma nova lista ordenada por nome
+     */
+    public List<Funcionario> ordenarPorNome() {
+        return repositorio.ler(tabela -> new ArrayList<>(service.ordenarPorNome(tabela)));
+    }
+
+    /**
+     * Obtém o total dos salários.  A leitura é otimista e não espera por
+     * outras leituras.
+     *
+     * @return o total dos salários, com duas casas decimais
+     */
+    public BigDecimal somarSalarios() {
+        return CentavosUtil.paraValor(repositorio.totalCentavos());
+    }
+
+    /**
+     * Obtém o total dos salários de cada função.
+     *
+     * @return um {@link Map} com a função como chave e o total dos
+     *     salários como valor
+     */
+    public Map<String, BigDecimal> somarSalariosPorFuncao() {
+        return repositorio.ler(service::somarSalariosPorFuncao);
+    }
+
+    /**
+     * Calcula as estatísticas dos salários, no total e por função.
+     *
+     * @param limitesHistograma os limites entre as faixas do histograma
+     * @return as estatísticas
+     */
+    public EstatisticasSalariais estatisticasSalariais(BigDecimal... limitesHistograma) {
+        return repositorio.ler(tabela -> service.estatisticasSalariais(tabela, limitesHistograma));
+    }
+
+    /**
+     * Obtém a quantidade de funcionários.  A leitura é otimista e não
+     * espera por outras leituras.
+     *
+     * @return a quantidade de funcionários
+     */
+    public int tamanho() {
+        return repositorio.tamanho();
+    }
+}
@@ -0,0 +1,167 @@
+package service;
+import repository.TabelaFuncionarios;
+import util.DataUtil;
+
+import java.time.LocalDate;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Idades completas, em anos, de todos os funcionários de uma
+ * {@link TabelaFuncionarios} em uma data de referência, calculadas de
+ * uma só vez a partir das datas de nascimento empacotadas (veja
+ * {@link DataUtil#idadesEmAnos(int[], int, int, int[])}).  O resultado
+ * é idêntico, funcionário a funcionário, ao de
+ * {@link FuncionarioService#idadeEmAnos(LocalDate, LocalDate)}, sem
+ * criar nenhum {@link java.time.Period}.
+ *
+ * <p>Sobre as idades calculadas, contagens por faixa etária e por
+ * função e faixa são feitas em uma única passagem, com uma tabela que
+ * associa cada idade à sua faixa.  As contagens consultam a tabela de
+ * origem (linhas removidas e funções); se ela for alterada depois do
+ * cálculo, lançam {@link ConcurrentModificationException}.
+ */
+public class IdadesEmLote {
+
+    /** Idade atribuída às linhas removidas. */
+    public static final int SEM_IDADE = Integer.MIN_VALUE;
+
+    private final TabelaFuncionarios tabela;
+    private final long versao;
+    private final int[] idades;
+
+    private IdadesEmLote(TabelaFuncionarios tabela, int[] idades) {
+        this.tabela = tabela;
+        this.versao = tabela.versao();
+        this.idades = idades;
+    }
+
+    /**
+     * Calcula a idade de todos os funcionários da tabela.
+     *
+     * @param tabela     a tabela a examinar
+     * @param referencia a data de referência
+     * @return as idades calculadas
+     */
+    public static IdadesEmLote calcular(TabelaFuncionarios tabela, LocalDate referencia) {
+        if (referencia == null) {
+            throw new IllegalArgumentException("Data de referência não pode ser nula");
+        }
+        int limite = tabela.limite();
+        int[] idades = new int[limite];
+        tabela.copiarNascimentosEmpacotados(idades);
+        DataUtil.idadesEmAnos(idades, limite,
+                DataUtil.empacotar(referencia.getYear(), referencia.getMonthValue(), referencia.getDayOfMonth()),
+                idades);
+        if (tabela.quantidadeRemovidas() > 0) {
+            for (int linha = 0; linha < limite; linha++) {
+                if (tabela.removida(linha)) {
+                    idades[linha] = SEM_IDADE;
+                }
+            }
+        }
+        return new IdadesEmLote(tabela, idades);
+    }
+
+    /**
+     * Obtém o vetor de idades, indexado pela linha da tabela; linhas
+     * removidas têm {@link #SEM_IDADE}.  O vetor é devolvido sem cópia.
+     *
+     * @return as idades por linha
+     */
+    public int[] idades() {
+        return idades;
+    }
+
+    /**
+     * Obtém a idade do funcionário de uma linha.
+     *
+     * @param linha a linha na tabela
+     * @return a idade em anos, ou {@link #SEM_IDADE} se a linha foi removida
+     */
+    public int idade(int linha) {
+        return idades[linha];
+    }
+
+    /**
+     * Conta os funcionários por faixa etária, com as mesmas faixas de
+     * {@link FuncionarioService#contarPorFaixaEtaria(TabelaFuncionarios, LocalDate, int...)}.
+     *
+     * @param limites as idades que separam as faixas, em ordem crescente
+     * @return a quantidade de funcionários em cada faixa
+     */
+    public int[] contarPorFaixa(int... limites) {
+        int[][] porFuncao = contar(limites);
+        int[] faixas = new int[limites.length + 1];
+        for (int[] contagem : porFuncao) {
+            for (int i = 0; i < faixas.length; i++) {
+                faixas[i] += contagem[i];
+            }
+        }
+        return faixas;
+    }
+
+    /**
+     * Conta os funcionários de cada função por faixa etária.  Funções
+     * sem funcionários ativos não aparecem; a ordem é a de registro das
+     * funções na tabela.
+     *
+     * @param limites as idades que separam as faixas, em ordem crescente
+     * @return a quantidade de funcionários em cada faixa, por função
+     */
+    public Map<String, int[]> contarPorFuncaoEFaixa(int... limites) {
+        int[][] porFuncao = contar(limites);
+        Map<String, int[]> resultado = new LinkedHashMap<>();
+        for (int id = 0; id < porFuncao.length; id++) {
+            int total = 0;
+            for (int quantidade : porFuncao[id]) {
+                total += quantidade;
+            }
+            if (total > 0) {
+                resultado.put(tabela.funcoes().decodificar(id), porFuncao[id]);
+            }
+        }
+        return resultado;
+    }
+
+    private int[][] contar(int[] limites) {
+        if (tabela.versao() != versao) {
+            throw new ConcurrentModificationException("A tabela foi alterada após o cálculo das idades");
+        }
+        for (int i = 1; i < limites.length; i++) {
+            if (limites[i] < limites[i - 1]) {
+                throw new IllegalArgumentException("Idades devem estar em ordem crescente");
+            }
+        }
+        // faixa de cada idade de 0 até o maior limite; idades acima ficam na última
+        int maiorLimite = limites.length == 0 ? 0 : Math.max(0, limites[limites.length - 1]);
+        int[] faixaDaIdade = new int[maiorLimite + 1];
+        for (int idade = 0, faixa = 0; idade <= maiorLimite; idade++) {
+            while (faixa < limites.length && limites[faixa] <= idade) {
+                faixa++;
+            }
+            faixaDaIdade[idade] = faixa;
+        }
+        int faixas = limites.length + 1;
+        int[][] contagens = new int[tabela.funcoes().tamanho()][faixas];
+        for (int linha = 0; linha < idades.length; linha++) {
+            int idade = idades[linha];
+            if (idade == SEM_IDADE) {
+                continue;
+            }
+            int faixa = idade < 0 ? faixaNegativa(limites, idade) : faixaDaIdade[Math.min(idade, maiorLimite)];
+            contagens[tabela.funcaoId(linha)][faixa]++;
+        }
+        return contagens;
+    }
+
+    /** Faixa de uma idade negativa (referência anterior ao nascimento). */
+    private static int faixaNegativa(int[] limites, int idade) {
+        int faixa = 0;
+        while (faixa < limites.length && limites[faixa] <= idade) {
+            faixa++;
+        }
+        return faixa;
+    }
+}
@@ -0,0 +1,226 @@
+package service;
+import repository.FuncionariosVersionados;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Motor de reajuste salarial em lote sobre uma
+ * {@link TabelaFuncionarios} ou sobre uma edição de
+ * {@link FuncionariosVersionados}.  Cada função pode receber um percentual
+ * próprio; os funcionários de funções sem percentual definido recebem
+ * o percentual padrão, se houver, ou permanecem inalterados.
+ *
+ * <p>Os fatores são convertidos uma única vez para ponto fixo e o
+ * cálculo por funcionário é feito apenas com aritmética de
+ * {@code long}, sem criar objetos.  A tabela é dividida em intervalos
+ * processados em paralelo no {@link ForkJoinPool#commonPool()}.  O
+ * resultado é idêntico, centavo a centavo, ao de
+ * {@code salario.multiply(fator).setScale(2, RoundingMode.HALF_UP)}.
+ */
+public class ReajusteSalarial {
+
+    /** Quantidade de linhas abaixo da qual um intervalo não é mais dividido. */
+    public static final int LIMIAR_SEQUENCIAL_PADRAO = 64 * 1024;
+
+    /** Marca de função sem reajuste. */
+    private static final int SEM_REAJUSTE = -1;
+
+    /** Marca de fator que não cabe em ponto fixo e exige {@link BigDecimal}. */
+    private static final int FATOR_EXATO = -2;
+
+    private final BigDecimal percentualPadrao;
+    private final Map<String, BigDecimal> percentuaisPorFuncao = new LinkedHashMap<>();
+    private int limiarSequencial = LIMIAR_SEQUENCIAL_PADRAO;
+
+    /**
+     * Cria um reajuste cujo percentual padrão se aplica a todas as
+     * funções sem percentual específico.
+     *
+     * @param percentualPadrao o percentual padrão (por exemplo, 10 para
+     *     10%), ou {@code null} para não reajustar funções sem
+     *     percentual específico
+     */
+    public ReajusteSalarial(BigDecimal percentualPadrao) {
+        this.percentualPadrao = percentualPadrao;
+    }
+
+    /**
+     * Define o percentual de reajuste de uma função específica.
+     *
+     * @param funcao     o nome da função
+     * @param percentual o percentual de aumento da função
+     * @return este reajuste, para encadeamento
+     */
+    public ReajusteSalarial comPercentual(String funcao, BigDecimal percentual) {
+        if (funcao == null || percentual == null) {
+            throw new IllegalArgumentException("Função e percentual não podem ser nulos");
+        }
+        percentuaisPorFuncao.put(funcao, percentual);
+        return this;
+    }
+
+    /**
+     * Define a quantidade de linhas abaixo da qual a tarefa é executada
+     * sem divisão.  Tabelas menores que o limiar são processadas na
+     * própria thread chamadora.
+     *
+     * @param limiarSequencial a quantidade mínima de linhas por tarefa
+     * @return este reajuste, para encadeamento
+     */
+    public ReajusteSalarial comLimiarSequencial(int limiarSequencial) {
+        if (limiarSequencial < 1) {
+            throw new IllegalArgumentException("Limiar deve ser positivo");
+        }
+        this.limiarSequencial = limiarSequencial;
+        return this;
+    }
+
+    /**
+     * Calcula o fator multiplicativo correspondente a um aumento
+     * percentual (por exemplo, 1.10 para 10%).
+     *
+     * @param percentual o percentual de aumento
+     * @return o fator de multiplicação
+     */
+    static BigDecimal fatorDeAumento(BigDecimal percentual) {
+        if (percentual == null) {
+            throw new IllegalArgumentException("Percentual não pode ser nulo");
+        }
+        return BigDecimal.ONE.add(percentual.divide(new BigDecimal("100")));
+    }
+
+    /**
+     * Aplica o reajuste a todos os funcionários da tabela, alterando os
+     * salários no próprio armazenamento.
+     *
+     * @param tabela a tabela cujos salários serão ajustados
+     */
+    public void aplicar(TabelaFuncionarios tabela) {
+        Fatores fatores = new Fatores(tabela.funcoes().tamanho(), tabela.funcoes()::decodificar);
+        Tarefa tarefa = new Tarefa(tabela, fatores, 0, tabela.limite());
+        tabela.alterarSalariosEmLote(() -> {
+            if (tabela.limite() <= limiarSequencial) {
+                tarefa.compute();
+            } else {
+                ForkJoinPool.commonPool().invoke(tarefa);
+            }
+        });
+    }
+
+    /**
+     * Aplica o reajuste a todos os funcionários de uma edição de
+     * {@link FuncionariosVersionados}.  Só os blocos da edição são
+     * alterados; a versão publicada continua com os salários antigos
+     * até o fim da alteração.
+     *
+     * @param edicao a edição cujos salários serão ajustados
+     */
+    public void aplicar(FuncionariosVersionados.Edicao edicao) {
+        Fatores fatores = new Fatores(edicao.quantidadeFuncoes(), edicao::funcao);
+        edicao.alterarSalarios(fatores::reajustar);
+    }
+
+    /**
+     * Fatores de reajuste de cada função, em ponto fixo quando possível.
+     */
+    private final class Fatores {
+
+        private final long[] fatores;
+        private final int[] escalas;
+        private final BigDecimal[] fatoresExatos;
+
+        Fatores(int quantidadeFuncoes, IntFunction<String> nomeDaFuncao) {
+            fatores = new long[quantidadeFuncoes];
+            escalas = new int[quantidadeFuncoes];
+            fatoresExatos = new BigDecimal[quantidadeFuncoes];
+            for (int id = 0; id < quantidadeFuncoes; id++) {
+                BigDecimal percentual = percentuaisPorFuncao.getOrDefault(nomeDaFuncao.apply(id), percentualPadrao);
+                if (percentual == null) {
+                    escalas[id] = SEM_REAJUSTE;
+                    continue;
+                }
+                BigDecimal fator = fatorDeAumento(percentual);
+                if (fator.scale() <= CentavosUtil.ESCALA_MAXIMA && fator.unscaledValue().bitLength() < Long.SIZE) {
+                    fatores[id] = fator.unscaledValue().longValue();
+                    escalas[id] = fator.scale();
+                } else {
+                    escalas[id] = FATOR_EXATO;
+                    fatoresExatos[id] = fator;
+                }
+            }
+        }
+
+        /**
+         * Calcula o salário reajustado de um funcionário da função.
+         */
+        long reajustar(int id, long centavos) {
+            int escala = escalas[id];
+            if (escala >= 0) {
+                return CentavosUtil.multiplicarHalfUp(centavos, fatores[id], escala);
+            }
+            if (escala == FATOR_EXATO) {
+                BigDecimal novo = CentavosUtil.paraValor(centavos)
+                        .multiply(fatoresExatos[id])
+                        .setScale(2, RoundingMode.HALF_UP);
+                return CentavosUtil.paraCentavos(novo);
+            }
+            return centavos;
+        }
+
+        boolean reajusta(int id) {
+            return escalas[id] != SEM_REAJUSTE;
+        }
+    }
+
+    /**
+     * Tarefa que reajusta um intervalo de linhas, dividindo-o ao meio
+     * enquanto for maior que o limiar sequencial.
+     */
+    private final class Tarefa extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TabelaFuncionarios tabela;
+        private final Fatores fatores;
+        private final int inicio;
+        private final int fim;
+
+        Tarefa(TabelaFuncionarios tabela, Fatores fatores, int inicio, int fim) {
+            this.tabela = tabela;
+            this.fatores = fatores;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= limiarSequencial) {
+                reajustarIntervalo();
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Tarefa(tabela, fatores, inicio, meio),
+                    new Tarefa(tabela, fatores, meio, fim));
+        }
+
+        private void reajustarIntervalo() {
+            for (int linha = inicio; linha < fim; linha++) {
+                if (tabela.removida(linha)) {
+                    continue;
+                }
+                int id = tabela.funcaoId(linha);
+                if (fatores.reajusta(id)) {
+                    tabela.definirSalarioCentavos(linha, fatores.reajustar(id, tabela.salarioCentavos(linha)));
+                }
+            }
+        }
+    }
+}
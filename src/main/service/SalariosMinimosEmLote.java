@@ -0,0 +1,242 @@
+package service;
+import model.Funcionario;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Quantos salários mínimos cada funcionário recebe, calculado de uma
+ * vez para todos os funcionários e para um ou mais valores de salário
+ * mínimo (por exemplo, os de anos anteriores).  Cada resultado é
+ * idêntico ao de
+ * {@link FuncionarioService#salariosMinimosQueRecebe(Funcionario, BigDecimal)},
+ * ou seja, {@code salario.divide(minimo, 2, RoundingMode.HALF_UP)}.
+ *
+ * <p>Os resultados são guardados em colunas de {@code long}, uma por
+ * salário mínimo, em centésimos (1,65 salário mínimo é 165).  Quando
+ * salário e mínimo têm no máximo duas casas decimais, o cálculo é a
+ * divisão inteira {@code 100 * salarioCentavos / minimoCentavos},
+ * arredondada pelo resto, sem criar objetos; os demais casos recorrem a
+ * {@link BigDecimal}.  O salário de cada funcionário é lido uma única
+ * vez para todos os salários mínimos, e conjuntos grandes são
+ * calculados em paralelo.  Um resultado que não caiba em um
+ * {@code long} de centésimos lança {@link ArithmeticException}.
+ */
+public class SalariosMinimosEmLote {
+
+    /** Quantidade de funcionários a partir da qual o cálculo é paralelo. */
+    private static final int LIMIAR_PARALELO = 64 * 1024;
+
+    /** Quantidade de funcionários calculados juntos, coluna por coluna. */
+    private static final int POSICOES_POR_BLOCO = 4096;
+
+    /** Maior salário, em centavos, que pode ser multiplicado por 100. */
+    private static final long MAIOR_CENTAVOS = Long.MAX_VALUE / 100;
+
+    /** Maior dividendo representado exatamente por um {@code double}. */
+    private static final long MAIOR_DIVIDENDO_EXATO = 1L << 52;
+
+    /** Marca os valores que não cabem em centavos. */
+    private static final long FORA_DO_INTERVALO = Long.MIN_VALUE;
+
+    private final BigDecimal[] salariosMinimos;
+    private final long[][] centesimos;
+
+    private SalariosMinimosEmLote(BigDecimal[] salariosMinimos, long[][] centesimos) {
+        this.salariosMinimos = salariosMinimos;
+        this.centesimos = centesimos;
+    }
+
+    /**
+     * Calcula os salários mínimos recebidos pelos funcionários da
+     * lista, na ordem da lista.
+     *
+     * @param funcionarios    os funcionários
+     * @param salariosMinimos os valores de salário mínimo
+     * @return os resultados, indexados pela posição na lista
+     */
+    public static SalariosMinimosEmLote calcular(List<Funcionario> funcionarios, BigDecimal... salariosMinimos) {
+        Funcionario[] origem = funcionarios.toArray(new Funcionario[0]);
+        return calcular(origem.length, salariosMinimos,
+                i -> centavosOuForaDoIntervalo(origem[i].getSalario()), i -> origem[i].getSalario());
+    }
+
+    /**
+     * Calcula os salários mínimos recebidos pelos funcionários da
+     * tabela.  As posições das linhas removidas ficam com zero.
+     *
+     * @param tabela          a tabela de funcionários
+     * @param salariosMinimos os valores de salário mínimo
+     * @return os resultados, indexados pela linha da tabela
+     */
+    public static SalariosMinimosEmLote calcular(TabelaFuncionarios tabela, BigDecimal... salariosMinimos) {
+        return calcular(tabela.limite(), salariosMinimos,
+                linha -> tabela.removida(linha) ? 0 : tabela.salarioCentavos(linha),
+                linha -> tabela.removida(linha) ? BigDecimal.ZERO : CentavosUtil.paraValor(tabela.salarioCentavos(linha)));
+    }
+
+    /**
+     * Preenche as colunas, lendo o salário de cada posição uma única
+     * vez para todos os salários mínimos.  {@code centavos} devolve o
+     * salário da posição, ou {@link #FORA_DO_INTERVALO} quando ele só
+     * pode ser obtido, como {@link BigDecimal}, por {@code salarioExato}.
+     */
+    private static SalariosMinimosEmLote calcular(int tamanho, BigDecimal[] salariosMinimos,
+                                                  IntToLongFunction centavos, IntFunction<BigDecimal> salarioExato) {
+        if (salariosMinimos == null || salariosMinimos.length == 0) {
+            throw new IllegalArgumentException("Informe ao menos um salário mínimo");
+        }
+        BigDecimal[] minimos = salariosMinimos.clone();
+        long[] divisores = new long[minimos.length];
+        double[] inversos = new double[minimos.length];
+        for (int r = 0; r < minimos.length; r++) {
+            if (minimos[r] == null || minimos[r].signum() == 0) {
+                throw new IllegalArgumentException("Salário mínimo não pode ser nulo nem zero");
+            }
+            long minimoCentavos = centavosOuForaDoIntervalo(minimos[r]);
+            divisores[r] = minimoCentavos == FORA_DO_INTERVALO ? 0 : Math.abs(minimoCentavos);
+            inversos[r] = 1.0 / divisores[r];
+        }
+        long[][] centesimos = new long[minimos.length][tamanho];
+        // cada bloco lê os salários uma vez e percorre uma coluna por salário mínimo
+        IntConsumer calculo = bloco -> {
+            int inicio = bloco * POSICOES_POR_BLOCO;
+            int fim = Math.min(tamanho, inicio + POSICOES_POR_BLOCO);
+            long[] salarios = new long[fim - inicio];
+            for (int i = inicio; i < fim; i++) {
+                salarios[i - inicio] = centavos.applyAsLong(i);
+            }
+            for (int r = 0; r < minimos.length; r++) {
+                long[] coluna = centesimos[r];
+                long divisor = divisores[r];
+                double inverso = inversos[r];
+                boolean minimoNegativo = minimos[r].signum() < 0;
+                for (int i = inicio; i < fim; i++) {
+                    long salario = salarios[i - inicio];
+                    if (divisor != 0 && salario != FORA_DO_INTERVALO && Math.abs(salario) <= MAIOR_CENTAVOS) {
+                        long q = dividirHalfUp(Math.abs(salario) * 100, divisor, inverso);
+                        coluna[i] = (salario < 0) != minimoNegativo ? -q : q;
+                    } else {
+                        coluna[i] = salarioExato.apply(i).divide(minimos[r], 2, RoundingMode.HALF_UP)
+                                .unscaledValue().longValueExact();
+                    }
+                }
+            }
+        };
+        int blocos = (tamanho + POSICOES_POR_BLOCO - 1) / POSICOES_POR_BLOCO;
+        IntStream indices = IntStream.range(0, blocos);
+        (tamanho >= LIMIAR_PARALELO ? indices.parallel() : indices).forEach(calculo);
+        return new SalariosMinimosEmLote(minimos, centesimos);
+    }
+
+    /**
+     * Divide valores não negativos com arredondamento
+     * {@link RoundingMode#HALF_UP}.  Até {@link #MAIOR_DIVIDENDO_EXATO},
+     * o quociente é estimado pelo inverso do divisor, em ponto
+     * flutuante, e acertado pelo resto, que é calculado exatamente: a
+     * estimativa erra no máximo por um.  Acima disso, recorre a
+     * {@link CentavosUtil#dividirHalfUp(long, long)}.
+     */
+    private static long dividirHalfUp(long dividendo, long divisor, double inverso) {
+        if (dividendo > MAIOR_DIVIDENDO_EXATO) {
+            return CentavosUtil.dividirHalfUp(dividendo, divisor);
+        }
+        long quociente = (long) (dividendo * inverso);
+        long resto = dividendo - quociente * divisor;
+        if (resto < 0) {
+            quociente--;
+            resto += divisor;
+        } else if (resto >= divisor) {
+            quociente++;
+            resto -= divisor;
+        }
+        return resto >= divisor - resto ? quociente + 1 : quociente;
+    }
+
+    /**
+     * Converte o valor para centavos, ou devolve {@link #FORA_DO_INTERVALO}
+     * se ele tiver mais de duas casas decimais ou não couber em um
+     * {@code long}.
+     */
+    private static long centavosOuForaDoIntervalo(BigDecimal valor) {
+        if (valor.scale() == 2 && valor.precision() <= 18) {
+            return valor.unscaledValue().longValue();
+        }
+        try {
+            return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return FORA_DO_INTERVALO;
+        }
+    }
+
+    /**
+     * Obtém a quantidade de valores de salário mínimo calculados.
+     *
+     * @return a quantidade de referências
+     */
+    public int quantidadeReferencias() {
+        return salariosMinimos.length;
+    }
+
+    /**
+     * Obtém um dos valores de salário mínimo, na ordem informada.
+     *
+     * @param referencia a posição do salário mínimo
+     * @return o valor do salário mínimo
+     */
+    public BigDecimal salarioMinimo(int referencia) {
+        return salariosMinimos[referencia];
+    }
+
+    /**
+     * Obtém a quantidade de posições de cada coluna: o tamanho da lista
+     * ou o limite da tabela.
+     *
+     * @return a quantidade de posições
+     */
+    public int tamanho() {
+        return centesimos[0].length;
+    }
+
+    /**
+     * Obtém a coluna de resultados de um salário mínimo, em
+     * centésimos.  O vetor é devolvido sem cópia.
+     *
+     * @param referencia a posição do salário mínimo
+     * @return os resultados em centésimos
+     */
+    public long[] centesimos(int referencia) {
+        return centesimos[referencia];
+    }
+
+    /**
+     * Obtém um resultado em centésimos.
+     *
+     * @param referencia a posição do salário mínimo
+     * @param posicao    a posição do funcionário
+     * @return quantos centésimos de salário mínimo o funcionário recebe
+     */
+    public long centesimos(int referencia, int posicao) {
+        return centesimos[referencia][posicao];
+    }
+
+    /**
+     * Obtém um resultado como {@link BigDecimal} de duas casas, igual
+     * ao de
+     * {@link FuncionarioService#salariosMinimosQueRecebe(Funcionario, BigDecimal)}.
+     *
+     * @param referencia a posição do salário mínimo
+     * @param posicao    a posição do funcionário
+     * @return a quantidade de salários mínimos recebidos
+     */
+    public BigDecimal quantidade(int referencia, int posicao) {
+        return BigDecimal.valueOf(centesimos[referencia][posicao], 2);
+    }
+}
@@ -0,0 +1,116 @@
+package util;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Classe utilitária para aritmética de valores monetários em ponto
+ * fixo.  Os valores são representados como {@code long} contendo a
+ * quantidade de centavos, o que evita a criação de objetos
+ * {@link BigDecimal} nos laços sobre grandes volumes de funcionários.
+ * Todas as operações reproduzem exatamente o arredondamento
+ * {@link RoundingMode#HALF_UP} utilizado pela camada de serviço.
+ */
+public final class CentavosUtil {
+
+    /** Maior escala para a qual 10^escala cabe em um {@code long}. */
+    public static final int ESCALA_MAXIMA = 18;
+
+    /** Potências de dez pré-calculadas de 10^0 até 10^18. */
+    private static final long[] POTENCIAS_DE_DEZ = new long[ESCALA_MAXIMA + 1];
+
+    static {
+        POTENCIAS_DE_DEZ[0] = 1L;
+        for (int i = 1; i <= ESCALA_MAXIMA; i++) {
+            POTENCIAS_DE_DEZ[i] = POTENCIAS_DE_DEZ[i - 1] * 10L;
+        }
+    }
+
+    private CentavosUtil() {
+        // classe utilitária; não deve ser instanciada
+    }
+
+    /**
+     * Converte um valor monetário para centavos.  O valor não pode ter
+     * mais de duas casas decimais significativas, pois isso exigiria
+     * arredondamento e alteraria o resultado dos cálculos.
+     *
+     * @param valor o valor a converter
+     * @return a quantidade de centavos
+     * @throws IllegalArgumentException se o valor for nulo, tiver mais
+     *     de duas casas decimais ou não couber em um {@code long}
+     */
+    public static long paraCentavos(BigDecimal valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Valor não pode ser nulo");
+        }
+        try {
+            return valor.setScale(2, RoundingMode.UNNECESSARY)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor não representável em centavos: " + valor, e);
+        }
+    }
+
+    /**
+     * Converte uma quantidade de centavos para {@link BigDecimal} com
+     * duas casas decimais.
+     *
+     * @param centavos a quantidade de centavos
+     * @return o valor correspondente
+     */
+    public static BigDecimal paraValor(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Retorna 10 elevado à escala informada.
+     *
+     * @param escala expoente entre 0 e {@link #ESCALA_MAXIMA}
+     * @return 10^escala
+     */
+    public static long potenciaDeDez(int escala) {
+        return POTENCIAS_DE_DEZ[escala];
+    }
+
+    /**
+     * Multiplica uma quantidade de centavos por um fator em ponto fixo
+     * ({@code fator / 10^escala}) e arredonda o resultado para centavos
+     * com {@link RoundingMode#HALF_UP}.  O resultado é idêntico a
+     * {@code paraValor(centavos).multiply(fator).setScale(2, HALF_UP)}.
+     * Quando o produto intermediário não cabe em um {@code long}, o
+     * cálculo é refeito com {@link BigDecimal}.
+     *
+     * @param centavos o valor original em centavos
+     * @param fator    o fator sem escala
+     * @param escala   a escala do fator, entre 0 e {@link #ESCALA_MAXIMA}
+     * @return o valor resultante em centavos
+     */
+    public static long multiplicarHalfUp(long centavos, long fator, int escala) {
+        long produto = centavos * fator;
+        if (Math.multiplyHigh(centavos, fator) != (produto >> 63)) {
+            return BigDecimal.valueOf(centavos)
+                    .multiply(BigDecimal.valueOf(fator))
+                    .divide(BigDecimal.valueOf(POTENCIAS_DE_DEZ[escala]), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+        return dividirHalfUp(produto, POTENCIAS_DE_DEZ[escala]);
+    }
+
+    /**
+     * Divide dois valores inteiros arredondando o quociente com
+     * {@link RoundingMode#HALF_UP} (meio afastado de zero).
+     *
+     * @param dividendo o dividendo
+     * @param divisor   o divisor, diferente de zero
+     * @return o quociente arredondado
+     */
+    public static long dividirHalfUp(long dividendo, long divisor) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (resto != 0 && Math.abs(resto) >= Math.abs(divisor) - Math.abs(resto)) {
+            quociente += ((dividendo ^ divisor) < 0) ? -1 : 1;
+        }
+        return quociente;
+    }
+}
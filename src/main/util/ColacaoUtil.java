@@ -0,0 +1,66 @@
+package util;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Classe utilitária para ordenar nomes segundo as regras do português
+ * brasileiro.  A comparação por {@link String#compareTo(String)} usa o
+ * código UTF-16 de cada caractere e coloca, por exemplo, "Ângela"
+ * depois de "Zoë"; o {@link Collator} de pt-BR trata letras acentuadas
+ * como variantes da letra base.
+ *
+ * <p>Para ordenar muitos nomes, cada nome é convertido uma única vez em
+ * uma chave de colação (vetor de bytes), e as chaves são comparadas
+ * byte a byte, o que é bem mais barato que chamar o {@code Collator} a
+ * cada comparação.  Como {@link Collator} não é seguro para uso
+ * concorrente, cada thread usa sua própria instância.
+ */
+public final class ColacaoUtil {
+
+    /** Colador pt-BR de cada thread. */
+    private static final ThreadLocal<Collator> COLADOR =
+            ThreadLocal.withInitial(() -> Collator.getInstance(new Locale("pt", "BR")));
+
+    private ColacaoUtil() {
+        // classe utilitária; não deve ser instanciada
+    }
+
+    /**
+     * Calcula a chave de colação pt-BR de um nome.
+     *
+     * @param nome o nome
+     * @return a chave, comparável com {@link #comparar(byte[], byte[])}
+     */
+    public static byte[] chave(String nome) {
+        return COLADOR.get().getCollationKey(nome).toByteArray();
+    }
+
+    /**
+     * Compara duas chaves de colação.  O resultado tem o mesmo sinal
+     * da comparação dos nomes pelo {@link Collator} de pt-BR.
+     *
+     * @param a a primeira chave
+     * @param b a segunda chave
+     * @return negativo, zero ou positivo, como em {@link Comparable}
+     */
+    public static int comparar(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    /**
+     * Compara duas chaves de colação guardadas em trechos de vetores,
+     * como quando várias chaves são concatenadas em um único vetor.
+     *
+     * @param a       o vetor da primeira chave
+     * @param inicioA o início da primeira chave (inclusive)
+     * @param fimA    o fim da primeira chave (exclusivo)
+     * @param b       o vetor da segunda chave
+     * @param inicioB o início da segunda chave (inclusive)
+     * @param fimB    o fim da segunda chave (exclusivo)
+     * @return negativo, zero ou positivo, como em {@link Comparable}
+     */
+    public static int comparar(byte[] a, int inicioA, int fimA, byte[] b, int inicioB, int fimB) {
+        return Arrays.compareUnsigned(a, inicioA, fimA, b, inicioB, fimB);
+    }
+}
@@ -0,0 +1,198 @@
+package util;
+import java.time.LocalDate;
+
+/**
+ * Classe utilitária para manipular datas representadas como inteiros
+ * primitivos.  Uma data pode ser guardada como dia epoch (número de
+ * dias desde 01/01/1970, o mesmo valor de
+ * {@link LocalDate#toEpochDay()}) ou de forma empacotada, com ano, mês
+ * e dia em campos de bits de um único {@code int}.  As conversões não
+ * criam objetos {@link LocalDate}.
+ */
+public final class DataUtil {
+
+    /** Dias em um ciclo de 400 anos do calendário gregoriano. */
+    private static final int DIAS_POR_CICLO = 146097;
+
+    /** Deslocamento entre 01/03/0000 e 01/01/1970, em dias. */
+    private static final int DIAS_ATE_1970 = 719468;
+
+    private DataUtil() {
+        // classe utilitária; não deve ser instanciada
+    }
+
+    /**
+     * Converte uma data para dia epoch.
+     *
+     * @param data a data a converter
+     * @return o número de dias desde 01/01/1970
+     */
+    public static int paraEpochDay(LocalDate data) {
+        return Math.toIntExact(data.toEpochDay());
+    }
+
+    /**
+     * Converte ano, mês e dia para dia epoch sem criar um
+     * {@link LocalDate}.  Os valores não são validados; use
+     * {@link #dataValida(int, int, int)} antes quando vierem de fontes
+     * externas.
+     *
+     * @param ano o ano
+     * @param mes o mês, de 1 a 12
+     * @param dia o dia do mês
+     * @return o número de dias desde 01/01/1970
+     */
+    public static int paraEpochDay(int ano, int mes, int dia) {
+        int anoDesdeMarco = mes <= 2 ? ano - 1 : ano;
+        int era = (anoDesdeMarco >= 0 ? anoDesdeMarco : anoDesdeMarco - 399) / 400;
+        int anoDaEra = anoDesdeMarco - era * 400;
+        int diaDoAno = (153 * (mes > 2 ? mes - 3 : mes + 9) + 2) / 5 + dia - 1;
+        int diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+        return era * DIAS_POR_CICLO + diaDaEra - DIAS_ATE_1970;
+    }
+
+    /**
+     * Indica se o ano é bissexto no calendário gregoriano.
+     *
+     * @param ano o ano
+     * @return {@code true} se o ano for bissexto
+     */
+    public static boolean bissexto(int ano) {
+        return (ano & 3) == 0 && (ano % 100 != 0 || ano % 400 == 0);
+    }
+
+    /**
+     * Verifica se ano, mês e dia formam uma data existente.
+     *
+     * @param ano o ano
+     * @param mes o mês
+     * @param dia o dia do mês
+     * @return {@code true} se a data existir
+     */
+    public static boolean dataValida(int ano, int mes, int dia) {
+        if (mes < 1 || mes > 12 || dia < 1) {
+            return false;
+        }
+        int diasNoMes = mes == 2 ? (bissexto(ano) ? 29 : 28) : 30 + ((mes + (mes >> 3)) & 1);
+        return dia <= diasNoMes;
+    }
+
+    /**
+     * Converte um dia epoch para a representação empacotada
+     * {@code ano << 9 | mes << 5 | dia}.  Utiliza o algoritmo de
+     * conversão civil de Howard Hinnant, que trabalha apenas com
+     * aritmética inteira.
+     *
+     * @param epochDay o número de dias desde 01/01/1970
+     * @return a data empacotada
+     */
+    public static int empacotar(int epochDay) {
+        int z = epochDay + DIAS_ATE_1970;
+        int era = (z >= 0 ? z : z - (DIAS_POR_CICLO - 1)) / DIAS_POR_CICLO;
+        int diaDaEra = z - era * DIAS_POR_CICLO;
+        int anoDaEra = (diaDaEra - diaDaEra / 1460 + diaDaEra / 36524 - diaDaEra / 146096) / 365;
+        int diaDoAno = diaDaEra - (365 * anoDaEra + anoDaEra / 4 - anoDaEra / 100);
+        int mesDesdeMarco = (5 * diaDoAno + 2) / 153;
+        int dia = diaDoAno - (153 * mesDesdeMarco + 2) / 5 + 1;
+        int mes = mesDesdeMarco < 10 ? mesDesdeMarco + 3 : mesDesdeMarco - 9;
+        int ano = anoDaEra + era * 400 + (mes <= 2 ? 1 : 0);
+        return empacotar(ano, mes, dia);
+    }
+
+    /**
+     * Empacota ano, mês e dia em um único {@code int}.
+     *
+     * @param ano o ano
+     * @param mes o mês, de 1 a 12
+     * @param dia o dia do mês, de 1 a 31
+     * @return a data empacotada
+     */
+    public static int empacotar(int ano, int mes, int dia) {
+        return (ano << 9) | (mes << 5) | dia;
+    }
+
+    /**
+     * Obtém o ano de uma data empacotada.
+     *
+     * @param dataEmpacotada a data empacotada
+     * @return o ano
+     */
+    public static int ano(int dataEmpacotada) {
+        return dataEmpacotada >> 9;
+    }
+
+    /**
+     * Obtém o mês (1 a 12) de uma data empacotada.
+     *
+     * @param dataEmpacotada a data empacotada
+     * @return o mês
+     */
+    public static int mes(int dataEmpacotada) {
+        return (dataEmpacotada >>> 5) & 0xF;
+    }
+
+    /**
+     * Obtém o dia do mês de uma data empacotada.
+     *
+     * @param dataEmpacotada a data empacotada
+     * @return o dia do mês
+     */
+    public static int dia(int dataEmpacotada) {
+        return dataEmpacotada & 0x1F;
+    }
+
+    /**
+     * Obtém o mês (1 a 12) de um dia epoch.
+     *
+     * @param epochDay o número de dias desde 01/01/1970
+     * @return o mês
+     */
+    public static int mesDoEpochDay(int epochDay) {
+        return mes(empacotar(epochDay));
+    }
+
+    /**
+     * Calcula a idade completa, em anos, entre duas datas empacotadas,
+     * com o mesmo resultado de
+     * {@code Period.between(nascimento, referencia).getYears()}.
+     *
+     * <p>Como o empacotamento equivale a {@code ano * 512 + mes * 32 + dia},
+     * a diferença entre as duas datas dividida por 512 (um deslocamento)
+     * já desconta o ano em que o aniversário ainda não chegou: se mês e
+     * dia da referência são menores que os do nascimento, a subtração
+     * "pede emprestado" do campo do ano.  Nascidos em 29 de fevereiro
+     * completam anos em 1º de março nos anos não bissextos, como em
+     * {@link java.time.Period}.  Para referências anteriores ao
+     * nascimento o resultado é negativo e arredondado em direção a zero.
+     *
+     * @param nascimento a data de nascimento empacotada
+     * @param referencia a data de referência empacotada
+     * @return a idade em anos completos
+     */
+    public static int idadeEmAnos(int nascimento, int referencia) {
+        int diferenca = referencia - nascimento;
+        return diferenca >= 0 ? diferenca >> 9 : -(-diferenca >> 9);
+    }
+
+    /**
+     * Calcula em lote a idade completa de cada data empacotada do vetor
+     * na data de referência, segundo a regra de
+     * {@link #idadeEmAnos(int, int)}.  O laço só faz subtrações e
+     * deslocamentos sobre vetores primitivos, sem desvios dependentes
+     * dos dados, e pode ser vetorizado pelo compilador JIT.  A origem e
+     * o destino podem ser o mesmo vetor.
+     *
+     * @param nascimentos as datas de nascimento empacotadas
+     * @param quantidade  a quantidade de posições a calcular
+     * @param referencia  a data de referência empacotada
+     * @param destino     o vetor que recebe as idades
+     */
+    public static void idadesEmAnos(int[] nascimentos, int quantidade, int referencia, int[] destino) {
+        for (int i = 0; i < quantidade; i++) {
+            int diferenca = referencia - nascimentos[i];
+            // sinal: 0 para diferenças positivas, -1 para negativas
+            int sinal = diferenca >> 31;
+            destino[i] = (((diferenca ^ sinal) - sinal) >> 9 ^ sinal) - sinal;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package util;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+
+/**
+ * Formatador de valores monetários e datas no padrão brasileiro que
+ * trabalha diretamente sobre representações primitivas: valores em
+ * centavos ({@code long}) e datas como dia epoch ({@code int}).  O
+ * texto é acrescentado ao destino fornecido pelo chamador
+ * ({@link StringBuilder}, {@link CharBuffer} ou {@link ByteBuffer}),
+ * sem criar objetos intermediários.
+ *
+ * <p>A saída é idêntica, caractere a caractere, à de
+ * {@link FormatadorUtil}: valores como {@code 1.234,56} e datas como
+ * {@code dd/MM/yyyy}.  Em {@link ByteBuffer} o texto é gravado em
+ * ASCII, que coincide com UTF-8 para esses caracteres.  A classe não
+ * possui estado mutável compartilhado e pode ser usada por várias
+ * threads ao mesmo tempo.
+ */
+public final class FormatadorBrasileiro {
+
+    /** Maior quantidade de caracteres de um valor formatado. */
+    private static final int TAMANHO_MAXIMO_VALOR = 32;
+
+    /** Área de trabalho de cada thread para montar o texto. */
+    private static final ThreadLocal<char[]> AREA =
+            ThreadLocal.withInitial(() -> new char[TAMANHO_MAXIMO_VALOR]);
+
+    private FormatadorBrasileiro() {
+        // classe utilitária; não deve ser instanciada
+    }
+
+    /**
+     * Formata um valor em centavos como {@code 1.234,56}.
+     *
+     * @param centavos o valor em centavos
+     * @return o valor formatado
+     */
+    public static String formatarValor(long centavos) {
+        char[] area = AREA.get();
+        int inicio = montarValor(area, centavos);
+        return new String(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Formata uma data representada como dia epoch no formato
+     * {@code dd/MM/yyyy}.
+     *
+     * @param epochDay o número de dias desde 01/01/1970
+     * @return a data formatada
+     */
+    public static String formatarData(int epochDay) {
+        char[] area = AREA.get();
+        int inicio = montarData(area, epochDay);
+        return new String(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Acrescenta um valor em centavos formatado como {@code 1.234,56}.
+     *
+     * @param destino  o destino do texto
+     * @param centavos o valor em centavos
+     */
+    public static void anexarValor(StringBuilder destino, long centavos) {
+        char[] area = AREA.get();
+        int inicio = montarValor(area, centavos);
+        destino.append(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Acrescenta um valor em centavos formatado como {@code 1.234,56}.
+     *
+     * @param destino  o destino do texto
+     * @param centavos o valor em centavos
+     */
+    public static void anexarValor(CharBuffer destino, long centavos) {
+        char[] area = AREA.get();
+        int inicio = montarValor(area, centavos);
+        destino.put(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Acrescenta um valor em centavos formatado como {@code 1.234,56},
+     * codificado em ASCII.
+     *
+     * @param destino  o destino do texto
+     * @param centavos o valor em centavos
+     */
+    public static void anexarValor(ByteBuffer destino, long centavos) {
+        char[] area = AREA.get();
+        anexarAscii(destino, area, montarValor(area, centavos));
+    }
+
+    /**
+     * Acrescenta uma data, representada como dia epoch, no formato
+     * {@code dd/MM/yyyy}.
+     *
+     * @param destino  o destino do texto
+     * @param epochDay o número de dias desde 01/01/1970
+     */
+    public static void anexarData(StringBuilder destino, int epochDay) {
+        char[] area = AREA.get();
+        int inicio = montarData(area, epochDay);
+        destino.append(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Acrescenta uma data, representada como dia epoch, no formato
+     * {@code dd/MM/yyyy}.
+     *
+     * @param destino  o destino do texto
+     * @param epochDay o número de dias desde 01/01/1970
+     */
+    public static void anexarData(CharBuffer destino, int epochDay) {
+        char[] area = AREA.get();
+        int inicio = montarData(area, epochDay);
+        destino.put(area, inicio, area.length - inicio);
+    }
+
+    /**
+     * Acrescenta uma data, representada como dia epoch, no formato
+     * {@code dd/MM/yyyy}, codificada em ASCII.
+     *
+     * @param destino  o destino do texto
+     * @param epochDay o número de dias desde 01/01/1970
+     */
+    public static void anexarData(ByteBuffer destino, int epochDay) {
+        char[] area = AREA.get();
+        anexarAscii(destino, area, montarData(area, epochDay));
+    }
+
+    private static void anexarAscii(ByteBuffer destino, char[] area, int inicio) {
+        for (int i = inicio; i < area.length; i++) {
+            destino.put((byte) area[i]);
+        }
+    }
+
+    /**
+     * Monta o valor no final da área, da direita para a esquerda.
+     *
+     * @return a posição do primeiro caractere
+     */
+    private static int montarValor(char[] area, long centavos) {
+        int posicao = area.length;
+        // trabalha com valores negativos para cobrir também Long.MIN_VALUE
+        long restante = centavos < 0 ? centavos : -centavos;
+        area[--posicao] = (char) ('0' - restante % 10);
+        restante /= 10;
+        area[--posicao] = (char) ('0' - restante % 10);
+        restante /= 10;
+        area[--posicao] = ',';
+        int digitos = 0;
+        do {
+            if (digitos > 0 && digitos % 3 == 0) {
+                area[--posicao] = '.';
+            }
+            area[--posicao] = (char) ('0' - restante % 10);
+            restante /= 10;
+            digitos++;
+        } while (restante != 0);
+        if (centavos < 0) {
+            area[--posicao] = '-';
+        }
+        return posicao;
+    }
+
+    /**
+     * Monta a data no final da área.  Anos fora do intervalo de 1 a
+     * 9999, que o {@link java.time.format.DateTimeFormatter} escreve
+     * com sinal ou era, são delegados a ele.
+     *
+     * @return a posição do primeiro caractere
+     */
+    private static int montarData(char[] area, int epochDay) {
+        int data = DataUtil.empacotar(epochDay);
+        int ano = DataUtil.ano(data);
+        if (ano < 1 || ano > 9999) {
+            String texto = FormatadorUtil.formatarData(LocalDate.ofEpochDay(epochDay));
+            texto.getChars(0, texto.length(), area, area.length - texto.length());
+            return area.length - texto.length();
+        }
+        int posicao = area.length;
+        for (int i = 0; i < 4; i++) {
+            area[--posicao] = (char) ('0' + ano % 10);
+            ano /= 10;
+        }
+        area[--posicao] = '/';
+        int mes = DataUtil.mes(data);
+        area[--posicao] = (char) ('0' + mes % 10);
+        area[--posicao] = (char) ('0' + mes / 10);
+        area[--posicao] = '/';
+        int dia = DataUtil.dia(data);
+        area[--posicao] = (char) ('0' + dia % 10);
+        area[--posicao] = (char) ('0' + dia / 10);
+        return posicao;
+    }
+}
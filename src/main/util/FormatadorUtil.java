@@ -10,6 +10,12 @@ import java.util.Locale;
  * valores monetários.  A formatação segue o padrão brasileiro, com
  * datas no formato dd/MM/yyyy e números com separador de milhar como
  * ponto e separador decimal como vírgula.
+ *
+ * <p>Os métodos podem ser chamados por várias threads ao mesmo tempo.
+ * Valores com até duas casas decimais são formatados por
+ * {@link FormatadorBrasileiro}; os demais usam um {@link NumberFormat}
+ * próprio de cada thread, pois essa classe não é segura para uso
+ * concorrente.
  */
 public final class FormatadorUtil {
 
@@ -18,13 +24,15 @@ public final class FormatadorUtil {
             DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     /** Formata números com separador de milhar e decimal no padrão BR. */
-    private static final NumberFormat VALOR_FORMATADOR;
+    private static final ThreadLocal<NumberFormat> VALOR_FORMATADOR = ThreadLocal.withInitial(() -> {
+        NumberFormat formatador = NumberFormat.getInstance(new Locale("pt", "BR"));
+        formatador.setMinimumFractionDigits(2);
+        formatador.setMaximumFractionDigits(2);
+        return formatador;
+    });
 
-    static {
-        VALOR_FORMATADOR = NumberFormat.getInstance(new Locale("pt", "BR"));
-        VALOR_FORMATADOR.setMinimumFractionDigits(2);
-        VALOR_FORMATADOR.setMaximumFractionDigits(2);
-    }
+    /** Maior precisão para a qual o valor em centavos cabe em um {@code long}. */
+    private static final int PRECISAO_MAXIMA_CENTAVOS = 18;
 
     private FormatadorUtil() {
         // classe utilitária; não deve ser instanciada
@@ -49,6 +57,10 @@ public final class FormatadorUtil {
      * @return a representação formatada
      */
     public static String formatarValor(BigDecimal valor) {
-        return VALOR_FORMATADOR.format(valor);
+        if (valor.scale() >= 0 && valor.scale() <= 2
+                && valor.precision() - valor.scale() <= PRECISAO_MAXIMA_CENTAVOS - 2) {
+            return FormatadorBrasileiro.formatarValor(valor.movePointRight(2).longValueExact());
+        }
+        return VALOR_FORMATADOR.get().format(valor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package repository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes dos agregados materializados {@link AgregadosSalariais}.  Uma
+ * sequência aleatória de alterações é aplicada à tabela e, após cada
+ * passo, os agregados incrementais são comparados com um recálculo
+ * completo.
+ */
+public class AgregadosSalariaisTest {
+
+    private static final String[] FUNCOES = {"Operador", "Gerente", "Diretor", "Estagiário"};
+
+    @Test
+    public void testAgregadosConsistentesAposAlteracoesAleatorias() {
+        Random random = new Random(11);
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        AgregadosSalariais agregados = tabela.agregados();
+        for (int passo = 0; passo < 5_000; passo++) {
+            int operacao = random.nextInt(10);
+            if (operacao < 4 || tabela.tamanho() == 0) {
+                tabela.adicionar("F" + passo,
+                        LocalDate.ofEpochDay(random.nextInt(2_000)),
+                        BigDecimal.valueOf(random.nextInt(1_000), 2),
+                        FUNCOES[random.nextInt(FUNCOES.length)]);
+            } else {
+                int linha = linhaAtivaAleatoria(tabela, random);
+                if (operacao < 6) {
+                    tabela.remover(linha);
+                } else if (operacao < 8) {
+                    tabela.definirSalarioCentavos(linha, random.nextInt(1_000));
+                } else if (operacao < 9) {
+                    tabela.definirFuncao(linha, FUNCOES[random.nextInt(FUNCOES.length)]);
+                } else if (tabela.quantidadeRemovidas() > 0) {
+                    tabela.compactar();
+                }
+            }
+            agregados.verificarConsistencia();
+        }
+    }
+
+    @Test
+    public void testAgregadosAposReajusteEmLote() {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        tabela.adicionar("Ana", LocalDate.of(1970, 1, 1), new BigDecimal("1000.00"), "Operador");
+        tabela.adicionar("Bia", LocalDate.of(1960, 1, 1), new BigDecimal("3000.00"), "Gerente");
+        AgregadosSalariais agregados = tabela.agregados();
+        tabela.alterarSalariosEmLote(() -> {
+            tabela.definirSalarioCentavos(0, 110_000);
+            tabela.definirSalarioCentavos(1, 330_000);
+        });
+        assertEquals(440_000, agregados.total());
+        assertEquals(110_000, agregados.menorSalario().orElseThrow());
+        assertEquals(330_000, agregados.maiorSalario().orElseThrow());
+        assertEquals(1, agregados.linhaMaisVelha());
+        tabela.remover(1);
+        assertEquals(0, agregados.linhaMaisVelha());
+        assertEquals(110_000, agregados.maiorSalario().orElseThrow());
+        agregados.verificarConsistencia();
+    }
+
+    @Test
+    public void testAgregadosConsistentesEmVariosBlocos() {
+        Random random = new Random(12);
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        AgregadosSalariais agregados = tabela.agregados();
+        for (int i = 0; i < 5 * AgregadosSalariais.LINHAS_POR_BLOCO; i++) {
+            tabela.adicionar("F" + i, LocalDate.ofEpochDay(random.nextInt(20_000)),
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), FUNCOES[random.nextInt(FUNCOES.length)]);
+        }
+        for (int passo = 0; passo < 2_000; passo++) {
+            int linha = linhaAtivaAleatoria(tabela, random);
+            int operacao = random.nextInt(4);
+            if (operacao == 0) {
+                tabela.remover(linha);
+            } else if (operacao == 1) {
+                tabela.definirSalarioCentavos(linha, random.nextInt(1_000_000));
+            } else if (operacao == 2) {
+                tabela.adicionar("N" + passo, LocalDate.ofEpochDay(random.nextInt(20_000)),
+                        BigDecimal.valueOf(random.nextInt(1_000_000), 2), FUNCOES[random.nextInt(FUNCOES.length)]);
+            } else {
+                // remove quem detém um extremo, forçando o bloco a ser percorrido de novo
+                tabela.remover(random.nextBoolean() ? agregados.linhaMaisVelha() : linhaComSalario(tabela,
+                        random.nextBoolean() ? agregados.menorSalario().orElseThrow()
+                                : agregados.maiorSalario().orElseThrow()));
+            }
+            if (passo % 50 == 0) {
+                agregados.verificarConsistencia();
+            }
+        }
+        agregados.verificarConsistencia();
+    }
+
+    @Test
+    public void testTotalQueNaoCabeEmUmLong() {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        AgregadosSalariais agregados = tabela.agregados();
+        tabela.adicionar("Ana", LocalDate.of(1970, 1, 1), new BigDecimal("1.00"), "Operador");
+        tabela.adicionar("Bia", LocalDate.of(1960, 1, 1), new BigDecimal("2.00"), "Operador");
+        tabela.definirSalarioCentavos(0, Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, agregados::total);
+        assertThrows(ArithmeticException.class, () -> agregados.totalPorFuncao(0));
+        assertEquals(2, agregados.quantidade());
+        assertEquals(Long.MAX_VALUE, agregados.maiorSalario().orElseThrow());
+        tabela.remover(1);
+        assertEquals(Long.MAX_VALUE, agregados.total());
+        assertEquals(Long.MAX_VALUE, agregados.totalPorFuncao(0));
+        agregados.verificarConsistencia();
+    }
+
+    @Test
+    public void testLeituraOtimistaNaoRecalculaTotalDesatualizado() throws Exception {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        tabela.adicionar("Ana", LocalDate.of(1970, 1, 1), new BigDecimal("1.00"), "Operador");
+        tabela.adicionar("Bia", LocalDate.of(1960, 1, 1), new BigDecimal("2.00"), "Operador");
+        RepositorioFuncionarios repositorio = new RepositorioFuncionarios(tabela);
+        AgregadosSalariais agregados = tabela.agregados();
+        CountDownLatch alterado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> escrita = CompletableFuture.runAsync(() -> repositorio.alterar(alterada -> {
+            alterada.definirSalarioCentavos(0, Long.MAX_VALUE);
+            alterado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return alterada.remover(1);
+        }));
+        alterado.await();
+
+        // com a escrita em andamento, a leitura espera a trava em vez de recalcular ou falhar
+        CompletableFuture<Long> leitura = CompletableFuture.supplyAsync(repositorio::totalCentavos);
+        Thread.sleep(100);
+        assertFalse(leitura.isDone());
+        assertTrue(agregados.totaisDesatualizados());
+
+        liberar.countDown();
+        escrita.get(10, TimeUnit.SECONDS);
+        assertEquals(Long.MAX_VALUE, leitura.get(10, TimeUnit.SECONDS));
+        assertEquals(Long.MAX_VALUE, repositorio.totalCentavos());
+    }
+
+    @Test
+    public void testAlteracaoDeLinhaRemovidaRecusada() {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        tabela.adicionar("Ana", LocalDate.of(1970, 1, 1), new BigDecimal("1000.00"), "Operador");
+        tabela.adicionar("Bia", LocalDate.of(1960, 1, 1), new BigDecimal("3000.00"), "Gerente");
+        AgregadosSalariais agregados = tabela.agregados();
+        tabela.remover(0);
+        assertThrows(IllegalArgumentException.class, () -> tabela.definirSalarioCentavos(0, 999_999_999));
+        assertThrows(IllegalArgumentException.class, () -> tabela.definirFuncao(0, "Gerente"));
+        assertEquals(100_000, tabela.salarioCentavos(0));
+        assertEquals(300_000, agregados.total());
+        assertEquals(300_000, agregados.maiorSalario().orElseThrow());
+        assertEquals(1, agregados.quantidadePorFuncao(tabela.funcaoId(1)));
+        agregados.verificarConsistencia();
+    }
+
+    private static int linhaComSalario(TabelaFuncionarios tabela, long salario) {
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha) && tabela.salarioCentavos(linha) == salario) {
+                return linha;
+            }
+        }
+        throw new IllegalStateException("Nenhuma linha com o salário " + salario);
+    }
+
+    private static int linhaAtivaAleatoria(TabelaFuncionarios tabela, Random random) {
+        int linha;
+        do {
+            linha = random.nextInt(tabela.limite());
+        } while (tabela.removida(linha));
+        return linha;
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import repository.TabelaFuncionarios;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do agrupamento paralelo por função {@link AgrupamentoPorFuncao}.
+ */
+public class AgrupamentoPorFuncaoTest {
+
+    @Test
+    public void testAgrupamentoParaleloIgualAoDaLista() {
+        Random random = new Random(3);
+        String[] funcoes = new String[40];
+        for (int i = 0; i < funcoes.length; i++) {
+            funcoes[i] = "Função " + i;
+        }
+        TabelaFuncionarios tabela = new TabelaFuncionarios(200_000);
+        for (int i = 0; i < 200_000; i++) {
+            tabela.adicionar("F" + i, LocalDate.ofEpochDay(i % 10_000), BigDecimal.ONE,
+                    funcoes[random.nextInt(funcoes.length)]);
+        }
+        for (int linha = 0; linha < tabela.limite(); linha += 7) {
+            tabela.remover(linha);
+        }
+        FuncionarioService service = new FuncionarioService();
+        Map<String, List<Funcionario>> esperado = service.agruparPorFuncao(tabela.paraLista());
+        Map<String, List<Funcionario>> obtido = service.agruparPorFuncao(tabela);
+        assertEquals(esperado.size(), obtido.size());
+        assertEquals(esperado.keySet(), obtido.keySet());
+        esperado.forEach((funcao, lista) -> assertEquals(
+                lista.stream().map(Funcionario::getNome).toList(),
+                obtido.get(funcao).stream().map(Funcionario::getNome).toList()));
+    }
+
+    @Test
+    public void testVisaoDetectaAlteracaoDaTabela() {
+        FuncionarioService service = new FuncionarioService();
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(service.criarFuncionariosIniciais());
+        Map<String, List<Funcionario>> grupos = service.agruparPorFuncao(tabela);
+        assertEquals(2, grupos.get("Gerente").size());
+        assertNull(grupos.get("Inexistente"));
+        service.removerPorNome(tabela, "Maria");
+        // grupo já materializado continua disponível; os demais não
+        assertEquals(2, grupos.get("Gerente").size());
+        assertThrows(ConcurrentModificationException.class, () -> grupos.get("Operador"));
+        assertThrows(UnsupportedOperationException.class, () -> grupos.put("Novo", List.of()));
+    }
+}
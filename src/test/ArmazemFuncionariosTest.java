@@ -0,0 +1,298 @@
+package persistencia;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.TabelaFuncionarios;
+import service.FuncionarioService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link ArmazemFuncionarios}: o estado recuperado do
+ * instantâneo e do diário deve ser exatamente o confirmado antes da
+ * queda, inclusive quando o diário termina no meio de um registro.
+ */
+public class ArmazemFuncionariosTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Diretor", "Recepcionista", "Contador"};
+
+    @TempDir
+    Path pasta;
+
+    private static List<String> descrever(ArmazemFuncionarios armazem) {
+        return armazem.ler(ArmazemFuncionariosTest::descrever);
+    }
+
+    private static List<String> descrever(TabelaFuncionarios tabela) {
+        List<String> linhas = new ArrayList<>();
+        for (int linha = 0; linha < tabela.limite(); linha++) {
+            if (!tabela.removida(linha)) {
+                linhas.add(tabela.nome(linha) + "|" + tabela.nascimento(linha) + "|"
+                        + tabela.salarioCentavos(linha) + "|" + tabela.funcao(linha));
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Executa uma alteração aleatória: inclusão, remoção, reajuste ou
+     * troca de função.
+     */
+    private static void alterar(ArmazemFuncionarios armazem, Random random, int passo) {
+        switch (random.nextInt(6)) {
+            case 0, 1, 2 -> armazem.adicionar(new Funcionario("Funcionário " + random.nextInt(passo + 1),
+                    LocalDate.ofEpochDay(random.nextInt(20_000)),
+                    BigDecimal.valueOf(100_000 + random.nextInt(1_000_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]));
+            case 3 -> armazem.removerPorNome("Funcionário " + random.nextInt(passo + 1));
+            case 4 -> {
+                if (random.nextBoolean()) {
+                    armazem.aplicarAumentoPercentual(BigDecimal.valueOf(random.nextInt(1500), 2));
+                } else {
+                    armazem.aplicarAumentoPorFuncao(Map.of(FUNCOES[random.nextInt(FUNCOES.length)],
+                            new BigDecimal("7.5"), "Nova função", BigDecimal.ONE));
+                }
+            }
+            default -> armazem.alterarFuncao("Funcionário " + random.nextInt(passo + 1),
+                    random.nextBoolean() ? "Nova função" : FUNCOES[random.nextInt(FUNCOES.length)]);
+        }
+    }
+
+    private static Path copiar(Path origem, Path destino, long tamanhoDiario) throws IOException {
+        Files.createDirectories(destino);
+        Path instantaneo = origem.resolve(ArmazemFuncionarios.ARQUIVO_INSTANTANEO);
+        if (Files.exists(instantaneo)) {
+            Files.copy(instantaneo, destino.resolve(ArmazemFuncionarios.ARQUIVO_INSTANTANEO));
+        }
+        byte[] diario = Files.readAllBytes(origem.resolve(ArmazemFuncionarios.ARQUIVO_DIARIO));
+        Files.write(destino.resolve(ArmazemFuncionarios.ARQUIVO_DIARIO),
+                Arrays.copyOf(diario, (int) Math.min(diario.length, tamanhoDiario)));
+        return destino;
+    }
+
+    @Test
+    public void testReabrirRecuperaAlteracoes() throws IOException {
+        Path diretorio = pasta.resolve("dados");
+        List<String> esperado;
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.NUNCA)) {
+            new FuncionarioService().criarFuncionariosIniciais().forEach(armazem::adicionar);
+            assertTrue(armazem.removerPorNome("João").isPresent());
+            assertFalse(armazem.removerPorNome("Inexistente").isPresent());
+            armazem.aplicarAumentoPercentual(new BigDecimal("10"));
+            assertTrue(armazem.alterarFuncao("Maria", "Gerente"));
+            armazem.aplicarAumentoPorFuncao(Map.of("Gerente", new BigDecimal("3.33")));
+            esperado = descrever(armazem);
+        }
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.NUNCA)) {
+            assertEquals(esperado, descrever(armazem));
+            assertEquals(14, armazem.getRegistrosRecuperados());
+            assertEquals(0, armazem.getBytesDescartados());
+            armazem.gravarInstantaneo();
+            assertEquals(0, armazem.tamanhoDiario());
+            armazem.removerPorNome("Caio");
+            esperado = descrever(armazem);
+        }
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            assertEquals(esperado, descrever(armazem));
+            assertEquals(1, armazem.getRegistrosRecuperados());
+        }
+    }
+
+    @Test
+    public void testRecuperacaoComDiarioTruncadoEmQualquerPonto() throws IOException {
+        Path diretorio = pasta.resolve("original");
+        Random random = new Random(23);
+        List<Long> tamanhos = new ArrayList<>();
+        List<List<String>> estados = new ArrayList<>();
+        long tamanhoFinal;
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)
+                .comInstantaneoACada(0)) {
+            for (int passo = 0; passo < 100; passo++) {
+                alterar(armazem, random, passo);
+            }
+            armazem.gravarInstantaneo();
+            tamanhos.add(armazem.tamanhoDiario());
+            estados.add(descrever(armazem));
+            for (int passo = 100; passo < 400; passo++) {
+                alterar(armazem, random, passo);
+                tamanhos.add(armazem.tamanhoDiario());
+                estados.add(descrever(armazem));
+            }
+            // a queda acontece com o diário ainda aberto
+            tamanhoFinal = armazem.tamanhoDiario();
+            for (int tentativa = 0; tentativa < 120; tentativa++) {
+                long corte = tentativa == 0 ? tamanhoFinal : random.nextInt((int) tamanhoFinal + 1);
+                Path copia = copiar(diretorio, pasta.resolve("queda" + tentativa), corte);
+                int confirmado = 0;
+                while (confirmado + 1 < tamanhos.size() && tamanhos.get(confirmado + 1) <= corte) {
+                    confirmado++;
+                }
+                try (ArmazemFuncionarios recuperado = new ArmazemFuncionarios(copia, PoliticaSincronizacao.SEMPRE)) {
+                    assertEquals(estados.get(confirmado), descrever(recuperado), "corte em " + corte);
+                    assertEquals(tamanhos.stream().filter(t -> t > tamanhos.get(0) && t <= corte).distinct().count(),
+                            recuperado.getRegistrosRecuperados());
+                    assertEquals(corte - tamanhos.get(confirmado), recuperado.getBytesDescartados());
+                    assertEquals(tamanhos.get(confirmado), recuperado.tamanhoDiario());
+                    // o diário recuperado continua aceitando registros
+                    recuperado.removerPorNome("Funcionário 1");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRegistroCorrompidoDescartaCauda() throws IOException {
+        Path diretorio = pasta.resolve("dados");
+        List<Long> tamanhos = new ArrayList<>();
+        List<List<String>> estados = new ArrayList<>();
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            Random random = new Random(3);
+            for (int passo = 0; passo < 30; passo++) {
+                alterar(armazem, random, passo);
+                tamanhos.add(armazem.tamanhoDiario());
+                estados.add(descrever(armazem));
+            }
+        }
+        Path arquivo = diretorio.resolve(ArmazemFuncionarios.ARQUIVO_DIARIO);
+        byte[] diario = Files.readAllBytes(arquivo);
+        // altera um byte do conteúdo do 21º registro
+        diario[(int) (tamanhos.get(19) + DiarioOperacoes.CABECALHO)] ^= 0x40;
+        Files.write(arquivo, diario);
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            assertEquals(estados.get(19), descrever(armazem));
+            assertEquals(diario.length - tamanhos.get(19), armazem.getBytesDescartados());
+        }
+    }
+
+    @Test
+    public void testInstantaneoAutomatico() throws IOException {
+        Path diretorio = pasta.resolve("dados");
+        List<String> esperado;
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.PERIODICA)
+                .comInstantaneoACada(10)) {
+            Random random = new Random(8);
+            for (int passo = 0; passo < 25; passo++) {
+                armazem.adicionar(new Funcionario("Funcionário " + passo, LocalDate.ofEpochDay(passo),
+                        BigDecimal.valueOf(random.nextInt(1_000_000), 2), FUNCOES[passo % FUNCOES.length]));
+            }
+            esperado = descrever(armazem);
+        }
+        assertTrue(Files.exists(diretorio.resolve(ArmazemFuncionarios.ARQUIVO_INSTANTANEO)));
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.PERIODICA)) {
+            assertEquals(esperado, descrever(armazem));
+            assertEquals(5, armazem.getRegistrosRecuperados());
+        }
+    }
+
+    @Test
+    public void testGravacaoEmGrupoEntreThreads() throws Exception {
+        Path diretorio = pasta.resolve("dados");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<String> nomes = ConcurrentHashMap.newKeySet();
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String nome = "T" + thread + "-" + i;
+                        armazem.adicionar(new Funcionario(nome, LocalDate.ofEpochDay(i),
+                                BigDecimal.valueOf(i, 2), FUNCOES[thread % FUNCOES.length]));
+                        nomes.add(nome);
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            assertEquals(1600, armazem.tamanho());
+            Set<String> recuperados = new HashSet<>();
+            for (String linha : descrever(armazem)) {
+                recuperados.add(linha.substring(0, linha.indexOf('|')));
+            }
+            assertEquals(nomes, recuperados);
+        }
+    }
+
+    @Test
+    public void testFalhaAoRegistrarDeixaSomenteLeitura() throws IOException {
+        Path diretorio = pasta.resolve("dados");
+        List<String> confirmado;
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            armazem.adicionar(new Funcionario("Maria", LocalDate.of(2000, 10, 18), new BigDecimal("2009.44"),
+                    "Operador"));
+            // recusado antes de alterar a tabela: o armazém continua aceitando alterações
+            assertThrows(IllegalArgumentException.class, () -> armazem.aplicarAumentoPercentual(null));
+            assertFalse(armazem.isSomenteLeitura());
+            armazem.adicionar(new Funcionario("João", LocalDate.of(1990, 5, 12), new BigDecimal("2284.38"),
+                    "Operador"));
+            confirmado = descrever(armazem);
+
+            // a função já foi trocada na tabela quando o diário recusa o registro
+            String grande = "x".repeat(DiarioOperacoes.CONTEUDO_MAXIMO);
+            assertThrows(IllegalArgumentException.class, () -> armazem.alterarFuncao("Maria", grande));
+            assertTrue(armazem.isSomenteLeitura());
+            assertThrows(IllegalStateException.class, () -> armazem.adicionar(new Funcionario("Caio",
+                    LocalDate.of(1961, 5, 2), new BigDecimal("9836.14"), "Coordenador")));
+            assertThrows(IllegalStateException.class, () -> armazem.removerPorNome("João"));
+            assertThrows(IllegalStateException.class, armazem::gravarInstantaneo);
+            assertEquals(2, armazem.tamanho());
+        }
+        try (ArmazemFuncionarios armazem = new ArmazemFuncionarios(diretorio, PoliticaSincronizacao.SEMPRE)) {
+            assertEquals(confirmado, descrever(armazem));
+            assertFalse(armazem.isSomenteLeitura());
+        }
+    }
+
+    @Test
+    public void testSincronizacaoPeriodicaSemNovasConfirmacoes() throws Exception {
+        DiarioOperacoes.Aplicador nenhum = new DiarioOperacoes.Aplicador() {
+            @Override
+            public void adicionar(String nome, int nascimento, long salarioCentavos, String funcao) {
+                fail();
+            }
+
+            @Override
+            public void removerPorNome(String nome) {
+                fail();
+            }
+
+            @Override
+            public void aplicarAumento(BigDecimal percentualPadrao, Map<String, BigDecimal> percentuaisPorFuncao) {
+                fail();
+            }
+
+            @Override
+            public void alterarFuncao(String nome, String funcao) {
+                fail();
+            }
+        };
+        try (DiarioOperacoes diario = DiarioOperacoes.abrir(pasta.resolve("diario.log"),
+                PoliticaSincronizacao.PERIODICA, 0, nenhum)) {
+            diario.comIntervaloSincronizacao(Duration.ofHours(1));
+            diario.confirmar(diario.registrarRemocao("Maria"));
+            assertEquals(0, diario.ultimoLsnSincronizado());
+
+            // nenhuma confirmação posterior: a thread do diário sincroniza sozinha
+            diario.comIntervaloSincronizacao(Duration.ofMillis(20));
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (diario.ultimoLsnSincronizado() < 1 && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, diario.ultimoLsnSincronizado());
+        }
+    }
+}
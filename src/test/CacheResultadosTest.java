@@ -0,0 +1,181 @@
+package service;
+import metricas.RegistroMetricas;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import repository.RepositorioFuncionarios;
+import repository.TabelaFuncionarios;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link CacheResultados}: resultados repetidos vêm do cache
+ * até a tabela mudar, os limites de entradas e de peso são respeitados
+ * e os resultados são os mesmos de um serviço sem cache.
+ */
+public class CacheResultadosTest {
+
+    private static FuncionarioService comCache(CacheResultados cache) {
+        return new FuncionarioService(new RegistroMetricas(false), cache);
+    }
+
+    private static List<String> nomes(List<Funcionario> funcionarios) {
+        List<String> nomes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            nomes.add(f.getNome());
+        }
+        return nomes;
+    }
+
+    @Test
+    public void testAcertosDevolvemFuncionariosNovos() {
+        FuncionarioService semCache = new FuncionarioService();
+        FuncionarioService service = comCache(new CacheResultados(16, 1_000));
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(semCache.criarFuncionariosIniciais());
+        Set<Integer> meses = Set.of(10, 12);
+
+        List<Funcionario> aniversariantes = service.aniversariantesNosMeses(tabela, meses);
+        assertEquals(semCache.aniversariantesNosMeses(tabela, meses).getClass(), aniversariantes.getClass());
+        long salario = tabela.salarioCentavos(tabela.indiceNomes().primeiraLinha(aniversariantes.get(0).getNome()));
+        aniversariantes.get(0).setSalario(BigDecimal.ONE);
+        aniversariantes.remove(1);
+        List<Funcionario> outraVez = service.aniversariantesNosMeses(tabela, meses);
+        assertEquals(nomes(semCache.aniversariantesNosMeses(tabela, meses)), nomes(outraVez));
+        assertNotSame(aniversariantes.get(0), outraVez.get(0));
+        assertEquals(BigDecimal.valueOf(salario, 2), outraVez.get(0).getSalario());
+
+        Map<String, List<Funcionario>> grupos = service.agruparPorFuncao(tabela);
+        assertEquals(semCache.agruparPorFuncao(tabela).getClass(), grupos.getClass());
+        Funcionario operador = grupos.get("Operador").get(0);
+        BigDecimal salarioOperador = operador.getSalario();
+        operador.setSalario(BigDecimal.ONE);
+        Funcionario deNovo = service.agruparPorFuncao(tabela).get("Operador").get(0);
+        assertNotSame(operador, deNovo);
+        assertEquals(salarioOperador, deNovo.getSalario());
+    }
+
+    @Test
+    public void testResultadoValeAteATabelaMudar() {
+        FuncionarioService semCache = new FuncionarioService();
+        CacheResultados cache = new CacheResultados(16, 1_000);
+        FuncionarioService service = comCache(cache);
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(semCache.criarFuncionariosIniciais());
+
+        Map<String, List<Funcionario>> grupos = service.agruparPorFuncao(tabela);
+        assertEquals(grupos.keySet(), service.agruparPorFuncao(tabela).keySet());
+        List<Funcionario> outubro = service.aniversariantesNosMeses(tabela, Set.of(10, 12));
+        assertEquals(nomes(outubro), nomes(service.aniversariantesNosMeses(tabela, new HashSet<>(List.of(12, 10, 13)))));
+        assertNotEquals(nomes(outubro), nomes(service.aniversariantesNosMeses(tabela, Set.of(10))));
+        assertSame(service.ordenarPorNome(tabela), service.ordenarPorNome(tabela));
+        assertSame(service.somarSalarios(tabela), service.somarSalarios(tabela));
+        assertEquals(5, cache.faltas());
+        assertEquals(4, cache.acertos());
+        assertEquals(5, cache.entradas());
+
+        tabela.adicionar(new Funcionario("Bruna", LocalDate.of(1980, 10, 1), new BigDecimal("5000.00"), "Gerente"));
+        List<Funcionario> depois = service.aniversariantesNosMeses(tabela, Set.of(10, 12));
+        assertNotSame(outubro, depois);
+        assertEquals(nomes(semCache.aniversariantesNosMeses(tabela, Set.of(10, 12))), nomes(depois));
+        assertEquals(nomes(semCache.ordenarPorNome(tabela)), nomes(service.ordenarPorNome(tabela)));
+        assertEquals(semCache.somarSalarios(tabela), service.somarSalarios(tabela));
+        assertEquals(semCache.agruparPorFuncao(tabela).keySet(), service.agruparPorFuncao(tabela).keySet());
+        // os resultados da versão anterior foram substituídos, não acumulados
+        assertEquals(5, cache.entradas());
+        assertEquals(0, cache.descartes());
+        assertEquals(4.0 / 13, cache.taxaAcertos(), 1e-9);
+
+        TabelaFuncionarios outra = TabelaFuncionarios.de(semCache.criarFuncionariosIniciais());
+        assertNotSame(service.somarSalarios(tabela), service.somarSalarios(outra));
+    }
+
+    @Test
+    public void testLimitesDeEntradasEPeso() {
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(new FuncionarioService().criarFuncionariosIniciais());
+        assertEquals(10, tabela.tamanho());
+
+        CacheResultados poucasEntradas = new CacheResultados(2, 1_000);
+        FuncionarioService service = comCache(poucasEntradas);
+        for (int mes = 1; mes <= 12; mes++) {
+            service.aniversariantesNosMeses(tabela, Set.of(mes));
+        }
+        assertEquals(2, poucasEntradas.entradas());
+        assertEquals(10, poucasEntradas.descartes());
+        service.aniversariantesNosMeses(tabela, Set.of(12));
+        assertEquals(1, poucasEntradas.acertos());
+
+        CacheResultados poucoPeso = new CacheResultados(100, 15);
+        service = comCache(poucoPeso);
+        service.ordenarPorNome(tabela);
+        service.somarSalarios(tabela);
+        assertEquals(11, poucoPeso.pesoTotal());
+        // o agrupamento pesa 10: a ordenação, usada há mais tempo, é descartada
+        service.agruparPorFuncao(tabela);
+        assertEquals(11, poucoPeso.pesoTotal());
+        assertEquals(1, poucoPeso.descartes());
+        service.somarSalarios(tabela);
+        service.agruparPorFuncao(tabela);
+        service.ordenarPorNome(tabela);
+        assertEquals(2, poucoPeso.acertos());
+
+        CacheResultados leve = new CacheResultados(100, 5);
+        service = comCache(leve);
+        service.agruparPorFuncao(tabela);
+        service.agruparPorFuncao(tabela);
+        assertEquals(0, leve.entradas());
+        assertEquals(2, leve.faltas());
+
+        poucoPeso.limpar();
+        assertEquals(0, poucoPeso.entradas());
+        assertEquals(0, poucoPeso.pesoTotal());
+        assertThrows(IllegalArgumentException.class, () -> new CacheResultados(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new CacheResultados(10, 0));
+    }
+
+    @Test
+    public void testLeiturasConcorrentesEntreAlteracoes() throws Exception {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        Random random = new Random(22);
+        for (int i = 0; i < 20_000; i++) {
+            funcionarios.add(new Funcionario("Funcionário " + i, LocalDate.ofEpochDay(random.nextInt(20_000)),
+                    BigDecimal.valueOf(100_000 + random.nextInt(1_000_000), 2), "Operador"));
+        }
+        CacheResultados cache = new CacheResultados(8, 100_000);
+        FuncionarioServiceConcorrente service = new FuncionarioServiceConcorrente(
+                comCache(cache), RepositorioFuncionarios.de(funcionarios));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> leituras = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                leituras.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        int tamanho = service.tamanho();
+                        List<Funcionario> aniversariantes = service.aniversariantesNosMeses(Set.of(1, 2, 3));
+                        for (Funcionario f : aniversariantes) {
+                            assertTrue(f.getDataNascimento().getMonthValue() <= 3);
+                        }
+                        assertTrue(service.ordenarPorNome().size() >= tamanho);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 50; i++) {
+                service.adicionar(new Funcionario("Novo " + i, LocalDate.of(1990, 2, 1), BigDecimal.TEN, "Gerente"));
+            }
+            for (Future<?> leitura : leituras) {
+                leitura.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1600, cache.acertos() + cache.faltas());
+        assertTrue(cache.acertos() > 0);
+        assertEquals(20_050, service.ordenarPorNome().size());
+        List<Funcionario> esperado = new FuncionarioService().aniversariantesNosMeses(
+                TabelaFuncionarios.de(service.ordenarPorNome()), Set.of(1, 2, 3));
+        assertEquals(esperado.size(), service.aniversariantesNosMeses(Set.of(1, 2, 3)).size());
+    }
+}
@@ -0,0 +1,124 @@
+package repository;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.FuncionarioService;
+import util.FormatadorUtil;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do carregador de arquivos CSV {@link CarregadorFuncionarios}.
+ * Os arquivos são gerados com {@link FormatadorUtil}, garantindo que o
+ * carregador lê exatamente o formato impresso pela aplicação.
+ */
+public class CarregadorFuncionariosTest {
+
+    @TempDir
+    Path diretorio;
+
+    private static String linha(Funcionario f) {
+        return f.getNome() + ";" + FormatadorUtil.formatarData(f.getDataNascimento()) + ";"
+                + f.getFuncao() + ";" + FormatadorUtil.formatarValor(f.getSalario());
+    }
+
+    private static void assertMesmosFuncionarios(List<Funcionario> esperados, List<Funcionario> obtidos) {
+        assertEquals(esperados.size(), obtidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            assertEquals(esperados.get(i).getNome(), obtidos.get(i).getNome());
+            assertEquals(esperados.get(i).getDataNascimento(), obtidos.get(i).getDataNascimento());
+            assertEquals(esperados.get(i).getFuncao(), obtidos.get(i).getFuncao());
+            assertEquals(0, esperados.get(i).getSalario().compareTo(obtidos.get(i).getSalario()));
+        }
+    }
+
+    @Test
+    public void testCarregarFormatoDaAplicacao() throws IOException {
+        List<Funcionario> iniciais = new FuncionarioService().criarFuncionariosIniciais();
+        StringBuilder conteudo = new StringBuilder("\uFEFFnome;nascimento;função;salário\r\n");
+        for (Funcionario f : iniciais) {
+            conteudo.append(linha(f)).append("\r\n");
+        }
+        conteudo.append("\n");
+        conteudo.append("Sem Data;;Operador;1.000,00\n");
+        conteudo.append("Data Ruim;31/02/2000;Operador;1.000,00\n");
+        conteudo.append("Valor Ruim;01/01/2000;Operador;1,000\n");
+        conteudo.append("Campos;01/01/2000;Operador;1,00;extra\n");
+        conteudo.append("Ana;01/01/2000;Operador;12.345.678,9");
+        Path arquivo = diretorio.resolve("funcionarios.csv");
+        Files.writeString(arquivo, conteudo, StandardCharsets.UTF_8);
+
+        List<Funcionario> carregados = new ArrayList<>();
+        ResultadoCarga resultado = new CarregadorFuncionarios().comCabecalho().comTamanhoBloco(64)
+                .carregar(arquivo, carregados);
+        assertEquals(11, resultado.getLinhasCarregadas());
+        assertEquals(4, resultado.getLinhasInvalidas());
+        assertEquals(List.of(13L, 14L, 15L, 16L), resultado.getExemplosInvalidos());
+
+        List<Funcionario> esperados = new ArrayList<>(iniciais);
+        esperados.add(new Funcionario("Ana", LocalDate.of(2000, 1, 1), new BigDecimal("12345678.90"), "Operador"));
+        assertMesmosFuncionarios(esperados, carregados);
+    }
+
+    @Test
+    public void testCarregarEmBlocosParalelosNaTabela() throws IOException {
+        Random random = new Random(5);
+        String[] nomes = {"Heloísa", "João", "Ângela", "Zoë", "Maria", "Caio 😀"};
+        String[] funcoes = {"Operador", "Gerente", "Estagiário", "Diretor"};
+        List<Funcionario> esperados = new ArrayList<>();
+        List<String> linhas = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Funcionario f = new Funcionario(nomes[random.nextInt(nomes.length)] + i,
+                    LocalDate.ofEpochDay(random.nextInt(30_000) - 10_000),
+                    BigDecimal.valueOf(random.nextInt(100_000_000), 2),
+                    funcoes[random.nextInt(funcoes.length)]);
+            esperados.add(f);
+            linhas.add(linha(f));
+        }
+        Path arquivo = diretorio.resolve("grande.csv");
+        Files.write(arquivo, linhas, StandardCharsets.UTF_8);
+
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        ResultadoCarga resultado = new CarregadorFuncionarios().comTamanhoBloco(4096).carregar(arquivo, tabela);
+        assertEquals(20_000, resultado.getLinhasCarregadas());
+        assertEquals(0, resultado.getLinhasInvalidas());
+        assertTrue(resultado.getLinhasPorSegundo() > 0);
+        assertEquals(funcoes.length, tabela.funcoes().tamanho());
+        assertMesmosFuncionarios(esperados, tabela.paraLista());
+    }
+
+    @Test
+    public void testPontosSoSeparamGruposDeMilhar() throws IOException {
+        String conteudo = "Ana;01/01/2000;Operador;12.34\n"
+                + "Bia;01/01/2000;Operador;1.2.3\n"
+                + "Caio;01/01/2000;Operador;1234.567,00\n"
+                + "Davi;01/01/2000;Operador;1.234.,00\n"
+                + "Enzo;01/01/2000;Operador;.123,00\n"
+                + "Fábio;01/01/2000;Operador;1.2345,00\n"
+                + "Gil;01/01/2000;Operador;1234,56\n"
+                + "Helena;01/01/2000;Operador;-1.234.567,89\n"
+                + "Íris;01/01/2000;Operador;123.456\n";
+        Path arquivo = diretorio.resolve("milhares.csv");
+        Files.writeString(arquivo, conteudo, StandardCharsets.UTF_8);
+
+        List<Funcionario> carregados = new ArrayList<>();
+        ResultadoCarga resultado = new CarregadorFuncionarios().carregar(arquivo, carregados);
+        assertEquals(6, resultado.getLinhasInvalidas());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), resultado.getExemplosInvalidos());
+        assertMesmosFuncionarios(List.of(
+                new Funcionario("Gil", LocalDate.of(2000, 1, 1), new BigDecimal("1234.56"), "Operador"),
+                new Funcionario("Helena", LocalDate.of(2000, 1, 1), new BigDecimal("-1234567.89"), "Operador"),
+                new Funcionario("Íris", LocalDate.of(2000, 1, 1), new BigDecimal("123456.00"), "Operador")),
+                carregados);
+    }
+}
@@ -0,0 +1,239 @@
+package consulta;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import repository.IndiceFuncoes;
+import repository.TabelaFuncionarios;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes das consultas combinadas: qualquer que seja o plano escolhido,
+ * os resultados devem ser os de uma filtragem direta da tabela, na
+ * ordem de inserção, e a paginação não pode perder nem repetir linhas.
+ */
+public class ConsultaFuncionariosTest {
+
+    private static final String[] FUNCOES = {"Operador", "Operador", "Operador", "Coordenador", "Gerente", "Diretor"};
+    private static final String[] NOMES = {"Maria", "Mário", "Ângela", "ÂNGELO", "João", "Heloísa"};
+
+    private static TabelaFuncionarios gerarTabela(Random random, int quantidade) {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        for (int i = 0; i < quantidade; i++) {
+            tabela.adicionar(NOMES[random.nextInt(NOMES.length)] + " " + i,
+                    LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000),
+                    BigDecimal.valueOf(100_000 + random.nextInt(1_500_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]);
+        }
+        return tabela;
+    }
+
+    /**
+     * Sorteia uma combinação de filtros e acumula em {@code condicoes}
+     * a regra equivalente sobre um {@link Funcionario}.
+     */
+    private static ConsultaFuncionarios sortear(Random random, List<Predicate<Funcionario>> condicoes) {
+        ConsultaFuncionarios consulta = new ConsultaFuncionarios();
+        if (random.nextInt(3) == 0) {
+            Set<String> funcoes = random.nextBoolean() ? Set.of("Gerente") : Set.of("Diretor", "Operador");
+            consulta.comFuncoes(funcoes.toArray(new String[0]));
+            condicoes.add(f -> funcoes.contains(f.getFuncao()));
+        }
+        if (random.nextInt(3) == 0) {
+            int[] meses = random.nextBoolean() ? new int[]{10} : new int[]{1, 2, 3, 4, 5, 6, 7};
+            consulta.comAniversarioNosMeses(meses);
+            condicoes.add(f -> Arrays.stream(meses).anyMatch(m -> m == f.getDataNascimento().getMonthValue()));
+        }
+        if (random.nextInt(3) == 0) {
+            LocalDate inicio = random.nextBoolean() ? LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000) : null;
+            LocalDate fim = (inicio == null ? LocalDate.of(1970, 1, 1) : inicio).plusDays(random.nextInt(6_000));
+            consulta.comNascimentoEntre(inicio, fim);
+            condicoes.add(f -> (inicio == null || !f.getDataNascimento().isBefore(inicio))
+                    && !f.getDataNascimento().isAfter(fim));
+        }
+        if (random.nextInt(3) == 0) {
+            if (random.nextBoolean()) {
+                BigDecimal limite = new BigDecimal("10000.005");
+                consulta.comSalarioAcimaDe(limite);
+                condicoes.add(f -> f.getSalario().compareTo(limite) > 0);
+            } else {
+                BigDecimal minimo = new BigDecimal("2500.50");
+                BigDecimal maximo = new BigDecimal("6000");
+                consulta.comSalarioEntre(minimo, maximo);
+                condicoes.add(f -> f.getSalario().compareTo(minimo) >= 0 && f.getSalario().compareTo(maximo) <= 0);
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            String prefixo = random.nextBoolean() ? "âng" : "MAR";
+            consulta.comNomeIniciadoPor(prefixo);
+            condicoes.add(f -> f.getNome().regionMatches(true, 0, prefixo, 0, prefixo.length()));
+        }
+        return consulta;
+    }
+
+    private static List<String> esperado(TabelaFuncionarios tabela, List<Predicate<Funcionario>> condicoes) {
+        List<String> nomes = new ArrayList<>();
+        for (Funcionario f : tabela.paraLista()) {
+            if (condicoes.stream().allMatch(c -> c.test(f))) {
+                nomes.add(f.getNome());
+            }
+        }
+        return nomes;
+    }
+
+    private static List<String> nomes(List<Funcionario> funcionarios) {
+        List<String> nomes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            nomes.add(f.getNome());
+        }
+        return nomes;
+    }
+
+    @Test
+    public void testResultadosIguaisAFiltragemDireta() {
+        Random random = new Random(19);
+        TabelaFuncionarios tabela = gerarTabela(random, 60_000);
+        Set<PlanoConsulta.Estrategia> usadas = EnumSet.noneOf(PlanoConsulta.Estrategia.class);
+        for (int rodada = 0; rodada < 6; rodada++) {
+            for (int i = 0; i < 40; i++) {
+                List<Predicate<Funcionario>> condicoes = new ArrayList<>();
+                ConsultaFuncionarios consulta = sortear(random, condicoes);
+                List<String> esperado = esperado(tabela, condicoes);
+                CursorFuncionarios cursor = consulta.executar(tabela);
+                usadas.add(cursor.getPlano().getEstrategia());
+                assertTrue(esperado.size() <= cursor.getPlano().getCandidatas(), cursor.getPlano().toString());
+                int tamanhoPagina = 1 + random.nextInt(5_000);
+                List<String> obtido = new ArrayList<>();
+                List<Funcionario> pagina;
+                while (!(pagina = cursor.proximaPagina(tamanhoPagina)).isEmpty()) {
+                    obtido.addAll(nomes(pagina));
+                }
+                assertEquals(esperado, obtido, cursor.getPlano().toString());
+                assertEquals(esperado.size(), cursor.getPosicao());
+                assertEquals(esperado.size(), consulta.contar(tabela));
+                // ir direto a uma página no meio dos resultados
+                int deslocamento = esperado.isEmpty() ? 0 : random.nextInt(esperado.size());
+                CursorFuncionarios direto = consulta.executar(tabela);
+                assertEquals(deslocamento, direto.pular(deslocamento));
+                assertEquals(esperado.subList(deslocamento, Math.min(esperado.size(), deslocamento + 10)),
+                        nomes(direto.proximaPagina(10)));
+            }
+            // altera a tabela entre as rodadas: remoções, trocas de função e compactação
+            for (int i = 0; i < 3_000; i++) {
+                int linha = random.nextInt(tabela.limite());
+                if (random.nextBoolean()) {
+                    tabela.remover(linha);
+                } else if (!tabela.removida(linha)) {
+                    tabela.definirFuncao(linha, FUNCOES[random.nextInt(FUNCOES.length)]);
+                }
+            }
+            if (rodada == 3) {
+                tabela.compactar();
+            }
+            gerarTabela(random, 2_000).paraLista().forEach(tabela::adicionar);
+        }
+        assertEquals(EnumSet.allOf(PlanoConsulta.Estrategia.class), usadas);
+    }
+
+    @Test
+    public void testPlanoEscolheIndiceMaisSeletivo() {
+        Random random = new Random(7);
+        TabelaFuncionarios tabela = gerarTabela(random, 20_000);
+        for (int i = 0; i < 20; i++) {
+            tabela.adicionar("Presidente " + i, LocalDate.of(1960, 10, 1 + i), new BigDecimal("50000.00"), "Presidente");
+        }
+        assertEquals(PlanoConsulta.Estrategia.VARREDURA_PARALELA,
+                new ConsultaFuncionarios().comSalarioAcimaDe(new BigDecimal("3000")).planejar(tabela).getEstrategia());
+        assertEquals(PlanoConsulta.Estrategia.VARREDURA_PARALELA,
+                new ConsultaFuncionarios().comFuncoes("Operador").planejar(tabela).getEstrategia());
+        PlanoConsulta presidentes = new ConsultaFuncionarios()
+                .comFuncoes("Presidente")
+                .comAniversarioNosMeses(10)
+                .planejar(tabela);
+        assertEquals(PlanoConsulta.Estrategia.INDICE_FUNCOES, presidentes.getEstrategia());
+        assertEquals(20, presidentes.getCandidatas());
+        assertEquals(PlanoConsulta.Estrategia.INDICE_ANIVERSARIOS, new ConsultaFuncionarios()
+                .comFuncoes("Operador")
+                .comAniversarioNosMeses(10)
+                .planejar(tabela).getEstrategia());
+        assertEquals(PlanoConsulta.Estrategia.INDICE_NASCIMENTOS, new ConsultaFuncionarios()
+                .comAniversarioNosMeses(10)
+                .comNascimentoEntre(LocalDate.of(1975, 1, 1), LocalDate.of(1975, 3, 31))
+                .planejar(tabela).getEstrategia());
+        PlanoConsulta inexistente = new ConsultaFuncionarios().comFuncoes("Astronauta").planejar(tabela);
+        assertEquals(PlanoConsulta.Estrategia.INDICE_FUNCOES, inexistente.getEstrategia());
+        assertEquals(0, inexistente.getCandidatas());
+        assertEquals(List.of("Presidente 3", "Presidente 4"), nomes(new ConsultaFuncionarios()
+                .comFuncoes("Presidente")
+                .comNomeIniciadoPor("presidente")
+                .comNascimentoEntre(LocalDate.of(1960, 10, 4), LocalDate.of(1960, 10, 5))
+                .executar(tabela).proximaPagina(100)));
+    }
+
+    @Test
+    public void testFuncaoComTodasAsLinhasRemovidas() {
+        TabelaFuncionarios tabela = gerarTabela(new Random(3), 2_000);
+        tabela.adicionar("Miguel", LocalDate.of(1988, 10, 14), new BigDecimal("19119.88"), "Presidente");
+        tabela.adicionar("Arthur", LocalDate.of(1993, 3, 31), new BigDecimal("4071.84"), "Presidente");
+        assertEquals(2, new ConsultaFuncionarios().comFuncoes("Presidente").contar(tabela));
+        tabela.remover(tabela.limite() - 1);
+        tabela.remover(tabela.limite() - 2);
+        tabela.compactar();
+        // a função continua no dicionário, mas o índice reconstruído não tem linhas dela
+        assertEquals(0, new ConsultaFuncionarios().comFuncoes("Presidente").contar(tabela));
+        assertEquals(0, new ConsultaFuncionarios().comFuncoes("Presidente", "Gerente")
+                .comAniversarioNosMeses(3).executar(tabela).proximaPagina(10).stream()
+                .filter(f -> f.getFuncao().equals("Presidente")).count());
+
+        // função registrada no dicionário antes de o índice ser criado
+        TabelaFuncionarios outra = gerarTabela(new Random(4), 100);
+        outra.funcoes().codificar("Astronauta");
+        assertEquals(0, new ConsultaFuncionarios().comFuncoes("Astronauta").contar(outra));
+        assertEquals(0, new ConsultaFuncionarios().comFuncoes("Astronauta").executar(outra).proximaPagina(10).size());
+    }
+
+    @Test
+    public void testTrocaDeFuncaoDeLinhaRemovida() {
+        TabelaFuncionarios tabela = gerarTabela(new Random(5), 400);
+        IndiceFuncoes indice = tabela.indiceFuncoes();
+        int anterior = tabela.funcaoId(0);
+        int nova = tabela.funcoes().codificar(anterior == tabela.funcoes().procurar("Gerente") ? "Diretor" : "Gerente");
+        tabela.remover(0);
+        assertThrows(IllegalArgumentException.class, () -> tabela.definirFuncao(0, tabela.funcoes().decodificar(nova)));
+        // uma notificação para a linha removida não pode desviar os contadores
+        indice.aoAlterarFuncao(0, anterior, nova);
+        for (int id : new int[]{anterior, nova}) {
+            assertEquals(contarDireto(tabela, tabela.funcoes().decodificar(id)), indice.quantidade(id));
+            assertEquals(indice.quantidade(id), indice.linhas(id).length);
+        }
+        int[] ambas = indice.linhas(new int[]{anterior, nova});
+        assertEquals(contarDireto(tabela, tabela.funcoes().decodificar(anterior), tabela.funcoes().decodificar(nova)),
+                ambas.length);
+        String[] raras = {"Coordenador", "Gerente", "Diretor"};
+        assertEquals(contarDireto(tabela, raras), new ConsultaFuncionarios().comFuncoes(raras).contar(tabela));
+    }
+
+    private static long contarDireto(TabelaFuncionarios tabela, String... funcoes) {
+        Set<String> procuradas = Set.of(funcoes);
+        return tabela.paraLista().stream().filter(f -> procuradas.contains(f.getFuncao())).count();
+    }
+
+    @Test
+    public void testValidacaoEAlteracaoDuranteLeitura() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaFuncionarios().comAniversarioNosMeses(13));
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaFuncionarios().comFuncoes());
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaFuncionarios()
+                .comNascimentoEntre(LocalDate.of(2000, 1, 2), LocalDate.of(2000, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaFuncionarios()
+                .comSalarioEntre(BigDecimal.TEN, BigDecimal.ONE));
+        TabelaFuncionarios tabela = gerarTabela(new Random(1), 5_000);
+        CursorFuncionarios cursor = new ConsultaFuncionarios().executar(tabela);
+        assertEquals(10, cursor.proximaPagina(10).size());
+        tabela.remover(4_000);
+        assertThrows(ConcurrentModificationException.class, cursor::next);
+    }
+}
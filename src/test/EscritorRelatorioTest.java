@@ -0,0 +1,102 @@
+package app;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.FormatadorUtil;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que {@link EscritorRelatorio} grava o mesmo texto
+ * que a impressão linha a linha com {@code printf}, na mesma ordem.
+ */
+public class EscritorRelatorioTest {
+
+    @TempDir
+    Path pasta;
+
+    private static List<Funcionario> gerar(int quantidade) {
+        String[] nomes = {"Maria", "João", "Caio", "Heloísa", "Ângela"};
+        String[] funcoes = {"Operador", "Coordenador", "Diretor", "Recepcionista"};
+        Random random = new Random(11);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            funcionarios.add(new Funcionario(nomes[random.nextInt(nomes.length)] + " " + i,
+                    LocalDate.ofEpochDay(random.nextInt(30_000) - 10_000),
+                    BigDecimal.valueOf(random.nextInt(5_000_000), 2),
+                    funcoes[random.nextInt(funcoes.length)]));
+        }
+        return funcionarios;
+    }
+
+    @Test
+    public void testMesmaSaidaQuePrintf() throws IOException {
+        List<Funcionario> funcionarios = gerar(EscritorRelatorio.FUNCIONARIOS_POR_PARTE * 3 + 17);
+        funcionarios.add(new Funcionario("Sem centavos", LocalDate.of(2000, 2, 29),
+                new BigDecimal("1234.5"), "Operador"));
+
+        StringWriter esperado = new StringWriter();
+        PrintWriter saida = new PrintWriter(esperado);
+        saida.println("===== Listagem =====");
+        funcionarios.forEach(f -> saida.printf(" - %s | Nascimento: %s | Função: %s | Salário: %s%n",
+                f.getNome(),
+                FormatadorUtil.formatarData(f.getDataNascimento()),
+                f.getFuncao(),
+                FormatadorUtil.formatarValor(f.getSalario())));
+        saida.println();
+        saida.println("Fim");
+        saida.flush();
+
+        Path arquivo = pasta.resolve("relatorio.txt");
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            EscritorRelatorio relatorio = new EscritorRelatorio(canal, StandardCharsets.UTF_8);
+            relatorio.adicionarLinha("===== Listagem =====");
+            relatorio.adicionarLista(funcionarios);
+            relatorio.escrever();
+            relatorio.adicionarLinha("");
+            relatorio.adicionarLinha("Fim");
+            relatorio.escrever();
+        }
+        assertEquals(esperado.toString(), Files.readString(arquivo, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPartesGravadasNaOrdemDeInclusao() throws IOException {
+        Path arquivo = pasta.resolve("ordem.txt");
+        StringBuilder esperado = new StringBuilder();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            EscritorRelatorio relatorio = new EscritorRelatorio(canal, StandardCharsets.UTF_8);
+            for (int i = 0; i < 500; i++) {
+                int parte = i;
+                // partes pares demoram mais para terminar que as seguintes
+                relatorio.adicionar(texto -> {
+                    if (parte % 2 == 0) {
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    texto.append("parte ").append(parte).append('\n');
+                });
+                esperado.append("parte ").append(i).append('\n');
+            }
+            relatorio.escrever();
+        }
+        assertEquals(esperado.toString(), Files.readString(arquivo, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,263 @@
+package service;
+import model.Funcionario;
+import model.FuncionarioCompacto;
+import org.junit.jupiter.api.Test;
+import repository.RepositorioFuncionarios;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de {@link DistribuicaoSalarial} e {@link EstatisticasSalariais}:
+ * os quantis respeitam o erro anunciado, os demais valores são exatos,
+ * partes combinadas (inclusive depois de gravadas e lidas) resultam no
+ * mesmo que o conjunto inteiro, e tabela e lista dão o mesmo resultado.
+ */
+public class EstatisticasSalariaisTest {
+
+    private static final double[] QUANTIS = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Gerente", "Diretor", "Recepcionista"};
+
+    /** Salários com cauda longa, alguns repetidos e alguns bem pequenos. */
+    private static long[] salarios(int quantidade, long semente) {
+        Random random = new Random(semente);
+        long[] salarios = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            salarios[i] = switch (i % 10) {
+                case 0 -> random.nextInt(300);
+                case 1 -> 141_200;
+                default -> (long) (300_000 * Math.exp(random.nextGaussian()));
+            };
+        }
+        return salarios;
+    }
+
+    @Test
+    public void testQuantisDentroDoErroEDemaisValoresExatos() {
+        long[] salarios = salarios(200_000, 24);
+        long[] ordenados = salarios.clone();
+        Arrays.sort(ordenados);
+        BigDecimal[] limites = {new BigDecimal("1000"), new BigDecimal("2500.50"), new BigDecimal("10000")};
+
+        for (double erro : new double[] {0.01, DistribuicaoSalarial.ERRO_RELATIVO_PADRAO, 0.0001}) {
+            DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(erro, limites);
+            for (long salario : salarios) {
+                distribuicao.registrar(salario);
+            }
+            assertTrue(distribuicao.erroRelativo() <= erro);
+            assertTrue(distribuicao.erroRelativo() > erro / 2);
+            for (double q : QUANTIS) {
+                long exato = ordenados[(int) Math.ceil(q * salarios.length) - 1];
+                long aproximado = CentavosUtil.paraCentavos(distribuicao.quantil(q).orElseThrow());
+                assertTrue(Math.abs(aproximado - exato) <= distribuicao.erroRelativo() * exato,
+                        "quantil " + q + ": exato " + exato + ", aproximado " + aproximado);
+            }
+            assertEquals(CentavosUtil.paraValor(ordenados[0]), distribuicao.quantil(0).orElseThrow());
+            assertEquals(CentavosUtil.paraValor(ordenados[ordenados.length - 1]), distribuicao.quantil(1).orElseThrow());
+        }
+
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(0.01, limites);
+        long soma = 0;
+        long[] histograma = new long[4];
+        for (long salario : salarios) {
+            distribuicao.registrar(salario);
+            soma += salario;
+            histograma[salario < 100_000 ? 0 : salario < 250_050 ? 1 : salario < 1_000_000 ? 2 : 3]++;
+        }
+        assertEquals(salarios.length, distribuicao.quantidade());
+        assertEquals(CentavosUtil.paraValor(ordenados[0]), distribuicao.minimo().orElseThrow());
+        assertEquals(CentavosUtil.paraValor(soma), distribuicao.soma());
+        assertEquals(CentavosUtil.paraValor(soma).divide(BigDecimal.valueOf(salarios.length), 2, RoundingMode.HALF_UP),
+                distribuicao.media().orElseThrow());
+        assertArrayEquals(histograma, distribuicao.histograma());
+        assertArrayEquals(new BigDecimal[] {new BigDecimal("1000.00"), new BigDecimal("2500.50"),
+                new BigDecimal("10000.00")}, distribuicao.limitesHistograma());
+        assertEquals(variancia(salarios), distribuicao.variancia().orElseThrow(), variancia(salarios) * 1e-9);
+        assertEquals(Math.sqrt(variancia(salarios)), distribuicao.desvioPadrao().orElseThrow(), 1e-3);
+    }
+
+    /** Variância populacional em duas passagens, em reais ao quadrado. */
+    private static double variancia(long[] centavos) {
+        double media = 0;
+        for (long c : centavos) {
+            media += c / 100.0;
+        }
+        media /= centavos.length;
+        double soma = 0;
+        for (long c : centavos) {
+            soma += (c / 100.0 - media) * (c / 100.0 - media);
+        }
+        return soma / centavos.length;
+    }
+
+    @Test
+    public void testCasosLimite() {
+        DistribuicaoSalarial vazia = new DistribuicaoSalarial(0.01);
+        assertEquals(0, vazia.quantidade());
+        assertTrue(vazia.mediana().isEmpty());
+        assertTrue(vazia.media().isEmpty());
+        assertTrue(vazia.variancia().isEmpty());
+        assertEquals(BigDecimal.ZERO.setScale(2), vazia.soma());
+        assertArrayEquals(new long[] {0}, vazia.histograma());
+
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(0.01, BigDecimal.ZERO);
+        for (long salario : new long[] {-50_000, -20_000, 0, 99, 100, 300_000_000_000L}) {
+            distribuicao.registrar(salario);
+        }
+        assertEquals(new BigDecimal("-500.00"), distribuicao.quantil(0.1).orElseThrow());
+        assertTrue(distribuicao.quantil(0.3).orElseThrow().compareTo(new BigDecimal("-198.50")) <= 0);
+        assertTrue(distribuicao.quantil(0.3).orElseThrow().compareTo(new BigDecimal("-201.50")) >= 0);
+        assertEquals(new BigDecimal("0.99"), distribuicao.quantil(4.0 / 6).orElseThrow());
+        assertEquals(new BigDecimal("3000000000.00"), distribuicao.maximo().orElseThrow());
+        assertArrayEquals(new long[] {2, 4}, distribuicao.histograma());
+
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoSalarial(0));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoSalarial(1));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoSalarial(0.01, BigDecimal.TEN, BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoSalarial(0.01, new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> distribuicao.quantil(1.5));
+        assertThrows(IllegalArgumentException.class, () -> distribuicao.combinar(new DistribuicaoSalarial(0.01)));
+        assertThrows(IllegalArgumentException.class,
+                () -> distribuicao.combinar(new DistribuicaoSalarial(0.001, BigDecimal.ZERO)));
+    }
+
+    @Test
+    public void testPartesCombinadasIguaisAoTodo() throws IOException {
+        long[] salarios = salarios(90_000, 25);
+        BigDecimal[] limites = {new BigDecimal("1500"), new BigDecimal("5000")};
+        EstatisticasSalariais todo = new EstatisticasSalariais(0.005, limites);
+        EstatisticasSalariais[] partes = new EstatisticasSalariais[3];
+        for (int p = 0; p < partes.length; p++) {
+            partes[p] = new EstatisticasSalariais(0.005, limites);
+        }
+        for (int i = 0; i < salarios.length; i++) {
+            String funcao = FUNCOES[i % FUNCOES.length];
+            todo.registrar(funcao, salarios[i]);
+            // partes com tamanhos e faixas de salário diferentes
+            partes[salarios[i] < 200_000 ? 0 : i % 3 == 0 ? 1 : 2].registrar(funcao, salarios[i]);
+        }
+
+        EstatisticasSalariais combinadas = new EstatisticasSalariais(0.005, limites);
+        for (EstatisticasSalariais parte : partes) {
+            combinadas.combinar(reler(parte));
+        }
+        assertMesmasEstatisticas(todo, combinadas);
+        assertMesmasEstatisticas(todo, reler(todo));
+        assertThrows(IllegalArgumentException.class,
+                () -> combinadas.combinar(new EstatisticasSalariais(0.005, new BigDecimal("1500"))));
+    }
+
+    @Test
+    public void testLeituraRecusaFaixaAlemDoMaiorValor() throws IOException {
+        // erro de 1%: 6 bits por potência de 2, e a faixa de Long.MAX_VALUE é 127 + (56 << 6)
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(0.01);
+        distribuicao.registrar(Long.MAX_VALUE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        distribuicao.gravar(new DataOutputStream(bytes));
+        byte[] gravados = bytes.toByteArray();
+        // a única faixa ocupada vem antes da contagem e da lista vazia de negativas
+        int posicao = gravados.length - 4 - 8 - 4;
+        assertEquals(3711, ByteBuffer.wrap(gravados, posicao, 4).getInt());
+        assertEquals(distribuicao.quantil(1).orElseThrow(),
+                DistribuicaoSalarial.ler(new DataInputStream(new ByteArrayInputStream(gravados))).quantil(1).orElseThrow());
+
+        for (int indice : new int[] {3712, Integer.MAX_VALUE}) {
+            ByteBuffer.wrap(gravados, posicao, 4).putInt(indice);
+            assertThrows(IOException.class,
+                    () -> DistribuicaoSalarial.ler(new DataInputStream(new ByteArrayInputStream(gravados))));
+        }
+    }
+
+    @Test
+    public void testSomaQueNaoCabeEmUmLongRecusada() {
+        DistribuicaoSalarial distribuicao = new DistribuicaoSalarial(0.01);
+        distribuicao.registrar(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> distribuicao.registrar(1));
+        assertEquals(1, distribuicao.quantidade());
+        assertEquals(CentavosUtil.paraValor(Long.MAX_VALUE), distribuicao.soma());
+        assertEquals(1, distribuicao.histograma()[0]);
+
+        DistribuicaoSalarial outra = distribuicao.vazia();
+        outra.registrar(1);
+        outra.registrar(2);
+        assertThrows(ArithmeticException.class, () -> distribuicao.combinar(outra));
+        assertEquals(1, distribuicao.quantidade());
+        assertEquals(CentavosUtil.paraValor(Long.MAX_VALUE), distribuicao.soma());
+        assertEquals(CentavosUtil.paraValor(Long.MAX_VALUE), distribuicao.quantil(0).orElseThrow());
+        assertEquals(OptionalDouble.of(0), distribuicao.variancia());
+
+        // a soma exata volta a caber depois de um salário negativo
+        distribuicao.registrar(-5);
+        distribuicao.combinar(outra);
+        assertEquals(4, distribuicao.quantidade());
+        assertEquals(CentavosUtil.paraValor(Long.MAX_VALUE - 2), distribuicao.soma());
+    }
+
+    private static EstatisticasSalariais reler(EstatisticasSalariais estatisticas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        estatisticas.gravar(new DataOutputStream(bytes));
+        return EstatisticasSalariais.ler(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static void assertMesmasEstatisticas(EstatisticasSalariais esperadas, EstatisticasSalariais obtidas) {
+        assertMesmaDistribuicao(esperadas.geral(), obtidas.geral());
+        assertEquals(esperadas.porFuncao().keySet(), obtidas.porFuncao().keySet());
+        for (String funcao : esperadas.porFuncao().keySet()) {
+            assertMesmaDistribuicao(esperadas.porFuncao().get(funcao), obtidas.porFuncao().get(funcao));
+        }
+    }
+
+    private static void assertMesmaDistribuicao(DistribuicaoSalarial esperada, DistribuicaoSalarial obtida) {
+        assertEquals(esperada.quantidade(), obtida.quantidade());
+        assertEquals(esperada.minimo(), obtida.minimo());
+        assertEquals(esperada.maximo(), obtida.maximo());
+        assertEquals(esperada.soma(), obtida.soma());
+        assertArrayEquals(esperada.histograma(), obtida.histograma());
+        for (double q : QUANTIS) {
+            assertEquals(esperada.quantil(q), obtida.quantil(q));
+        }
+        double variancia = esperada.variancia().orElse(0);
+        assertEquals(variancia, obtida.variancia().orElse(0), variancia * 1e-9);
+    }
+
+    @Test
+    public void testTabelaEListaDaoOMesmoResultado() {
+        long[] salarios = salarios(100_000, 26);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < salarios.length; i++) {
+            Funcionario f = new Funcionario("Funcionário " + i, LocalDate.ofEpochDay(i % 20_000),
+                    CentavosUtil.paraValor(salarios[i]), FUNCOES[(i * 7) % FUNCOES.length]);
+            funcionarios.add(i % 2 == 0 ? f : FuncionarioCompacto.de(f));
+        }
+        FuncionarioService service = new FuncionarioService();
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(funcionarios);
+        tabela.remover(3);
+        funcionarios.remove(3);
+        BigDecimal limite = new BigDecimal("3000");
+
+        EstatisticasSalariais daLista = service.estatisticasSalariais(funcionarios, limite);
+        EstatisticasSalariais daTabela = service.estatisticasSalariais(tabela, limite);
+        assertMesmasEstatisticas(daLista, daTabela);
+        assertEquals(service.somarSalarios(tabela), daTabela.geral().soma());
+        Map<String, BigDecimal> somas = service.somarSalariosPorFuncao(tabela);
+        assertEquals(somas.keySet(), daTabela.porFuncao().keySet());
+        somas.forEach((funcao, soma) -> assertEquals(soma, daTabela.porFuncao().get(funcao).soma()));
+        assertThrows(UnsupportedOperationException.class, () -> daTabela.porFuncao().clear());
+
+        FuncionarioServiceConcorrente concorrente = new FuncionarioServiceConcorrente(
+                service, RepositorioFuncionarios.de(funcionarios));
+        assertMesmasEstatisticas(daLista, concorrente.estatisticasSalariais(limite));
+    }
+}
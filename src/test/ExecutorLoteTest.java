@@ -0,0 +1,111 @@
+package app;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.CarregadorFuncionarios;
+import service.FuncionarioService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que {@link ExecutorLote} gera, para cada empresa,
+ * o mesmo relatório da execução sequencial e isola as falhas.
+ */
+public class ExecutorLoteTest {
+
+    @TempDir
+    Path pasta;
+
+    private static void gravarEmpresa(Path arquivo, int quantidade, long semente) throws IOException {
+        String[] nomes = {"Maria", "João", "Caio", "Miguel", "Alice", "Heitor", "Helena", "Arthur", "Laura", "Heloísa"};
+        String[] funcoes = {"Operador", "Coordenador", "Diretor", "Recepcionista", "Contador", "Gerente", "Eletricista"};
+        Random random = new Random(semente);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            csv.append(nomes[random.nextInt(nomes.length)]).append(i == 0 ? "" : " " + i).append(';')
+                    .append(String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12),
+                            1950 + random.nextInt(55))).append(';')
+                    .append(funcoes[random.nextInt(funcoes.length)]).append(';')
+                    .append(1000 + random.nextInt(20000)).append(',').append(String.format("%02d", random.nextInt(100)))
+                    .append('\n');
+        }
+        Files.writeString(arquivo, csv, StandardCharsets.UTF_8);
+    }
+
+    private static String relatorioSequencial(Path arquivo, Path destino) throws IOException {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        new CarregadorFuncionarios().carregar(arquivo, funcionarios);
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Principal.gerarRelatorio(new FuncionarioService(), funcionarios,
+                    new EscritorRelatorio(canal, StandardCharsets.UTF_8));
+        }
+        return Files.readString(destino, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testLoteIgualAoProcessamentoSequencial() throws IOException {
+        Path entrada = Files.createDirectories(pasta.resolve("entrada"));
+        Path saida = pasta.resolve("saida");
+        for (int i = 0; i < 20; i++) {
+            gravarEmpresa(entrada.resolve(String.format("empresa%02d.csv", i)), 50 + i * 37, i);
+        }
+        Files.writeString(entrada.resolve("leia-me.txt"), "ignorado");
+
+        ResultadoLote resultado = new ExecutorLote(saida).comParalelismo(4).comLimiteEntradaSaida(2)
+                .executarDiretorio(entrada);
+
+        assertEquals(20, resultado.getEmpresas().size());
+        assertEquals(20, resultado.getSucessos());
+        assertEquals(0, resultado.getFalhas());
+        for (int i = 0; i < 20; i++) {
+            String empresa = String.format("empresa%02d", i);
+            ResultadoEmpresa resultadoEmpresa = resultado.getEmpresas().get(i);
+            assertEquals(empresa, resultadoEmpresa.getEmpresa());
+            assertEquals(50 + i * 37, resultadoEmpresa.getFuncionarios());
+            String esperado = relatorioSequencial(entrada.resolve(empresa + ".csv"), pasta.resolve(empresa + ".ref"));
+            assertEquals(esperado, Files.readString(saida.resolve(empresa + ".txt"), StandardCharsets.UTF_8));
+        }
+        assertFalse(resultado.resumo().isEmpty());
+    }
+
+    @Test
+    public void testFalhaDeUmaEmpresaNaoInterrompeAsDemais() throws IOException {
+        Path saida = pasta.resolve("saida");
+        List<Path> arquivos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Path arquivo = pasta.resolve("ok" + i + ".csv");
+            gravarEmpresa(arquivo, 30, 100 + i);
+            arquivos.add(arquivo);
+        }
+        arquivos.add(2, pasta.resolve("ausente.csv"));
+
+        ResultadoLote resultado = new ExecutorLote(saida).comParalelismo(3).executar(arquivos);
+
+        assertEquals(5, resultado.getSucessos());
+        assertEquals(1, resultado.getFalhas());
+        ResultadoEmpresa falha = resultado.getEmpresas().get(2);
+        assertEquals("ausente", falha.getEmpresa());
+        assertFalse(falha.isSucesso());
+        assertNotNull(falha.getErro());
+        assertFalse(Files.exists(saida.resolve("ausente.txt")));
+        assertFalse(Files.exists(saida.resolve("ausente.txt.parcial")));
+        assertTrue(Files.exists(saida.resolve("ok4.txt")));
+    }
+
+    @Test
+    public void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorLote(null));
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorLote(pasta).comParalelismo(0));
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorLote(pasta).comLimiteEntradaSaida(0));
+    }
+}
@@ -0,0 +1,103 @@
+package util;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que {@link FormatadorBrasileiro} e
+ * {@link FormatadorUtil} produzem exatamente a mesma saída do
+ * {@link NumberFormat} e do {@link DateTimeFormatter} de pt-BR, inclusive
+ * quando usados por várias threads.
+ */
+public class FormatadorBrasileiroTest {
+
+    private static NumberFormat referencia() {
+        NumberFormat formatador = NumberFormat.getInstance(new Locale("pt", "BR"));
+        formatador.setMinimumFractionDigits(2);
+        formatador.setMaximumFractionDigits(2);
+        return formatador;
+    }
+
+    @Test
+    public void testValorIgualAoNumberFormat() {
+        NumberFormat referencia = referencia();
+        Random random = new Random(19);
+        List<Long> especiais = List.of(0L, 1L, -1L, 99L, 100L, 123_456L, -100_000L, 99_999_999L,
+                Long.MAX_VALUE, Long.MIN_VALUE + 1);
+        for (int i = 0; i < 200_000; i++) {
+            long centavos = i < especiais.size() ? especiais.get(i)
+                    : random.nextLong() >> random.nextInt(64);
+            String esperado = referencia.format(BigDecimal.valueOf(centavos, 2));
+            assertEquals(esperado, FormatadorBrasileiro.formatarValor(centavos));
+            StringBuilder sb = new StringBuilder("x");
+            FormatadorBrasileiro.anexarValor(sb, centavos);
+            assertEquals("x" + esperado, sb.toString());
+            CharBuffer chars = CharBuffer.allocate(40);
+            FormatadorBrasileiro.anexarValor(chars, centavos);
+            assertEquals(esperado, chars.flip().toString());
+            ByteBuffer bytes = ByteBuffer.allocate(40);
+            FormatadorBrasileiro.anexarValor(bytes, centavos);
+            assertEquals(esperado, new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testFormatadorUtilMantemArredondamentoOriginal() {
+        NumberFormat referencia = referencia();
+        for (String valor : new String[]{"1234.5", "2000", "0.125", "0.135", "-7.005", "1E+3", "12345678901234567890.99"}) {
+            assertEquals(referencia.format(new BigDecimal(valor)), FormatadorUtil.formatarValor(new BigDecimal(valor)));
+        }
+    }
+
+    @Test
+    public void testDataIgualAoDateTimeFormatter() {
+        DateTimeFormatter referencia = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        for (int epochDay = -800_000; epochDay <= 3_000_000; epochDay += 7) {
+            String esperado = LocalDate.ofEpochDay(epochDay).format(referencia);
+            assertEquals(esperado, FormatadorBrasileiro.formatarData(epochDay));
+        }
+        StringBuilder sb = new StringBuilder();
+        FormatadorBrasileiro.anexarData(sb, DataUtil.paraEpochDay(LocalDate.of(2003, 12, 24)));
+        assertEquals("24/12/2003", sb.toString());
+    }
+
+    @Test
+    public void testFormatadorUtilSeguroEntreThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> resultados = new java.util.ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int semente = t;
+                resultados.add(executor.submit(() -> {
+                    NumberFormat referencia = referencia();
+                    Random random = new Random(semente);
+                    for (int i = 0; i < 50_000; i++) {
+                        // três casas decimais forçam o caminho do NumberFormat
+                        BigDecimal valor = BigDecimal.valueOf(random.nextInt(), random.nextBoolean() ? 2 : 3);
+                        if (!referencia.format(valor).equals(FormatadorUtil.formatarValor(valor))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> resultado : resultados) {
+                assertTrue(resultado.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
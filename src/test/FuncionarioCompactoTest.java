@@ -0,0 +1,149 @@
+package model;
+import org.junit.jupiter.api.Test;
+import repository.CarregadorFuncionarios;
+import repository.TabelaFuncionarios;
+import service.FuncionarioService;
+import util.DataUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link FuncionarioCompacto}: os getters devolvem os mesmos
+ * valores de um funcionário comum, o serviço produz os mesmos
+ * resultados, o formato em memória guarda só valores primitivos e as
+ * funções são compartilhadas pelo dicionário de cada tabela.
+ */
+public class FuncionarioCompactoTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Gerente", "Diretor"};
+
+    private static List<String> descrever(List<Funcionario> funcionarios) {
+        List<String> descricoes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            descricoes.add(f.getNome() + ";" + f.getDataNascimento() + ";" + f.getSalario() + ";" + f.getFuncao());
+        }
+        return descricoes;
+    }
+
+    @Test
+    public void testMesmosValoresDeUmFuncionarioComum() {
+        FuncionarioService service = new FuncionarioService();
+        List<Funcionario> comuns = service.criarFuncionariosIniciais();
+        comuns.add(new Funcionario("Antigo", LocalDate.of(-40, 2, 29), new BigDecimal("0.01"), "Operador"));
+        List<Funcionario> compactos = new ArrayList<>();
+        for (Funcionario f : comuns) {
+            compactos.add(FuncionarioCompacto.de(f));
+        }
+        assertEquals(descrever(comuns), descrever(compactos));
+
+        service.aplicarAumentoPercentual(comuns, new BigDecimal("10"));
+        service.aplicarAumentoPercentual(compactos, new BigDecimal("10"));
+        assertEquals(descrever(comuns), descrever(compactos));
+        assertEquals(descrever(service.ordenarPorNome(comuns)), descrever(service.ordenarPorNome(compactos)));
+        assertEquals(descrever(service.aniversariantesNosMeses(comuns, Set.of(10, 12))),
+                descrever(service.aniversariantesNosMeses(compactos, Set.of(10, 12))));
+        assertEquals(descrever(TabelaFuncionarios.de(comuns).paraLista()),
+                descrever(TabelaFuncionarios.de(compactos).paraLista()));
+
+        FuncionarioCompacto compacto = (FuncionarioCompacto) compactos.get(0);
+        assertSame(compacto, FuncionarioCompacto.de(compacto));
+        compacto.setFuncao("Gerente");
+        assertEquals("Gerente", compacto.getFuncao());
+        assertThrows(IllegalArgumentException.class, () -> compacto.setSalario(new BigDecimal("1.005")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FuncionarioCompacto("Sem data", null, BigDecimal.ONE, "Operador"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FuncionarioCompacto("Longe", LocalDate.of(9_999_999, 1, 1), BigDecimal.ONE, "Operador"));
+    }
+
+    @Test
+    public void testCarregadorCriaFuncionariosCompactos() throws Exception {
+        Path arquivo = Files.createTempFile("compactos", ".csv");
+        try {
+            Files.writeString(arquivo, "Maria;18/10/2000;Operador;2.009,44\nJoão;12/05/1990;Operador;2.284,38\n");
+            List<Funcionario> comuns = new ArrayList<>();
+            List<Funcionario> compactos = new ArrayList<>();
+            new CarregadorFuncionarios().carregar(arquivo, comuns);
+            new CarregadorFuncionarios().comFuncionariosCompactos().carregar(arquivo, compactos);
+            assertEquals(descrever(comuns), descrever(compactos));
+            assertInstanceOf(FuncionarioCompacto.class, compactos.get(0));
+            assertSame(compactos.get(0).getFuncao(), compactos.get(1).getFuncao());
+        } finally {
+            Files.delete(arquivo);
+        }
+    }
+
+    /**
+     * Confere o formato em memória: além do nome e da função, herdados,
+     * o funcionário compacto guarda apenas um {@code long} e um
+     * {@code int}; os campos de {@link LocalDate} e {@link BigDecimal}
+     * herdados ficam nulos.  A economia de heap é medida por
+     * {@code benchmark.MemoriaForaDoHeap}.
+     */
+    @Test
+    public void testGuardaApenasValoresPrimitivos() throws ReflectiveOperationException {
+        Map<String, Class<?>> campos = new TreeMap<>();
+        for (Field campo : FuncionarioCompacto.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(campo.getModifiers())) {
+                campos.put(campo.getName(), campo.getType());
+            }
+        }
+        assertEquals(Map.of("nascimento", int.class, "salarioCentavos", long.class), campos);
+
+        FuncionarioCompacto compacto = new FuncionarioCompacto("Maria", LocalDate.of(2000, 10, 18),
+                new BigDecimal("2009.44"), "Operador");
+        Field salario = Funcionario.class.getDeclaredField("salario");
+        Field nascimento = Pessoa.class.getDeclaredField("dataNascimento");
+        salario.setAccessible(true);
+        nascimento.setAccessible(true);
+        assertNull(salario.get(compacto));
+        assertNull(nascimento.get(compacto));
+    }
+
+    @Test
+    public void testCodificacaoDeDataESalario() {
+        Random random = new Random(23);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate data = LocalDate.ofEpochDay(random.nextInt(2_000_000) - 1_000_000);
+            long centavos = random.nextLong() / 1000;
+            FuncionarioCompacto porData = new FuncionarioCompacto("F", data, BigDecimal.valueOf(centavos, 2), "Operador");
+            FuncionarioCompacto porEpoch = new FuncionarioCompacto("F", (int) data.toEpochDay(), centavos, "Operador");
+            assertEquals(DataUtil.empacotar(data.getYear(), data.getMonthValue(), data.getDayOfMonth()),
+                    porData.getNascimentoEmpacotado());
+            assertEquals(porData.getNascimentoEmpacotado(), porEpoch.getNascimentoEmpacotado());
+            assertEquals(data, porEpoch.getDataNascimento());
+            assertEquals(centavos, porData.getSalarioCentavos());
+            assertEquals(BigDecimal.valueOf(centavos, 2), porEpoch.getSalario());
+        }
+    }
+
+    /** Funcionários com funções lidas como textos distintos, como em uma carga de arquivo. */
+    private static List<Funcionario> funcoesDistintas() {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            funcionarios.add(new Funcionario("Funcionário " + i, LocalDate.ofEpochDay(i), BigDecimal.valueOf(i, 2),
+                    new String(FUNCOES[i % FUNCOES.length])));
+        }
+        return funcionarios;
+    }
+
+    @Test
+    public void testFuncoesCompartilhadasPeloDicionarioDaTabela() {
+        List<Funcionario> primeira = TabelaFuncionarios.de(funcoesDistintas()).paraListaCompacta();
+        List<Funcionario> segunda = TabelaFuncionarios.de(funcoesDistintas()).paraListaCompacta();
+        for (int i = FUNCOES.length; i < primeira.size(); i++) {
+            assertSame(primeira.get(i - FUNCOES.length).getFuncao(), primeira.get(i).getFuncao());
+        }
+        // cada tabela tem o próprio dicionário; nada fica retido entre elas
+        assertEquals(primeira.get(0).getFuncao(), segunda.get(0).getFuncao());
+        assertNotSame(primeira.get(0).getFuncao(), segunda.get(0).getFuncao());
+    }
+}
@@ -0,0 +1,147 @@
+package service;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import repository.RepositorioFuncionarios;
+import repository.TabelaFuncionarios;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de estresse do {@link FuncionarioServiceConcorrente}: várias
+ * threads inserem, removem, reajustam e consultam ao mesmo tempo, e ao
+ * final os dados e os agregados precisam estar consistentes.
+ */
+public class FuncionarioServiceConcorrenteTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Diretor", "Recepcionista", "Contador"};
+
+    private static List<Funcionario> gerar(int quantidade) {
+        Random random = new Random(5);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            funcionarios.add(new Funcionario("Funcionário " + i,
+                    LocalDate.ofEpochDay(random.nextInt(20_000)),
+                    BigDecimal.valueOf(100_000 + random.nextInt(1_000_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]));
+        }
+        return funcionarios;
+    }
+
+    @Test
+    public void testRepositorioCriaIndicesDaTabela() {
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(gerar(100));
+        assertTrue(tabela.precisaPrepararLeitura());
+        RepositorioFuncionarios repositorio = new RepositorioFuncionarios(tabela);
+        assertFalse(tabela.precisaPrepararLeitura());
+
+        FuncionarioServiceConcorrente service = new FuncionarioServiceConcorrente(repositorio);
+        service.adicionar(new Funcionario("Novo", LocalDate.of(1950, 1, 1), new BigDecimal("1.00"), "Diretor"));
+        service.removerPorNome("Funcionário 3");
+        assertFalse(tabela.precisaPrepararLeitura());
+        assertEquals("Novo", service.funcionarioMaisVelho().orElseThrow().getNome());
+        assertEquals("Novo", service.funcionariosMaisVelhos(1).get(0).getNome());
+        assertEquals(100, service.tamanho());
+        assertEquals(100, service.ordenarPorNome().size());
+    }
+
+    @Test
+    public void testResultadosNaoCompartilhamEstado() {
+        FuncionarioServiceConcorrente service =
+                new FuncionarioServiceConcorrente(RepositorioFuncionarios.de(gerar(10)));
+        BigDecimal total = service.somarSalarios();
+        service.buscarPorNome("Funcionário 1").orElseThrow().setSalario(new BigDecimal("999999.99"));
+        service.ordenarPorNome().clear();
+        assertEquals(total, service.somarSalarios());
+        assertEquals(10, service.tamanho());
+    }
+
+    @Test
+    public void testEstresseLeiturasEEscritasMisturadas() throws Exception {
+        List<Funcionario> iniciais = gerar(5_000);
+        RepositorioFuncionarios repositorio = RepositorioFuncionarios.de(iniciais);
+        FuncionarioService base = new FuncionarioService();
+        FuncionarioServiceConcorrente service = new FuncionarioServiceConcorrente(base, repositorio);
+
+        int threads = 8;
+        int operacoesPorThread = 2_000;
+        AtomicInteger inseridos = new AtomicInteger();
+        AtomicInteger removidos = new AtomicInteger();
+        Queue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tarefas.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        int sorteio = random.nextInt(100);
+                        if (sorteio < 10) {
+                            service.adicionar(new Funcionario("Temporário " + thread + "-" + i,
+                                    LocalDate.ofEpochDay(random.nextInt(20_000)),
+                                    new BigDecimal("1500.00"), FUNCOES[random.nextInt(FUNCOES.length)]));
+                            inseridos.incrementAndGet();
+                        } else if (sorteio < 20) {
+                            if (service.removerPorNome("Funcionário " + random.nextInt(iniciais.size())).isPresent()) {
+                                removidos.incrementAndGet();
+                            }
+                        } else if (sorteio < 21) {
+                            service.aplicarAumentoPorFuncao(Map.of("Diretor", new BigDecimal("0.5")));
+                        } else if (sorteio < 40) {
+                            // leitura com invariantes verificados sob a mesma trava
+                            repositorio.ler(tabela -> {
+                                int agrupados = base.agruparPorFuncao(tabela).values().stream()
+                                        .mapToInt(List::size).sum();
+                                assertEquals(tabela.tamanho(), agrupados);
+                                assertEquals(tabela.tamanho(), base.ordenarPorNome(tabela).size());
+                                return null;
+                            });
+                        } else if (sorteio < 60) {
+                            List<Funcionario> maisVelhos = service.funcionariosMaisVelhos(5);
+                            for (int j = 1; j < maisVelhos.size(); j++) {
+                                assertFalse(maisVelhos.get(j).getDataNascimento()
+                                        .isBefore(maisVelhos.get(j - 1).getDataNascimento()));
+                            }
+                        } else if (sorteio < 80) {
+                            assertTrue(service.somarSalarios().signum() > 0);
+                            service.buscarPorNome("Funcionário " + random.nextInt(iniciais.size()));
+                        } else {
+                            int[] faixas = service.contarPorFaixaEtaria(LocalDate.of(2025, 1, 1), 30, 50);
+                            assertTrue(Arrays.stream(faixas).sum() > 0);
+                            service.aniversariantesNosProximosDias(LocalDate.of(2025, 1, 1), 7);
+                        }
+                    }
+                } catch (Throwable e) {
+                    falhas.add(e);
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        if (!falhas.isEmpty()) {
+            fail(falhas.peek());
+        }
+
+        int esperado = iniciais.size() + inseridos.get() - removidos.get();
+        assertEquals(esperado, service.tamanho());
+        repositorio.ler(tabela -> {
+            tabela.agregados().verificarConsistencia();
+            BigDecimal soma = base.somarSalarios(tabela.paraLista());
+            assertEquals(0, soma.compareTo(base.somarSalarios(tabela)));
+            assertEquals(esperado, tabela.paraLista().size());
+            return null;
+        });
+    }
+}
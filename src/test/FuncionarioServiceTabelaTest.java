@@ -0,0 +1,350 @@
+package service;
+import model.Funcionario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.IndiceNascimentos;
+import repository.TabelaFuncionarios;
+import util.CentavosUtil;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que as operações de {@link FuncionarioService}
+ * sobre {@link TabelaFuncionarios} produzem exatamente os mesmos
+ * resultados que as variantes sobre {@link List}.
+ */
+public class FuncionarioServiceTabelaTest {
+
+    private FuncionarioService service;
+    private List<Funcionario> funcionarios;
+    private TabelaFuncionarios tabela;
+
+    @BeforeEach
+    public void setUp() {
+        service = new FuncionarioService();
+        funcionarios = service.criarFuncionariosIniciais();
+        tabela = TabelaFuncionarios.de(funcionarios);
+    }
+
+    @Test
+    public void testTabelaPreservaDados() {
+        assertEquals(10, tabela.tamanho());
+        List<Funcionario> materializados = tabela.paraLista();
+        for (int i = 0; i < funcionarios.size(); i++) {
+            Funcionario esperado = funcionarios.get(i);
+            Funcionario obtido = materializados.get(i);
+            assertEquals(esperado.getNome(), obtido.getNome());
+            assertEquals(esperado.getDataNascimento(), obtido.getDataNascimento());
+            assertEquals(0, esperado.getSalario().compareTo(obtido.getSalario()));
+            assertEquals(esperado.getFuncao(), obtido.getFuncao());
+        }
+        assertEquals(7, tabela.funcoes().tamanho());
+    }
+
+    @Test
+    public void testSomarSalarios() {
+        assertEquals(0, service.somarSalarios(funcionarios).compareTo(service.somarSalarios(tabela)));
+    }
+
+    @Test
+    public void testAplicarAumentoPercentualIgualAoBigDecimal() {
+        for (String percentual : new String[]{"10", "3.333", "-7.5", "0.005", "12.3456789"}) {
+            List<Funcionario> lista = service.criarFuncionariosIniciais();
+            TabelaFuncionarios t = TabelaFuncionarios.de(lista);
+            service.aplicarAumentoPercentual(lista, new BigDecimal(percentual));
+            service.aplicarAumentoPercentual(t, new BigDecimal(percentual));
+            for (int linha = 0; linha < lista.size(); linha++) {
+                assertEquals(CentavosUtil.paraCentavos(lista.get(linha).getSalario()), t.salarioCentavos(linha),
+                        "percentual " + percentual + ", linha " + linha);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplicarHalfUpAleatorio() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long centavos = random.nextInt(100_000_000) - 50_000_000;
+            int escala = random.nextInt(9);
+            long fator = random.nextInt(2_000_000_000);
+            BigDecimal esperado = BigDecimal.valueOf(centavos, 2)
+                    .multiply(BigDecimal.valueOf(fator, escala))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(esperado.unscaledValue().longValueExact(),
+                    CentavosUtil.multiplicarHalfUp(centavos, fator, escala));
+        }
+    }
+
+    @Test
+    public void testAgruparPorFuncao() {
+        Map<String, List<Funcionario>> esperado = service.agruparPorFuncao(funcionarios);
+        Map<String, List<Funcionario>> obtido = service.agruparPorFuncao(tabela);
+        assertEquals(esperado.keySet(), obtido.keySet());
+        esperado.forEach((funcao, lista) -> assertEquals(
+                lista.stream().map(Funcionario::getNome).toList(),
+                obtido.get(funcao).stream().map(Funcionario::getNome).toList()));
+    }
+
+    @Test
+    public void testAniversariantesNosMeses() {
+        Set<Integer> meses = new HashSet<>(Arrays.asList(10, 12));
+        assertEquals(
+                service.aniversariantesNosMeses(funcionarios, meses).stream().map(Funcionario::getNome).toList(),
+                service.aniversariantesNosMeses(tabela, meses).stream().map(Funcionario::getNome).toList());
+    }
+
+    @Test
+    public void testFuncionarioMaisVelho() {
+        assertEquals("Caio", service.funcionarioMaisVelho(tabela).orElseThrow().getNome());
+        assertTrue(service.funcionarioMaisVelho(new TabelaFuncionarios()).isEmpty());
+    }
+
+    @Test
+    public void testDataEmpacotadaIgualALocalDate() {
+        for (int epochDay = -800_000; epochDay <= 800_000; epochDay += 13) {
+            LocalDate data = LocalDate.ofEpochDay(epochDay);
+            int empacotada = DataUtil.empacotar(epochDay);
+            assertEquals(data.getYear(), DataUtil.ano(empacotada));
+            assertEquals(data.getMonthValue(), DataUtil.mes(empacotada));
+            assertEquals(data.getDayOfMonth(), DataUtil.dia(empacotada));
+        }
+    }
+
+    @Test
+    public void testRemoverPorNomeIgnoraMaiusculasEAcentos() {
+        Optional<Funcionario> removido = service.removerPorNome(tabela, "HELOÍSA");
+        assertEquals("Heloísa", removido.orElseThrow().getNome());
+        assertEquals(9, tabela.tamanho());
+        assertTrue(service.buscarPorNome(tabela, "heloísa").isEmpty());
+        assertTrue(service.removerPorNome(tabela, "Heloísa").isEmpty());
+        assertEquals("João", service.buscarPorNome(tabela, "joão").orElseThrow().getNome());
+        assertFalse(tabela.paraLista().stream().anyMatch(f -> f.getNome().equals("Heloísa")));
+    }
+
+    @Test
+    public void testRemoverPorNomeNuloNaoRemoveNada() {
+        assertTrue(service.removerPorNome(tabela, null).isEmpty());
+        assertTrue(service.buscarPorNome(tabela, null).isEmpty());
+        assertEquals(10, tabela.tamanho());
+    }
+
+    @Test
+    public void testRemoverPorNomesIgualARemocaoIndividual() {
+        List<String> nomes = List.of("joão", "MARIA", "Inexistente", "caio", "Helena", "Alice", "Laura");
+        List<Funcionario> lista = service.criarFuncionariosIniciais();
+        for (String nome : nomes) {
+            service.removerPorNome(lista, nome);
+        }
+        List<Funcionario> removidos = service.removerPorNomes(tabela, nomes);
+        assertEquals(6, removidos.size());
+        // mais da metade das linhas foi removida: a tabela é compactada
+        assertEquals(0, tabela.quantidadeRemovidas());
+        assertEquals(lista.stream().map(Funcionario::getNome).toList(),
+                tabela.paraLista().stream().map(Funcionario::getNome).toList());
+        assertEquals("Heitor", service.buscarPorNome(tabela, "heitor").orElseThrow().getNome());
+        assertEquals(2, tabela.indiceNomes().primeiraLinha("Arthur"));
+    }
+
+    @Test
+    public void testIndiceComNomesRepetidos() {
+        tabela.adicionar("joão", LocalDate.of(1980, 1, 1), new BigDecimal("1000.00"), "Operador");
+        assertEquals(2, tabela.indiceNomes().linhas("JOÃO").length);
+        assertEquals("João", service.removerPorNome(tabela, "João").orElseThrow().getNome());
+        assertEquals(10, tabela.indiceNomes().primeiraLinha("João"));
+        assertEquals("joão", service.removerPorNome(tabela, "JOÃO").orElseThrow().getNome());
+        assertEquals(0, tabela.indiceNomes().linhas("joão").length);
+    }
+
+    @Test
+    public void testAniversariantesAposRemocaoECompactacao() {
+        Set<Integer> meses = new HashSet<>(Arrays.asList(10, 12));
+        service.aniversariantesNosMeses(tabela, meses);
+        service.removerPorNome(tabela, "Maria");
+        tabela.adicionar("Bruno", LocalDate.of(1985, 12, 1), new BigDecimal("2500.00"), "Operador");
+        assertEquals(List.of("Miguel", "Heloísa", "Helena", "Bruno"),
+                service.aniversariantesNosMeses(tabela, meses).stream().map(Funcionario::getNome).toList());
+        tabela.compactar();
+        assertEquals(List.of("Miguel", "Heloísa", "Helena", "Bruno"),
+                service.aniversariantesNosMeses(tabela, meses).stream().map(Funcionario::getNome).toList());
+    }
+
+    @Test
+    public void testAniversariantesNosProximosDias() {
+        Random random = new Random(7);
+        TabelaFuncionarios t = new TabelaFuncionarios();
+        List<LocalDate> nascimentos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate nascimento = i % 50 == 0
+                    ? LocalDate.of(1992, 2, 29)
+                    : LocalDate.ofEpochDay(random.nextInt(15_000) - 5_000);
+            nascimentos.add(nascimento);
+            t.adicionar("F" + i, nascimento, new BigDecimal("1000.00"), "Operador");
+        }
+        for (LocalDate referencia : List.of(LocalDate.of(2025, 2, 20), LocalDate.of(2024, 2, 27),
+                LocalDate.of(2025, 12, 25), LocalDate.of(2023, 6, 1))) {
+            for (int dias : new int[]{0, 1, 7, 30, 400}) {
+                List<String> esperados = new ArrayList<>();
+                for (int i = 0; i < nascimentos.size(); i++) {
+                    for (int d = 0; d < dias; d++) {
+                        LocalDate data = referencia.plusDays(d);
+                        LocalDate aniversario = nascimentos.get(i).withYear(data.getYear());
+                        if (aniversario.equals(data)) {
+                            esperados.add("F" + i);
+                            break;
+                        }
+                    }
+                }
+                assertEquals(esperados, service.aniversariantesNosProximosDias(t, referencia, dias)
+                        .stream().map(Funcionario::getNome).toList(), referencia + " + " + dias);
+            }
+        }
+    }
+
+    @Test
+    public void testIndiceDeNascimentosSobAlteracoes() {
+        Random random = new Random(13);
+        TabelaFuncionarios t = new TabelaFuncionarios();
+        LocalDate referencia = LocalDate.of(2025, 2, 28);
+        for (int rodada = 0; rodada < 20; rodada++) {
+            for (int i = 0; i < 300; i++) {
+                LocalDate nascimento = i % 37 == 0
+                        ? LocalDate.of(2000, 2, 29)
+                        : LocalDate.ofEpochDay(random.nextInt(20_000) - 8_000);
+                t.adicionar("F" + rodada + "-" + i, nascimento, new BigDecimal("1000.00"), "Operador");
+            }
+            for (int i = 0; i < 100; i++) {
+                int linha = random.nextInt(t.limite());
+                if (!t.removida(linha)) {
+                    t.remover(linha);
+                }
+            }
+            if (rodada % 5 == 4) {
+                t.compactar();
+            }
+            List<Funcionario> ordenados = new ArrayList<>(t.paraLista());
+            ordenados.sort(Comparator.comparing(Funcionario::getDataNascimento)); // estável
+            List<String> nomesOrdenados = ordenados.stream().map(Funcionario::getNome).toList();
+
+            assertEquals(nomesOrdenados.subList(0, 10), service.funcionariosMaisVelhos(t, 10)
+                    .stream().map(Funcionario::getNome).toList());
+            assertEquals(nomesOrdenados.get(0), service.funcionarioMaisVelho(t).orElseThrow().getNome());
+            assertEquals(ordenados.get(ordenados.size() - 1).getDataNascimento(),
+                    service.funcionariosMaisNovos(t, 1).get(0).getDataNascimento());
+
+            LocalDate corte = LocalDate.of(1975, 6, 15);
+            assertEquals(ordenados.stream().filter(f -> f.getDataNascimento().isBefore(corte)).count(),
+                    service.nascidosAntesDe(t, corte).size());
+
+            int[] idades = {18, 25, 35, 45, 55, 65};
+            int[] esperado = new int[idades.length + 1];
+            for (Funcionario f : ordenados) {
+                int idade = service.idadeEmAnos(f.getDataNascimento(), referencia);
+                int faixa = 0;
+                while (faixa < idades.length && idade >= idades[faixa]) {
+                    faixa++;
+                }
+                esperado[faixa]++;
+            }
+            assertArrayEquals(esperado, service.contarPorFaixaEtaria(t, referencia, idades));
+        }
+    }
+
+    @Test
+    public void testIndiceDeNascimentosComLeituraAposCadaAlteracao() {
+        Random random = new Random(19);
+        TabelaFuncionarios t = new TabelaFuncionarios();
+        for (int i = 0; i < 3_000; i++) {
+            t.adicionar("F" + i, LocalDate.ofEpochDay(random.nextInt(5_000)), new BigDecimal("1000.00"), "Operador");
+        }
+        IndiceNascimentos indice = t.indiceNascimentos();
+        for (int passo = 0; passo < 3_000; passo++) {
+            int linha = random.nextInt(t.limite());
+            if (random.nextBoolean() || t.removida(linha)) {
+                t.adicionar("N" + passo, LocalDate.ofEpochDay(random.nextInt(5_000)), new BigDecimal("1000.00"),
+                        "Operador");
+            } else {
+                t.remover(linha);
+            }
+            if (passo % 1_000 == 999) {
+                t.compactar();
+            }
+            // ordem esperada: por nascimento e, no empate, por linha
+            List<Integer> esperadas = new ArrayList<>();
+            for (int l = 0; l < t.limite(); l++) {
+                if (!t.removida(l)) {
+                    esperadas.add(l);
+                }
+            }
+            esperadas.sort(Comparator.comparingInt(t::nascimento));
+            int inicio = random.nextInt(5_000);
+            int fim = inicio + random.nextInt(500);
+            List<Integer> noIntervalo = esperadas.stream()
+                    .filter(l -> t.nascimento(l) >= inicio && t.nascimento(l) < fim).toList();
+
+            assertEquals(esperadas.size(), indice.tamanho());
+            assertEquals(esperadas.subList(0, 5), linhas(indice.maisVelhos(5)));
+            assertEquals(esperadas.get(esperadas.size() - 1), indice.maisNovos(1)[0]);
+            assertEquals(noIntervalo, linhas(indice.nascidosEntre(inicio, fim)));
+            assertEquals(noIntervalo.size(), indice.contarNascidosEntre(inicio, fim));
+            int posicao = random.nextInt(esperadas.size());
+            assertEquals(esperadas.get(posicao), indice.linha(posicao));
+        }
+    }
+
+    private static List<Integer> linhas(int[] linhas) {
+        return Arrays.stream(linhas).boxed().toList();
+    }
+
+    @Test
+    public void testOrdenarPorNomeComPrefixosLongosEmParalelo() {
+        // mais linhas que o limiar da ordenação paralela, com chaves que só diferem depois do oitavo byte
+        Random random = new Random(23);
+        String[] prefixos = {"Maria Aparecida ", "MARIA APARECIDA ", "Maria Aparecída ", "Mariana ", "Márcio "};
+        List<Funcionario> lista = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            lista.add(new Funcionario(prefixos[random.nextInt(prefixos.length)] + random.nextInt(5_000),
+                    LocalDate.ofEpochDay(i), new BigDecimal("1000.00"), "Operador"));
+        }
+        TabelaFuncionarios t = TabelaFuncionarios.de(lista);
+        assertEquals(descrever(service.ordenarPorNome(lista)), descrever(service.ordenarPorNome(t)));
+    }
+
+    private static List<String> descrever(List<Funcionario> funcionarios) {
+        return funcionarios.stream().map(f -> f.getNome() + ";" + f.getDataNascimento()).toList();
+    }
+
+    @Test
+    public void testOrdenarPorNomeMantidoSobAlteracoes() {
+        Random random = new Random(17);
+        String[] prefixos = {"Ana", "Ângela", "álvaro", "Bruno", "Érica", "Heloísa", "helena", "Zoë"};
+        assertEquals(service.ordenarPorNome(funcionarios).stream().map(Funcionario::getNome).toList(),
+                service.ordenarPorNome(tabela).stream().map(Funcionario::getNome).toList());
+        for (int rodada = 0; rodada < 10; rodada++) {
+            for (int i = 0; i < 500; i++) {
+                tabela.adicionar(prefixos[random.nextInt(prefixos.length)] + random.nextInt(50),
+                        LocalDate.of(1990, 1, 1), new BigDecimal("1000.00"), "Operador");
+            }
+            for (int i = 0; i < 200; i++) {
+                int linha = random.nextInt(tabela.limite());
+                if (!tabela.removida(linha)) {
+                    tabela.remover(linha);
+                }
+            }
+            if (rodada % 3 == 2) {
+                tabela.compactar();
+            }
+            List<Funcionario> ordenados = service.ordenarPorNome(tabela);
+            assertEquals(service.ordenarPorNome(tabela.paraLista()).stream().map(Funcionario::getNome).toList(),
+                    ordenados.stream().map(Funcionario::getNome).toList());
+        }
+        List<Funcionario> ordenados = service.ordenarPorNome(tabela);
+        service.removerPorNome(tabela, ordenados.get(0).getNome());
+        assertThrows(ConcurrentModificationException.class, () -> ordenados.get(0));
+    }
+}
@@ -48,6 +48,15 @@ public class FuncionarioServiceTest {
         assertFalse(funcionarios.stream().anyMatch(f -> f.getNome().equalsIgnoreCase("João")));
     }
 
+    @Test
+    public void testRemoverPorNomesEmLote() {
+        List<Funcionario> removidos = service.removerPorNomes(funcionarios, List.of("CAIO", "joão", "Ninguém"));
+        assertEquals(List.of("João", "Caio"), removidos.stream().map(Funcionario::getNome).toList());
+        assertEquals(8, funcionarios.size());
+        assertEquals("Maria", funcionarios.get(0).getNome());
+        assertEquals("Miguel", funcionarios.get(1).getNome());
+    }
+
     @Test
     public void testAplicarAumentoPercentual() {
         // Copia salário do primeiro funcionário
@@ -106,6 +115,16 @@ public class FuncionarioServiceTest {
         assertEquals("Miguel", ordenados.get(ordenados.size() - 1).getNome());
     }
 
+    @Test
+    public void testOrdenarPorNomeSegueRegrasDoPortugues() {
+        funcionarios.add(new Funcionario("Ângela", LocalDate.of(1980, 1, 1), new BigDecimal("1000.00"), "Operador"));
+        funcionarios.add(new Funcionario("érico", LocalDate.of(1980, 1, 1), new BigDecimal("1000.00"), "Operador"));
+        List<String> nomes = service.ordenarPorNome(funcionarios).stream().map(Funcionario::getNome).toList();
+        // Com String.compareTo, "Ângela" e "érico" ficariam depois de "Miguel"
+        assertEquals(List.of("Alice", "Ângela", "Arthur", "Caio", "érico", "Heitor", "Helena", "Heloísa",
+                "João", "Laura", "Maria", "Miguel"), nomes);
+    }
+
     @Test
     public void testSomarSalarios() {
         BigDecimal soma = service.somarSalarios(funcionarios);
@@ -0,0 +1,176 @@
+package particao;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import service.EstatisticasSalariais;
+import service.FuncionarioService;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de {@link FuncionariosParticionados}: com partições locais,
+ * remotas no mesmo processo ou em outro processo, as operações
+ * combinadas dão os mesmos resultados do {@link FuncionarioService}
+ * sobre uma única lista.
+ */
+public class FuncionariosParticionadosTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Gerente", "Diretor", "Recepcionista",
+            "Contador", "Eletricista"};
+    private static final Set<Integer> MESES = Set.of(2, 10, 12);
+    private static final BigDecimal[] FAIXAS = {new BigDecimal("2000"), new BigDecimal("8000")};
+
+    private static List<Funcionario> funcionarios(int quantidade, long semente) {
+        Random random = new Random(semente);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            funcionarios.add(new Funcionario("Funcionário " + i, LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000),
+                    BigDecimal.valueOf(100_000 + random.nextInt(2_000_000), 2), FUNCOES[random.nextInt(FUNCOES.length)]));
+        }
+        return funcionarios;
+    }
+
+    private static List<String> nomes(List<Funcionario> funcionarios) {
+        List<String> nomes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            nomes.add(f.getNome() + ";" + f.getDataNascimento() + ";" + f.getSalario() + ";" + f.getFuncao());
+        }
+        return nomes;
+    }
+
+    private static List<String> ordenados(List<Funcionario> funcionarios) {
+        List<String> nomes = nomes(funcionarios);
+        Collections.sort(nomes);
+        return nomes;
+    }
+
+    /**
+     * Compara todas as operações combinadas com as do serviço sobre a
+     * lista, antes e depois de um reajuste e de remoções.
+     */
+    private static void assertMesmosResultados(List<Funcionario> lista, FuncionariosParticionados particionados,
+                                               boolean gruposInteiros) {
+        FuncionarioService service = new FuncionarioService();
+        for (int rodada = 0; rodada < 2; rodada++) {
+            assertEquals(lista.size(), particionados.tamanho());
+            assertEquals(service.somarSalarios(lista), particionados.somarSalarios());
+            assertEquals(nomes(service.ordenarPorNome(lista)), nomes(particionados.ordenarPorNome()));
+            assertEquals(ordenados(service.aniversariantesNosMeses(lista, MESES)),
+                    ordenados(particionados.aniversariantesNosMeses(MESES)));
+            assertEquals(service.funcionarioMaisVelho(lista).orElseThrow().getDataNascimento(),
+                    particionados.funcionarioMaisVelho().orElseThrow().getDataNascimento());
+
+            Map<String, List<Funcionario>> esperados = service.agruparPorFuncao(lista);
+            Map<String, List<Funcionario>> grupos = particionados.agruparPorFuncao();
+            assertEquals(esperados.keySet(), grupos.keySet());
+            for (String funcao : esperados.keySet()) {
+                if (gruposInteiros) {
+                    // cada grupo vem inteiro de uma partição, na ordem de inserção
+                    assertEquals(nomes(esperados.get(funcao)), nomes(grupos.get(funcao)));
+                } else {
+                    assertEquals(ordenados(esperados.get(funcao)), ordenados(grupos.get(funcao)));
+                }
+            }
+
+            EstatisticasSalariais esperadas = service.estatisticasSalariais(lista, FAIXAS);
+            EstatisticasSalariais estatisticas = particionados.estatisticasSalariais(FAIXAS);
+            assertEquals(esperadas.geral().quantidade(), estatisticas.geral().quantidade());
+            assertEquals(esperadas.geral().soma(), estatisticas.geral().soma());
+            assertEquals(esperadas.geral().mediana(), estatisticas.geral().mediana());
+            assertArrayEquals(esperadas.geral().histograma(), estatisticas.geral().histograma());
+            assertEquals(esperadas.porFuncao().keySet(), estatisticas.porFuncao().keySet());
+
+            service.aplicarAumentoPercentual(lista, new BigDecimal("7.5"));
+            particionados.aplicarAumentoPercentual(new BigDecimal("7.5"));
+            for (String nome : List.of("Funcionário 3", "FUNCIONÁRIO 10", "Funcionário 20")) {
+                assertEquals(service.removerPorNome(lista, nome).map(Funcionario::getNome),
+                        particionados.removerPorNome(nome).map(Funcionario::getNome));
+            }
+            assertTrue(particionados.removerPorNome("Ninguém").isEmpty());
+            assertTrue(particionados.removerPorNome(null).isEmpty());
+        }
+    }
+
+    @Test
+    public void testParticoesLocaisPorFuncao() {
+        List<Funcionario> lista = funcionarios(20_000, 25);
+        List<Particao> particoes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            particoes.add(new ParticaoLocal());
+        }
+        try (FuncionariosParticionados particionados = new FuncionariosParticionados(particoes)) {
+            particionados.adicionarTodos(lista);
+            for (Funcionario f : lista) {
+                assertEquals(Math.floorMod(f.getFuncao().hashCode(), 4), particionados.particao(f));
+            }
+            particionados.adicionar(new Funcionario("Zuleica", LocalDate.of(1900, 1, 1), new BigDecimal("1.00"),
+                    "Operador"));
+            lista.add(new Funcionario("Zuleica", LocalDate.of(1900, 1, 1), new BigDecimal("1.00"), "Operador"));
+            assertEquals("Zuleica", particionados.funcionarioMaisVelho().orElseThrow().getNome());
+            assertMesmosResultados(lista, particionados, true);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new FuncionariosParticionados(List.of()));
+    }
+
+    @Test
+    public void testParticoesRemotasPorOutraChave() throws Exception {
+        List<Funcionario> lista = funcionarios(5_000, 26);
+        ParticaoLocal remota1 = new ParticaoLocal();
+        ParticaoLocal remota2 = new ParticaoLocal();
+        try (ServidorParticao servidor1 = new ServidorParticao(remota1, 0);
+             ServidorParticao servidor2 = new ServidorParticao(remota2, 0);
+             FuncionariosParticionados particionados = new FuncionariosParticionados(
+                     List.of(ParticaoRemota.local(servidor1.porta()), new ParticaoLocal(),
+                             ParticaoRemota.local(servidor2.porta())),
+                     f -> f.getNome().length())) {
+            particionados.adicionarTodos(lista);
+            assertTrue(remota1.tamanho() > 0);
+            assertTrue(remota2.tamanho() > 0);
+            assertMesmosResultados(lista, particionados, false);
+
+            // um argumento inválido é recusado sem comprometer a conexão
+            ParticaoRemota cliente = ParticaoRemota.local(servidor1.porta());
+            int tamanho = cliente.tamanho();
+            assertThrows(IllegalArgumentException.class, () -> cliente.adicionar(
+                    new Funcionario("Inválido", LocalDate.of(1990, 1, 1), new BigDecimal("1.001"), "Operador")));
+            assertThrows(IllegalArgumentException.class,
+                    () -> cliente.estatisticasSalariais(BigDecimal.TEN, BigDecimal.ONE));
+            assertEquals(tamanho, cliente.tamanho());
+            cliente.close();
+            assertThrows(UncheckedIOException.class, cliente::tamanho);
+        }
+    }
+
+    @Test
+    public void testParticaoEmOutroProcesso() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process processo = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ServidorParticao.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            BufferedReader saida = new BufferedReader(new InputStreamReader(processo.getInputStream()));
+            int porta = Integer.parseInt(saida.readLine().trim());
+            List<Funcionario> lista = funcionarios(3_000, 27);
+            try (FuncionariosParticionados particionados = new FuncionariosParticionados(
+                    List.of(new ParticaoLocal(), ParticaoRemota.local(porta)))) {
+                particionados.adicionarTodos(lista);
+                assertTrue(particionados.particoes().get(1).tamanho() > 0);
+                assertMesmosResultados(lista, particionados, true);
+            }
+            processo.getOutputStream().close();
+            assertTrue(processo.waitFor(30, TimeUnit.SECONDS));
+            assertEquals(0, processo.exitValue());
+        } finally {
+            processo.destroyForcibly();
+        }
+    }
+}
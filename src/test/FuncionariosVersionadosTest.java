@@ -0,0 +1,182 @@
+package repository;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import service.FuncionarioService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do conjunto versionado: versões publicadas nunca mudam,
+ * alterações copiam apenas os blocos que modificam e leitores
+ * concorrentes nunca veem um reajuste pela metade.
+ */
+public class FuncionariosVersionadosTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Gerente", "Diretor"};
+
+    private static Funcionario sortear(Random random, int i) {
+        return new Funcionario("Funcionário " + i,
+                LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000),
+                BigDecimal.valueOf(100_000 + random.nextInt(2_000_000), 2),
+                FUNCOES[random.nextInt(FUNCOES.length)]);
+    }
+
+    private static List<String> descrever(List<Funcionario> funcionarios) {
+        List<String> descricoes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            descricoes.add(f.getNome() + ";" + f.getDataNascimento() + ";"
+                    + f.getSalario().setScale(2).toPlainString() + ";" + f.getFuncao());
+        }
+        return descricoes;
+    }
+
+    @Test
+    public void testAlteracoesIguaisAsDeUmaLista() {
+        Random random = new Random(21);
+        List<Funcionario> esperado = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            esperado.add(sortear(random, i));
+        }
+        FuncionariosVersionados versionados = FuncionariosVersionados.de(esperado);
+        int proximo = esperado.size();
+        for (int rodada = 0; rodada < 40; rodada++) {
+            VersaoFuncionarios anterior = versionados.versaoAtual();
+            List<String> descricaoAnterior = descrever(anterior);
+            int operacoes = 1 + random.nextInt(rodada % 5 == 0 ? 3_000 : 20);
+            List<Funcionario> modelo = new ArrayList<>(esperado.size());
+            for (Funcionario f : esperado) {
+                modelo.add(new Funcionario(f.getNome(), f.getDataNascimento(), f.getSalario(), f.getFuncao()));
+            }
+            int inicio = proximo;
+            versionados.alterar(edicao -> {
+                int novo = inicio;
+                for (int i = 0; i < operacoes; i++) {
+                    int escolha = random.nextInt(10);
+                    if (escolha < 4 && edicao.tamanho() > 0) {
+                        int indice = random.nextInt(edicao.tamanho());
+                        assertEquals(modelo.remove(indice).getNome(), edicao.remover(indice).getNome());
+                    } else if (escolha < 7) {
+                        Funcionario f = sortear(random, novo++);
+                        modelo.add(f);
+                        edicao.adicionar(f);
+                    } else if (edicao.tamanho() > 0 && escolha < 9) {
+                        int indice = random.nextInt(edicao.tamanho());
+                        BigDecimal salario = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+                        modelo.get(indice).setSalario(salario);
+                        edicao.definirSalario(indice, salario);
+                    } else if (edicao.tamanho() > 0) {
+                        int indice = random.nextInt(edicao.tamanho());
+                        String funcao = "Função " + random.nextInt(6);
+                        modelo.get(indice).setFuncao(funcao);
+                        edicao.definirFuncao(indice, funcao);
+                    }
+                }
+                return null;
+            });
+            proximo += operacoes;
+            esperado = modelo;
+            VersaoFuncionarios atual = versionados.versaoAtual();
+            assertEquals(descricaoAnterior, descrever(anterior));
+            assertEquals(descrever(esperado), descrever(atual));
+            assertEquals(anterior.numero() + 1, atual.numero());
+            assertTrue(atual.quantidadeBlocos() <= esperado.size() / (VersaoFuncionarios.FUNCIONARIOS_POR_BLOCO / 4) + 2,
+                    "blocos: " + atual.quantidadeBlocos());
+        }
+    }
+
+    @Test
+    public void testVersoesCompartilhamBlocosNaoAlterados() {
+        Random random = new Random(4);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < 10 * VersaoFuncionarios.FUNCIONARIOS_POR_BLOCO; i++) {
+            funcionarios.add(sortear(random, i));
+        }
+        FuncionariosVersionados versionados = FuncionariosVersionados.de(funcionarios);
+        VersaoFuncionarios v1 = versionados.versaoAtual();
+        assertEquals(10, v1.quantidadeBlocos());
+
+        versionados.alterar(edicao -> {
+            edicao.definirSalario(5, new BigDecimal("1.00"));
+            edicao.definirSalario(6, new BigDecimal("2.00"));
+            return null;
+        });
+        VersaoFuncionarios v2 = versionados.versaoAtual();
+        assertEquals(9, v2.blocosEmComum(v1));
+        assertEquals(100, v2.salarioCentavos(5));
+        assertEquals(funcionarios.get(5).getSalario(), v1.get(5).getSalario());
+
+        // alteração sem mudanças não cria versão; alteração com erro não publica nada
+        versionados.alterar(edicao -> edicao.procurarPorNome("Ninguém"));
+        assertSame(v2, versionados.versaoAtual());
+        assertThrows(IllegalArgumentException.class, () -> versionados.alterar(edicao -> {
+            edicao.remover(0);
+            edicao.definirFuncao(1, "Nova função");
+            edicao.definirSalario(2, new BigDecimal("1.005"));
+            return null;
+        }));
+        assertSame(v2, versionados.versaoAtual());
+        versionados.alterar(edicao -> {
+            edicao.definirFuncao(0, "Outra função");
+            return null;
+        });
+        assertEquals("Outra função", versionados.versaoAtual().get(0).getFuncao());
+        assertEquals(funcionarios.get(1).getFuncao(), versionados.versaoAtual().get(1).getFuncao());
+
+        new FuncionarioService().aplicarAumentoPercentual(versionados, new BigDecimal("10"));
+        assertEquals(0, versionados.versaoAtual().blocosEmComum(v2));
+        assertThrows(UnsupportedOperationException.class, () -> v1.remove(0));
+    }
+
+    @Test
+    public void testLeitoresNuncaVeemReajustePelaMetade() throws InterruptedException {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            funcionarios.add(new Funcionario("F" + i, LocalDate.of(1990, 1, 1), new BigDecimal("1000.00"), FUNCOES[i % 4]));
+        }
+        FuncionariosVersionados versionados = FuncionariosVersionados.de(funcionarios);
+        FuncionarioService service = new FuncionarioService();
+        AtomicBoolean terminou = new AtomicBoolean();
+        AtomicReference<String> erro = new AtomicReference<>();
+        List<Thread> leitores = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            Thread leitor = new Thread(() -> {
+                long ultimaVersao = -1;
+                while (!terminou.get() && erro.get() == null) {
+                    VersaoFuncionarios versao = versionados.versaoAtual();
+                    if (versao.numero() < ultimaVersao) {
+                        erro.set("versão voltou de " + ultimaVersao + " para " + versao.numero());
+                    }
+                    ultimaVersao = versao.numero();
+                    long primeiro = versao.salarioCentavos(0);
+                    for (int i = 1; i < versao.size(); i++) {
+                        if (versao.salarioCentavos(i) != primeiro) {
+                            erro.set("versão " + versao.numero() + " mistura salários na posição " + i);
+                            break;
+                        }
+                    }
+                }
+            });
+            leitor.start();
+            leitores.add(leitor);
+        }
+        for (int i = 0; i < 20; i++) {
+            service.aplicarAumentoPercentual(versionados, new BigDecimal("1"));
+        }
+        terminou.set(true);
+        for (Thread leitor : leitores) {
+            leitor.join();
+        }
+        assertNull(erro.get());
+        List<Funcionario> referencia = new ArrayList<>(List.of(funcionarios.get(0)));
+        for (int i = 0; i < 20; i++) {
+            service.aplicarAumentoPercentual(referencia, new BigDecimal("1"));
+        }
+        assertEquals(referencia.get(0).getSalario(), versionados.versaoAtual().get(199_999).getSalario());
+    }
+}
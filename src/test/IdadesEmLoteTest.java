@@ -0,0 +1,119 @@
+package service;
+import org.junit.jupiter.api.Test;
+import repository.TabelaFuncionarios;
+import util.DataUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que o cálculo de idades sobre datas empacotadas,
+ * individual ou em lote, coincide com {@link Period#between}, inclusive
+ * para nascidos em 29 de fevereiro.
+ */
+public class IdadesEmLoteTest {
+
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Diretor", "Recepcionista"};
+
+    private static int empacotar(LocalDate data) {
+        return DataUtil.empacotar(data.getYear(), data.getMonthValue(), data.getDayOfMonth());
+    }
+
+    @Test
+    public void testIdadeIgualAoPeriod() {
+        FuncionarioService service = new FuncionarioService();
+        List<LocalDate> referencias = new ArrayList<>();
+        for (int ano : new int[]{1900, 1999, 2000, 2023, 2024, 2025, 2100}) {
+            referencias.add(LocalDate.of(ano, 2, 28));
+            referencias.add(LocalDate.of(ano, 3, 1));
+            referencias.add(LocalDate.of(ano, 12, 31));
+            referencias.add(LocalDate.of(ano, 1, 1));
+            if (DataUtil.bissexto(ano)) {
+                referencias.add(LocalDate.of(ano, 2, 29));
+            }
+        }
+        for (LocalDate referencia : referencias) {
+            for (LocalDate nascimento = LocalDate.of(1880, 1, 1); nascimento.getYear() < 2110;
+                 nascimento = nascimento.plusDays(3)) {
+                int esperado = Period.between(nascimento, referencia).getYears();
+                assertEquals(esperado, DataUtil.idadeEmAnos(empacotar(nascimento), empacotar(referencia)),
+                        nascimento + " em " + referencia);
+            }
+            for (int ano = 1880; ano < 2110; ano++) {
+                if (DataUtil.bissexto(ano)) {
+                    LocalDate nascimento = LocalDate.of(ano, 2, 29);
+                    assertEquals(Period.between(nascimento, referencia).getYears(),
+                            service.idadeEmAnos(nascimento, referencia), nascimento + " em " + referencia);
+                }
+            }
+        }
+        Random random = new Random(29);
+        for (int i = 0; i < 200_000; i++) {
+            LocalDate nascimento = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+            LocalDate referencia = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+            assertEquals(Period.between(nascimento, referencia).getYears(),
+                    service.idadeEmAnos(nascimento, referencia), nascimento + " em " + referencia);
+        }
+    }
+
+    @Test
+    public void testLoteIgualAoCalculoIndividual() {
+        FuncionarioService service = new FuncionarioService();
+        Random random = new Random(4);
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        for (int i = 0; i < 50_000; i++) {
+            LocalDate nascimento = i % 50 == 0
+                    ? LocalDate.of(1940 + 4 * random.nextInt(20), 2, 29)
+                    : LocalDate.ofEpochDay(random.nextInt(40_000) - 15_000);
+            tabela.adicionar("Funcionário " + i, nascimento, BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            tabela.remover(random.nextInt(tabela.limite()));
+        }
+        int[] limites = {18, 30, 45, 60, 65};
+        for (LocalDate referencia : List.of(LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 29),
+                LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1), LocalDate.of(1975, 6, 15))) {
+            IdadesEmLote idades = service.calcularIdades(tabela, referencia);
+            assertEquals(tabela.limite(), idades.idades().length);
+            Map<String, int[]> esperadoPorFuncao = new LinkedHashMap<>();
+            for (int linha = 0; linha < tabela.limite(); linha++) {
+                if (tabela.removida(linha)) {
+                    assertEquals(IdadesEmLote.SEM_IDADE, idades.idade(linha));
+                    continue;
+                }
+                LocalDate nascimento = LocalDate.ofEpochDay(tabela.nascimento(linha));
+                int idade = Period.between(nascimento, referencia).getYears();
+                assertEquals(idade, idades.idade(linha), nascimento + " em " + referencia);
+                int faixa = 0;
+                while (faixa < limites.length && idade >= limites[faixa]) {
+                    faixa++;
+                }
+                esperadoPorFuncao.computeIfAbsent(tabela.funcao(linha), f -> new int[limites.length + 1])[faixa]++;
+            }
+            assertArrayEquals(service.contarPorFaixaEtaria(tabela, referencia, limites),
+                    idades.contarPorFaixa(limites));
+            Map<String, int[]> porFuncao = idades.contarPorFuncaoEFaixa(limites);
+            assertEquals(esperadoPorFuncao.keySet(), porFuncao.keySet());
+            for (String funcao : esperadoPorFuncao.keySet()) {
+                assertArrayEquals(esperadoPorFuncao.get(funcao), porFuncao.get(funcao), funcao);
+            }
+        }
+    }
+
+    @Test
+    public void testContagemAposAlteracaoFalha() {
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        tabela.adicionar("Maria", LocalDate.of(2000, 10, 18), new BigDecimal("2009.44"), "Operador");
+        IdadesEmLote idades = IdadesEmLote.calcular(tabela, LocalDate.of(2026, 10, 17));
+        assertEquals(25, idades.idade(0));
+        assertArrayEquals(new int[]{0, 1}, idades.contarPorFaixa(18));
+        assertThrows(IllegalArgumentException.class, () -> idades.contarPorFaixa(30, 18));
+        tabela.definirFuncao(0, "Diretor");
+        assertThrows(ConcurrentModificationException.class, () -> idades.contarPorFaixa(18));
+    }
+}
@@ -0,0 +1,147 @@
+package repository;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import service.FuncionarioService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da lista fora do heap: os métodos de
+ * {@link FuncionarioService} que recebem listas devem produzir sobre
+ * ela os mesmos resultados que sobre uma lista de objetos comuns.
+ */
+public class ListaFuncionariosForaDoHeapTest {
+
+    private static final String[] NOMES = {"Maria", "João", "Heloísa", "ÂNGELO", "Zoë", "Łukasz", "Jiří", "Caio"};
+    private static final String[] FUNCOES = {"Operador", "Coordenador", "Gerente", "Diretor"};
+
+    private static List<Funcionario> gerar(Random random, int quantidade) {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            funcionarios.add(new Funcionario(NOMES[random.nextInt(NOMES.length)] + " " + random.nextInt(quantidade),
+                    LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000),
+                    BigDecimal.valueOf(100_000 + random.nextInt(2_000_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]));
+        }
+        return funcionarios;
+    }
+
+    private static List<String> descrever(Collection<? extends Funcionario> funcionarios) {
+        List<String> descricoes = new ArrayList<>();
+        for (Funcionario f : funcionarios) {
+            descricoes.add(f.getNome() + ";" + f.getDataNascimento() + ";"
+                    + f.getSalario().setScale(2).toPlainString() + ";" + f.getFuncao());
+        }
+        return descricoes;
+    }
+
+    @Test
+    public void testServicoProduzOsMesmosResultados() {
+        FuncionarioService service = new FuncionarioService();
+        Random random = new Random(20);
+        List<Funcionario> comum = gerar(random, 20_000);
+        ListaFuncionariosForaDoHeap foraDoHeap = ListaFuncionariosForaDoHeap.de(comum);
+        assertEquals(descrever(comum), descrever(foraDoHeap));
+
+        service.aplicarAumentoPercentual(comum, new BigDecimal("10"));
+        service.aplicarAumentoPercentual(foraDoHeap, new BigDecimal("10"));
+        assertEquals(descrever(comum), descrever(foraDoHeap));
+
+        assertEquals(0, service.somarSalarios(comum).compareTo(service.somarSalarios(foraDoHeap)));
+        assertEquals(descrever(service.ordenarPorNome(comum)), descrever(service.ordenarPorNome(foraDoHeap)));
+        assertEquals(descrever(service.aniversariantesNosMeses(comum, Set.of(10, 12))),
+                descrever(service.aniversariantesNosMeses(foraDoHeap, Set.of(10, 12))));
+        assertEquals(descrever(List.of(service.funcionarioMaisVelho(comum).orElseThrow())),
+                descrever(List.of(service.funcionarioMaisVelho(foraDoHeap).orElseThrow())));
+        Map<String, List<Funcionario>> gruposComuns = service.agruparPorFuncao(comum);
+        Map<String, List<Funcionario>> gruposForaDoHeap = service.agruparPorFuncao(foraDoHeap);
+        assertEquals(gruposComuns.keySet(), gruposForaDoHeap.keySet());
+        for (String funcao : gruposComuns.keySet()) {
+            assertEquals(descrever(gruposComuns.get(funcao)), descrever(gruposForaDoHeap.get(funcao)));
+        }
+        BigDecimal minimo = new BigDecimal("1212.00");
+        assertArrayEquals(service.salariosMinimosQueRecebem(comum, minimo).centesimos(0),
+                service.salariosMinimosQueRecebem(foraDoHeap, minimo).centesimos(0));
+
+        for (int i = 0; i < 50; i++) {
+            String nome = comum.get(random.nextInt(comum.size())).getNome().toUpperCase();
+            assertEquals(descrever(service.removerPorNome(comum, nome).stream().toList()),
+                    descrever(service.removerPorNome(foraDoHeap, nome).stream().toList()));
+        }
+        List<String> nomes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            nomes.add(comum.get(random.nextInt(comum.size())).getNome());
+        }
+        assertEquals(descrever(service.removerPorNomes(comum, nomes)), descrever(service.removerPorNomes(foraDoHeap, nomes)));
+        assertEquals(descrever(comum), descrever(foraDoHeap));
+        // a remoção em lote reinclui os registros mantidos, sem copiá-los
+        assertEquals(20_000, foraDoHeap.registrosOcupados());
+    }
+
+    @Test
+    public void testIdentidadeDosRegistrosECompactacao() {
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(gerar(new Random(3), 1_000));
+        for (int linha = 0; linha < tabela.limite(); linha += 3) {
+            tabela.remover(linha);
+        }
+        ListaFuncionariosForaDoHeap lista = ListaFuncionariosForaDoHeap.de(tabela);
+        assertEquals(descrever(tabela.paraLista()), descrever(lista));
+
+        FuncionarioForaDoHeap primeiro = lista.get(0);
+        assertEquals(primeiro, lista.get(0));
+        primeiro.setSalario(new BigDecimal("4321.10"));
+        primeiro.setFuncao("Presidente");
+        assertEquals(new BigDecimal("4321.10"), lista.get(0).getSalario());
+        assertEquals("Presidente", lista.get(0).getFuncao());
+        assertThrows(IllegalArgumentException.class, () -> primeiro.setSalario(new BigDecimal("1.005")));
+
+        FuncionarioForaDoHeap removido = lista.remove(0);
+        assertEquals("Presidente", removido.getFuncao());
+        lista.add(removido);
+        assertEquals(removido, lista.get(lista.size() - 1));
+        assertEquals(lista.size(), lista.registrosOcupados());
+        lista.add(removido.copiar());
+        assertEquals(lista.size(), lista.registrosOcupados());
+        assertNotEquals(lista.get(lista.size() - 2), lista.get(lista.size() - 1));
+
+        List<String> antes = descrever(lista.subList(100, lista.size()));
+        lista.subList(0, 100).clear();
+        long ocupadosAntes = lista.bytesOcupadosForaDoHeap();
+        lista.compactar();
+        assertEquals(antes, descrever(lista));
+        assertEquals(lista.size(), lista.registrosOcupados());
+        assertTrue(lista.bytesOcupadosForaDoHeap() < ocupadosAntes);
+        assertThrows(IllegalStateException.class, removido::getNome);
+
+        String longo = "a".repeat(ArenaNomes.TAMANHO_MAXIMO_NOME + 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> lista.add(new Funcionario(longo, LocalDate.of(2000, 1, 1), BigDecimal.ONE, "Operador")));
+        assertThrows(IllegalArgumentException.class,
+                () -> lista.add(new Funcionario(null, LocalDate.of(2000, 1, 1), BigDecimal.ONE, "Operador")));
+    }
+
+    @Test
+    public void testNomesOcupamUmByteQuandoPossivel() {
+        ArenaNomes arena = new ArenaNomes(0);
+        long heloisa = arena.gravar("Heloísa");
+        long lukasz = arena.gravar("Łukasz");
+        assertEquals(7 + 12, arena.bytesUsados());
+        assertEquals("Heloísa", arena.ler(heloisa));
+        assertEquals("Łukasz", arena.ler(lukasz));
+        assertEquals('Ł', arena.caractere(lukasz, 0));
+        assertEquals(7, ArenaNomes.tamanho(heloisa));
+        // nomes suficientes para ocupar vários blocos
+        List<Long> referencias = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            referencias.add(arena.gravar("Funcionário número " + i + " ".repeat(i % 97)));
+        }
+        assertTrue(arena.bytesReservados() > 1 << 24);
+        for (int i = 0; i < referencias.size(); i += 997) {
+            assertEquals("Funcionário número " + i + " ".repeat(i % 97), arena.ler(referencias.get(i)));
+        }
+    }
+}
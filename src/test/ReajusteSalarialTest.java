@@ -0,0 +1,92 @@
+package service;
+import org.junit.jupiter.api.Test;
+import repository.TabelaFuncionarios;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do motor de reajuste em lote {@link ReajusteSalarial}.
+ * Verificam a equivalência com o cálculo em {@link BigDecimal}, o
+ * reajuste por função e a ausência de alocação por funcionário.
+ */
+public class ReajusteSalarialTest {
+
+    private static final String[] FUNCOES = {"Operador", "Gerente", "Diretor", "Estagiário"};
+
+    private static TabelaFuncionarios gerarTabela(int tamanho, long semente) {
+        Random random = new Random(semente);
+        TabelaFuncionarios tabela = new TabelaFuncionarios(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            tabela.adicionar("F" + i,
+                    LocalDate.ofEpochDay(random.nextInt(20_000) - 5_000),
+                    BigDecimal.valueOf(100_000 + random.nextInt(5_000_000), 2),
+                    FUNCOES[random.nextInt(FUNCOES.length)]);
+        }
+        return tabela;
+    }
+
+    private static long reajusteEsperado(long centavos, BigDecimal percentual) {
+        BigDecimal fator = BigDecimal.ONE.add(percentual.divide(new BigDecimal("100")));
+        return BigDecimal.valueOf(centavos, 2).multiply(fator)
+                .setScale(2, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    @Test
+    public void testReajusteParaleloIgualAoBigDecimal() {
+        TabelaFuncionarios tabela = gerarTabela(200_000, 1);
+        long[] originais = new long[tabela.tamanho()];
+        for (int linha = 0; linha < originais.length; linha++) {
+            originais[linha] = tabela.salarioCentavos(linha);
+        }
+        BigDecimal percentual = new BigDecimal("7.345");
+        new ReajusteSalarial(percentual).comLimiarSequencial(1_000).aplicar(tabela);
+        for (int linha = 0; linha < originais.length; linha++) {
+            assertEquals(reajusteEsperado(originais[linha], percentual), tabela.salarioCentavos(linha));
+        }
+    }
+
+    @Test
+    public void testReajustePorFuncao() {
+        TabelaFuncionarios tabela = gerarTabela(10_000, 2);
+        long[] originais = new long[tabela.tamanho()];
+        for (int linha = 0; linha < originais.length; linha++) {
+            originais[linha] = tabela.salarioCentavos(linha);
+        }
+        Map<String, BigDecimal> percentuais = Map.of(
+                "Gerente", new BigDecimal("5"),
+                "Diretor", new BigDecimal("2.5"),
+                // fator com escala acima de 18 casas exige o caminho em BigDecimal
+                "Estagiário", new BigDecimal("1.00000000000000000001"));
+        new FuncionarioService().aplicarAumentoPorFuncao(tabela, percentuais);
+        for (int linha = 0; linha < originais.length; linha++) {
+            BigDecimal percentual = percentuais.get(tabela.funcao(linha));
+            long esperado = percentual == null ? originais[linha] : reajusteEsperado(originais[linha], percentual);
+            assertEquals(esperado, tabela.salarioCentavos(linha));
+        }
+    }
+
+    @Test
+    public void testReajusteNaoAlocaPorFuncionario() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TabelaFuncionarios tabela = gerarTabela(1_000_000, 3);
+        ReajusteSalarial reajuste = new ReajusteSalarial(new BigDecimal("0.1"))
+                .comLimiarSequencial(Integer.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            reajuste.aplicar(tabela); // aquecimento do JIT
+        }
+        long antes = threads.getCurrentThreadAllocatedBytes();
+        reajuste.aplicar(tabela);
+        long alocados = threads.getCurrentThreadAllocatedBytes() - antes;
+        double porFuncionario = (double) alocados / tabela.tamanho();
+        assertTrue(porFuncionario < 0.01, "bytes alocados por funcionário: " + porFuncionario);
+    }
+}
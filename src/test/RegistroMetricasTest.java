@@ -0,0 +1,161 @@
+package metricas;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.TabelaFuncionarios;
+import service.FuncionarioService;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link RegistroMetricas}, da instrumentação do
+ * {@link FuncionarioService} e dos eventos do JDK Flight Recorder.
+ */
+public class RegistroMetricasTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void testDesativadoNaoRegistraNada() {
+        RegistroMetricas registro = new RegistroMetricas(false);
+        assertSame(Medicao.INATIVA, registro.medir(Operacao.SOMAR_SALARIOS, 10));
+
+        FuncionarioService service = new FuncionarioService(registro);
+        List<Funcionario> funcionarios = service.criarFuncionariosIniciais();
+        service.somarSalarios(funcionarios);
+        service.removerPorNome(funcionarios, "João");
+        for (Operacao operacao : Operacao.values()) {
+            assertEquals(0, registro.metrica(operacao).getChamadas());
+        }
+    }
+
+    @Test
+    public void testRegistraChamadasETamanhos() {
+        RegistroMetricas registro = new RegistroMetricas(true);
+        FuncionarioService service = new FuncionarioService(registro);
+        List<Funcionario> funcionarios = service.criarFuncionariosIniciais();
+        TabelaFuncionarios tabela = TabelaFuncionarios.de(funcionarios);
+
+        service.removerPorNome(funcionarios, "João");
+        service.removerPorNomes(tabela, List.of("João", "Caio"));
+        service.aplicarAumentoPercentual(funcionarios, new BigDecimal("10"));
+        service.aplicarAumentoPercentual(tabela, new BigDecimal("10"));
+        service.agruparPorFuncao(tabela);
+        funcionarios.forEach(f -> service.salariosMinimosQueRecebe(f, new BigDecimal("1212.00")));
+
+        assertEquals(1, registro.metrica(Operacao.REMOVER_POR_NOME).getChamadas());
+        assertEquals(10, registro.metrica(Operacao.REMOVER_POR_NOME).getTamanhoTotal());
+        // a remoção em lote não conta cada nome como uma remoção avulsa
+        assertEquals(1, registro.metrica(Operacao.REMOVER_POR_NOMES).getChamadas());
+        assertEquals(2, registro.metrica(Operacao.APLICAR_AUMENTO).getChamadas());
+        assertEquals(9 + 8, registro.metrica(Operacao.APLICAR_AUMENTO).getTamanhoTotal());
+        assertEquals(1, registro.metrica(Operacao.AGRUPAR_POR_FUNCAO).getChamadas());
+        assertEquals(9, registro.metrica(Operacao.SALARIOS_MINIMOS).getChamadas());
+
+        MetricaOperacao aumento = registro.metrica(Operacao.APLICAR_AUMENTO);
+        assertTrue(aumento.getNanosTotais() > 0);
+        assertTrue(aumento.percentilNanos(100) >= aumento.getNanosMaximo());
+        assertEquals(2L, registro.getChamadas().get("aplicarAumento"));
+
+        String resumo = registro.resumo();
+        assertTrue(resumo.contains("aplicarAumento"));
+        assertFalse(resumo.contains("ordenarPorNome"));
+
+        registro.zerar();
+        assertEquals(0, registro.metrica(Operacao.APLICAR_AUMENTO).getChamadas());
+        assertEquals(0, registro.metrica(Operacao.APLICAR_AUMENTO).getNanosMaximo());
+    }
+
+    @Test
+    public void testPercentisPorFaixasDePotenciaDeDois() {
+        MetricaOperacao metrica = new MetricaOperacao(Operacao.ORDENAR_POR_NOME);
+        assertEquals(0, metrica.percentilNanos(50));
+        for (int i = 0; i < 90; i++) {
+            metrica.registrar(100, 1, -1);
+        }
+        for (int i = 0; i < 10; i++) {
+            metrica.registrar(5_000, 1, -1);
+        }
+        // 100 ns cai na faixa de 64 a 127 ns; 5000 ns, na de 4096 a 8191 ns
+        assertEquals(127, metrica.percentilNanos(50));
+        assertEquals(127, metrica.percentilNanos(90));
+        assertEquals(8191, metrica.percentilNanos(99));
+        assertEquals(5_000, metrica.getNanosMaximo());
+        assertEquals(0, metrica.getBytesAlocados());
+        assertThrows(IllegalArgumentException.class, () -> metrica.percentilNanos(101));
+    }
+
+    @Test
+    public void testEventosDoFlightRecorder() throws Exception {
+        FuncionarioService service = new FuncionarioService(new RegistroMetricas(false));
+        Path arquivo = pasta.resolve("gravacao.jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable("projedata.Reajuste");
+            gravacao.enable("projedata.Remocao");
+            gravacao.enable("projedata.Agrupamento");
+            gravacao.start();
+
+            List<Funcionario> funcionarios = service.criarFuncionariosIniciais();
+            service.removerPorNome(funcionarios, "João");
+            service.removerPorNome(funcionarios, "Ninguém");
+            TabelaFuncionarios tabela = TabelaFuncionarios.de(funcionarios);
+            service.aplicarAumentoPercentual(tabela, new BigDecimal("10"));
+            service.aplicarAumentoPorFuncao(tabela, Map.of("Operador", new BigDecimal("5")));
+            int funcoes = service.agruparPorFuncao(funcionarios).size();
+
+            gravacao.stop();
+            gravacao.dump(arquivo);
+            assertEquals(funcoes, eventosDe(arquivo, "projedata.Agrupamento").get(0).getInt("grupos"));
+        }
+        Map<String, List<RecordedEvent>> eventos = RecordingFile.readAllEvents(arquivo).stream()
+                .filter(e -> e.getEventType().getName().startsWith("projedata."))
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+        assertEquals(Set.of("projedata.Reajuste", "projedata.Remocao", "projedata.Agrupamento"), eventos.keySet());
+
+        List<RecordedEvent> remocoes = eventos.get("projedata.Remocao");
+        assertEquals(2, remocoes.size());
+        assertEquals(1, remocoes.get(0).getInt("removidos"));
+        assertEquals(10, remocoes.get(0).getLong("funcionarios"));
+        assertEquals(0, remocoes.get(1).getInt("removidos"));
+
+        List<RecordedEvent> reajustes = eventos.get("projedata.Reajuste");
+        assertEquals(2, reajustes.size());
+        assertEquals("10", reajustes.get(0).getString("percentual"));
+        assertNull(reajustes.get(1).getString("percentual"));
+        assertEquals(9, reajustes.get(1).getLong("funcionarios"));
+
+        assertEquals(9, eventos.get("projedata.Agrupamento").get(0).getLong("funcionarios"));
+    }
+
+    private static List<RecordedEvent> eventosDe(Path arquivo, String tipo) throws IOException {
+        return RecordingFile.readAllEvents(arquivo).stream()
+                .filter(e -> e.getEventType().getName().equals(tipo))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testExpostoViaJmx() throws Exception {
+        RegistroMetricas registro = RegistroMetricas.global();
+        registro.registrarNoJmx();
+        registro.registrarNoJmx();
+        ObjectName nome = new ObjectName(RegistroMetricas.NOME_JMX);
+        var servidor = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(servidor.isRegistered(nome));
+        assertEquals(registro.isAtivo(), servidor.getAttribute(nome, "Ativo"));
+        assertNotNull(servidor.getAttribute(nome, "Resumo"));
+    }
+}
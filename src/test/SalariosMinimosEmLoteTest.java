@@ -0,0 +1,99 @@
+package service;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import repository.TabelaFuncionarios;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes que garantem que o cálculo em lote de salários mínimos
+ * recebidos coincide, posição a posição, com a divisão
+ * {@link BigDecimal#divide(BigDecimal, int, RoundingMode)} feita por
+ * {@link FuncionarioService#salariosMinimosQueRecebe(Funcionario, BigDecimal)}.
+ */
+public class SalariosMinimosEmLoteTest {
+
+    private static final BigDecimal[] MINIMOS = {
+            new BigDecimal("998.00"), new BigDecimal("1045"), new BigDecimal("1100.0"),
+            new BigDecimal("1212.00"), new BigDecimal("1320.00"), new BigDecimal("0.03"),
+            new BigDecimal("1412.345"), new BigDecimal("-7.00")
+    };
+
+    @Test
+    public void testListaIgualAoCalculoIndividual() {
+        FuncionarioService service = new FuncionarioService();
+        Random random = new Random(12);
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal salario = switch (i % 10) {
+                case 0 -> BigDecimal.valueOf(random.nextLong() % 100_000_000, 3);
+                case 1 -> BigDecimal.valueOf(random.nextInt(100_000));
+                case 2 -> new BigDecimal("1000000000000000.00").add(BigDecimal.valueOf(random.nextInt(100)));
+                default -> BigDecimal.valueOf(random.nextInt(10_000_000) - 1_000, 2);
+            };
+            funcionarios.add(new Funcionario("Funcionário " + i, LocalDate.of(1990, 1, 1), salario, "Operador"));
+        }
+        SalariosMinimosEmLote lote = service.salariosMinimosQueRecebem(funcionarios, MINIMOS);
+        assertEquals(MINIMOS.length, lote.quantidadeReferencias());
+        assertEquals(funcionarios.size(), lote.tamanho());
+        for (int r = 0; r < MINIMOS.length; r++) {
+            assertSame(MINIMOS[r], lote.salarioMinimo(r));
+            for (int i = 0; i < funcionarios.size(); i++) {
+                Funcionario f = funcionarios.get(i);
+                BigDecimal esperado = service.salariosMinimosQueRecebe(f, MINIMOS[r]);
+                assertEquals(esperado, lote.quantidade(r, i), f.getSalario() + " / " + MINIMOS[r]);
+                assertEquals(esperado.unscaledValue().longValueExact(), lote.centesimos(r)[i]);
+            }
+        }
+        // exatamente na metade entre dois centésimos: 1,005 e -1,005 salário mínimo
+        SalariosMinimosEmLote meio = SalariosMinimosEmLote.calcular(List.of(
+                new Funcionario("Meio", LocalDate.of(1990, 1, 1), new BigDecimal("2010.00"), "Operador"),
+                new Funcionario("Negativo", LocalDate.of(1990, 1, 1), new BigDecimal("-2010.00"), "Operador")),
+                new BigDecimal("2000.00"));
+        assertEquals(new BigDecimal("1.01"), meio.quantidade(0, 0));
+        assertEquals(new BigDecimal("-1.01"), meio.quantidade(0, 1));
+    }
+
+    @Test
+    public void testTabelaIgualAoCalculoIndividual() {
+        FuncionarioService service = new FuncionarioService();
+        Random random = new Random(5);
+        TabelaFuncionarios tabela = new TabelaFuncionarios();
+        for (int i = 0; i < 80_000; i++) {
+            tabela.adicionar("Funcionário " + i, LocalDate.of(1990, 1, 1),
+                    BigDecimal.valueOf(random.nextInt(5_000_000), 2), "Operador");
+        }
+        for (int i = 0; i < 1_000; i++) {
+            tabela.remover(random.nextInt(tabela.limite()));
+        }
+        SalariosMinimosEmLote lote = service.salariosMinimosQueRecebem(tabela, MINIMOS);
+        assertEquals(tabela.limite(), lote.tamanho());
+        for (int r = 0; r < MINIMOS.length; r++) {
+            for (int linha = 0; linha < tabela.limite(); linha++) {
+                if (tabela.removida(linha)) {
+                    assertEquals(0, lote.centesimos(r, linha));
+                } else {
+                    assertEquals(service.salariosMinimosQueRecebe(tabela.funcionario(linha), MINIMOS[r]),
+                            lote.quantidade(r, linha));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSalarioMinimoInvalido() {
+        List<Funcionario> funcionarios = new FuncionarioService().criarFuncionariosIniciais();
+        assertThrows(IllegalArgumentException.class, () -> SalariosMinimosEmLote.calcular(funcionarios));
+        assertThrows(IllegalArgumentException.class,
+                () -> SalariosMinimosEmLote.calcular(funcionarios, new BigDecimal("0.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> SalariosMinimosEmLote.calcular(funcionarios, BigDecimal.TEN, null));
+    }
+}